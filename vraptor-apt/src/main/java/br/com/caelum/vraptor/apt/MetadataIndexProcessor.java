@@ -0,0 +1,367 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.apt;
+
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+import static javax.lang.model.util.ElementFilter.methodsIn;
+import static javax.tools.Diagnostic.Kind.ERROR;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import br.com.caelum.vraptor.controller.HttpMethod;
+import br.com.caelum.vraptor.index.IndexedMethod;
+import br.com.caelum.vraptor.index.MetadataIndex;
+
+/**
+ * Writes the {@link MetadataIndex} of the controllers being compiled, so VRaptor doesn't need to
+ * read their bytecode for parameter names nor reflect their route annotations on startup. It also
+ * fails the compilation on mistakes VRaptor would only find on startup: paths given both on
+ * {@code @Path} and on an http method annotation, cycles among {@code @Intercepts} before and after,
+ * and {@code @Convert} or {@code @Deserializes} on classes that aren't converters or deserializers.
+ * <p>
+ * The index only has the controllers of a compilation, so incremental builds that compile some
+ * controllers alone leave the others to be discovered as usual. Methods whose signature changed
+ * since the index was written are discovered as usual too.
+ */
+@SupportedAnnotationTypes({ MetadataIndexProcessor.CONTROLLER, MetadataIndexProcessor.INTERCEPTS,
+		MetadataIndexProcessor.CONVERT, MetadataIndexProcessor.DESERIALIZES })
+public class MetadataIndexProcessor extends AbstractProcessor {
+
+	static final String CONTROLLER = "br.com.caelum.vraptor.Controller";
+	static final String INTERCEPTS = "br.com.caelum.vraptor.Intercepts";
+	static final String CONVERT = "br.com.caelum.vraptor.Convert";
+	static final String DESERIALIZES = "br.com.caelum.vraptor.serialization.Deserializes";
+
+	private static final String PATH = "br.com.caelum.vraptor.Path";
+	private static final String NAMED = "javax.inject.Named";
+	private static final String CONVERTER = "br.com.caelum.vraptor.converter.Converter";
+	private static final String DESERIALIZER = "br.com.caelum.vraptor.serialization.Deserializer";
+
+	private final Map<String, IndexedMethod> methods = new LinkedHashMap<>();
+	private final Map<String, Set<String>> interceptorEdges = new LinkedHashMap<>();
+	private final Map<String, Element> interceptors = new LinkedHashMap<>();
+
+	private Elements elements;
+	private Types types;
+
+	@Override
+	public synchronized void init(ProcessingEnvironment processingEnv) {
+		super.init(processingEnv);
+		elements = processingEnv.getElementUtils();
+		types = processingEnv.getTypeUtils();
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+		for (TypeElement annotation : annotations) {
+			String name = annotation.getQualifiedName().toString();
+			for (Element element : round.getElementsAnnotatedWith(annotation)) {
+				if (!(element instanceof TypeElement)) {
+					continue;
+				}
+				TypeElement type = (TypeElement) element;
+				if (name.equals(CONTROLLER)) {
+					indexController(type);
+				} else if (name.equals(INTERCEPTS)) {
+					addInterceptor(type);
+				} else if (name.equals(CONVERT)) {
+					checkSubtype(type, CONVERTER, "@Convert");
+				} else if (name.equals(DESERIALIZES)) {
+					checkSubtype(type, DESERIALIZER, "@Deserializes");
+				}
+			}
+		}
+
+		if (round.processingOver()) {
+			checkInterceptorCycles();
+			writeIndex();
+		}
+		return false;
+	}
+
+	private void indexController(TypeElement controller) {
+		String declaringClass = elements.getBinaryName(controller).toString();
+		for (ExecutableElement method : methodsIn(controller.getEnclosedElements())) {
+			if (!method.getModifiers().contains(PUBLIC) || method.getModifiers().contains(STATIC)) {
+				continue;
+			}
+			List<String> parameterTypes = new ArrayList<>();
+			List<String> parameterNames = new ArrayList<>();
+			for (VariableElement parameter : method.getParameters()) {
+				parameterTypes.add(binaryName(parameter.asType()));
+				parameterNames.add(nameOf(parameter));
+			}
+
+			EnumSet<HttpMethod> httpMethods = EnumSet.noneOf(HttpMethod.class);
+			List<String> uris = null;
+			boolean hasPath = false;
+			for (AnnotationMirror mirror : method.getAnnotationMirrors()) {
+				String annotation = nameOf(mirror);
+				hasPath |= annotation.equals(PATH);
+				HttpMethod httpMethod = httpMethodOf(annotation);
+				if (httpMethod != null) {
+					httpMethods.add(httpMethod);
+					if (uris == null) {
+						uris = stringsOf(mirror, "value");
+					}
+				}
+			}
+			if (uris == null) {
+				uris = Collections.emptyList();
+			}
+			if (hasPath && !uris.isEmpty()) {
+				error(method, "You should specify paths either in @Path(\"/path\") or @Get(\"/path\") "
+						+ "(or @Post, @Put, @Delete), not both");
+				continue;
+			}
+
+			String key = IndexedMethod.keyOf(declaringClass, method.getSimpleName().toString(), parameterTypes);
+			methods.put(key, new IndexedMethod(key, toArray(parameterNames), httpMethods, toArray(uris)));
+		}
+	}
+
+	private void addInterceptor(TypeElement interceptor) {
+		String name = elements.getBinaryName(interceptor).toString();
+		interceptors.put(name, interceptor);
+		for (AnnotationMirror mirror : interceptor.getAnnotationMirrors()) {
+			if (nameOf(mirror).equals(INTERCEPTS)) {
+				for (String before : typesOf(mirror, "before")) {
+					edgesOf(name).add(before);
+				}
+				for (String after : typesOf(mirror, "after")) {
+					edgesOf(after).add(name);
+				}
+			}
+		}
+	}
+
+	private Set<String> edgesOf(String interceptor) {
+		Set<String> edges = interceptorEdges.get(interceptor);
+		if (edges == null) {
+			edges = new LinkedHashSet<>();
+			interceptorEdges.put(interceptor, edges);
+		}
+		return edges;
+	}
+
+	private void checkInterceptorCycles() {
+		Set<String> visited = new HashSet<>();
+		for (String interceptor : interceptors.keySet()) {
+			List<String> cycle = cycleFrom(interceptor, new ArrayList<String>(), visited);
+			if (cycle != null) {
+				error(interceptors.get(interceptor), "There is a cycle on the @Intercepts before and after of "
+						+ cycle + ", so the interceptors can't be ordered");
+				return;
+			}
+		}
+	}
+
+	private List<String> cycleFrom(String interceptor, List<String> path, Set<String> visited) {
+		int start = path.indexOf(interceptor);
+		if (start >= 0) {
+			List<String> cycle = new ArrayList<>(path.subList(start, path.size()));
+			cycle.add(interceptor);
+			return cycle;
+		}
+		if (!visited.add(interceptor)) {
+			return null;
+		}
+		path.add(interceptor);
+		Set<String> edges = interceptorEdges.containsKey(interceptor) ? interceptorEdges.get(interceptor)
+				: Collections.<String>emptySet();
+		for (String next : edges) {
+			List<String> cycle = cycleFrom(next, path, visited);
+			if (cycle != null) {
+				return cycle;
+			}
+		}
+		path.remove(path.size() - 1);
+		return null;
+	}
+
+	private void checkSubtype(TypeElement type, String expected, String annotation) {
+		TypeElement supertype = elements.getTypeElement(expected);
+		if (supertype != null && !types.isAssignable(types.erasure(type.asType()), types.erasure(supertype.asType()))) {
+			error(type, "Classes annotated with " + annotation + " must implement " + expected);
+		}
+	}
+
+	private void writeIndex() {
+		if (methods.isEmpty()) {
+			return;
+		}
+		try {
+			FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+					MetadataIndex.LOCATION);
+			try (OutputStream output = index.openOutputStream()) {
+				MetadataIndex.write(methods.values(), output);
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(ERROR, "Unable to write the VRaptor metadata index: " + e);
+		}
+	}
+
+	private String nameOf(VariableElement parameter) {
+		for (AnnotationMirror mirror : parameter.getAnnotationMirrors()) {
+			if (nameOf(mirror).equals(NAMED)) {
+				List<String> value = stringsOf(mirror, "value");
+				if (!value.isEmpty()) {
+					return value.get(0);
+				}
+			}
+		}
+		return parameter.getSimpleName().toString();
+	}
+
+	private String nameOf(AnnotationMirror mirror) {
+		return ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+	}
+
+	private HttpMethod httpMethodOf(String annotation) {
+		for (HttpMethod method : HttpMethod.values()) {
+			if (method.getAnnotation().getName().equals(annotation)) {
+				return method;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the values of an annotation element, which may be a single value or an array.
+	 */
+	private List<Object> valuesOf(AnnotationMirror mirror, String element) {
+		List<Object> values = new ArrayList<>();
+		for (Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : elements
+				.getElementValuesWithDefaults(mirror).entrySet()) {
+			if (entry.getKey().getSimpleName().contentEquals(element)) {
+				Object value = entry.getValue().getValue();
+				if (value instanceof List) {
+					for (Object item : (List<?>) value) {
+						values.add(((AnnotationValue) item).getValue());
+					}
+				} else {
+					values.add(value);
+				}
+			}
+		}
+		return values;
+	}
+
+	private List<String> stringsOf(AnnotationMirror mirror, String element) {
+		List<String> strings = new ArrayList<>();
+		for (Object value : valuesOf(mirror, element)) {
+			strings.add(String.valueOf(value));
+		}
+		return strings;
+	}
+
+	private List<String> typesOf(AnnotationMirror mirror, String element) {
+		List<String> names = new ArrayList<>();
+		for (Object value : valuesOf(mirror, element)) {
+			if (value instanceof TypeMirror) {
+				names.add(binaryName((TypeMirror) value));
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * @return the name {@link Class#getName()} gives to the erasure of the type.
+	 */
+	private String binaryName(TypeMirror type) {
+		TypeMirror erased = types.erasure(type);
+		switch (erased.getKind()) {
+		case ARRAY:
+			return "[" + descriptor(((ArrayType) erased).getComponentType());
+		case DECLARED:
+			return elements.getBinaryName((TypeElement) ((DeclaredType) erased).asElement()).toString();
+		default:
+			return erased.toString();
+		}
+	}
+
+	private String descriptor(TypeMirror type) {
+		switch (type.getKind()) {
+		case ARRAY:
+			return "[" + descriptor(((ArrayType) type).getComponentType());
+		case DECLARED:
+			return "L" + binaryName(type) + ";";
+		case BOOLEAN:
+			return "Z";
+		case BYTE:
+			return "B";
+		case CHAR:
+			return "C";
+		case SHORT:
+			return "S";
+		case INT:
+			return "I";
+		case LONG:
+			return "J";
+		case FLOAT:
+			return "F";
+		case DOUBLE:
+			return "D";
+		default:
+			throw new IllegalArgumentException("Unexpected parameter type " + type);
+		}
+	}
+
+	private void error(Element element, String message) {
+		processingEnv.getMessager().printMessage(ERROR, message, element);
+	}
+
+	private static String[] toArray(List<String> strings) {
+		return strings.toArray(new String[strings.size()]);
+	}
+}
@@ -0,0 +1,224 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.apt;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.enterprise.inject.Stereotype;
+import javax.inject.Named;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import br.com.caelum.vraptor.Controller;
+import br.com.caelum.vraptor.controller.HttpMethod;
+import br.com.caelum.vraptor.index.IndexedMethod;
+import br.com.caelum.vraptor.index.MetadataIndex;
+
+public class MetadataIndexProcessorTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+	@Test
+	public void shouldIndexPublicMethodsOfControllers() throws Exception {
+		compile("app.ProductController", "package app;\n"
+				+ "import br.com.caelum.vraptor.*;\n"
+				+ "import javax.inject.Named;\n"
+				+ "@Controller @Path(\"/products\")\n"
+				+ "public class ProductController {\n"
+				+ "  @Get(\"/{id}\") @Head public void show(Long id, @Named(\"page\") int p) {}\n"
+				+ "  @Post public void save(java.util.List<String>[] items, Inner inner) {}\n"
+				+ "  @Path(\"/search\") public <T extends Number> void search(T[] numbers) {}\n"
+				+ "  public static void notAMethod(String ignored) {}\n"
+				+ "  void notPublic(String ignored) {}\n"
+				+ "  public static class Inner {}\n"
+				+ "}\n");
+
+		Map<String, IndexedMethod> index = readIndex();
+		assertThat(index.keySet(), contains("app.ProductController#show(java.lang.Long,int)",
+				"app.ProductController#save([Ljava.util.List;,app.ProductController$Inner)",
+				"app.ProductController#search([Ljava.lang.Number;)"));
+
+		IndexedMethod show = index.get("app.ProductController#show(java.lang.Long,int)");
+		assertThat(show.getParameterNames(), arrayContaining("id", "page"));
+		assertThat(show.getHttpMethods(), contains(HttpMethod.GET, HttpMethod.HEAD));
+		assertThat(show.getUris(), arrayContaining("/{id}"));
+
+		IndexedMethod save = index.get("app.ProductController#save([Ljava.util.List;,app.ProductController$Inner)");
+		assertThat(save.getParameterNames(), arrayContaining("items", "inner"));
+		assertThat(save.getHttpMethods(), contains(HttpMethod.POST));
+		assertThat(save.getUris(), is(emptyArray()));
+	}
+
+	@Test
+	public void shouldUseTheSameKeysOfReflection() throws Exception {
+		compile("app.SampleController", "package app;\n"
+				+ "@br.com.caelum.vraptor.Controller\n"
+				+ "public class SampleController {\n"
+				+ "  public void all(boolean a, byte b, char c, short d, long e, float f, double g, int[][] h) {}\n"
+				+ "}\n");
+
+		List<String> types = new ArrayList<>();
+		for (Class<?> type : getClass().getMethod("all", boolean.class, byte.class, char.class, short.class,
+				long.class, float.class, double.class, int[][].class).getParameterTypes()) {
+			types.add(type.getName());
+		}
+		assertThat(readIndex().keySet(), contains(IndexedMethod.keyOf("app.SampleController", "all", types)));
+	}
+
+	public void all(boolean a, byte b, char c, short d, long e, float f, double g, int[][] h) {
+	}
+
+	@Test
+	public void shouldFailOnPathsGivenTwice() throws Exception {
+		boolean compiled = compile("app.WrongController", "package app;\n"
+				+ "import br.com.caelum.vraptor.*;\n"
+				+ "@Controller\n"
+				+ "public class WrongController {\n"
+				+ "  @Path(\"/a\") @Get(\"/b\") public void wrong() {}\n"
+				+ "}\n");
+
+		assertFalse(compiled);
+		assertThat(errors(), containsString("You should specify paths either in @Path"));
+	}
+
+	@Test
+	public void shouldFailOnInterceptorCycles() throws Exception {
+		boolean compiled = compile("app.FirstInterceptor", "package app;\n"
+				+ "@br.com.caelum.vraptor.Intercepts(before = SecondInterceptor.class)\n"
+				+ "public class FirstInterceptor {}\n",
+				"app.SecondInterceptor", "package app;\n"
+				+ "@br.com.caelum.vraptor.Intercepts(after = ThirdInterceptor.class)\n"
+				+ "public class SecondInterceptor {}\n",
+				"app.ThirdInterceptor", "package app;\n"
+				+ "@br.com.caelum.vraptor.Intercepts(after = FirstInterceptor.class, before = FirstInterceptor.class)\n"
+				+ "public class ThirdInterceptor {}\n");
+
+		assertFalse(compiled);
+		assertThat(errors(), containsString("There is a cycle on the @Intercepts before and after"));
+	}
+
+	@Test
+	public void shouldAcceptOrderedInterceptors() throws Exception {
+		boolean compiled = compile("app.FirstInterceptor", "package app;\n"
+				+ "@br.com.caelum.vraptor.Intercepts(before = SecondInterceptor.class)\n"
+				+ "public class FirstInterceptor {}\n",
+				"app.SecondInterceptor", "package app;\n"
+				+ "@br.com.caelum.vraptor.Intercepts(after = FirstInterceptor.class)\n"
+				+ "public class SecondInterceptor {}\n");
+
+		assertTrue(errors(), compiled);
+		assertFalse(new File(folder.getRoot(), MetadataIndex.LOCATION).exists());
+	}
+
+	@Test
+	public void shouldFailOnConvertersThatArentConverters() throws Exception {
+		boolean compiled = compile("app.NotAConverter", "package app;\n"
+				+ "@br.com.caelum.vraptor.Convert(String.class)\n"
+				+ "public class NotAConverter {}\n");
+
+		assertFalse(compiled);
+		assertThat(errors(), containsString("must implement br.com.caelum.vraptor.converter.Converter"));
+	}
+
+	private boolean compile(String... namesAndSources) throws IOException, URISyntaxException {
+		List<JavaFileObject> sources = new ArrayList<>();
+		for (int i = 0; i < namesAndSources.length; i += 2) {
+			sources.add(new Source(namesAndSources[i], namesAndSources[i + 1]));
+		}
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		List<String> options = asList("-d", folder.getRoot().getPath(), "-classpath", classpath());
+		JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null, sources);
+		task.setProcessors(asList(new MetadataIndexProcessor()));
+		return task.call();
+	}
+
+	private String classpath() throws URISyntaxException {
+		StringBuilder classpath = new StringBuilder();
+		for (Class<?> type : asList(Controller.class, Named.class, Stereotype.class)) {
+			classpath.append(new File(type.getProtectionDomain().getCodeSource().getLocation().toURI()))
+					.append(File.pathSeparator);
+		}
+		return classpath.toString();
+	}
+
+	private Map<String, IndexedMethod> readIndex() throws IOException {
+		assertThat(errors(), is(""));
+		Map<String, IndexedMethod> methods = new LinkedHashMap<>();
+		try (InputStream input = new FileInputStream(new File(folder.getRoot(), MetadataIndex.LOCATION))) {
+			Collection<IndexedMethod> read = MetadataIndex.read(input);
+			for (IndexedMethod method : read) {
+				methods.put(method.getKey(), method);
+			}
+		}
+		return methods;
+	}
+
+	private String errors() {
+		StringBuilder errors = new StringBuilder();
+		for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+			if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+				errors.append("error: ").append(diagnostic.getMessage(null)).append('\n');
+			}
+		}
+		return errors.toString();
+	}
+
+	private static class Source extends SimpleJavaFileObject {
+		private final String content;
+
+		Source(String name, String content) {
+			super(URI.create("string:///" + name.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+			this.content = content;
+		}
+
+		@Override
+		public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+			return content;
+		}
+	}
+}
@@ -0,0 +1,185 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.benchmarks;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import javax.enterprise.inject.spi.Extension;
+import javax.enterprise.inject.spi.ProcessAnnotatedType;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import org.jboss.weld.context.bound.BoundRequestContext;
+import org.jboss.weld.context.bound.BoundSessionContext;
+import org.jboss.weld.environment.se.Weld;
+import org.jboss.weld.environment.se.WeldContainer;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.CharStreams;
+
+import br.com.caelum.vraptor.VRaptor;
+import br.com.caelum.vraptor.ioc.RequestStartedFactory;
+import br.com.caelum.vraptor.ioc.cdi.CDIRequestFactories;
+
+/**
+ * A VRaptor application running on Weld SE, with stubs in place of the servlet container. Only
+ * the given classes of this package are deployed along with VRaptor, so each benchmark chooses
+ * its controllers and interceptors.
+ */
+final class Application {
+
+	private static final String BENCHMARKS_PACKAGE = Application.class.getPackage().getName() + ".";
+
+	private final WeldContainer container;
+	private final ServletContext context;
+	private final VRaptor filter;
+	private final BoundRequestContext requestContext;
+	private final BoundSessionContext sessionContext;
+	private final FilterChain chain = Stubs.stub(FilterChain.class);
+	private final HttpSession session = Stubs.stub(HttpSession.class);
+	private Map<String, Object> requestStore;
+	private Map<String, Object> sessionStore;
+
+	private Application(WeldContainer container, ServletContext context) {
+		this.container = container;
+		this.context = context;
+		this.filter = container.select(VRaptor.class).get();
+		this.requestContext = container.select(BoundRequestContext.class).get();
+		this.sessionContext = container.select(BoundSessionContext.class).get();
+	}
+
+	static Application start(Class<?>... beans) throws ServletException {
+		WeldContainer container = new Weld()
+				.disableDiscovery()
+				.addPackages(true, VRaptor.class)
+				.addExtension(new OnlyDeployed(ValidationProducer.class).and(beans))
+				.skipShutdownHook()
+				.initialize();
+
+		ServletContext context = Stubs.stub(ServletContext.class, ImmutableMap.of("getContextPath", ""));
+		container.getBeanManager().fireEvent(context, Initialized.Literal.APPLICATION);
+
+		Application application = new Application(container, context);
+		application.filter.init(Stubs.stub(FilterConfig.class, ImmutableMap.of("getServletContext", context)));
+		return application;
+	}
+
+	void stop() {
+		filter.destroy();
+		container.shutdown();
+	}
+
+	<T> T get(Class<T> type) {
+		return container.select(type).get();
+	}
+
+	/**
+	 * Runs the request through the VRaptor filter, as the servlet container would do.
+	 */
+	void handle(HttpServletRequest request, HttpServletResponse response) throws IOException, ServletException {
+		activateContexts();
+		try {
+			filter.doFilter(request, response, chain);
+		} finally {
+			deactivateContexts();
+		}
+	}
+
+	/**
+	 * Starts a request without dispatching it, so request scoped components can be used directly.
+	 * Must be followed by {@link #end()}.
+	 */
+	void begin(HttpServletRequest request, HttpServletResponse response) {
+		activateContexts();
+		RequestStartedFactory factory = get(RequestStartedFactory.class);
+		get(CDIRequestFactories.class).setRequest(factory.createEvent(request, response, chain));
+	}
+
+	void end() {
+		deactivateContexts();
+	}
+
+	HttpServletRequest request(String method, String uri, Map<String, String[]> parameters) {
+		return Stubs.stub(HttpServletRequest.class, ImmutableMap.<String, Object> builder()
+				.put("getMethod", method)
+				.put("getRequestURI", uri)
+				.put("getContextPath", "")
+				.put("getServletContext", context)
+				.put("getParameterMap", parameters)
+				.put("getSession", session)
+				.build());
+	}
+
+	HttpServletResponse response() {
+		PrintWriter writer = new PrintWriter(CharStreams.nullWriter());
+		return Stubs.stub(HttpServletResponse.class, ImmutableMap.of("getWriter", writer));
+	}
+
+	private void activateContexts() {
+		requestStore = new HashMap<>();
+		sessionStore = new HashMap<>();
+		sessionContext.associate(sessionStore);
+		sessionContext.activate();
+		requestContext.associate(requestStore);
+		requestContext.activate();
+	}
+
+	private void deactivateContexts() {
+		requestContext.invalidate();
+		requestContext.deactivate();
+		requestContext.dissociate(requestStore);
+		sessionContext.invalidate();
+		sessionContext.deactivate();
+		sessionContext.dissociate(sessionStore);
+	}
+
+	/**
+	 * Vetoes the classes of this package that were not asked for.
+	 */
+	static class OnlyDeployed implements Extension {
+		private final Set<Class<?>> beans = new HashSet<>();
+
+		OnlyDeployed(Class<?>... beans) {
+			and(beans);
+		}
+
+		OnlyDeployed and(Class<?>... beans) {
+			this.beans.addAll(Arrays.asList(beans));
+			return this;
+		}
+
+		void veto(@Observes ProcessAnnotatedType<?> event) {
+			Class<?> type = event.getAnnotatedType().getJavaClass();
+			if (type.getName().startsWith(BENCHMARKS_PACKAGE) && !beans.contains(type)) {
+				event.veto();
+			}
+		}
+	}
+}
@@ -0,0 +1,147 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.benchmarks;
+
+import static br.com.caelum.vraptor.view.Results.json;
+import static br.com.caelum.vraptor.view.Results.status;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableMap;
+
+import br.com.caelum.vraptor.Controller;
+import br.com.caelum.vraptor.Get;
+import br.com.caelum.vraptor.Post;
+import br.com.caelum.vraptor.Result;
+
+/**
+ * Whole requests through {@code VRaptor.doFilter}: routing, parameter binding, interceptors, the
+ * controller method and the result, on Weld SE with stubbed servlet objects.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EndToEndBenchmark {
+
+	private Application application;
+	private HttpServletRequest noContent;
+	private HttpServletRequest json;
+	private HttpServletRequest form;
+	private HttpServletResponse response;
+
+	public static class Product {
+		private Long id;
+		private String name;
+		private Double price;
+
+		public Long getId() {
+			return id;
+		}
+		public void setId(Long id) {
+			this.id = id;
+		}
+		public String getName() {
+			return name;
+		}
+		public void setName(String name) {
+			this.name = name;
+		}
+		public Double getPrice() {
+			return price;
+		}
+		public void setPrice(Double price) {
+			this.price = price;
+		}
+	}
+
+	@Controller
+	public static class ProductController {
+		@Inject
+		private Result result;
+
+		@Get("/products/{id}/ping")
+		public void ping(Long id) {
+			result.use(status()).noContent();
+		}
+
+		@Get("/products/{id}")
+		public void show(Long id) {
+			Product product = new Product();
+			product.setId(id);
+			product.setName("book");
+			product.setPrice(42.0);
+			result.use(json()).from(product).serialize();
+		}
+
+		@Post("/products")
+		public void save(Product product) {
+			result.use(status()).created();
+		}
+	}
+
+	@Setup
+	public void setup() throws ServletException {
+		application = Application.start(ProductController.class);
+		noContent = application.request("GET", "/products/42/ping", Collections.<String, String[]> emptyMap());
+		json = application.request("GET", "/products/42", Collections.<String, String[]> emptyMap());
+		form = application.request("POST", "/products", ImmutableMap.of(
+				"product.name", new String[] { "book" }, "product.price", new String[] { "42.0" }));
+		response = application.response();
+	}
+
+	@TearDown
+	public void tearDown() {
+		application.stop();
+	}
+
+	@Benchmark
+	public void noContent() throws IOException, ServletException {
+		application.handle(noContent, response);
+	}
+
+	@Benchmark
+	public void jsonResponse() throws IOException, ServletException {
+		application.handle(json, response);
+	}
+
+	@Benchmark
+	public void formSubmission() throws IOException, ServletException {
+		application.handle(form, response);
+	}
+}
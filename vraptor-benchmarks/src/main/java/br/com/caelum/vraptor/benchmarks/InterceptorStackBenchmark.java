@@ -0,0 +1,123 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.benchmarks;
+
+import static br.com.caelum.vraptor.view.Results.status;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.caelum.vraptor.AroundCall;
+import br.com.caelum.vraptor.Controller;
+import br.com.caelum.vraptor.Get;
+import br.com.caelum.vraptor.Intercepts;
+import br.com.caelum.vraptor.Result;
+import br.com.caelum.vraptor.interceptor.SimpleInterceptorStack;
+
+/**
+ * Requests to a controller with a number of application interceptors that only call the next
+ * one. The difference to the run without interceptors is the cost of the interceptor stack.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterceptorStackBenchmark {
+
+	private static final List<Class<?>> INTERCEPTORS = Arrays.<Class<?>> asList(Interceptor1.class,
+			Interceptor2.class, Interceptor3.class, Interceptor4.class, Interceptor5.class, Interceptor6.class,
+			Interceptor7.class, Interceptor8.class, Interceptor9.class, Interceptor10.class);
+
+	@Param({ "0", "1", "5", "10" })
+	private int interceptors;
+
+	private Application application;
+	private HttpServletRequest request;
+	private HttpServletResponse response;
+
+	@Controller
+	public static class PingController {
+		@Inject
+		private Result result;
+
+		@Get("/ping")
+		public void ping() {
+			result.use(status()).noContent();
+		}
+	}
+
+	public static class PassThrough {
+		@AroundCall
+		public void around(SimpleInterceptorStack stack) {
+			stack.next();
+		}
+	}
+
+	@Intercepts public static class Interceptor1 extends PassThrough {}
+	@Intercepts public static class Interceptor2 extends PassThrough {}
+	@Intercepts public static class Interceptor3 extends PassThrough {}
+	@Intercepts public static class Interceptor4 extends PassThrough {}
+	@Intercepts public static class Interceptor5 extends PassThrough {}
+	@Intercepts public static class Interceptor6 extends PassThrough {}
+	@Intercepts public static class Interceptor7 extends PassThrough {}
+	@Intercepts public static class Interceptor8 extends PassThrough {}
+	@Intercepts public static class Interceptor9 extends PassThrough {}
+	@Intercepts public static class Interceptor10 extends PassThrough {}
+
+	@Setup
+	public void setup() throws ServletException {
+		List<Class<?>> beans = new ArrayList<>(INTERCEPTORS.subList(0, interceptors));
+		beans.add(PingController.class);
+		application = Application.start(beans.toArray(new Class<?>[beans.size()]));
+		request = application.request("GET", "/ping", Collections.<String, String[]> emptyMap());
+		response = application.response();
+	}
+
+	@TearDown
+	public void tearDown() {
+		application.stop();
+	}
+
+	@Benchmark
+	public void request() throws IOException, ServletException {
+		application.handle(request, response);
+	}
+}
@@ -0,0 +1,192 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableMap;
+
+import br.com.caelum.vraptor.controller.ControllerMethod;
+import br.com.caelum.vraptor.controller.DefaultControllerMethod;
+import br.com.caelum.vraptor.http.ParametersProvider;
+import br.com.caelum.vraptor.validator.Message;
+
+/**
+ * Binds request parameters to controller method parameters with the {@link ParametersProvider}
+ * of the container, for a flat bean and for a bean with nested beans and lists. Each operation is
+ * a new request, so the request scoped components are created every time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParameterBindingBenchmark {
+
+	private Application application;
+	private ControllerMethod saveProduct;
+	private ControllerMethod saveOrder;
+	private HttpServletRequest flat;
+	private HttpServletRequest nested;
+	private HttpServletResponse response;
+
+	public static class Product {
+		private Long id;
+		private String name;
+		private Double price;
+
+		public void setId(Long id) {
+			this.id = id;
+		}
+		public void setName(String name) {
+			this.name = name;
+		}
+		public void setPrice(Double price) {
+			this.price = price;
+		}
+	}
+
+	public static class Address {
+		private String street;
+		private String city;
+
+		public void setStreet(String street) {
+			this.street = street;
+		}
+		public void setCity(String city) {
+			this.city = city;
+		}
+	}
+
+	public static class Customer {
+		private String name;
+		private Address address;
+
+		public void setName(String name) {
+			this.name = name;
+		}
+		public void setAddress(Address address) {
+			this.address = address;
+		}
+	}
+
+	public static class Item {
+		private Product product;
+		private Integer quantity;
+
+		public void setProduct(Product product) {
+			this.product = product;
+		}
+		public void setQuantity(Integer quantity) {
+			this.quantity = quantity;
+		}
+	}
+
+	public static class Order {
+		private Customer customer;
+		private List<Item> items;
+
+		public void setCustomer(Customer customer) {
+			this.customer = customer;
+		}
+		public void setItems(List<Item> items) {
+			this.items = items;
+		}
+	}
+
+	public static class StoreController {
+		public void save(Product product) {
+		}
+		public void save(Order order) {
+		}
+	}
+
+	@Setup
+	public void setup() throws ServletException, NoSuchMethodException {
+		application = Application.start();
+		saveProduct = DefaultControllerMethod.instanceFor(StoreController.class,
+				StoreController.class.getMethod("save", Product.class));
+		saveOrder = DefaultControllerMethod.instanceFor(StoreController.class,
+				StoreController.class.getMethod("save", Order.class));
+
+		Map<String, String[]> product = ImmutableMap.of(
+				"product.id", values("42"),
+				"product.name", values("book"),
+				"product.price", values("42.0"));
+		Map<String, String[]> order = ImmutableMap.<String, String[]> builder()
+				.put("order.customer.name", values("john"))
+				.put("order.customer.address.street", values("rua vergueiro"))
+				.put("order.customer.address.city", values("sao paulo"))
+				.put("order.items[0].product.name", values("book"))
+				.put("order.items[0].quantity", values("2"))
+				.put("order.items[1].product.name", values("pen"))
+				.put("order.items[1].quantity", values("10"))
+				.build();
+		flat = application.request("POST", "/products", product);
+		nested = application.request("POST", "/orders", order);
+		response = application.response();
+	}
+
+	private static String[] values(String... values) {
+		return values;
+	}
+
+	@TearDown
+	public void tearDown() {
+		application.stop();
+	}
+
+	@Benchmark
+	public Object[] flatBean() {
+		return bind(flat, saveProduct);
+	}
+
+	@Benchmark
+	public Object[] nestedBeans() {
+		return bind(nested, saveOrder);
+	}
+
+	private Object[] bind(HttpServletRequest request, ControllerMethod method) {
+		application.begin(request, response);
+		try {
+			List<Message> errors = new ArrayList<>();
+			return application.get(ParametersProvider.class).getParametersFor(method, errors);
+		} finally {
+			application.end();
+		}
+	}
+}
@@ -0,0 +1,99 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.benchmarks;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.caelum.vraptor.core.DefaultReflectionProvider;
+import br.com.caelum.vraptor.core.MethodHandleReflectionProvider;
+import br.com.caelum.vraptor.core.ReflectionProvider;
+
+/**
+ * Compares the Mirror based {@link DefaultReflectionProvider} with the
+ * {@link MethodHandleReflectionProvider} on the calls done on every request: invoking controller
+ * and interceptor methods, listing methods of a class and invoking getters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReflectionProviderBenchmark {
+
+	@Param({ "mirror", "methodHandle" })
+	private String provider;
+
+	private ReflectionProvider reflectionProvider;
+	private Method save;
+	private Product product;
+
+	public static class Product {
+		private String name = "book";
+
+		public String getName() {
+			return name;
+		}
+
+		public Product save(Product product, Long id) {
+			return product;
+		}
+	}
+
+	@Setup
+	public void setup() throws NoSuchMethodException {
+		reflectionProvider = "mirror".equals(provider) ? new DefaultReflectionProvider()
+				: new MethodHandleReflectionProvider();
+		save = Product.class.getMethod("save", Product.class, Long.class);
+		product = new Product();
+	}
+
+	@Benchmark
+	public Object invoke() {
+		return reflectionProvider.invoke(product, save, product, 42L);
+	}
+
+	@Benchmark
+	public Object invokeGetter() {
+		return reflectionProvider.invokeGetter(product, "name");
+	}
+
+	@Benchmark
+	public List<Method> getMethodsFor() {
+		return reflectionProvider.getMethodsFor(Product.class);
+	}
+
+	@Benchmark
+	public List<Field> getFieldsFor() {
+		return reflectionProvider.getFieldsFor(Product.class);
+	}
+}
@@ -0,0 +1,150 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.benchmarks;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.caelum.vraptor.cache.DefaultCacheStore;
+import br.com.caelum.vraptor.controller.ControllerMethod;
+import br.com.caelum.vraptor.controller.HttpMethod;
+import br.com.caelum.vraptor.core.DefaultReflectionProvider;
+import br.com.caelum.vraptor.http.EncodingHandler;
+import br.com.caelum.vraptor.http.MutableRequest;
+import br.com.caelum.vraptor.http.ParanamerNameProvider;
+import br.com.caelum.vraptor.http.VRaptorRequest;
+import br.com.caelum.vraptor.http.route.DefaultRouter;
+import br.com.caelum.vraptor.http.route.DefaultTypeFinder;
+import br.com.caelum.vraptor.http.route.JavaEvaluator;
+import br.com.caelum.vraptor.http.route.Route;
+import br.com.caelum.vraptor.http.route.RouteBuilder;
+import br.com.caelum.vraptor.proxy.JavassistProxifier;
+
+/**
+ * Matches uris against route tables of different sizes. {@code parse} is what every request does
+ * today, while {@code linearScan} reproduces the former lookup, which tested every route regex.
+ * Run with {@code -prof gc} to see the allocation rate of each one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteMatchingBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	private int routes;
+
+	private DefaultRouter router;
+	private List<Route> allRoutes;
+	private MutableRequest request;
+	private String literalUri;
+	private String parameterUri;
+
+	public static class ProductController {
+		public void list() {
+		}
+		public void show(Long id) {
+		}
+		public void edit(Long id, String section) {
+		}
+	}
+
+	@Setup
+	public void setup() throws NoSuchMethodException {
+		ServletContext context = Stubs.stub(ServletContext.class);
+		EncodingHandler encodingHandler = new EncodingHandler(context);
+		encodingHandler.init();
+		ParanamerNameProvider nameProvider = new ParanamerNameProvider();
+		DefaultReflectionProvider reflectionProvider = new DefaultReflectionProvider();
+
+		router = new DefaultRouter(new JavassistProxifier(), new DefaultTypeFinder(nameProvider, reflectionProvider),
+				null, nameProvider, new JavaEvaluator(reflectionProvider), encodingHandler,
+				new DefaultCacheStore<>());
+
+		for (int i = 0; i < routes / 3 + 1; i++) {
+			add("/products" + i, HttpMethod.GET, ProductController.class.getMethod("list"));
+			add("/products" + i + "/{id}", HttpMethod.GET, ProductController.class.getMethod("show", Long.class));
+			add("/products" + i + "/{id}/{section}", HttpMethod.POST,
+					ProductController.class.getMethod("edit", Long.class, String.class));
+		}
+
+		int middle = routes / 6;
+		literalUri = "/products" + middle;
+		parameterUri = "/products" + middle + "/42/details";
+		allRoutes = router.allRoutes();
+		request = new VRaptorRequest(Stubs.stub(HttpServletRequest.class));
+	}
+
+	private void add(String uri, HttpMethod method, java.lang.reflect.Method controllerMethod) {
+		if (router.allRoutes().size() < routes) {
+			RouteBuilder builder = router.builderFor(uri).with(method);
+			builder.is(ProductController.class, controllerMethod);
+			router.add(builder.build());
+		}
+	}
+
+	@Benchmark
+	public ControllerMethod parseLiteral() {
+		return router.parse(literalUri, HttpMethod.GET, request);
+	}
+
+	@Benchmark
+	public ControllerMethod parseWithParameters() {
+		return router.parse(parameterUri, HttpMethod.POST, request);
+	}
+
+	@Benchmark
+	public ControllerMethod linearScanLiteral() {
+		return linearScan(literalUri, HttpMethod.GET);
+	}
+
+	@Benchmark
+	public ControllerMethod linearScanWithParameters() {
+		return linearScan(parameterUri, HttpMethod.POST);
+	}
+
+	private ControllerMethod linearScan(String uri, HttpMethod method) {
+		Set<Route> matching = new LinkedHashSet<>();
+		for (Route route : allRoutes) {
+			if (route.canHandle(uri) && route.allowedMethods().contains(method)) {
+				matching.add(route);
+			}
+		}
+		Iterator<Route> iterator = matching.iterator();
+		return iterator.next().controllerMethod(request, uri);
+	}
+}
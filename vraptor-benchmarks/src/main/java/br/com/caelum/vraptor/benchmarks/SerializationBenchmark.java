@@ -0,0 +1,227 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.inject.Specializes;
+import javax.inject.Inject;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.thoughtworks.xstream.XStream;
+
+import br.com.caelum.vraptor.Consumes;
+import br.com.caelum.vraptor.controller.ControllerMethod;
+import br.com.caelum.vraptor.controller.DefaultControllerMethod;
+import br.com.caelum.vraptor.core.ReflectionProvider;
+import br.com.caelum.vraptor.interceptor.TypeNameExtractor;
+import br.com.caelum.vraptor.ioc.Container;
+import br.com.caelum.vraptor.serialization.Deserializer;
+import br.com.caelum.vraptor.serialization.Deserializers;
+import br.com.caelum.vraptor.serialization.Serialization;
+import br.com.caelum.vraptor.serialization.Serializee;
+import br.com.caelum.vraptor.serialization.gson.GsonJSONSerialization;
+import br.com.caelum.vraptor.serialization.xstream.XStreamBuilderImpl;
+import br.com.caelum.vraptor.serialization.xstream.XStreamConverters;
+import br.com.caelum.vraptor.serialization.xstream.XStreamXMLSerialization;
+
+/**
+ * Serializes results and deserializes request bodies with the Gson (json) and XStream (xml)
+ * components of the container. Each operation is a new request, so the request scoped components
+ * are created every time, as they are on real requests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+	@Param({ "json", "xml" })
+	private String format;
+
+	private Application application;
+	private HttpServletRequest request;
+	private HttpServletResponse response;
+	private Class<? extends Serialization> serialization;
+	private String contentType;
+	private byte[] body;
+	private ControllerMethod save;
+	private Order order;
+	private List<Product> products;
+
+	public static class Product {
+		private Long id;
+		private String name;
+		private Double price;
+
+		public Product() {
+		}
+
+		public Product(Long id, String name, Double price) {
+			this.id = id;
+			this.name = name;
+			this.price = price;
+		}
+	}
+
+	public static class Address {
+		private String street = "rua vergueiro";
+		private String city = "sao paulo";
+	}
+
+	public static class Customer {
+		private String name = "john";
+		private Address address = new Address();
+	}
+
+	public static class Item {
+		private Product product;
+		private Integer quantity;
+
+		public Item() {
+		}
+
+		public Item(Product product, Integer quantity) {
+			this.product = product;
+			this.quantity = quantity;
+		}
+	}
+
+	public static class Order {
+		private Customer customer = new Customer();
+		private List<Item> items = new ArrayList<>();
+	}
+
+	public static class OrderController {
+		@Consumes
+		public void save(Order order) {
+		}
+	}
+
+	/**
+	 * XStream only deserializes the types it is allowed to, and the list elements need an alias,
+	 * as applications must configure.
+	 */
+	@Specializes
+	public static class AllowingXStreamBuilder extends XStreamBuilderImpl {
+		@Inject
+		public AllowingXStreamBuilder(XStreamConverters converters, TypeNameExtractor extractor,
+				Serializee serializee, ReflectionProvider reflectionProvider) {
+			super(converters, extractor, serializee, reflectionProvider);
+		}
+
+		@Override
+		public XStream configure(XStream xstream) {
+			xstream.allowTypesByWildcard(new String[] { SerializationBenchmark.class.getName() + "$*" });
+			xstream.alias("item", Item.class);
+			return super.configure(xstream);
+		}
+	}
+
+	@Setup
+	public void setup() throws ServletException, NoSuchMethodException {
+		application = Application.start(AllowingXStreamBuilder.class);
+		request = application.request("POST", "/orders", Collections.<String, String[]> emptyMap());
+		response = application.response();
+		save = DefaultControllerMethod.instanceFor(OrderController.class,
+				OrderController.class.getMethod("save", Order.class));
+
+		order = new Order();
+		products = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			products.add(new Product((long) i, "product " + i, i * 1.5));
+		}
+		order.items.add(new Item(products.get(0), 2));
+		order.items.add(new Item(products.get(1), 10));
+
+		if ("json".equals(format)) {
+			serialization = GsonJSONSerialization.class;
+			contentType = "application/json";
+			body = ("{\"order\": {\"customer\": {\"name\": \"john\", \"address\": {\"street\": \"rua vergueiro\", "
+					+ "\"city\": \"sao paulo\"}}, \"items\": [{\"product\": {\"id\": 0, \"name\": \"book\"}, "
+					+ "\"quantity\": 2}, {\"product\": {\"id\": 1, \"name\": \"pen\"}, \"quantity\": 10}]}}")
+					.getBytes(StandardCharsets.UTF_8);
+		} else {
+			serialization = XStreamXMLSerialization.class;
+			contentType = "application/xml";
+			body = ("<order><customer><name>john</name><address><street>rua vergueiro</street>"
+					+ "<city>sao paulo</city></address></customer><items><item><product><id>0</id>"
+					+ "<name>book</name></product><quantity>2</quantity></item><item><product><id>1</id>"
+					+ "<name>pen</name></product><quantity>10</quantity></item></items></order>")
+					.getBytes(StandardCharsets.UTF_8);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		application.stop();
+	}
+
+	@Benchmark
+	public void serializeNestedBean() {
+		application.begin(request, response);
+		try {
+			application.get(serialization).from(order).recursive().serialize();
+		} finally {
+			application.end();
+		}
+	}
+
+	@Benchmark
+	public void serializeList() {
+		application.begin(request, response);
+		try {
+			application.get(serialization).from(products).serialize();
+		} finally {
+			application.end();
+		}
+	}
+
+	@Benchmark
+	public Object[] deserializeNestedBean() {
+		application.begin(request, response);
+		try {
+			Deserializer deserializer = application.get(Deserializers.class)
+					.deserializerFor(contentType, application.get(Container.class));
+			return deserializer.deserialize(new ByteArrayInputStream(body), save);
+		} finally {
+			application.end();
+		}
+	}
+}
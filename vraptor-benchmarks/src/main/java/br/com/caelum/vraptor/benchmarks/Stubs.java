@@ -0,0 +1,63 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Interface stubs that do nothing, so benchmarks measure only VRaptor code.
+ */
+final class Stubs {
+
+	private Stubs() {
+	}
+
+	static <T> T stub(Class<T> type) {
+		return stub(type, Collections.<String, Object> emptyMap());
+	}
+
+	/**
+	 * A stub that returns the given answers for the methods with those names, whatever the
+	 * arguments are.
+	 */
+	static <T> T stub(Class<T> type, final Map<String, ?> answers) {
+		InvocationHandler handler = new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				if (answers.containsKey(method.getName())) {
+					return answers.get(method.getName());
+				}
+				Class<?> returnType = method.getReturnType();
+				if (returnType == boolean.class) {
+					return false;
+				}
+				if (returnType == int.class) {
+					return 0;
+				}
+				if (returnType == long.class) {
+					return 0L;
+				}
+				return null;
+			}
+		};
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler));
+	}
+}
@@ -0,0 +1,134 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.benchmarks;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletContext;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.caelum.vraptor.cache.DefaultCacheStore;
+import br.com.caelum.vraptor.controller.HttpMethod;
+import br.com.caelum.vraptor.core.Converters;
+import br.com.caelum.vraptor.core.DefaultReflectionProvider;
+import br.com.caelum.vraptor.http.EncodingHandler;
+import br.com.caelum.vraptor.http.ParanamerNameProvider;
+import br.com.caelum.vraptor.http.route.DefaultRouter;
+import br.com.caelum.vraptor.http.route.DefaultTypeFinder;
+import br.com.caelum.vraptor.http.route.JavaEvaluator;
+import br.com.caelum.vraptor.http.route.RouteBuilder;
+import br.com.caelum.vraptor.proxy.JavassistProxifier;
+
+/**
+ * Generates uris for controller methods, as done by {@code linkTo} and redirects: without
+ * parameters, with parameters on the path and with properties of a bean on the path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UrlGenerationBenchmark {
+
+	private DefaultRouter router;
+	private Method list;
+	private Method show;
+	private Method edit;
+	private Product product;
+
+	public static class Product {
+		private final Long id;
+		private final String section;
+
+		public Product(Long id, String section) {
+			this.id = id;
+			this.section = section;
+		}
+
+		public Long getId() {
+			return id;
+		}
+
+		public String getSection() {
+			return section;
+		}
+	}
+
+	public static class ProductController {
+		public void list() {
+		}
+		public void show(Long id, String section) {
+		}
+		public void edit(Product product) {
+		}
+	}
+
+	@Setup
+	public void setup() throws NoSuchMethodException {
+		ServletContext context = Stubs.stub(ServletContext.class);
+		EncodingHandler encodingHandler = new EncodingHandler(context);
+		encodingHandler.init();
+		ParanamerNameProvider nameProvider = new ParanamerNameProvider();
+		DefaultReflectionProvider reflectionProvider = new DefaultReflectionProvider();
+
+		router = new DefaultRouter(new JavassistProxifier(), new DefaultTypeFinder(nameProvider, reflectionProvider),
+				Stubs.stub(Converters.class), nameProvider, new JavaEvaluator(reflectionProvider), encodingHandler,
+				new DefaultCacheStore<>());
+
+		list = ProductController.class.getMethod("list");
+		show = ProductController.class.getMethod("show", Long.class, String.class);
+		edit = ProductController.class.getMethod("edit", Product.class);
+		add("/products", list);
+		add("/products/{id}/{section}", show);
+		add("/products/{product.id}/{product.section}/edit", edit);
+
+		product = new Product(42L, "details");
+	}
+
+	private void add(String uri, Method method) {
+		RouteBuilder builder = router.builderFor(uri).with(HttpMethod.GET);
+		builder.is(ProductController.class, method);
+		router.add(builder.build());
+	}
+
+	@Benchmark
+	public String literal() {
+		return router.urlFor(ProductController.class, list);
+	}
+
+	@Benchmark
+	public String withParameters() {
+		return router.urlFor(ProductController.class, show, 42L, "details");
+	}
+
+	@Benchmark
+	public String withBeanProperties() {
+		return router.urlFor(ProductController.class, edit, product);
+	}
+}
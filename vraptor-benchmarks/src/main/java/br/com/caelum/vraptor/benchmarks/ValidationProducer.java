@@ -0,0 +1,44 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.benchmarks;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Produces;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+/**
+ * Bean Validation for the benchmark application, which application servers would provide.
+ */
+@ApplicationScoped
+public class ValidationProducer {
+
+	private final ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
+
+	@Produces
+	@ApplicationScoped
+	public ValidatorFactory getValidatorFactory() {
+		return factory;
+	}
+
+	@Produces
+	@ApplicationScoped
+	public Validator getValidator() {
+		return factory.getValidator();
+	}
+}
@@ -0,0 +1,49 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package br.com.caelum.vraptor;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares that the accepts of an interceptor depends only on the controller method, so VRaptor
+ * evaluates it once per controller method instead of once per request. Can also be used on
+ * {@link br.com.caelum.vraptor.interceptor.AcceptsValidator}s, telling that custom accepts
+ * annotations using them are static as well.
+ *
+ * <code>
+ * \@Intercepts
+ * \@StaticAccepts
+ * public class AuditInterceptor {
+ *
+ *     \@Accepts
+ *     public boolean accepts(ControllerMethod method) {
+ *         return method.containsAnnotation(Audit.class);
+ *     }
+ * }
+ * </code>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Inherited
+public @interface StaticAccepts {
+
+}
@@ -17,6 +17,8 @@
 
 package br.com.caelum.vraptor;
 
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -45,6 +47,7 @@ import br.com.caelum.vraptor.events.VRaptorInitialized;
 import br.com.caelum.vraptor.http.EncodingHandler;
 import br.com.caelum.vraptor.interceptor.ApplicationLogicException;
 import br.com.caelum.vraptor.ioc.RequestStartedFactory;
+import br.com.caelum.vraptor.ioc.StartupPipeline;
 import br.com.caelum.vraptor.ioc.cdi.CDIRequestFactories;
 
 /**
@@ -82,6 +85,9 @@ public class VRaptor implements Filter {
 	@Inject
 	private CDIRequestFactories cdiRequestFactories;
 
+	@Inject
+	private StartupPipeline startupPipeline;
+
 	@Override
 	public void init(FilterConfig cfg) throws ServletException {
 		servletContext = cfg.getServletContext();
@@ -90,9 +96,11 @@ public class VRaptor implements Filter {
 		validateIfCdiIsFound();
 		warnIfBeansXmlIsNotFound();
 
+		long start = System.nanoTime();
 		initializedEvent.fire(new VRaptorInitialized(servletContext));
 
-		logger.info("VRaptor {} successfuly initialized", VERSION);
+		logger.info("VRaptor {} successfuly initialized in {} ms, milliseconds per phase: {}", VERSION,
+				NANOSECONDS.toMillis(System.nanoTime() - start), startupPipeline.getTimings());
 	}
 
 	@Override
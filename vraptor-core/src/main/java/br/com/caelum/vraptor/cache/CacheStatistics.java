@@ -0,0 +1,89 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.cache;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Member;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.spi.AnnotatedParameter;
+import javax.enterprise.inject.spi.InjectionPoint;
+
+/**
+ * Statistics of the {@link TinyLFU} caches, by injection point. Injection points are named as
+ * {@code fully.qualified.Class#member}, where constructor parameters use {@code <init>} as the
+ * member name, and parameters are followed by their position, as in {@code Class#<init>[1]}.
+ * Caches produced for the same injection point, like the ones of request scoped components, share
+ * the same counters.
+ *
+ * @since 4.4
+ */
+@ApplicationScoped
+public class CacheStatistics {
+
+	private final ConcurrentMap<String, CacheCounters> counters = new ConcurrentHashMap<>();
+
+	/**
+	 * @return the statistics of every injection point, ordered by name.
+	 */
+	public Map<String, CacheStats> snapshot() {
+		Map<String, CacheStats> snapshot = new TreeMap<>();
+		for (Entry<String, CacheCounters> entry : counters.entrySet()) {
+			snapshot.put(entry.getKey(), entry.getValue().snapshot());
+		}
+		return snapshot;
+	}
+
+	/**
+	 * @return the statistics of the named injection point, or null if there is no such cache.
+	 */
+	public CacheStats of(String injectionPoint) {
+		CacheCounters found = counters.get(injectionPoint);
+		return found == null ? null : found.snapshot();
+	}
+
+	CacheCounters countersFor(InjectionPoint ip) {
+		String name = nameOf(ip);
+		CacheCounters found = counters.get(name);
+		if (found == null) {
+			CacheCounters created = new CacheCounters();
+			found = counters.putIfAbsent(name, created);
+			if (found == null) {
+				found = created;
+			}
+		}
+		return found;
+	}
+
+	static String nameOf(InjectionPoint ip) {
+		Member member = ip.getMember();
+		if (member == null) {
+			return String.valueOf(ip.getType());
+		}
+		String name = member.getDeclaringClass().getName() + "#"
+				+ (member instanceof Constructor ? "<init>" : member.getName());
+		if (ip.getAnnotated() instanceof AnnotatedParameter) {
+			return name + "[" + ((AnnotatedParameter<?>) ip.getAnnotated()).getPosition() + "]";
+		}
+		return name;
+	}
+}
@@ -0,0 +1,77 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.cache;
+
+import javax.enterprise.inject.Vetoed;
+
+/**
+ * A snapshot of the hits, misses and evictions of a {@link TinyLFUCacheStore}.
+ *
+ * @since 4.4
+ */
+@Vetoed
+public class CacheStats {
+
+	private final long hits;
+	private final long misses;
+	private final long evictions;
+
+	public CacheStats(long hits, long misses, long evictions) {
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+	}
+
+	/**
+	 * @return how many fetches found a value, including the ones that waited for a concurrent
+	 *         computation of the same key.
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return how many fetches did not find a value.
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return how many values were removed because the cache was full or they expired.
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+
+	public long getRequests() {
+		return hits + misses;
+	}
+
+	/**
+	 * @return the ratio of hits to fetches, or 1 when nothing was fetched yet.
+	 */
+	public double getHitRate() {
+		long requests = getRequests();
+		return requests == 0 ? 1.0 : (double) hits / requests;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("CacheStats[hits=%d, misses=%d, evictions=%d]", hits, misses, evictions);
+	}
+}
@@ -26,6 +26,7 @@ import javax.enterprise.inject.Produces;
 import javax.enterprise.inject.spi.InjectionPoint;
 
 import com.google.common.base.Supplier;
+import com.google.common.base.Ticker;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 
@@ -52,6 +53,20 @@ public class CacheStoreFactory {
 		return createCacheWrapper(capacity);
 	}
 
+	/**
+	 * Produces a {@link TinyLFUCacheStore} whose statistics are recorded on {@link CacheStatistics}
+	 * under the name of the injection point.
+	 *
+	 * @since 4.4
+	 */
+	@Produces
+	@TinyLFU
+	public <K, V> CacheStore<K, V> buildTinyLFUCache(InjectionPoint ip, CacheStatistics statistics) {
+		TinyLFU config = ip.getAnnotated().getAnnotation(TinyLFU.class);
+		return new TinyLFUCacheStore<>(config.capacity(), config.expireAfterWrite(), config.expireAfterAccess(),
+				statistics.countersFor(ip), Ticker.systemTicker());
+	}
+
 	public <V, K> CacheStore<K, V> createCacheWrapper(int capacity) {
 		Cache<K, V> guavaCache = CacheBuilder.newBuilder()
 			.maximumSize(capacity)
@@ -0,0 +1,57 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import javax.enterprise.util.Nonbinding;
+import javax.inject.Qualifier;
+
+/**
+ * Used to mark an cache implementation as a bounded {@link TinyLFUCacheStore}. Values computed
+ * by {@link CacheStore#fetch(Object, com.google.common.base.Supplier)} are computed only once,
+ * even on concurrent misses, and the statistics of each injection point are available on
+ * {@link CacheStatistics}.
+ *
+ * @since 4.4
+ */
+@Qualifier
+@Target(value={ElementType.TYPE,ElementType.FIELD,ElementType.PARAMETER,ElementType.METHOD})
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+public @interface TinyLFU {
+
+	@Nonbinding
+	int capacity() default 100;
+
+	/**
+	 * Milliseconds after the last write of a key when it expires, or zero to never expire.
+	 */
+	@Nonbinding
+	long expireAfterWrite() default 0;
+
+	/**
+	 * Milliseconds after the last read or write of a key when it expires, or zero to never expire.
+	 */
+	@Nonbinding
+	long expireAfterAccess() default 0;
+
+}
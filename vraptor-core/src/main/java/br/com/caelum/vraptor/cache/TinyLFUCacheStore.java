@@ -0,0 +1,448 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Throwables.propagateIfPossible;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.enterprise.inject.Vetoed;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Ticker;
+
+/**
+ * A bounded {@link CacheStore} with W-TinyLFU eviction. New keys enter a small LRU window; when it
+ * overflows, its oldest key is admitted into the main space only if a {@link FrequencySketch}
+ * says it was used more often than the key it would evict. The main space is a segmented LRU, so
+ * keys read again while in probation are protected from one-hit wonders.
+ * <p>
+ * Reads never block: they are recorded on a lossy buffer and replayed when the eviction lock is
+ * free. Concurrent misses of the same key on {@link #fetch(Object, Supplier)} wait for a single
+ * computation. Null values are never stored.
+ * <p>
+ * Expired values are never returned. They are removed when read, or when they get to the head of
+ * their queue while the cache is written.
+ *
+ * @since 4.4
+ */
+@Vetoed
+public class TinyLFUCacheStore<K, V> implements CacheStore<K, V> {
+
+	private static final int WINDOW = 0;
+	private static final int PROBATION = 1;
+	private static final int PROTECTED = 2;
+	private static final int UNLINKED = -1;
+
+	private static final int READ_BUFFER_SIZE = 128;
+	private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+	private static final int DRAIN_MASK = 31;
+
+	private final ConcurrentMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+	private final ConcurrentMap<K, Load<V>> loads = new ConcurrentHashMap<>();
+	private final AtomicReferenceArray<Node<K, V>> readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+	private final AtomicLong reads = new AtomicLong();
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	private final AccessQueue<K, V> window = new AccessQueue<>();
+	private final AccessQueue<K, V> probation = new AccessQueue<>();
+	private final AccessQueue<K, V> protectedQueue = new AccessQueue<>();
+	private final FrequencySketch sketch;
+
+	private final int maximum;
+	private final int windowMaximum;
+	private final int protectedMaximum;
+	private final long expireAfterWriteNanos;
+	private final long expireAfterAccessNanos;
+	private final CacheCounters counters;
+	private final Ticker ticker;
+
+	public TinyLFUCacheStore(int capacity) {
+		this(capacity, 0, 0);
+	}
+
+	/**
+	 * @param expireAfterWrite milliseconds after a write when the key expires, or zero.
+	 * @param expireAfterAccess milliseconds after a read or write when the key expires, or zero.
+	 */
+	public TinyLFUCacheStore(int capacity, long expireAfterWrite, long expireAfterAccess) {
+		this(capacity, expireAfterWrite, expireAfterAccess, new CacheCounters(), Ticker.systemTicker());
+	}
+
+	TinyLFUCacheStore(int capacity, long expireAfterWrite, long expireAfterAccess, CacheCounters counters,
+			Ticker ticker) {
+		checkArgument(capacity > 0, "capacity must be positive: %s", capacity);
+		checkArgument(expireAfterWrite >= 0 && expireAfterAccess >= 0, "expirations can't be negative");
+		this.maximum = capacity;
+		this.windowMaximum = Math.max(1, capacity / 100);
+		this.protectedMaximum = (capacity - windowMaximum) * 4 / 5;
+		this.expireAfterWriteNanos = TimeUnit.MILLISECONDS.toNanos(expireAfterWrite);
+		this.expireAfterAccessNanos = TimeUnit.MILLISECONDS.toNanos(expireAfterAccess);
+		this.sketch = new FrequencySketch(capacity);
+		this.counters = counters;
+		this.ticker = ticker;
+	}
+
+	@Override
+	public V write(K key, V value) {
+		long now = ticker.read();
+		Node<K, V> prior = put(key, value, now);
+		return prior == null || hasExpired(prior, now) ? null : prior.value;
+	}
+
+	@Override
+	public V fetch(K key) {
+		Node<K, V> node = read(key);
+		if (node == null) {
+			counters.miss();
+			return null;
+		}
+		counters.hit();
+		return node.value;
+	}
+
+	@Override
+	public V fetch(K key, final Supplier<V> valueProvider) {
+		Node<K, V> node = read(key);
+		if (node != null) {
+			counters.hit();
+			return node.value;
+		}
+
+		Load<V> load = new Load<>(new Callable<V>() {
+			@Override
+			public V call() throws Exception {
+				return valueProvider.get();
+			}
+		});
+		Load<V> running = loads.putIfAbsent(key, load);
+		if (running != null) {
+			if (running.owner == Thread.currentThread()) {
+				throw new IllegalStateException("Recursive computation of the value of key: " + key);
+			}
+			counters.hit();
+			return valueOf(running);
+		}
+
+		try {
+			node = read(key);
+			if (node != null) {
+				counters.hit();
+				load.set(node.value);
+				return node.value;
+			}
+			counters.miss();
+			load.run();
+			V value = valueOf(load);
+			if (value != null) {
+				put(key, value, ticker.read());
+			}
+			return value;
+		} finally {
+			loads.remove(key, load);
+		}
+	}
+
+	/**
+	 * @return the hits, misses and evictions of this cache.
+	 */
+	public CacheStats stats() {
+		return counters.snapshot();
+	}
+
+	/**
+	 * @return how many values are stored, including expired ones not removed yet.
+	 */
+	public int size() {
+		return data.size();
+	}
+
+	private V valueOf(Load<V> load) {
+		try {
+			return load.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CacheException("Interrupted while waiting for the value", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			propagateIfPossible(cause);
+			throw new CacheException("Error computing the value", (Exception) cause);
+		}
+	}
+
+	private Node<K, V> read(K key) {
+		Node<K, V> node = data.get(key);
+		if (node == null) {
+			return null;
+		}
+		long now = ticker.read();
+		if (hasExpired(node, now)) {
+			removeExpired(node);
+			return null;
+		}
+		if (expireAfterAccessNanos > 0) {
+			node.accessTime = now;
+		}
+		afterRead(node);
+		return node;
+	}
+
+	private void afterRead(Node<K, V> node) {
+		long position = reads.getAndIncrement();
+		readBuffer.lazySet((int) (position & READ_BUFFER_MASK), node);
+		if ((position & DRAIN_MASK) == DRAIN_MASK && evictionLock.tryLock()) {
+			try {
+				drainReads();
+			} finally {
+				evictionLock.unlock();
+			}
+		}
+	}
+
+	private Node<K, V> put(K key, V value, long now) {
+		Node<K, V> node = new Node<>(key, value, now);
+		Node<K, V> prior = data.put(key, node);
+		evictionLock.lock();
+		try {
+			drainReads();
+			if (prior != null) {
+				unlink(prior);
+			}
+			if (node.alive) {
+				sketch.increment(key);
+				node.queue = WINDOW;
+				window.add(node);
+			}
+			expire(now);
+			evict();
+		} finally {
+			evictionLock.unlock();
+		}
+		return prior;
+	}
+
+	private void removeExpired(Node<K, V> node) {
+		evictionLock.lock();
+		try {
+			if (node.alive) {
+				evict(node);
+			}
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	private void drainReads() {
+		for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+			Node<K, V> node = readBuffer.getAndSet(i, null);
+			if (node != null && node.alive && node.queue != UNLINKED) {
+				onAccess(node);
+			}
+		}
+	}
+
+	private void onAccess(Node<K, V> node) {
+		sketch.increment(node.key);
+		if (node.queue == WINDOW) {
+			window.moveToBack(node);
+		} else if (node.queue == PROTECTED) {
+			protectedQueue.moveToBack(node);
+		} else {
+			probation.remove(node);
+			node.queue = PROTECTED;
+			protectedQueue.add(node);
+			while (protectedQueue.size > protectedMaximum) {
+				Node<K, V> demoted = protectedQueue.poll();
+				demoted.queue = PROBATION;
+				probation.add(demoted);
+			}
+		}
+	}
+
+	private void expire(long now) {
+		if (expireAfterWriteNanos == 0 && expireAfterAccessNanos == 0) {
+			return;
+		}
+		expireHeads(window, now);
+		expireHeads(probation, now);
+		expireHeads(protectedQueue, now);
+	}
+
+	private void expireHeads(AccessQueue<K, V> queue, long now) {
+		Node<K, V> head = queue.peek();
+		while (head != null && hasExpired(head, now)) {
+			evict(head);
+			head = queue.peek();
+		}
+	}
+
+	/**
+	 * Moves the overflow of the window to probation and, while the cache is full, lets each of
+	 * these candidates compete with the head of probation: the one used less often is evicted.
+	 */
+	private void evict() {
+		Deque<Node<K, V>> candidates = new ArrayDeque<>();
+		while (window.size > windowMaximum) {
+			Node<K, V> candidate = window.poll();
+			candidate.queue = PROBATION;
+			probation.add(candidate);
+			candidates.add(candidate);
+		}
+
+		while (window.size + probation.size + protectedQueue.size > maximum) {
+			Node<K, V> victim = probation.peek();
+			if (victim == null) {
+				victim = protectedQueue.peek() != null ? protectedQueue.peek() : window.peek();
+				evict(victim);
+				continue;
+			}
+			Node<K, V> candidate = candidates.peek();
+			if (candidate == null || candidate == victim) {
+				candidates.remove(victim);
+				evict(victim);
+			} else if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+				evict(victim);
+			} else {
+				candidates.poll();
+				evict(candidate);
+			}
+		}
+	}
+
+	private void evict(Node<K, V> node) {
+		unlink(node);
+		data.remove(node.key, node);
+		counters.evicted();
+	}
+
+	private void unlink(Node<K, V> node) {
+		node.alive = false;
+		if (node.queue == WINDOW) {
+			window.remove(node);
+		} else if (node.queue == PROBATION) {
+			probation.remove(node);
+		} else if (node.queue == PROTECTED) {
+			protectedQueue.remove(node);
+		}
+		node.queue = UNLINKED;
+	}
+
+	private boolean hasExpired(Node<K, V> node, long now) {
+		return (expireAfterWriteNanos > 0 && now - node.writeTime >= expireAfterWriteNanos)
+				|| (expireAfterAccessNanos > 0 && now - node.accessTime >= expireAfterAccessNanos);
+	}
+
+	private static class Node<K, V> {
+		final K key;
+		final V value;
+		final long writeTime;
+		volatile long accessTime;
+		volatile boolean alive = true;
+
+		// guarded by the eviction lock
+		int queue = UNLINKED;
+		Node<K, V> previous;
+		Node<K, V> next;
+
+		Node(K key, V value, long now) {
+			this.key = key;
+			this.value = value;
+			this.writeTime = now;
+			this.accessTime = now;
+		}
+	}
+
+	/**
+	 * A doubly linked list ordered from the least to the most recently used node.
+	 */
+	private static class AccessQueue<K, V> {
+		private Node<K, V> first;
+		private Node<K, V> last;
+		int size;
+
+		Node<K, V> peek() {
+			return first;
+		}
+
+		Node<K, V> poll() {
+			Node<K, V> node = first;
+			if (node != null) {
+				remove(node);
+			}
+			return node;
+		}
+
+		void add(Node<K, V> node) {
+			node.previous = last;
+			node.next = null;
+			if (last == null) {
+				first = node;
+			} else {
+				last.next = node;
+			}
+			last = node;
+			size++;
+		}
+
+		void remove(Node<K, V> node) {
+			if (node.previous == null) {
+				first = node.next;
+			} else {
+				node.previous.next = node.next;
+			}
+			if (node.next == null) {
+				last = node.previous;
+			} else {
+				node.next.previous = node.previous;
+			}
+			node.previous = null;
+			node.next = null;
+			size--;
+		}
+
+		void moveToBack(Node<K, V> node) {
+			if (node != last) {
+				remove(node);
+				add(node);
+			}
+		}
+	}
+
+	private static class Load<V> extends FutureTask<V> {
+		final Thread owner = Thread.currentThread();
+
+		Load(Callable<V> callable) {
+			super(callable);
+		}
+
+		@Override
+		protected void set(V value) {
+			super.set(value);
+		}
+	}
+}
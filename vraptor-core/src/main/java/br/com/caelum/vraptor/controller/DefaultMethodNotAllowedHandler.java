@@ -21,9 +21,12 @@ import java.io.IOException;
 import java.util.Set;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Event;
+import javax.inject.Inject;
 import javax.servlet.http.HttpServletResponse;
 
 import br.com.caelum.vraptor.InterceptionException;
+import br.com.caelum.vraptor.events.MethodNotAllowed;
 import br.com.caelum.vraptor.http.MutableRequest;
 import br.com.caelum.vraptor.http.MutableResponse;
 
@@ -37,8 +40,23 @@ import com.google.common.base.Joiner;
 @ApplicationScoped
 public class DefaultMethodNotAllowedHandler implements MethodNotAllowedHandler {
 
+	private final Event<MethodNotAllowed> event;
+
+	/**
+	 * @deprecated CDI eyes only
+	 */
+	protected DefaultMethodNotAllowedHandler() {
+		this(null);
+	}
+
+	@Inject
+	public DefaultMethodNotAllowedHandler(Event<MethodNotAllowed> event) {
+		this.event = event;
+	}
+
 	@Override
 	public void deny(MutableRequest request, MutableResponse response, Set<HttpMethod> allowedMethods) {
+		event.fire(new MethodNotAllowed(allowedMethods));
 		response.addHeader("Allow", Joiner.on(", ").join(allowedMethods));
 		try {
 			if (!"OPTIONS".equalsIgnoreCase(request.getMethod())) {
@@ -34,7 +34,7 @@ import com.google.common.base.Supplier;
 import br.com.caelum.vraptor.Convert;
 import br.com.caelum.vraptor.TwoWayConverter;
 import br.com.caelum.vraptor.cache.CacheStore;
-import br.com.caelum.vraptor.cache.LRU;
+import br.com.caelum.vraptor.cache.TinyLFU;
 import br.com.caelum.vraptor.converter.Converter;
 import br.com.caelum.vraptor.ioc.Container;
 
@@ -64,7 +64,7 @@ public class DefaultConverters implements Converters {
 	}
 
 	@Inject
-	public DefaultConverters(Container container, @LRU CacheStore<Class<?>, Class<? extends Converter<?>>> cache) {
+	public DefaultConverters(Container container, @TinyLFU CacheStore<Class<?>, Class<? extends Converter<?>>> cache) {
 		this.container = container;
 		this.cache = cache;
 		logger.info("Registering bundled converters");
@@ -19,6 +19,7 @@ package br.com.caelum.vraptor.core;
 
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 
 import javax.enterprise.context.RequestScoped;
 import javax.enterprise.event.Event;
@@ -33,6 +34,7 @@ import br.com.caelum.vraptor.controller.ControllerInstance;
 import br.com.caelum.vraptor.controller.ControllerMethod;
 import br.com.caelum.vraptor.events.InterceptorsExecuted;
 import br.com.caelum.vraptor.events.InterceptorsReady;
+import br.com.caelum.vraptor.metrics.DispatchMetrics;
 import br.com.caelum.vraptor.view.DefaultLogicResult;
 
 /**
@@ -52,44 +54,69 @@ public class DefaultInterceptorStack implements InterceptorStack {
 	private final Instance<ControllerInstance> controllerInstance;
 	private final Event<InterceptorsReady> interceptorsReadyEvent;
 	private final Event<InterceptorsExecuted> interceptorsExecutedEvent;
+	private final DispatchMetrics metrics;
+
+	/**
+	 * Time spent on the calls to {@link #next} made by the interceptor being executed.
+	 */
+	private long nestedNanos;
 
 	/**
 	 * @deprecated CDI eyes only
 	 */
 	protected DefaultInterceptorStack() {
-		this(null, null, null, null, null);
+		this(null, null, null, null, null, null);
 	}
 
-	@Inject
+	/**
+	 * @deprecated Prefer using {@link DefaultInterceptorStack#DefaultInterceptorStack(InterceptorStackHandlersCache,
+	 *             Instance, Instance, Event, Event, DispatchMetrics)}
+	 */
 	public DefaultInterceptorStack(InterceptorStackHandlersCache cache, Instance<ControllerMethod>
 			controllerMethod, Instance<ControllerInstance> controllerInstance, Event<InterceptorsExecuted> event,
 			Event<InterceptorsReady> stackStartingEvent) {
+		this(cache, controllerMethod, controllerInstance, event, stackStartingEvent, null);
+	}
+
+	@Inject
+	public DefaultInterceptorStack(InterceptorStackHandlersCache cache, Instance<ControllerMethod>
+			controllerMethod, Instance<ControllerInstance> controllerInstance, Event<InterceptorsExecuted> event,
+			Event<InterceptorsReady> stackStartingEvent, DispatchMetrics metrics) {
 		this.cache = cache;
 		this.controllerMethod = controllerMethod;
 		this.controllerInstance = controllerInstance;
 		this.interceptorsExecutedEvent = event;
 		this.interceptorsReadyEvent = stackStartingEvent;
+		this.metrics = metrics;
 	}
 
 	@Override
 	public void next(ControllerMethod method, Object controllerInstance) throws InterceptionException {
 		Iterator<InterceptorHandler> iterator = internalStack.peek();
-
-		if (!iterator.hasNext()) {
-			interceptorsExecutedEvent.fire(new InterceptorsExecuted(controllerMethod.get(), controllerInstance));
-			logger.debug("All registered interceptors have been called. End of VRaptor Request Execution.");
-			return;
+		long start = System.nanoTime();
+		long enclosingNanos = nestedNanos;
+		nestedNanos = 0;
+		try {
+			if (!iterator.hasNext()) {
+				interceptorsExecutedEvent.fire(new InterceptorsExecuted(controllerMethod.get(), controllerInstance));
+				logger.debug("All registered interceptors have been called. End of VRaptor Request Execution.");
+				return;
+			}
+			InterceptorHandler handler = iterator.next();
+			handler.execute(this, method, controllerInstance);
+			if (metrics != null && metrics.isEnabled()) {
+				metrics.interceptorExecuted(handler, System.nanoTime() - start - nestedNanos);
+			}
+		} finally {
+			nestedNanos = enclosingNanos + System.nanoTime() - start;
 		}
-		InterceptorHandler handler = iterator.next();
-		handler.execute(this, method, controllerInstance);
-
 	}
 
 	@Override
 	public void start() {
 		ControllerMethod method = controllerMethod.get();
 		interceptorsReadyEvent.fire(new InterceptorsReady(method));
-		LinkedList<InterceptorHandler> handlers = cache.getInterceptorHandlers();
+		List<InterceptorHandler> handlers = cache.getInterceptorHandlers(method);
 		internalStack.addFirst(handlers.iterator());
 		this.next(method, controllerInstance.get().getController());
 		internalStack.poll();
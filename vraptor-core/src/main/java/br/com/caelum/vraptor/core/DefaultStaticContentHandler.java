@@ -19,8 +19,13 @@ package br.com.caelum.vraptor.core;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletContext;
@@ -31,10 +36,22 @@ import javax.servlet.http.HttpServletResponse;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import br.com.caelum.vraptor.environment.Environment;
+import br.com.caelum.vraptor.events.VRaptorInitialized;
 import br.com.caelum.vraptor.http.VRaptorRequest;
 
+import com.google.common.base.Splitter;
+
 /**
  * Handles default content if the request corresponds to static content.
+ * <p>
+ * The static files of the application are indexed when VRaptor is initialized, and what the container
+ * answers for other uris is remembered, so most requests don't look for resources at all. Uris that
+ * aren't files are looked for again after a minute, as files may be added at runtime. Files that are always
+ * static can be given with the {@value #STATIC_PATHS_KEY} context parameter, as a comma separated list
+ * of paths, prefixes or extensions, such as {@code /favicon.ico, /assets/**, *.css}. In development the
+ * index is rebuilt when files change, and setting {@value #STATIC_INDEX_KEY} to {@code false} asks the
+ * container on every request, as older versions did.
  *
  * @author guilherme silveira
  * @author unknown - based on vraptor2
@@ -42,26 +59,104 @@ import br.com.caelum.vraptor.http.VRaptorRequest;
 @ApplicationScoped
 public class DefaultStaticContentHandler implements StaticContentHandler {
 
+	/**
+	 * context parameter with rules for uris that are always static files
+	 */
+	public static final String STATIC_PATHS_KEY = "br.com.caelum.vraptor.staticPaths";
+
+	/**
+	 * context parameter to disable the index of static files
+	 */
+	public static final String STATIC_INDEX_KEY = "br.com.caelum.vraptor.staticIndex";
+
+	private static final long MAXIMUM_REMEMBERED_URIS = 10000;
+	private static final long MISSES_REMEMBERED_FOR_SECONDS = 60;
+
 	//private static final Logger logger = LoggerFactory.getLogger(DefaultStaticContentHandler.class);
 	private static final Logger logger = LogManager.getLogger(DefaultStaticContentHandler.class);
 	private final ServletContext context;
+	private final Environment environment;
+	private volatile StaticResourceIndex index;
+	private StaticResourceWatcher watcher;
 
 	/** 
 	 * @deprecated CDI eyes only
 	 */
 	protected DefaultStaticContentHandler() {
-		this(null);
+		this(null, null);
 	}
-	
-	@Inject
+
+	/**
+	 * @deprecated Prefer using
+	 *             {@link DefaultStaticContentHandler#DefaultStaticContentHandler(ServletContext, Environment)}
+	 */
 	public DefaultStaticContentHandler(ServletContext context) {
+		this(context, null);
+	}
+
+	@Inject
+	public DefaultStaticContentHandler(ServletContext context, Environment environment) {
 		this.context = context;
+		this.environment = environment;
+	}
+
+	public void indexOnStartup(@Observes VRaptorInitialized event) {
+		init();
+	}
+
+	/**
+	 * Indexes the static files of the application, if it wasn't done yet. Until then every uri is
+	 * looked for in the container.
+	 */
+	public synchronized void init() {
+		if (index != null || context == null || "false".equals(context.getInitParameter(STATIC_INDEX_KEY))) {
+			return;
+		}
+		StaticResourceIndex built = new StaticResourceIndex(rules(), MAXIMUM_REMEMBERED_URIS,
+				MISSES_REMEMBERED_FOR_SECONDS, TimeUnit.SECONDS);
+		built.rebuild(context);
+		index = built;
+
+		if (environment != null && environment.isDevelopment()) {
+			try {
+				watcher = StaticResourceWatcher.watch(context, built);
+			} catch (IOException e) {
+				logger.warn("Unable to watch static resources, they won't be reindexed", e);
+			}
+		}
+	}
+
+	private List<String> rules() {
+		String rules = context.getInitParameter(STATIC_PATHS_KEY);
+		if (rules == null) {
+			return Collections.emptyList();
+		}
+		return Splitter.on(',').trimResults().omitEmptyStrings().splitToList(rules);
 	}
-	
+
+	@PreDestroy
+	public void stop() throws IOException {
+		if (watcher != null) {
+			watcher.close();
+		}
+	}
+
 	@Override
 	public boolean requestingStaticFile(HttpServletRequest request) throws MalformedURLException {
-		URL resourceUrl = context.getResource(uriRelativeToContextRoot(request));
-		return resourceUrl != null && isAFile(resourceUrl);
+		String uri = uriRelativeToContextRoot(request);
+		StaticResourceIndex index = this.index;
+		if (index != null) {
+			Boolean known = index.isStatic(uri);
+			if (known != null) {
+				return known;
+			}
+		}
+		URL resourceUrl = context.getResource(uri);
+		boolean isStatic = resourceUrl != null && isAFile(resourceUrl);
+		if (index != null) {
+			index.remember(uri, isStatic);
+		}
+		return isStatic;
 	}
 
 	private String uriRelativeToContextRoot(HttpServletRequest request) {
@@ -70,12 +165,14 @@ public class DefaultStaticContentHandler implements StaticContentHandler {
 	}
 
 	private static String removeQueryStringAndJSessionId(String uri) {
-		if (uri.contains("?") || uri.contains(";")) {
-			return uri.replaceAll("[\\?;].+", "");
+		for (int i = 0; i < uri.length() - 1; i++) {
+			char character = uri.charAt(i);
+			if (character == '?' || character == ';') {
+				return uri.substring(0, i);
+			}
 		}
 		return uri;
 	}
-
 	private static boolean isAFile(URL resourceUrl) {
 		return !resourceUrl.toString().endsWith("/");
 	}
@@ -16,6 +16,7 @@
 package br.com.caelum.vraptor.core;
 
 import java.util.LinkedList;
+import java.util.List;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -23,10 +24,18 @@ import javax.inject.Inject;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import br.com.caelum.vraptor.InterceptionException;
+import br.com.caelum.vraptor.cache.CacheStore;
+import br.com.caelum.vraptor.controller.ControllerMethod;
 import br.com.caelum.vraptor.interceptor.InterceptorRegistry;
 
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
+
 /**
- * Cache all instances of {@link InterceptorHandler} when application starts.
+ * Cache all instances of {@link InterceptorHandler} when application starts, and the chain of
+ * handlers of each {@link ControllerMethod}, without the interceptors whose static accepts
+ * rejected the method.
  */
 @ApplicationScoped
 public class InterceptorStackHandlersCache {
@@ -34,6 +43,7 @@ public class InterceptorStackHandlersCache {
 	private final LinkedList<InterceptorHandler> interceptorHandlers = new LinkedList<>();
 	private final InterceptorRegistry registry;
 	private final InterceptorHandlerFactory handlerFactory;
+	private final CacheStore<ControllerMethod, List<InterceptorHandler>> chains;
 
 	//private final Logger logger = LoggerFactory.getLogger(InterceptorStackHandlersCache.class);
 	private static final Logger logger = LogManager.getLogger(InterceptorStackHandlersCache.class);
@@ -41,13 +51,15 @@ public class InterceptorStackHandlersCache {
 	 * @deprecated CDI eyes only
 	 */
 	protected InterceptorStackHandlersCache() {
-		this(null, null);
+		this(null, null, null);
 	}
 
 	@Inject
-	public InterceptorStackHandlersCache(InterceptorRegistry registry, InterceptorHandlerFactory handlerFactory){
+	public InterceptorStackHandlersCache(InterceptorRegistry registry, InterceptorHandlerFactory handlerFactory,
+			CacheStore<ControllerMethod, List<InterceptorHandler>> chains){
 		this.registry = registry;
 		this.handlerFactory = handlerFactory;
+		this.chains = chains;
 	}
 
 	public void init() {
@@ -62,4 +74,61 @@ public class InterceptorStackHandlersCache {
 		return new LinkedList<>(interceptorHandlers);
 	}
 
+	/**
+	 * Returns the handlers to be executed for the given method. The first call for each method
+	 * evaluates the static accepts of the interceptors, so it must be done during a request to that
+	 * method.
+	 */
+	public List<InterceptorHandler> getInterceptorHandlers(final ControllerMethod method) {
+		return chains.fetch(method, new Supplier<List<InterceptorHandler>>() {
+			@Override
+			public List<InterceptorHandler> get() {
+				return chainFor(method);
+			}
+		});
+	}
+
+	private List<InterceptorHandler> chainFor(ControllerMethod method) {
+		ImmutableList.Builder<InterceptorHandler> chain = ImmutableList.builder();
+		for (InterceptorHandler handler : interceptorHandlers) {
+			if (!(handler instanceof StaticAcceptsInterceptorHandler)) {
+				chain.add(handler);
+				continue;
+			}
+			StaticAcceptsInterceptorHandler staticHandler = (StaticAcceptsInterceptorHandler) handler;
+			if (!staticHandler.hasStaticAccepts()) {
+				chain.add(handler);
+			} else if (staticHandler.accepts(method)) {
+				logger.debug("{} always accepts {}", handler, method);
+				chain.add(new AcceptedInterceptorHandler(staticHandler));
+			} else {
+				logger.debug("{} never accepts {}", handler, method);
+			}
+		}
+		return chain.build();
+	}
+
+	/**
+	 * Executes an interceptor already known to accept the current method.
+	 */
+	private static class AcceptedInterceptorHandler implements InterceptorHandler {
+
+		private final StaticAcceptsInterceptorHandler delegate;
+
+		AcceptedInterceptorHandler(StaticAcceptsInterceptorHandler delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void execute(InterceptorStack stack, ControllerMethod method, Object controllerInstance)
+				throws InterceptionException {
+			delegate.executeAccepted(stack, method, controllerInstance);
+		}
+
+		@Override
+		public String toString() {
+			return delegate.toString();
+		}
+	}
+
 }
@@ -0,0 +1,208 @@
+package br.com.caelum.vraptor.core;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Alternative;
+
+import com.google.common.base.Optional;
+import com.google.common.primitives.Primitives;
+
+/**
+ * A {@link ReflectionProvider} that keeps the methods and fields of each class after the first
+ * lookup, and invokes methods through {@link MethodHandle}s bound once per method. Lookups are
+ * still done by Mirror, so the results are the same of {@link DefaultReflectionProvider}, and so
+ * are the exceptions: anything thrown while invoking is wrapped in a
+ * {@link ReflectionProviderException} whose cause is the original exception.
+ * <p>
+ * This provider is an alternative, so it must be enabled in your {@code beans.xml}:
+ *
+ * <pre>
+ * &lt;alternatives&gt;
+ *     &lt;class&gt;br.com.caelum.vraptor.core.MethodHandleReflectionProvider&lt;/class&gt;
+ * &lt;/alternatives&gt;
+ * </pre>
+ *
+ * or globally, with an empty subclass annotated with {@code @Alternative} and {@code @Priority}.
+ */
+@Alternative
+@ApplicationScoped
+public class MethodHandleReflectionProvider extends DefaultReflectionProvider {
+
+	private final ConcurrentMap<Method, MethodHandle> invokers = new ConcurrentHashMap<>();
+
+	private final ClassValue<ClassInfo> classes = new ClassValue<ClassInfo>() {
+		@Override
+		protected ClassInfo computeValue(Class<?> type) {
+			return new ClassInfo();
+		}
+	};
+
+	@Override
+	public List<Method> getMethodsFor(Class<?> clazz) {
+		ClassInfo info = classes.get(clazz);
+		if (info.methods == null) {
+			info.methods = Collections.unmodifiableList(super.getMethodsFor(clazz));
+		}
+		return info.methods;
+	}
+
+	@Override
+	public Method getMethod(Class<?> clazz, String methodName, Class<?>... parameterTypes) {
+		ConcurrentMap<MethodKey, Optional<Method>> methods = classes.get(clazz).methodsBySignature;
+		MethodKey key = new MethodKey(methodName, parameterTypes);
+		Optional<Method> method = methods.get(key);
+		if (method == null) {
+			method = Optional.fromNullable(super.getMethod(clazz, methodName, parameterTypes));
+			methods.putIfAbsent(new MethodKey(methodName, key.parameterTypes.clone()), method);
+		}
+		return method.orNull();
+	}
+
+	@Override
+	public Object invoke(Object instance, Method method, Object... args) {
+		try {
+			return (Object) invokerFor(method).invokeExact(instance, args);
+		} catch (Throwable e) {
+			throw new ReflectionProviderException(e);
+		}
+	}
+
+	@Override
+	public Object invoke(Object instance, String methodName, Object... args) {
+		Method method = findMethod(instance.getClass(), methodName, args);
+		if (method == null) {
+			return super.invoke(instance, methodName, args);
+		}
+		return invoke(instance, method, args);
+	}
+
+	@Override
+	public Object invokeGetter(Object instance, String fieldName) {
+		ConcurrentMap<String, Optional<Method>> getters = classes.get(instance.getClass()).getters;
+		Optional<Method> getter = getters.get(fieldName);
+		if (getter == null) {
+			getter = Optional.fromNullable(findGetter(instance.getClass(), fieldName));
+			getters.putIfAbsent(fieldName, getter);
+		}
+		if (!getter.isPresent()) {
+			return super.invokeGetter(instance, fieldName);
+		}
+		return invoke(instance, getter.get());
+	}
+
+	@Override
+	public List<Field> getFieldsFor(Class<?> clazz) {
+		ClassInfo info = classes.get(clazz);
+		if (info.fields == null) {
+			info.fields = Collections.unmodifiableList(super.getFieldsFor(clazz));
+		}
+		return info.fields;
+	}
+
+	@Override
+	public Field getField(Class<?> clazz, String fieldName) {
+		ConcurrentMap<String, Optional<Field>> fields = classes.get(clazz).fieldsByName;
+		Optional<Field> field = fields.get(fieldName);
+		if (field == null) {
+			field = Optional.fromNullable(super.getField(clazz, fieldName));
+			fields.putIfAbsent(fieldName, field);
+		}
+		return field.orNull();
+	}
+
+	/**
+	 * Adapts the method to {@code (Object, Object[])Object}, ignoring the instance for static
+	 * methods and returning {@code null} for void ones.
+	 */
+	private MethodHandle invokerFor(Method method) throws IllegalAccessException {
+		MethodHandle invoker = invokers.get(method);
+		if (invoker == null) {
+			method.setAccessible(true);
+			MethodHandle handle = MethodHandles.lookup().unreflect(method);
+			if (Modifier.isStatic(method.getModifiers())) {
+				handle = MethodHandles.dropArguments(handle, 0, Object.class);
+			}
+			invoker = handle.asSpreader(Object[].class, method.getParameterTypes().length)
+					.asType(methodType(Object.class, Object.class, Object[].class));
+			invokers.putIfAbsent(method, invoker);
+		}
+		return invoker;
+	}
+
+	private Method findMethod(Class<?> type, String methodName, Object[] args) {
+		for (Method method : getMethodsFor(type)) {
+			if (method.getName().equals(methodName) && accepts(method.getParameterTypes(), args)) {
+				return method;
+			}
+		}
+		return null;
+	}
+
+	private boolean accepts(Class<?>[] types, Object[] args) {
+		int length = args == null ? 0 : args.length;
+		if (types.length != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			Class<?> type = Primitives.wrap(types[i]);
+			if (args[i] == null ? types[i].isPrimitive() : !type.isInstance(args[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private Method findGetter(Class<?> type, String fieldName) {
+		String suffix = Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+		Method getter = getMethod(type, "get" + suffix);
+		return getter != null ? getter : getMethod(type, "is" + suffix);
+	}
+
+	/**
+	 * What is known about a class. Lists are computed at most a few times on concurrent first
+	 * lookups, and always have the same contents.
+	 */
+	private static final class ClassInfo {
+		private volatile List<Method> methods;
+		private volatile List<Field> fields;
+		private final ConcurrentMap<MethodKey, Optional<Method>> methodsBySignature = new ConcurrentHashMap<>();
+		private final ConcurrentMap<String, Optional<Field>> fieldsByName = new ConcurrentHashMap<>();
+		private final ConcurrentMap<String, Optional<Method>> getters = new ConcurrentHashMap<>();
+	}
+
+	private static final class MethodKey {
+		private final String name;
+		private final Class<?>[] parameterTypes;
+
+		MethodKey(String name, Class<?>[] parameterTypes) {
+			this.name = name;
+			this.parameterTypes = parameterTypes == null ? new Class<?>[0] : parameterTypes;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * name.hashCode() + Arrays.hashCode(parameterTypes);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof MethodKey)) {
+				return false;
+			}
+			MethodKey other = (MethodKey) obj;
+			return name.equals(other.name) && Arrays.equals(parameterTypes, other.parameterTypes);
+		}
+	}
+}
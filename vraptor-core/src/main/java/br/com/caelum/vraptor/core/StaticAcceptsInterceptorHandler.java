@@ -0,0 +1,46 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.core;
+
+import br.com.caelum.vraptor.InterceptionException;
+import br.com.caelum.vraptor.StaticAccepts;
+import br.com.caelum.vraptor.controller.ControllerMethod;
+
+/**
+ * An {@link InterceptorHandler} that can tell when its interceptor accepts depends only on the
+ * controller method, so the accepts can be evaluated once and skipped on the next requests.
+ *
+ * @see StaticAccepts
+ */
+public interface StaticAcceptsInterceptorHandler extends InterceptorHandler {
+
+	/**
+	 * @return true if the accepts of the interceptor depends only on the controller method.
+	 */
+	boolean hasStaticAccepts();
+
+	/**
+	 * Evaluates the accepts of the interceptor for the given method.
+	 */
+	boolean accepts(ControllerMethod method);
+
+	/**
+	 * Executes the interceptor without evaluating its accepts again.
+	 */
+	void executeAccepted(InterceptorStack stack, ControllerMethod method, Object controllerInstance)
+			throws InterceptionException;
+}
@@ -0,0 +1,143 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.inject.Vetoed;
+import javax.servlet.ServletContext;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Knows which uris are static files of the application, so most requests don't need to ask the
+ * container. It has the files found under the webapp root when it was built (except for
+ * {@code WEB-INF} and {@code META-INF}), the configured rules, and a bounded cache of what the
+ * container answered for other uris. Misses are only remembered for a while, so files added to the
+ * application after it was indexed are found.
+ * <p>
+ * Rules are paths ({@code /favicon.ico}), prefixes ({@code /assets/**}) or extensions
+ * ({@code *.css}), and always mean static files.
+ */
+@Vetoed
+final class StaticResourceIndex {
+
+	private final List<String> paths = new ArrayList<>();
+	private final List<String> prefixes = new ArrayList<>();
+	private final List<String> extensions = new ArrayList<>();
+	private final Cache<String, Boolean> remembered;
+	private final Cache<String, Boolean> missing;
+	private volatile Set<String> files = ImmutableSet.of();
+
+	StaticResourceIndex(Collection<String> rules, long maximumAnswers, long missesFor, TimeUnit unit) {
+		this(rules, maximumAnswers, missesFor, unit, Ticker.systemTicker());
+	}
+
+	StaticResourceIndex(Collection<String> rules, long maximumAnswers, long missesFor, TimeUnit unit, Ticker ticker) {
+		for (String rule : rules) {
+			if (rule.endsWith("/**")) {
+				prefixes.add(rule.substring(0, rule.length() - 2));
+			} else if (rule.startsWith("*.")) {
+				extensions.add(rule.substring(1));
+			} else {
+				paths.add(rule);
+			}
+		}
+		remembered = CacheBuilder.newBuilder().maximumSize(maximumAnswers).build();
+		missing = CacheBuilder.newBuilder().maximumSize(maximumAnswers).expireAfterWrite(missesFor, unit)
+				.ticker(ticker).build();
+	}
+
+	/**
+	 * Indexes the files of the application again, forgetting what the container answered.
+	 */
+	void rebuild(ServletContext context) {
+		Set<String> found = new HashSet<>();
+		addFiles(context, "/", found);
+		files = ImmutableSet.copyOf(found);
+		remembered.invalidateAll();
+		missing.invalidateAll();
+	}
+
+	private void addFiles(ServletContext context, String directory, Set<String> found) {
+		Set<String> children = context.getResourcePaths(directory);
+		if (children == null) {
+			return;
+		}
+		for (String child : children) {
+			if (child.equals("/WEB-INF/") || child.equals("/META-INF/")) {
+				continue;
+			}
+			if (child.endsWith("/")) {
+				addFiles(context, child, found);
+			} else {
+				found.add(child);
+			}
+		}
+	}
+
+	/**
+	 * @return whether the uri is a static file, or {@code null} if it isn't known.
+	 */
+	Boolean isStatic(String uri) {
+		if (files.contains(uri) || matchesRules(uri)) {
+			return true;
+		}
+		if (remembered.getIfPresent(uri) != null) {
+			return true;
+		}
+		return missing.getIfPresent(uri);
+	}
+
+	/**
+	 * Remembers what the container answered for an uri.
+	 */
+	void remember(String uri, boolean isStatic) {
+		if (isStatic) {
+			remembered.put(uri, true);
+		} else {
+			missing.put(uri, false);
+		}
+	}
+
+	private boolean matchesRules(String uri) {
+		for (String path : paths) {
+			if (uri.equals(path)) {
+				return true;
+			}
+		}
+		for (String prefix : prefixes) {
+			if (uri.startsWith(prefix)) {
+				return true;
+			}
+		}
+		for (String extension : extensions) {
+			if (uri.endsWith(extension)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
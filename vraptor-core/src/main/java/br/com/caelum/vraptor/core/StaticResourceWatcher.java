@@ -0,0 +1,120 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.core;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import javax.enterprise.inject.Vetoed;
+import javax.servlet.ServletContext;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Rebuilds a {@link StaticResourceIndex} whenever files change under the webapp root, for
+ * development. Only works for exploded applications.
+ */
+@Vetoed
+final class StaticResourceWatcher implements Runnable, Closeable {
+
+	private static final Logger logger = LogManager.getLogger(StaticResourceWatcher.class);
+
+	private final ServletContext context;
+	private final StaticResourceIndex index;
+	private final Path root;
+	private final WatchService watcher;
+	private final Thread thread;
+
+	private StaticResourceWatcher(ServletContext context, StaticResourceIndex index, Path root) throws IOException {
+		this.context = context;
+		this.index = index;
+		this.root = root;
+		this.watcher = FileSystems.getDefault().newWatchService();
+		this.thread = new Thread(this, "vraptor-static-resources-watcher");
+		thread.setDaemon(true);
+	}
+
+	/**
+	 * @return a watcher already running, or {@code null} if the application isn't exploded.
+	 */
+	static StaticResourceWatcher watch(ServletContext context, StaticResourceIndex index) throws IOException {
+		String realPath = context.getRealPath("/");
+		if (realPath == null) {
+			return null;
+		}
+		StaticResourceWatcher watcher = new StaticResourceWatcher(context, index, Paths.get(realPath));
+		watcher.registerDirectories();
+		watcher.thread.start();
+		return watcher;
+	}
+
+	@Override
+	public void run() {
+		try {
+			while (true) {
+				WatchKey key = watcher.take();
+				key.pollEvents();
+				registerDirectories();
+				index.rebuild(context);
+				key.reset();
+				logger.debug("Static resources changed, index rebuilt");
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			logger.debug("Stopped watching static resources");
+		} catch (IOException e) {
+			logger.warn("Unable to watch static resources, they won't be reindexed", e);
+		}
+	}
+
+	/**
+	 * Registers every directory, so new ones are watched too. Registering again is harmless.
+	 */
+	private void registerDirectories() throws IOException {
+		Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				if (dir.getParent() != null && dir.getParent().equals(root)
+						&& (dir.endsWith("WEB-INF") || dir.endsWith("META-INF"))) {
+					return FileVisitResult.SKIP_SUBTREE;
+				}
+				dir.register(watcher, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	@Override
+	public void close() throws IOException {
+		thread.interrupt();
+		watcher.close();
+	}
+}
@@ -25,6 +25,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import br.com.caelum.vraptor.InterceptionException;
+import br.com.caelum.vraptor.StaticAccepts;
 import br.com.caelum.vraptor.controller.ControllerMethod;
 import br.com.caelum.vraptor.interceptor.Interceptor;
 import br.com.caelum.vraptor.ioc.Container;
@@ -36,7 +37,7 @@ import br.com.caelum.vraptor.observer.ExecuteMethodExceptionHandler;
  * @author Guilherme Silveira
  */
 @Vetoed
-public class ToInstantiateInterceptorHandler implements InterceptorHandler {
+public class ToInstantiateInterceptorHandler implements StaticAcceptsInterceptorHandler {
 
 	//private static final Logger logger = LoggerFactory.getLogger(ToInstantiateInterceptorHandler.class);
 	private static final Logger logger = LogManager.getLogger(ToInstantiateInterceptorHandler.class);
@@ -54,11 +55,7 @@ public class ToInstantiateInterceptorHandler implements InterceptorHandler {
 	@Override
 	public void execute(final InterceptorStack stack, final ControllerMethod method, final Object controllerInstance)
 			throws InterceptionException {
-		final Interceptor interceptor = (Interceptor) container.instanceFor(type);
-		if (interceptor == null) {
-			throw new InterceptionException("Unable to instantiate interceptor for " + type.getName()
-					+ ": the container returned null.");
-		}
+		final Interceptor interceptor = instance();
 		if (interceptor.accepts(method)) {
 			logger.debug("Invoking interceptor {}", interceptor.getClass().getSimpleName());
 			executeSafely(stack, method, controllerInstance, interceptor);
@@ -67,6 +64,33 @@ public class ToInstantiateInterceptorHandler implements InterceptorHandler {
 		}
 	}
 
+	@Override
+	public boolean hasStaticAccepts() {
+		return type.isAnnotationPresent(StaticAccepts.class);
+	}
+
+	@Override
+	public boolean accepts(ControllerMethod method) {
+		return instance().accepts(method);
+	}
+
+	@Override
+	public void executeAccepted(InterceptorStack stack, ControllerMethod method, Object controllerInstance)
+			throws InterceptionException {
+		Interceptor interceptor = instance();
+		logger.debug("Invoking interceptor {}", interceptor.getClass().getSimpleName());
+		executeSafely(stack, method, controllerInstance, interceptor);
+	}
+
+	private Interceptor instance() {
+		Interceptor interceptor = (Interceptor) container.instanceFor(type);
+		if (interceptor == null) {
+			throw new InterceptionException("Unable to instantiate interceptor for " + type.getName()
+					+ ": the container returned null.");
+		}
+		return interceptor;
+	}
+
 	private void executeSafely(final InterceptorStack stack, final ControllerMethod method, final Object controllerInstance, final Interceptor interceptor) {
 		Try result = Try.run(new Callable<Void>() {
 			@Override
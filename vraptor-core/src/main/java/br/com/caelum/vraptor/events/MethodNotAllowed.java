@@ -0,0 +1,41 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package br.com.caelum.vraptor.events;
+
+import java.util.Set;
+
+import javax.enterprise.inject.Vetoed;
+
+import br.com.caelum.vraptor.controller.DefaultMethodNotAllowedHandler;
+import br.com.caelum.vraptor.controller.HttpMethod;
+
+/**
+ * Event fired when a controller exists for the uri, but not for the http method of the request,
+ * in {@link DefaultMethodNotAllowedHandler}
+ */
+@Vetoed
+public class MethodNotAllowed {
+
+	private final Set<HttpMethod> allowedMethods;
+
+	public MethodNotAllowed(Set<HttpMethod> allowedMethods) {
+		this.allowedMethods = allowedMethods;
+	}
+
+	public Set<HttpMethod> getAllowedMethods() {
+		return allowedMethods;
+	}
+}
@@ -20,11 +20,14 @@ import java.lang.reflect.AccessibleObject;
 
 import javax.annotation.Priority;
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 import javax.interceptor.Interceptor;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import br.com.caelum.vraptor.index.MetadataIndex;
+
 import com.thoughtworks.paranamer.AnnotationParanamer;
 import com.thoughtworks.paranamer.BytecodeReadingParanamer;
 import com.thoughtworks.paranamer.CachingParanamer;
@@ -33,7 +36,8 @@ import com.thoughtworks.paranamer.Paranamer;
 
 /**
  * Paranamer implementation for {@link ParameterNameProvider}, that reads parameter info using Named annotation on each
- * parameter, or read bytecode to find parameter information, in this order.
+ * parameter, or read bytecode to find parameter information, in this order. Names of methods indexed at compile
+ * time by {@code vraptor-apt} are taken from the {@link MetadataIndex}.
  *
  * @author Guilherme Silveira
  */
@@ -44,13 +48,29 @@ public class ParanamerNameProvider implements ParameterNameProvider {
 	private static final Logger logger = LogManager.getLogger(ParanamerNameProvider.class);
 	
 	private final Paranamer info = new CachingParanamer(new AnnotationParanamer(new BytecodeReadingParanamer()));
+	private final MetadataIndex index;
+
+	/**
+	 * Creates a provider without a metadata index, that reads every parameter name with paranamer.
+	 */
+	public ParanamerNameProvider() {
+		this(null);
+	}
+
+	@Inject
+	public ParanamerNameProvider(MetadataIndex index) {
+		this.index = index;
+	}
 
 	@Override
 	public Parameter[] parametersFor(final AccessibleObject executable) {
 		try {
-			String[] names = info.lookupParameterNames(executable);
+			String[] names = index == null ? null : index.parameterNamesOf(executable);
+			if (names == null) {
+				names = info.lookupParameterNames(executable);
+				logger.debug("Found parameter names with paranamer for {} as {}", executable, (Object) names);
+			}
 			Parameter[] params = new Parameter[names.length];
-			logger.debug("Found parameter names with paranamer for {} as {}", executable, (Object) names);
 
 			for (int i = 0; i < names.length; i++) {
 				params[i] = new Parameter(i, names[i], executable);
@@ -17,14 +17,7 @@
 
 package br.com.caelum.vraptor.http.iogi;
 
-import java.lang.reflect.Method;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
-import java.lang.reflect.TypeVariable;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
@@ -33,10 +26,8 @@ import javax.servlet.http.HttpServletRequest;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import br.com.caelum.iogi.parameters.Parameters;
-import br.com.caelum.iogi.reflection.Target;
+import br.com.caelum.vraptor.cache.DefaultCacheStore;
 import br.com.caelum.vraptor.controller.ControllerMethod;
-import br.com.caelum.vraptor.http.Parameter;
 import br.com.caelum.vraptor.http.ParameterNameProvider;
 import br.com.caelum.vraptor.http.ParametersProvider;
 import br.com.caelum.vraptor.validator.Message;
@@ -45,89 +36,38 @@ import br.com.caelum.vraptor.validator.Message;
 public class IogiParametersProvider implements ParametersProvider {
 	//private static final Logger LOGGER = LoggerFactory.getLogger(IogiParametersProvider.class);
 	private static final Logger LOGGER = LogManager.getLogger(IogiParametersProvider.class);
-	private final ParameterNameProvider nameProvider;
 	private final HttpServletRequest servletRequest;
 	private final InstantiatorWithErrors instantiator;
+	private final ParametersBinders binders;
 
 	/** 
 	 * @deprecated CDI eyes only
 	 */
 	protected IogiParametersProvider() {
-		this(null, null, null);
+		this((HttpServletRequest) null, null, null);
 	}
-	
-	@Inject
+
+	/**
+	 * @deprecated Prefer using
+	 *             {@link IogiParametersProvider#IogiParametersProvider(HttpServletRequest, InstantiatorWithErrors, ParametersBinders)}
+	 */
 	public IogiParametersProvider(ParameterNameProvider provider, HttpServletRequest parameters, InstantiatorWithErrors instantiator) {
-		this.nameProvider = provider;
+		this(parameters, instantiator, new ParametersBinders(provider, new DefaultCacheStore<ControllerMethod, ParametersBinder>()));
+	}
+
+	@Inject
+	public IogiParametersProvider(HttpServletRequest parameters, InstantiatorWithErrors instantiator, ParametersBinders binders) {
 		this.servletRequest = parameters;
 		this.instantiator = instantiator;
+		this.binders = binders;
 		LOGGER.debug("IogiParametersProvider is up");
 	}
 	
 	@Override
 	public Object[] getParametersFor(ControllerMethod method, List<Message> errors) {
-		Parameters parameters = parseParameters(servletRequest);
-		List<Target<Object>> targets = createTargets(method);
-
-		return instantiateParameters(parameters, targets, errors).toArray();
-	}
-
-	private List<Object> instantiateParameters(Parameters parameters, List<Target<Object>> targets, List<Message> errors) {
-		LOGGER.debug("getParametersFor() called with parameters {} and targets {}.", parameters, targets);
-
-		List<Object> arguments = new ArrayList<>(targets.size());
-		for (Target<Object> target : targets) {
-			Object newObject = instantiateOrAddError(parameters, errors, target);
-			arguments.add(newObject);
-		}
-		return arguments;
-	}
-
-	private Object instantiateOrAddError(Parameters parameters, List<Message> errors, Target<Object> target) {
-		return instantiator.instantiate(target, parameters, errors);
-	}
-
-	private List<Target<Object>> createTargets(ControllerMethod method) {
-		Method javaMethod = method.getMethod();
-		List<Target<Object>> targets = new ArrayList<>();
-
-		for (Parameter p : nameProvider.parametersFor(javaMethod)) {
-			Type type = p.getParameterizedType();
-			if (type instanceof TypeVariable) {
-				type = extractType(method, (TypeVariable<?>) type);
-			}
-
-			targets.add(new Target<>(type, p.getName()));
-		}
-
-		return targets;
-	}
-
-	private Type extractType(ControllerMethod method, TypeVariable<?> paramType) {
-		ParameterizedType parameterizedType = (ParameterizedType) method.getController().getType().getGenericSuperclass();
-		Class<?> rawType = (Class<?>) parameterizedType.getRawType();
-		TypeVariable<?>[] typeParameters = rawType.getTypeParameters();
-		if (typeParameters.length > 0) {
-			for (int i = 0; i < typeParameters.length; i++) {
-				TypeVariable<?> typeVariable = typeParameters[i];
-				if (typeVariable.getName().equals(paramType.getName())) {
-					return (Class<?>) parameterizedType.getActualTypeArguments()[i];
-				}
-			}
-		}
-		return paramType;
-	}
-
-	private Parameters parseParameters(HttpServletRequest request) {
-		Map<String, String[]> parameters = request.getParameterMap();
-		List<br.com.caelum.iogi.parameters.Parameter> parameterList = new ArrayList<>(parameters.size() * 2);
-
-		for (Entry<String, String[]> param: parameters.entrySet()) {
-			for (String value : param.getValue()) {
-				parameterList.add(new br.com.caelum.iogi.parameters.Parameter(param.getKey(), value));
-			}
-		}
+		ParametersBinder binder = binders.binderFor(method);
+		LOGGER.debug("getParametersFor() called with targets {}.", binder.getTargets());
 
-		return new Parameters(parameterList);
+		return binder.bind(servletRequest.getParameterMap(), instantiator, errors);
 	}
 }
@@ -0,0 +1,121 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.http.iogi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.enterprise.inject.Vetoed;
+
+import com.google.common.collect.ImmutableList;
+
+import br.com.caelum.iogi.parameters.Parameter;
+import br.com.caelum.iogi.parameters.Parameters;
+import br.com.caelum.iogi.reflection.Target;
+import br.com.caelum.vraptor.validator.Message;
+
+/**
+ * Binds the request parameters to the arguments of a controller method. The Iogi targets are
+ * found once per method, and only the request parameters that can be bound to them are given to
+ * the instantiator: Iogi looks parameters up by the first component of their names, so
+ * {@code product.name} and {@code product[0].name} are relevant to a {@code product} target,
+ * while {@code productName} or {@code order.id} are not.
+ * <p>
+ * Only finding the targets and filtering the parameters is precompiled. Converting values and
+ * setting nested properties is still done by the Iogi instantiator on each request, so converters,
+ * request attributes and conversion errors keep following its rules.
+ *
+ * @since 4.4
+ */
+@Vetoed
+public final class ParametersBinder {
+
+	private final List<Target<Object>> targets;
+	private final String[] names;
+
+	public ParametersBinder(List<Target<Object>> targets) {
+		this.targets = ImmutableList.copyOf(targets);
+		this.names = new String[targets.size()];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = targets.get(i).getName();
+		}
+	}
+
+	public List<Target<Object>> getTargets() {
+		return targets;
+	}
+
+	/**
+	 * Instantiates each argument of the method, adding conversion errors to the given list.
+	 */
+	public Object[] bind(Map<String, String[]> requestParameters, InstantiatorWithErrors instantiator,
+			List<Message> errors) {
+		Object[] arguments = new Object[targets.size()];
+		if (arguments.length == 0) {
+			return arguments;
+		}
+
+		Parameters parameters = parametersFrom(requestParameters);
+		for (int i = 0; i < arguments.length; i++) {
+			arguments[i] = instantiator.instantiate(targets.get(i), parameters, errors);
+		}
+		return arguments;
+	}
+
+	Parameters parametersFrom(Map<String, String[]> requestParameters) {
+		List<Parameter> parameters = new ArrayList<>();
+		for (Entry<String, String[]> parameter : requestParameters.entrySet()) {
+			String name = parameter.getKey();
+			if (isRelevant(name)) {
+				for (String value : parameter.getValue()) {
+					parameters.add(new Parameter(name, value));
+				}
+			}
+		}
+		return new Parameters(parameters);
+	}
+
+	/**
+	 * Mirrors how Iogi groups parameters: the first component of the name, without a trailing
+	 * {@code [index]}, must be the name of a target.
+	 */
+	boolean isRelevant(String parameterName) {
+		int dot = parameterName.indexOf('.');
+		int end = dot < 0 ? parameterName.length() : dot;
+		for (String name : names) {
+			if (parameterName.startsWith(name) && (end == name.length() || isIndex(parameterName, name.length(), end))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isIndex(String parameterName, int start, int end) {
+		if (end - start < 3 || parameterName.charAt(start) != '[' || parameterName.charAt(end - 1) != ']') {
+			return false;
+		}
+		for (int i = start + 1; i < end - 1; i++) {
+			char character = parameterName.charAt(i);
+			if (!(Character.isLetterOrDigit(character) && character < 128) && character != '_') {
+				return false;
+			}
+		}
+		return true;
+	}
+}
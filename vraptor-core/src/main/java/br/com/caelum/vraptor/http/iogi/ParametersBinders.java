@@ -0,0 +1,101 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.http.iogi;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import com.google.common.base.Supplier;
+
+import br.com.caelum.iogi.reflection.Target;
+import br.com.caelum.vraptor.cache.CacheStore;
+import br.com.caelum.vraptor.controller.ControllerMethod;
+import br.com.caelum.vraptor.http.Parameter;
+import br.com.caelum.vraptor.http.ParameterNameProvider;
+
+/**
+ * Keeps the {@link ParametersBinder} of each controller method, so parameter names and generic
+ * types are resolved only on the first request to each method.
+ *
+ * @since 4.4
+ */
+@ApplicationScoped
+public class ParametersBinders {
+
+	private final ParameterNameProvider nameProvider;
+	private final CacheStore<ControllerMethod, ParametersBinder> binders;
+
+	/**
+	 * @deprecated CDI eyes only
+	 */
+	protected ParametersBinders() {
+		this(null, null);
+	}
+
+	@Inject
+	public ParametersBinders(ParameterNameProvider nameProvider, CacheStore<ControllerMethod, ParametersBinder> binders) {
+		this.nameProvider = nameProvider;
+		this.binders = binders;
+	}
+
+	public ParametersBinder binderFor(final ControllerMethod method) {
+		return binders.fetch(method, new Supplier<ParametersBinder>() {
+			@Override
+			public ParametersBinder get() {
+				return new ParametersBinder(createTargets(method));
+			}
+		});
+	}
+
+	private List<Target<Object>> createTargets(ControllerMethod method) {
+		Method javaMethod = method.getMethod();
+		List<Target<Object>> targets = new ArrayList<>();
+
+		for (Parameter p : nameProvider.parametersFor(javaMethod)) {
+			Type type = p.getParameterizedType();
+			if (type instanceof TypeVariable) {
+				type = extractType(method, (TypeVariable<?>) type);
+			}
+
+			targets.add(new Target<>(type, p.getName()));
+		}
+
+		return targets;
+	}
+
+	private Type extractType(ControllerMethod method, TypeVariable<?> paramType) {
+		ParameterizedType parameterizedType = (ParameterizedType) method.getController().getType().getGenericSuperclass();
+		Class<?> rawType = (Class<?>) parameterizedType.getRawType();
+		TypeVariable<?>[] typeParameters = rawType.getTypeParameters();
+		if (typeParameters.length > 0) {
+			for (int i = 0; i < typeParameters.length; i++) {
+				TypeVariable<?> typeVariable = typeParameters[i];
+				if (typeVariable.getName().equals(paramType.getName())) {
+					return (Class<?>) parameterizedType.getActualTypeArguments()[i];
+				}
+			}
+		}
+		return paramType;
+	}
+}
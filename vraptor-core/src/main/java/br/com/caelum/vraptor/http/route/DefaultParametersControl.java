@@ -27,6 +27,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -40,7 +41,6 @@ import br.com.caelum.vraptor.core.Converters;
 import br.com.caelum.vraptor.http.EncodingHandler;
 import br.com.caelum.vraptor.http.MutableRequest;
 import br.com.caelum.vraptor.http.Parameter;
-import br.com.caelum.vraptor.util.StringUtils;
 
 /**
  * Default implementation of parameters control on uris.
@@ -53,17 +53,20 @@ public class DefaultParametersControl implements ParametersControl {
 	//private static final Logger logger = LoggerFactory.getLogger(DefaultParametersControl.class);
 	private static final Logger logger = LogManager.getLogger(DefaultParametersControl.class);
 	private final List<String> parameters = new ArrayList<>();
+	private final Map<String, String> parameterPatterns;
 	private final Pattern pattern;
-	private final String originalPattern;
+	private final UriTemplate template;
+	private volatile ArgumentBinding binding;
 	private final Converters converters;
 	private final Evaluator evaluator;
 	private EncodingHandler encodingHandler;
 
 	public DefaultParametersControl(String originalPattern, Map<String, String> parameterPatterns, Converters converters, Evaluator evaluator, EncodingHandler encodingHandler) {
-		this.originalPattern = originalPattern;
 		this.converters = converters;
 		this.encodingHandler = encodingHandler;
-		this.pattern = compilePattern(originalPattern, parameterPatterns);
+		this.parameterPatterns = patternsFor(originalPattern, parameterPatterns);
+		this.pattern = compilePattern(originalPattern, this.parameterPatterns);
+		this.template = new UriTemplate(originalPattern);
 		this.evaluator = evaluator;
 	}
 
@@ -71,7 +74,7 @@ public class DefaultParametersControl implements ParametersControl {
 		this(originalPattern, Collections.<String, String>emptyMap(), converters, evaluator, encodingHandler);
 	}
 
-	private Pattern compilePattern(String originalPattern, Map<String, String> parameterPatterns) {
+	private Map<String, String> patternsFor(String originalPattern, Map<String, String> parameterPatterns) {
 		Map<String, String> parameters = new HashMap<>(parameterPatterns);
 		Matcher matcher = Pattern.compile("\\{((?=[^\\{]+?[\\{])[^\\}]+?\\}|[^\\}]+?)\\}").matcher(originalPattern);
 		while (matcher.find()) {
@@ -82,6 +85,10 @@ public class DefaultParametersControl implements ParametersControl {
 			}
 			this.parameters.add(value.replaceAll("(\\:.*|\\*)$", ""));
 		}
+		return parameters;
+	}
+
+	private Pattern compilePattern(String originalPattern, Map<String, String> parameters) {
 		String patternUri = originalPattern;
 		patternUri = patternUri.replaceAll("/\\*", "/.*");
 		for (Entry<String, String> parameter : parameters.entrySet()) {
@@ -94,6 +101,14 @@ public class DefaultParametersControl implements ParametersControl {
 		return Pattern.compile(patternUri);
 	}
 
+	/**
+	 * @return the regex used to match the uri parameter declared as {@code {parameter}}, or
+	 *         {@code null} if there is no such parameter.
+	 */
+	String patternFor(String parameter) {
+		return parameterPatterns.get(parameter);
+	}
+
 	@Override
 	public String fillUri(Parameter[] paramNames, Object... paramValues) {
 		if (paramNames.length != paramValues.length) {
@@ -102,26 +117,40 @@ public class DefaultParametersControl implements ParametersControl {
 			throw new IllegalArgumentException(message);
 		}
 
-		String[] splittedPatterns = StringUtils.extractParameters(originalPattern);
-
-		String base = originalPattern;
-		for (int i=0; i<parameters.size(); i++) {
-			String key = parameters.get(i);
-			Object param = selectParam(key, paramNames, paramValues);
-			Object result = evaluator.get(param, key);
+		int[] arguments = argumentsFor(paramNames);
+		StringBuilder uri = template.newBuilder();
+		for (int i = 0; i < template.size(); i++) {
+			uri.append(template.uriLiteral(i));
+			Object param = arguments[i] < 0 ? null : paramValues[arguments[i]];
+			Object result = evaluator.get(param, parameters.get(i));
 			if (result != null) {
 				Class<?> type = result.getClass();
 				if (converters.existsTwoWayFor(type)) {
 					TwoWayConverter converter = converters.twoWayConverterFor(type);
 					result = converter.convert(result);
 				}
+				uri.append(encodeParameter(result.toString()));
 			}
-
-			String parameter = encodeParameter(result == null ? "" : result.toString());
-			base = base.replace("{" + splittedPatterns[i] + "}", result == null ? "" : parameter);
 		}
 
-		return base.replaceAll("\\.\\*", "");
+		return uri.append(template.uriLiteral(template.size())).toString();
+	}
+
+	/**
+	 * Routes always fill their uris with the same parameter names, so the argument index of each
+	 * uri parameter is resolved once and reused while the names are the same.
+	 */
+	private int[] argumentsFor(Parameter[] paramNames) {
+		ArgumentBinding current = binding;
+		if (current == null || current.names != paramNames) {
+			int[] arguments = new int[parameters.size()];
+			for (int i = 0; i < arguments.length; i++) {
+				arguments[i] = selectParam(parameters.get(i), paramNames);
+			}
+			current = new ArgumentBinding(paramNames, arguments);
+			binding = current;
+		}
+		return current.arguments;
 	}
 
 	private String encodeParameter(String parameter) {
@@ -134,13 +163,14 @@ public class DefaultParametersControl implements ParametersControl {
 		}
 	}
 
-	private Object selectParam(String key, Parameter[] paramNames, Object[] paramValues) {
+	private int selectParam(String key, Parameter[] paramNames) {
 		for (int i = 0; i < paramNames.length; i++) {
-			if (key.matches("^" + paramNames[i].getName() + "(\\..*|$)")) {
-				return paramValues[i];
+			String name = paramNames[i].getName();
+			if (key.equals(name) || key.startsWith(name + ".")) {
+				return i;
 			}
 		}
-		return null;
+		return -1;
 	}
 
 	@Override
@@ -148,28 +178,53 @@ public class DefaultParametersControl implements ParametersControl {
 		return pattern.matcher(uri).matches();
 	}
 
+	@Override
+	public MatchResult match(String uri) {
+		Matcher m = pattern.matcher(uri);
+		return m.matches() ? m : null;
+	}
+
 	@Override
 	public void fillIntoRequest(String uri, MutableRequest request) {
 		Matcher m = pattern.matcher(uri);
 		m.matches();
-		for (int i = 1; i <= m.groupCount(); i++) {
+		fillIntoRequest(m, request);
+	}
+
+	@Override
+	public void fillIntoRequest(MatchResult match, MutableRequest request) {
+		for (int i = 1; i <= match.groupCount(); i++) {
 			String name = parameters.get(i - 1);
 			try {
-				request.setParameter(name, URLDecoder.decode(m.group(i), encodingHandler.getEncoding()));
+				request.setParameter(name, decode(match.group(i)));
 			} catch (UnsupportedEncodingException e) {
 				logger.error("Error when decoding url parameters");
 			}
 		}
 	}
 
+	/**
+	 * Most uri parameters have nothing to decode, so they are returned as is.
+	 */
+	private String decode(String value) throws UnsupportedEncodingException {
+		if (value.indexOf('%') < 0 && value.indexOf('+') < 0) {
+			return value;
+		}
+		return URLDecoder.decode(value, encodingHandler.getEncoding());
+	}
+
 	@Override
 	public String apply(String[] values) {
-		String regex = "\\{.*?\\}";
-		String result = this.originalPattern;
-		for (int i = 0; i < values.length; i++) {
-			result = result.replaceFirst(regex, values[i].replaceAll("\\$", "\\\\\\$"));
-		}
-		return result.toString();
+		return template.apply(values);
 	}
 
+	private static final class ArgumentBinding {
+		private final Parameter[] names;
+		private final int[] arguments;
+
+		ArgumentBinding(Parameter[] names, int[] arguments) {
+			this.names = names;
+			this.arguments = arguments;
+		}
+	}
 }
@@ -20,11 +20,8 @@ package br.com.caelum.vraptor.http.route;
 import static com.google.common.base.Preconditions.checkState;
 
 import java.lang.reflect.Method;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.EnumSet;
-import java.util.Iterator;
 import java.util.List;
 
 import javax.enterprise.context.ApplicationScoped;
@@ -38,6 +35,7 @@ import com.google.common.base.Supplier;
 import com.google.common.collect.FluentIterable;
 
 import br.com.caelum.vraptor.cache.CacheStore;
+import br.com.caelum.vraptor.cache.TinyLFU;
 import br.com.caelum.vraptor.controller.ControllerMethod;
 import br.com.caelum.vraptor.controller.HttpMethod;
 import br.com.caelum.vraptor.core.Converters;
@@ -57,7 +55,7 @@ public class DefaultRouter implements Router {
 	
 	//private static final Logger logger = LoggerFactory.getLogger(DefaultRouter.class);
 	private static final Logger logger = LogManager.getLogger(DefaultRouter.class);
-	private final Collection<Route> routes = new PriorityRoutesList();
+	private final PriorityRoutesList routes = new PriorityRoutesList();
 	private final Proxifier proxifier;
 	private final TypeFinder finder;
 	private final Converters converters;
@@ -65,6 +63,7 @@ public class DefaultRouter implements Router {
 	private final Evaluator evaluator;
 	private final CacheStore<Invocation, Route> cache;
 	private final EncodingHandler encodingHandler;
+	private volatile RouteIndex index;
 
 	private static final Route NULL = new NoStrategy() {
 		@Override
@@ -83,7 +82,7 @@ public class DefaultRouter implements Router {
 	@Inject
 	public DefaultRouter(Proxifier proxifier, TypeFinder finder, Converters converters,
 			ParameterNameProvider nameProvider, Evaluator evaluator, EncodingHandler encodingHandler,
-			CacheStore<Invocation, Route> cache) {
+			@TinyLFU(capacity = 500) CacheStore<Invocation, Route> cache) {
 		this.proxifier = proxifier;
 		this.finder = finder;
 		this.converters = converters;
@@ -103,41 +102,54 @@ public class DefaultRouter implements Router {
 	 */
 	@Override
 	public void add(Route r) {
-		routes.add(r);
+		synchronized (routes) {
+			routes.add(r);
+			index = null;
+		}
+	}
+
+	/**
+	 * The index is built on the first lookup after routes are registered, and reused until a new
+	 * route is added.
+	 */
+	private RouteIndex index() {
+		RouteIndex current = index;
+		if (current == null) {
+			synchronized (routes) {
+				current = index;
+				if (current == null) {
+					current = new RouteIndex(routes.snapshot());
+					index = current;
+				}
+			}
+		}
+		return current;
 	}
 
 	@Override
 	public ControllerMethod parse(String uri, HttpMethod method, MutableRequest request) throws MethodNotAllowedException {
-		Collection<Route> routesMatchingUriAndMethod = routesMatchingUriAndMethod(uri, method);
-
-		Iterator<Route> iterator = routesMatchingUriAndMethod.iterator();
+		RouteIndex.Match match = index().find(uri, method);
 
-		Route route = iterator.next();
-		checkIfThereIsAnotherRoute(uri, method, iterator, route);
+		if (match.getRoute() == null) {
+			if (!match.isUriMatched()) {
+				throw new ControllerNotFoundException();
+			}
+			EnumSet<HttpMethod> allowed = allowedMethodsFor(uri);
+			throw new MethodNotAllowedException(allowed, method.toString());
+		}
+		checkIfThereIsAnotherRoute(uri, method, match.getRoute(), match.getOtherRoute());
 
-		return route.controllerMethod(request, uri);
+		return match.controllerMethod(request);
 	}
 
-	private void checkIfThereIsAnotherRoute(String uri, HttpMethod method, Iterator<Route> iterator, Route route) {
-		if (iterator.hasNext()) {
-			Route otherRoute = iterator.next();
+	private void checkIfThereIsAnotherRoute(String uri, HttpMethod method, Route route, Route otherRoute) {
+		if (otherRoute != null) {
 			checkState(route.getPriority() != otherRoute.getPriority(),
 					"There are two rules that matches the uri '%s' with method %s: %s, %s with same priority."
 						+ " Consider using @Path priority attribute.", uri, method, route, otherRoute);
 		}
 	}
 
-	private Collection<Route> routesMatchingUriAndMethod(String uri, HttpMethod method) {
-		Collection<Route> routesMatchingMethod = FluentIterable.from(routesMatchingUri(uri))
-				.filter(allow(method)).toSet();
-
-		if (routesMatchingMethod.isEmpty()) {
-			EnumSet<HttpMethod> allowed = allowedMethodsFor(uri);
-			throw new MethodNotAllowedException(allowed, method.toString());
-		}
-		return routesMatchingMethod;
-	}
-
 	@Override
 	public EnumSet<HttpMethod> allowedMethodsFor(String uri) {
 		EnumSet<HttpMethod> allowed = EnumSet.noneOf(HttpMethod.class);
@@ -148,8 +160,7 @@ public class DefaultRouter implements Router {
 	}
 
 	private Collection<Route> routesMatchingUri(String uri) {
-		Collection<Route> routesMatchingURI = FluentIterable.from(routes)
-				.filter(canHandle(uri)).toSet();
+		Collection<Route> routesMatchingURI = index().routesMatching(uri);
 
 		if (routesMatchingURI.isEmpty()) {
 			throw new ControllerNotFoundException();
@@ -165,7 +176,7 @@ public class DefaultRouter implements Router {
 		Route route = cache.fetch(invocation, new Supplier<Route>() {
 			@Override
 			public Route get() {
-				return FluentIterable.from(routes).filter(canHandle(rawtype, method))
+				return FluentIterable.from(routes.snapshot()).filter(canHandle(rawtype, method))
 					.first().or(NULL);
 			}
 		});
@@ -179,7 +190,7 @@ public class DefaultRouter implements Router {
 
 	@Override
 	public List<Route> allRoutes() {
-		return Collections.unmodifiableList(new ArrayList<>(routes));
+		return routes.snapshot();
 	}
 
 	private Predicate<Route> canHandle(final Class<?> type, final Method method) {
@@ -190,22 +201,4 @@ public class DefaultRouter implements Router {
 			}
 		};
 	}
-
-	private Predicate<Route> canHandle(final String uri) {
-		return new Predicate<Route>() {
-			@Override
-			public boolean apply(Route route) {
-				return route.canHandle(uri);
-			}
-		};
-	}
-
-	private Predicate<Route> allow(final HttpMethod method) {
-		return new Predicate<Route>() {
-			@Override
-			public boolean apply(Route route) {
-				return route.allowedMethods().contains(method);
-			}
-		};
-	}
 }
@@ -22,6 +22,7 @@ import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.regex.MatchResult;
 
 import javax.enterprise.inject.Vetoed;
 
@@ -69,6 +70,15 @@ public class FixedMethodStrategy implements Route {
 		return this.controllerMethod;
 	}
 
+	/**
+	 * Same as {@link #controllerMethod(MutableRequest, String)}, but using the parameters
+	 * already extracted by {@link #match(String)}, so the uri isn't matched again.
+	 */
+	public ControllerMethod controllerMethod(MutableRequest request, MatchResult match) {
+		parameters.fillIntoRequest(match, request);
+		return this.controllerMethod;
+	}
+
 	@Override
 	public EnumSet<HttpMethod> allowedMethods() {
 		return methods;
@@ -79,6 +89,13 @@ public class FixedMethodStrategy implements Route {
 		return parameters.matches(uri);
 	}
 
+	/**
+	 * @return the parameters extracted from the uri, or null if this route can't handle it.
+	 */
+	public MatchResult match(String uri) {
+		return parameters.match(uri);
+	}
+
 	@Override
 	public String urlFor(Class<?> type, Method m, Object... params) {
 		return parameters.fillUri(parameterNames, params);
@@ -99,6 +116,10 @@ public class FixedMethodStrategy implements Route {
 		return controllerMethod;
 	}
 
+	ParametersControl getParametersControl() {
+		return parameters;
+	}
+
 	@Override
 	public String toString() {
 		return String.format("[FixedMethodStrategy: %-65s %-70s %s]", originalUri, 
@@ -17,8 +17,17 @@
 
 package br.com.caelum.vraptor.http.route;
 
+import static java.lang.invoke.MethodType.methodType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -30,6 +39,9 @@ import com.google.common.collect.Iterables;
 
 /**
  * Evaluates expressions in order to access values.
+ * <p>
+ * Each expression is parsed once per root type and its getters are kept as method handles, so
+ * evaluating the same expression again costs about the same as calling the getters directly.
  *
  * @author guilherme silveira
  *
@@ -39,6 +51,20 @@ public class JavaEvaluator implements Evaluator {
 
 	private final ReflectionProvider reflectionProvider;
 
+	private final ClassValue<ConcurrentMap<String, Expression>> expressions = new ClassValue<ConcurrentMap<String, Expression>>() {
+		@Override
+		protected ConcurrentMap<String, Expression> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	private final ClassValue<ConcurrentMap<String, Getter>> getters = new ClassValue<ConcurrentMap<String, Getter>>() {
+		@Override
+		protected ConcurrentMap<String, Getter> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
 	/**
 	 * @deprecated CDI eyes only
 	 */
@@ -56,41 +82,143 @@ public class JavaEvaluator implements Evaluator {
 		if (root == null) {
 			return null;
 		}
-		String[] paths = path.split("[\\]\\.]");
-		Object current = root;
-		for (int i = 1; i < paths.length; i++) {
-			try {
-				current = navigate(current, paths[i]);
-			} catch (Exception e) {
-				throw new VRaptorException("Unable to evaluate expression " + path, e);
-			}
-			if (current == null) {
-				return "";
+		try {
+			return expressionFor(root.getClass(), path).evaluate(root);
+		} catch (Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new VRaptorException("Unable to evaluate expression " + path, e);
+		}
+	}
+
+	private Expression expressionFor(Class<?> type, String path) {
+		ConcurrentMap<String, Expression> byPath = expressions.get(type);
+		Expression expression = byPath.get(path);
+		if (expression == null) {
+			expression = new Expression(path);
+			Expression existing = byPath.putIfAbsent(path, expression);
+			if (existing != null) {
+				expression = existing;
 			}
 		}
-		return current;
+		return expression;
 	}
 
-	private Object navigate(Object current, String path) {
-		int index = path.indexOf("[");
-		int position = -1;
-		if (index != -1) {
-			position = Integer.parseInt(path.substring(index + 1));
-			path = path.substring(0, index);
+	private Getter getterFor(Class<?> type, String property) {
+		ConcurrentMap<String, Getter> byProperty = getters.get(type);
+		Getter getter = byProperty.get(property);
+		if (getter == null) {
+			getter = new Getter(type, findGetter(type, property));
+			byProperty.putIfAbsent(property, getter);
 		}
-		Object instance = reflectionProvider.invokeGetter(current, path);
-		if (index != -1) {
-			instance = access(instance, position);
+		return getter;
+	}
+
+	private MethodHandle findGetter(Class<?> type, String property) {
+		String suffix = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+		Method method = reflectionProvider.getMethod(type, "get" + suffix);
+		if (method == null) {
+			method = reflectionProvider.getMethod(type, "is" + suffix);
+		}
+		if (method == null) {
+			throw new VRaptorException("Unable to find a getter for " + property + " on " + type.getName());
+		}
+		try {
+			return unreflect(method).asType(methodType(Object.class, Object.class));
+		} catch (IllegalAccessException e) {
+			throw new VRaptorException("Unable to access the getter for " + property + " on " + type.getName(), e);
 		}
-		return instance;
 	}
 
-	private Object access(Object current, int position) {
+	/**
+	 * Getters of types in modules that aren't open, like the JDK ones, can't be made accessible,
+	 * so only their public methods are looked up.
+	 */
+	private static MethodHandle unreflect(Method method) throws IllegalAccessException {
+		try {
+			method.setAccessible(true);
+		} catch (RuntimeException e) {
+			return MethodHandles.publicLookup().unreflect(method);
+		}
+		return MethodHandles.lookup().unreflect(method);
+	}
+
+	private static Object access(Object current, int position) {
 		if (current.getClass().isArray()) {
 			return Array.get(current, position);
-		} else if (Collection.class.isAssignableFrom(current.getClass())) {
+		} else if (current instanceof List) {
+			return ((List<?>) current).get(position);
+		} else if (current instanceof Collection) {
 			return Iterables.get((Collection<?>) current, position);
 		}
 		throw new VRaptorException("Unable to access position of a" + current.getClass().getName() + ".");
 	}
+
+	/**
+	 * A getter resolved for a given type.
+	 */
+	private static final class Getter {
+		private final Class<?> type;
+		private final MethodHandle handle;
+
+		Getter(Class<?> type, MethodHandle handle) {
+			this.type = type;
+			this.handle = handle;
+		}
+	}
+
+	/**
+	 * An expression split into properties and positions, like {@code client.emails[1]}. The first
+	 * property is the name of the root object, so it is skipped. Each step remembers the last getter
+	 * it used, which is reused while the objects found on that step keep the same type.
+	 */
+	private final class Expression {
+		private final String[] properties;
+		private final int[] positions;
+		private final Getter[] lastGetters;
+
+		Expression(String path) {
+			List<String> properties = new ArrayList<>();
+			List<Integer> positions = new ArrayList<>();
+			String[] paths = path.split("[\\]\\.]");
+			for (int i = 1; i < paths.length; i++) {
+				String property = paths[i];
+				if (property.isEmpty()) {
+					continue;
+				}
+				int index = property.indexOf('[');
+				positions.add(index == -1 ? -1 : Integer.parseInt(property.substring(index + 1)));
+				properties.add(index == -1 ? property : property.substring(0, index));
+			}
+			this.properties = properties.toArray(new String[properties.size()]);
+			this.positions = new int[positions.size()];
+			for (int i = 0; i < this.positions.length; i++) {
+				this.positions[i] = positions.get(i);
+			}
+			this.lastGetters = new Getter[this.properties.length];
+		}
+
+		Object evaluate(Object root) throws Throwable {
+			Object current = root;
+			for (int i = 0; i < properties.length; i++) {
+				current = (Object) getter(i, current.getClass()).handle.invokeExact(current);
+				if (current != null && positions[i] != -1) {
+					current = access(current, positions[i]);
+				}
+				if (current == null) {
+					return "";
+				}
+			}
+			return current;
+		}
+
+		private Getter getter(int step, Class<?> type) {
+			Getter getter = lastGetters[step];
+			if (getter == null || getter.type != type) {
+				getter = getterFor(type, properties[step]);
+				lastGetters[step] = getter;
+			}
+			return getter;
+		}
+	}
 }
@@ -17,6 +17,8 @@
 
 package br.com.caelum.vraptor.http.route;
 
+import java.util.regex.MatchResult;
+
 import br.com.caelum.vraptor.http.MutableRequest;
 import br.com.caelum.vraptor.http.Parameter;
 
@@ -27,6 +29,18 @@ public interface ParametersControl {
 	 */
 	boolean matches(String uri);
 
+	/**
+	 * Matches the uri, keeping the extracted parameters. By default it only holds the whole uri,
+	 * so {@link #fillIntoRequest(MatchResult, MutableRequest)} extracts the parameters again.
+	 * @return the matched parameters, or null if the uri doesn't match.
+	 */
+	default MatchResult match(String uri) {
+		if (!matches(uri)) {
+			return null;
+		}
+		return new UriMatch(uri);
+	}
+
 	/**
 	 * creates a uri based on those parameter values
 	 */
@@ -37,6 +51,13 @@ public interface ParametersControl {
 	 */
 	void fillIntoRequest(String uri, MutableRequest request);
 
+	/**
+	 * Inserts parameters already extracted by {@link #match(String)} into the request parameters.
+	 */
+	default void fillIntoRequest(MatchResult match, MutableRequest request) {
+		fillIntoRequest(match.group(), request);
+	}
+
 	/**
 	 * Applies a list of values to
 	 * @param values
@@ -44,6 +44,8 @@ import br.com.caelum.vraptor.Put;
 import br.com.caelum.vraptor.controller.BeanClass;
 import br.com.caelum.vraptor.controller.HttpMethod;
 import br.com.caelum.vraptor.core.ReflectionProvider;
+import br.com.caelum.vraptor.index.IndexedMethod;
+import br.com.caelum.vraptor.index.MetadataIndex;
 import br.com.caelum.vraptor.util.StringUtils;
 
 import com.google.common.base.Predicate;
@@ -64,6 +66,9 @@ import com.google.common.collect.FluentIterable;
  * protected String defaultUriFor(String controllerName, String methodName) {
  * return //your convention here } }
  *
+ * The http methods and uris of controller methods indexed at compile time by
+ * {@code vraptor-apt} are taken from the {@link MetadataIndex}.
+ *
  * @author Guilherme Silveira
  * @author Lucas Cavalcanti
  */
@@ -72,19 +77,28 @@ public class PathAnnotationRoutesParser implements RoutesParser {
 
 	private final Router router;
 	private ReflectionProvider reflectionProvider;
+	private final MetadataIndex index;
 
 	/** 
 	 * @deprecated CDI eyes only
 	 */
 
 	protected PathAnnotationRoutesParser() {
-		this(null, null);
+		this(null, null, null);
 	}
 
-	@Inject
+	/**
+	 * Creates a parser without a metadata index, that reflects every controller annotation.
+	 */
 	public PathAnnotationRoutesParser(Router router, ReflectionProvider reflectionProvider) {
+		this(router, reflectionProvider, null);
+	}
+
+	@Inject
+	public PathAnnotationRoutesParser(Router router, ReflectionProvider reflectionProvider, MetadataIndex index) {
 		this.router = router;
 		this.reflectionProvider = reflectionProvider;
+		this.index = index;
 	}
 
 	@Override
@@ -126,6 +140,10 @@ public class PathAnnotationRoutesParser implements RoutesParser {
 	}
 
 	private EnumSet<HttpMethod> getHttpMethods(AnnotatedElement annotated) {
+		IndexedMethod indexed = indexed(annotated);
+		if (indexed != null) {
+			return indexed.getHttpMethods();
+		}
 		EnumSet<HttpMethod> methods = EnumSet.noneOf(HttpMethod.class);
 		for (HttpMethod method : HttpMethod.values()) {
 			if (annotated.isAnnotationPresent(method.getAnnotation())) {
@@ -164,7 +182,15 @@ public class PathAnnotationRoutesParser implements RoutesParser {
 		return new String[] { defaultUriFor(extractControllerNameFrom(type), javaMethod.getName()) };
 	}
 
+	private IndexedMethod indexed(AnnotatedElement annotated) {
+		return index == null || !(annotated instanceof Method) ? null : index.methodOf((Method) annotated);
+	}
+
 	protected String[] getUris(Method javaMethod){
+		IndexedMethod indexed = indexed(javaMethod);
+		if (indexed != null) {
+			return indexed.getUris();
+		}
 		Annotation method = FluentIterable.from(asList(javaMethod.getAnnotations()))
 				.filter(instanceOfMethodAnnotation())
 				.first().orNull();
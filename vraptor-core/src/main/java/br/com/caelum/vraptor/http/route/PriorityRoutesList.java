@@ -19,19 +19,19 @@ package br.com.caelum.vraptor.http.route;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
 import javax.enterprise.inject.Vetoed;
 
+import com.google.common.collect.ImmutableList;
+
 /**
- * Order Routes by priority
+ * Order Routes by priority. Every change publishes a new immutable snapshot of the ordered routes,
+ * so reading threads never lock: they iterate whatever snapshot was current when they started.
  * @author Lucas Cavalcanti
  *
  */
@@ -40,28 +40,27 @@ public class PriorityRoutesList implements Collection<Route> {
 
 	private final SortedMap<Integer, Set<Route>> map;
 
-	private List<Route> cache;
-
-	private final Lock cacheLock = new ReentrantLock();
+	private volatile ImmutableList<Route> snapshot = ImmutableList.of();
 
 	public PriorityRoutesList() {
 		map = new TreeMap<>();
 	}
 
-	private List<Route> getFullList() {
-		try {
-			cacheLock.lock();
-			if (cache == null) {
-				cache = new LinkedList<>();
-				for (Entry<Integer, Set<Route>> entry : map.entrySet()) {
-					cache.addAll(entry.getValue());
-				}
-			}
-			return cache;
-		} finally {
-			cacheLock.unlock();
+	/**
+	 * @return the routes ordered by priority, as of the last change.
+	 */
+	public List<Route> snapshot() {
+		return snapshot;
+	}
+
+	private void publish() {
+		ImmutableList.Builder<Route> routes = ImmutableList.builder();
+		for (Entry<Integer, Set<Route>> entry : map.entrySet()) {
+			routes.addAll(entry.getValue());
 		}
+		snapshot = routes.build();
 	}
+
 	private Set<Route> getSetFor(Route e) {
 		if (!map.containsKey(e.getPriority())) {
 			map.put(e.getPriority(), new LinkedHashSet<Route>());
@@ -70,44 +69,47 @@ public class PriorityRoutesList implements Collection<Route> {
 	}
 
 	@Override
-	public boolean add(Route e) {
-		cache = null;
-		return getSetFor(e).add(e);
+	public synchronized boolean add(Route e) {
+		boolean added = getSetFor(e).add(e);
+		if (added) {
+			publish();
+		}
+		return added;
 	}
 
-
 	@Override
-	public boolean addAll(Collection<? extends Route> c) {
+	public synchronized boolean addAll(Collection<? extends Route> c) {
 		for (Route route : c) {
-			add(route);
+			getSetFor(route).add(route);
 		}
+		publish();
 		return true;
 	}
 
 	@Override
-	public void clear() {
-		cache = null;
+	public synchronized void clear() {
 		map.clear();
+		snapshot = ImmutableList.of();
 	}
 
 	@Override
 	public boolean contains(Object o) {
-		return getFullList().contains(o);
+		return snapshot.contains(o);
 	}
 
 	@Override
 	public boolean containsAll(Collection<?> c) {
-		return getFullList().containsAll(c);
+		return snapshot.containsAll(c);
 	}
 
 	@Override
 	public boolean isEmpty() {
-		return getFullList().isEmpty();
+		return snapshot.isEmpty();
 	}
 
 	@Override
 	public Iterator<Route> iterator() {
-		return getFullList().iterator();
+		return snapshot.iterator();
 	}
 
 	@Override
@@ -127,17 +129,17 @@ public class PriorityRoutesList implements Collection<Route> {
 
 	@Override
 	public int size() {
-		return getFullList().size();
+		return snapshot.size();
 	}
 
 	@Override
 	public Object[] toArray() {
-		return getFullList().toArray();
+		return snapshot.toArray();
 	}
 
 	@Override
 	public <T> T[] toArray(T[] a) {
-		return getFullList().toArray(a);
+		return snapshot.toArray(a);
 	}
 
 }
@@ -0,0 +1,602 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.http.route;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.enterprise.inject.Vetoed;
+
+import com.google.common.primitives.Ints;
+
+import br.com.caelum.vraptor.controller.ControllerMethod;
+import br.com.caelum.vraptor.controller.HttpMethod;
+import br.com.caelum.vraptor.http.MutableRequest;
+
+/**
+ * An immutable segment tree over a set of routes, used to discover which routes may handle an uri
+ * without testing every route's regex.
+ * <p>
+ * Literal segments are matched by equality, and single segment parameters ({@code {id}}, or
+ * {@code {id:\d+}} when the regex can't match a slash) are matched by any segment. Everything
+ * else ({@code {path*}}, {@code /*}, regexes that may cross segments and routes that aren't built
+ * by {@link DefaultRouteBuilder}) stops the descent and is kept on the node it was reached, so it
+ * is always tested against the route regex. Routes whose segments are all literals or whole
+ * segment parameters of a known pattern ({@code [^/]*}, {@code [^/]+} or integers) are matched
+ * and have their parameters extracted without any regex.
+ * <p>
+ * Routes are returned in the same order they were given, so the priority order of
+ * {@link PriorityRoutesList} is preserved.
+ */
+@Vetoed
+public class RouteIndex {
+
+	private static final String REGEX_CHARACTERS = "\\.[]{}()*+?^$|";
+
+	private static final MatchResult NO_GROUPS = noGroups();
+
+	private final Node root = new Node();
+
+	public RouteIndex(Iterable<Route> routes) {
+		Set<Route> indexed = new HashSet<>();
+		int rank = 0;
+		for (Route route : routes) {
+			// same semantics of a Set: an equal route with lower priority never wins
+			if (indexed.add(route)) {
+				insert(new Entry(route, rank++));
+			}
+		}
+		root.freeze();
+	}
+
+	/**
+	 * @return all routes that can handle this uri, ordered by priority.
+	 */
+	public List<Route> routesMatching(String uri) {
+		List<Entry> candidates = new ArrayList<>();
+		collect(root, uri, segmentStarts(uri), 0, candidates);
+		Collections.sort(candidates);
+
+		List<Route> matching = new ArrayList<>(candidates.size());
+		for (Entry candidate : candidates) {
+			if (candidate.matches(uri) != null) {
+				matching.add(candidate.route);
+			}
+		}
+		return matching;
+	}
+
+	private void collect(Node node, String uri, int[] starts, int segment, List<Entry> candidates) {
+		Collections.addAll(candidates, node.remaining);
+		if (segment == starts.length - 1) {
+			Collections.addAll(candidates, node.terminal);
+			return;
+		}
+		Node literal = node.literal(uri, starts[segment], starts[segment + 1] - 1);
+		if (literal != null) {
+			collect(literal, uri, starts, segment + 1, candidates);
+		}
+		if (node.parameter != null) {
+			collect(node.parameter, uri, starts, segment + 1, candidates);
+		}
+	}
+
+	/**
+	 * Finds the route with the highest priority that handles this uri and http method, matching
+	 * each candidate at most once and skipping candidates that can't change the outcome.
+	 */
+	public Match find(String uri, HttpMethod method) {
+		Match match = new Match(uri, segmentStarts(uri));
+		find(root, 0, method, match);
+		return match;
+	}
+
+	private void find(Node node, int segment, HttpMethod method, Match match) {
+		consider(node.remaining, method, match);
+		int[] starts = match.starts;
+		if (segment == starts.length - 1) {
+			consider(node.terminal, method, match);
+			return;
+		}
+		Node literal = node.literal(match.uri, starts[segment], starts[segment + 1] - 1);
+		if (literal != null) {
+			find(literal, segment + 1, method, match);
+		}
+		if (node.parameter != null) {
+			find(node.parameter, segment + 1, method, match);
+		}
+	}
+
+	private void consider(Entry[] entries, HttpMethod method, Match match) {
+		for (int i = 0; i < entries.length; i++) {
+			Entry entry = entries[i];
+			if (match.other != null && entry.rank > match.other.rank) {
+				continue;
+			}
+			if (match.uriMatched && !entry.allows(method)) {
+				continue;
+			}
+			MatchResult groups = entry.matches(match.uri, match.starts);
+			if (groups == null) {
+				continue;
+			}
+			match.uriMatched = true;
+			if (entry.allows(method)) {
+				match.offer(entry, groups);
+			}
+		}
+	}
+
+	private void insert(Entry entry) {
+		DefaultParametersControl control = controlOf(entry.route);
+		String uri = entry.route.getOriginalUri();
+		if (control == null || uri == null) {
+			root.remainingList.add(entry);
+			return;
+		}
+
+		Node node = root;
+		List<String> segments = segmentsOf(uri);
+		List<Integer> parameters = new ArrayList<>();
+		List<SegmentPattern> patterns = new ArrayList<>();
+		boolean regexFree = true;
+		for (int i = 0; i < segments.size(); i++) {
+			String segment = segments.get(i);
+			switch (kindOf(segment, control)) {
+			case LITERAL:
+				node = node.literal(segment);
+				break;
+			case PARAMETER:
+				node = node.parameter();
+				SegmentPattern pattern = SegmentPattern.of(segment, control);
+				regexFree &= pattern != null;
+				parameters.add(i);
+				patterns.add(pattern);
+				break;
+			default:
+				node.remainingList.add(entry);
+				return;
+			}
+		}
+		if (regexFree) {
+			entry.parameters = Ints.toArray(parameters);
+			entry.patterns = patterns.toArray(new SegmentPattern[patterns.size()]);
+		}
+		node.terminalList.add(entry);
+	}
+
+	private static DefaultParametersControl controlOf(Route route) {
+		ParametersControl control = fixedOf(route) == null ? null : fixedOf(route).getParametersControl();
+		return control instanceof DefaultParametersControl ? (DefaultParametersControl) control : null;
+	}
+
+	private static FixedMethodStrategy fixedOf(Route route) {
+		return route instanceof FixedMethodStrategy ? (FixedMethodStrategy) route : null;
+	}
+
+	private SegmentKind kindOf(String segment, DefaultParametersControl control) {
+		boolean hasParameters = false;
+		int brackets = 0;
+		StringBuilder parameter = new StringBuilder();
+		for (int i = 0; i < segment.length(); i++) {
+			char character = segment.charAt(i);
+			if (character == '{') {
+				brackets++;
+				if (brackets == 1) {
+					continue;
+				}
+			} else if (character == '}') {
+				brackets--;
+				if (brackets == 0) {
+					if (!isSingleSegment(control.patternFor(parameter.toString()))) {
+						return SegmentKind.REGEX;
+					}
+					hasParameters = true;
+					parameter.setLength(0);
+					continue;
+				}
+			}
+			if (brackets > 0) {
+				parameter.append(character);
+			} else if (REGEX_CHARACTERS.indexOf(character) >= 0) {
+				return SegmentKind.REGEX;
+			}
+		}
+		if (brackets != 0) {
+			return SegmentKind.REGEX;
+		}
+		return hasParameters ? SegmentKind.PARAMETER : SegmentKind.LITERAL;
+	}
+
+	/**
+	 * Conservative check on whether a parameter regex can't match a slash, i.e. it is made only of
+	 * word characters, digits, escaped dots, {@code [^/]} and quantifiers.
+	 */
+	static boolean isSingleSegment(String regex) {
+		if (regex == null) {
+			return false;
+		}
+		String remaining = regex.replace("[^/]", "").replace("\\d", "").replace("\\w", "").replace("\\.", "");
+		for (int i = 0; i < remaining.length(); i++) {
+			char character = remaining.charAt(i);
+			if (!Character.isLetterOrDigit(character) && "_-|?+*{},".indexOf(character) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Start index of each segment of the uri, plus {@code uri.length() + 1} as the last element, so
+	 * segment {@code i} goes from {@code starts[i]} to {@code starts[i + 1] - 1}.
+	 */
+	private static int[] segmentStarts(String uri) {
+		int count = 1;
+		for (int i = uri.indexOf('/'); i >= 0; i = uri.indexOf('/', i + 1)) {
+			count++;
+		}
+		int[] starts = new int[count + 1];
+		int segment = 1;
+		for (int i = uri.indexOf('/'); i >= 0; i = uri.indexOf('/', i + 1)) {
+			starts[segment++] = i + 1;
+		}
+		starts[count] = uri.length() + 1;
+		return starts;
+	}
+
+	/**
+	 * Splits an uri pattern on slashes that are not inside brackets, keeping empty segments.
+	 */
+	static List<String> segmentsOf(String uri) {
+		List<String> segments = new ArrayList<>();
+		int brackets = 0;
+		int start = 0;
+		for (int i = 0; i < uri.length(); i++) {
+			char character = uri.charAt(i);
+			if (character == '{') {
+				brackets++;
+			} else if (character == '}') {
+				brackets--;
+			} else if (character == '/' && brackets == 0) {
+				segments.add(uri.substring(start, i));
+				start = i + 1;
+			}
+		}
+		segments.add(uri.substring(start));
+		return segments;
+	}
+
+	private static MatchResult noGroups() {
+		Matcher matcher = Pattern.compile("").matcher("");
+		matcher.matches();
+		return matcher.toMatchResult();
+	}
+
+	/**
+	 * The outcome of {@link RouteIndex#find(String, HttpMethod)}: the best route, the groups it
+	 * captured and the next best route, used to check ambiguity.
+	 */
+	public static final class Match {
+		private final String uri;
+		private final int[] starts;
+		private boolean uriMatched;
+		private Entry best;
+		private MatchResult groups;
+		private Entry other;
+
+		private Match(String uri, int[] starts) {
+			this.uri = uri;
+			this.starts = starts;
+		}
+
+		private void offer(Entry entry, MatchResult groups) {
+			if (best == null || entry.rank < best.rank) {
+				other = best;
+				best = entry;
+				this.groups = groups;
+			} else if (other == null || entry.rank < other.rank) {
+				other = entry;
+			}
+		}
+
+		/**
+		 * @return true if any route can handle the uri, regardless of the http method.
+		 */
+		public boolean isUriMatched() {
+			return uriMatched;
+		}
+
+		/**
+		 * @return the best route, or null if there is none for the uri and http method.
+		 */
+		public Route getRoute() {
+			return best == null ? null : best.route;
+		}
+
+		/**
+		 * @return the second best route, or null if there is none.
+		 */
+		public Route getOtherRoute() {
+			return other == null ? null : other.route;
+		}
+
+		/**
+		 * Fills the request with the captured uri parameters and returns the controller method.
+		 */
+		public ControllerMethod controllerMethod(MutableRequest request) {
+			FixedMethodStrategy fixed = fixedOf(best.route);
+			if (fixed != null) {
+				return fixed.controllerMethod(request, best.groups(uri, starts, groups));
+			}
+			return best.route.controllerMethod(request, uri);
+		}
+	}
+
+	private enum SegmentKind {
+		LITERAL, PARAMETER, REGEX
+	}
+
+	/**
+	 * The default patterns for whole segment parameters, which are tested without a regex.
+	 */
+	private enum SegmentPattern {
+		ANY("[^/]*") {
+			@Override
+			boolean matches(String uri, int start, int end) {
+				return true;
+			}
+		},
+		NOT_EMPTY("[^/]+") {
+			@Override
+			boolean matches(String uri, int start, int end) {
+				return end > start;
+			}
+		},
+		INTEGER("-?\\d+") {
+			@Override
+			boolean matches(String uri, int start, int end) {
+				if (start < end && uri.charAt(start) == '-') {
+					start++;
+				}
+				if (start == end) {
+					return false;
+				}
+				for (int i = start; i < end; i++) {
+					char character = uri.charAt(i);
+					if (character < '0' || character > '9') {
+						return false;
+					}
+				}
+				return true;
+			}
+		};
+
+		private final String regex;
+
+		SegmentPattern(String regex) {
+			this.regex = regex;
+		}
+
+		abstract boolean matches(String uri, int start, int end);
+
+		static SegmentPattern of(String segment, DefaultParametersControl control) {
+			if (!segment.startsWith("{") || segment.indexOf('}') != segment.length() - 1) {
+				return null;
+			}
+			String regex = control.patternFor(segment.substring(1, segment.length() - 1));
+			for (SegmentPattern pattern : values()) {
+				if (pattern.regex.equals(regex)) {
+					return pattern;
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Parameters captured directly from the uri segments.
+	 */
+	private static final class SegmentGroups implements MatchResult {
+		private final String uri;
+		private final int[] starts;
+		private final int[] segments;
+
+		SegmentGroups(String uri, int[] starts, int[] segments) {
+			this.uri = uri;
+			this.starts = starts;
+			this.segments = segments;
+		}
+
+		@Override
+		public int start() {
+			return 0;
+		}
+
+		@Override
+		public int start(int group) {
+			return group == 0 ? 0 : starts[segments[group - 1]];
+		}
+
+		@Override
+		public int end() {
+			return uri.length();
+		}
+
+		@Override
+		public int end(int group) {
+			return group == 0 ? uri.length() : starts[segments[group - 1] + 1] - 1;
+		}
+
+		@Override
+		public String group() {
+			return uri;
+		}
+
+		@Override
+		public String group(int group) {
+			return uri.substring(start(group), end(group));
+		}
+
+		@Override
+		public int groupCount() {
+			return segments.length;
+		}
+	}
+
+	private static class Node {
+		private Map<String, Node> literalsByName = new TreeMap<>();
+		private List<Entry> terminalList = new ArrayList<>();
+		private List<Entry> remainingList = new ArrayList<>();
+
+		private String[] literalNames;
+		private Node[] literals;
+		private Entry[] terminal;
+		private Entry[] remaining;
+		private Node parameter;
+
+		Node literal(String name) {
+			Node child = literalsByName.get(name);
+			if (child == null) {
+				child = new Node();
+				literalsByName.put(name, child);
+			}
+			return child;
+		}
+
+		Node parameter() {
+			if (parameter == null) {
+				parameter = new Node();
+			}
+			return parameter;
+		}
+
+		/**
+		 * Binary search on the sorted literal names, comparing directly against the uri region.
+		 */
+		Node literal(String uri, int start, int end) {
+			int low = 0;
+			int high = literalNames.length - 1;
+			while (low <= high) {
+				int middle = (low + high) >>> 1;
+				int comparison = compare(literalNames[middle], uri, start, end);
+				if (comparison < 0) {
+					low = middle + 1;
+				} else if (comparison > 0) {
+					high = middle - 1;
+				} else {
+					return literals[middle];
+				}
+			}
+			return null;
+		}
+
+		private static int compare(String name, String uri, int start, int end) {
+			int length = end - start;
+			int limit = Math.min(name.length(), length);
+			for (int i = 0; i < limit; i++) {
+				int difference = name.charAt(i) - uri.charAt(start + i);
+				if (difference != 0) {
+					return difference;
+				}
+			}
+			return name.length() - length;
+		}
+
+		void freeze() {
+			literalNames = literalsByName.keySet().toArray(new String[literalsByName.size()]);
+			literals = literalsByName.values().toArray(new Node[literalsByName.size()]);
+			terminal = terminalList.toArray(new Entry[terminalList.size()]);
+			remaining = remainingList.toArray(new Entry[remainingList.size()]);
+			literalsByName = null;
+			terminalList = null;
+			remainingList = null;
+			for (Node literal : literals) {
+				literal.freeze();
+			}
+			if (parameter != null) {
+				parameter.freeze();
+			}
+		}
+	}
+
+	private static class Entry implements Comparable<Entry> {
+		private final Route route;
+		private final FixedMethodStrategy fixed;
+		private final int rank;
+
+		/** segment indexes of the uri parameters, when they can be matched without a regex */
+		private int[] parameters;
+		private SegmentPattern[] patterns;
+
+		Entry(Route route, int rank) {
+			this.route = route;
+			this.fixed = fixedOf(route);
+			this.rank = rank;
+		}
+
+		boolean allows(HttpMethod method) {
+			return route.allowedMethods().contains(method);
+		}
+
+		MatchResult matches(String uri) {
+			return matches(uri, parameters == null ? null : segmentStarts(uri));
+		}
+
+		/**
+		 * @return the groups captured by the route regex, or {@link RouteIndex#NO_GROUPS} when
+		 *         no regex was needed, or null if the route doesn't match.
+		 */
+		MatchResult matches(String uri, int[] starts) {
+			if (parameters != null) {
+				for (int i = 0; i < parameters.length; i++) {
+					int segment = parameters[i];
+					if (!patterns[i].matches(uri, starts[segment], starts[segment + 1] - 1)) {
+						return null;
+					}
+				}
+				return NO_GROUPS;
+			}
+			if (fixed != null) {
+				return fixed.match(uri);
+			}
+			return route.canHandle(uri) ? NO_GROUPS : null;
+		}
+
+		/**
+		 * Segment parameters are only extracted for the chosen route.
+		 */
+		MatchResult groups(String uri, int[] starts, MatchResult matched) {
+			if (parameters != null && parameters.length > 0) {
+				return new SegmentGroups(uri, starts, parameters);
+			}
+			return matched;
+		}
+
+		@Override
+		public int compareTo(Entry other) {
+			return Integer.compare(rank, other.rank);
+		}
+	}
+}
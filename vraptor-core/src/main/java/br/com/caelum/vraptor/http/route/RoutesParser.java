@@ -23,6 +23,11 @@ import br.com.caelum.vraptor.controller.BeanClass;
 
 /**
  * Extracts all possible routes for this specific controller.
+ * <p>
+ * On startup, {@link #rulesFor(BeanClass)} is called concurrently for many controllers, on the
+ * threads of the {@link br.com.caelum.vraptor.ioc.StartupPipeline}, so implementations must be
+ * thread safe. Set {@value br.com.caelum.vraptor.ioc.StartupPipeline#PARALLEL_KEY} to
+ * {@code false} to call it on the starting thread only.
  *
  * @author guilherme silveira
  */
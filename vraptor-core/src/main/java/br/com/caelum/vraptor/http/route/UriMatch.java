@@ -0,0 +1,74 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.http.route;
+
+import java.util.regex.MatchResult;
+
+/**
+ * A match that only holds the whole uri, without any captured group.
+ */
+final class UriMatch implements MatchResult {
+	private final String uri;
+
+	UriMatch(String uri) {
+		this.uri = uri;
+	}
+
+	@Override
+	public int start() {
+		return 0;
+	}
+
+	@Override
+	public int start(int group) {
+		checkGroup(group);
+		return 0;
+	}
+
+	@Override
+	public int end() {
+		return uri.length();
+	}
+
+	@Override
+	public int end(int group) {
+		checkGroup(group);
+		return uri.length();
+	}
+
+	@Override
+	public String group() {
+		return uri;
+	}
+
+	@Override
+	public String group(int group) {
+		checkGroup(group);
+		return uri;
+	}
+
+	@Override
+	public int groupCount() {
+		return 0;
+	}
+
+	private void checkGroup(int group) {
+		if (group != 0) {
+			throw new IndexOutOfBoundsException("No group " + group);
+		}
+	}
+}
@@ -0,0 +1,108 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.http.route;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.enterprise.inject.Vetoed;
+
+/**
+ * An uri pattern split into literal chunks and parameter slots, so uris can be built in a single
+ * pass. There is always one more literal than slots: {@code /clients/{id}/edit} has the literals
+ * {@code /clients/} and {@code /edit}, and the slot {@code id}.
+ */
+@Vetoed
+final class UriTemplate {
+
+	private final String[] literals;
+	private final String[] slots;
+	private final String[] uriLiterals;
+	private final int length;
+
+	UriTemplate(String pattern) {
+		List<String> literals = new ArrayList<>();
+		List<String> slots = new ArrayList<>();
+		StringBuilder chunk = new StringBuilder();
+		int brackets = 0;
+		for (int i = 0; i < pattern.length(); i++) {
+			char character = pattern.charAt(i);
+			if (character == '{') {
+				brackets++;
+				if (brackets == 1) {
+					literals.add(chunk.toString());
+					chunk.setLength(0);
+					continue;
+				}
+			} else if (character == '}') {
+				brackets--;
+				if (brackets == 0) {
+					slots.add(chunk.toString());
+					chunk.setLength(0);
+					continue;
+				}
+			}
+			chunk.append(character);
+		}
+		literals.add(chunk.toString());
+
+		this.literals = literals.toArray(new String[literals.size()]);
+		this.slots = slots.toArray(new String[slots.size()]);
+		this.uriLiterals = new String[this.literals.length];
+		int length = 0;
+		for (int i = 0; i < this.literals.length; i++) {
+			uriLiterals[i] = this.literals[i].replace(".*", "");
+			length += uriLiterals[i].length();
+		}
+		this.length = length;
+	}
+
+	int size() {
+		return slots.length;
+	}
+
+	/**
+	 * @return the literal before the given slot, or the trailing literal for {@code size()}. Regex
+	 *         wildcards ({@code .*}) are removed, since they are not part of the generated uris.
+	 */
+	String uriLiteral(int index) {
+		return uriLiterals[index];
+	}
+
+	/**
+	 * @return a builder sized for the literals and some parameter values.
+	 */
+	StringBuilder newBuilder() {
+		return new StringBuilder(length + 16 * slots.length);
+	}
+
+	/**
+	 * Replaces the first slots with the given values, keeping the remaining slots as they are.
+	 */
+	String apply(String[] values) {
+		StringBuilder result = newBuilder();
+		for (int i = 0; i < slots.length; i++) {
+			result.append(literals[i]);
+			if (i < values.length) {
+				result.append(values[i]);
+			} else {
+				result.append('{').append(slots[i]).append('}');
+			}
+		}
+		return result.append(literals[slots.length]).toString();
+	}
+}
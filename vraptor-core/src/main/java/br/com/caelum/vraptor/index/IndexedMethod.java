@@ -0,0 +1,90 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.index;
+
+import static com.google.common.base.Joiner.on;
+
+import java.lang.reflect.Method;
+import java.util.EnumSet;
+import java.util.Set;
+
+import javax.enterprise.inject.Vetoed;
+
+import br.com.caelum.vraptor.controller.HttpMethod;
+
+/**
+ * What was known about a controller method at compile time: the names of its parameters, the
+ * http methods it was annotated with and the uris given to those annotations.
+ */
+@Vetoed
+public final class IndexedMethod {
+
+	private final String key;
+	private final String[] parameterNames;
+	private final EnumSet<HttpMethod> httpMethods;
+	private final String[] uris;
+
+	public IndexedMethod(String key, String[] parameterNames, Set<HttpMethod> httpMethods, String[] uris) {
+		this.key = key;
+		this.parameterNames = parameterNames.clone();
+		this.httpMethods = httpMethods.isEmpty() ? EnumSet.noneOf(HttpMethod.class) : EnumSet.copyOf(httpMethods);
+		this.uris = uris.clone();
+	}
+
+	/**
+	 * @return the key of a method with the given declaring class, name and erased parameter types,
+	 *         the ones given by {@link Class#getName()}, such as
+	 *         {@code app.ProductController#show(java.lang.Long,[Ljava.lang.String;)}.
+	 */
+	public static String keyOf(String declaringClass, String name, Iterable<String> parameterTypes) {
+		return declaringClass + "#" + name + "(" + on(',').join(parameterTypes) + ")";
+	}
+
+	public static String keyOf(Method method) {
+		StringBuilder key = new StringBuilder(method.getDeclaringClass().getName())
+				.append('#').append(method.getName()).append('(');
+		Class<?>[] types = method.getParameterTypes();
+		for (int i = 0; i < types.length; i++) {
+			key.append(i == 0 ? "" : ",").append(types[i].getName());
+		}
+		return key.append(')').toString();
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	public String[] getParameterNames() {
+		return parameterNames.clone();
+	}
+
+	public EnumSet<HttpMethod> getHttpMethods() {
+		return EnumSet.copyOf(httpMethods);
+	}
+
+	/**
+	 * @return the uris of the http method annotations, such as {@code @Get("/products")}.
+	 */
+	public String[] getUris() {
+		return uris.clone();
+	}
+
+	@Override
+	public String toString() {
+		return key;
+	}
+}
@@ -0,0 +1,172 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.index;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import br.com.caelum.vraptor.controller.HttpMethod;
+
+/**
+ * The controller methods indexed at compile time by the {@code vraptor-apt} annotation processor.
+ * When the processor is on the compiler classpath, each jar or classes folder gets a
+ * {@value #LOCATION} resource, and VRaptor reads parameter names and route annotations from it
+ * instead of reading bytecode and reflecting annotations. Methods that aren't in the index, or
+ * whose signature changed since it was generated, are still discovered as usual.
+ */
+@ApplicationScoped
+public class MetadataIndex {
+
+	private static final Logger logger = LogManager.getLogger(MetadataIndex.class);
+
+	public static final String LOCATION = "META-INF/vraptor/metadata.idx";
+
+	private static final int VERSION = 1;
+
+	private final Map<String, IndexedMethod> methods = new HashMap<>();
+
+	public MetadataIndex() {
+	}
+
+	public MetadataIndex(Collection<IndexedMethod> methods) {
+		add(methods);
+	}
+
+	@PostConstruct
+	public void init() {
+		load(Thread.currentThread().getContextClassLoader());
+	}
+
+	void load(ClassLoader classLoader) {
+		try {
+			Enumeration<URL> resources = classLoader.getResources(LOCATION);
+			while (resources.hasMoreElements()) {
+				URL resource = resources.nextElement();
+				try (InputStream input = resource.openStream()) {
+					Collection<IndexedMethod> read = read(input);
+					add(read);
+					logger.debug("Read {} indexed controller methods from {}", read.size(), resource);
+				}
+			}
+		} catch (IOException e) {
+			logger.warn("Unable to read the metadata index, controllers will be discovered by reflection", e);
+			methods.clear();
+		}
+	}
+
+	private void add(Collection<IndexedMethod> indexed) {
+		for (IndexedMethod method : indexed) {
+			methods.put(method.getKey(), method);
+		}
+	}
+
+	public boolean isEmpty() {
+		return methods.isEmpty();
+	}
+
+	/**
+	 * @return what was indexed about the method, or {@code null} if it isn't indexed.
+	 */
+	public IndexedMethod methodOf(Method method) {
+		return methods.isEmpty() ? null : methods.get(IndexedMethod.keyOf(method));
+	}
+
+	/**
+	 * @return the indexed parameter names of a method, or {@code null} if they are unknown.
+	 */
+	public String[] parameterNamesOf(AccessibleObject executable) {
+		if (!(executable instanceof Method)) {
+			return null;
+		}
+		IndexedMethod method = methodOf((Method) executable);
+		return method == null ? null : method.getParameterNames();
+	}
+
+	public static void write(Collection<IndexedMethod> methods, OutputStream output) throws IOException {
+		DataOutputStream data = new DataOutputStream(output);
+		data.writeInt(VERSION);
+		data.writeInt(methods.size());
+		for (IndexedMethod method : methods) {
+			data.writeUTF(method.getKey());
+			writeStrings(data, method.getParameterNames());
+			EnumSet<HttpMethod> httpMethods = method.getHttpMethods();
+			data.writeInt(httpMethods.size());
+			for (HttpMethod httpMethod : httpMethods) {
+				data.writeUTF(httpMethod.name());
+			}
+			writeStrings(data, method.getUris());
+		}
+		data.flush();
+	}
+
+	public static Collection<IndexedMethod> read(InputStream input) throws IOException {
+		DataInputStream data = new DataInputStream(new BufferedInputStream(input));
+		int version = data.readInt();
+		if (version != VERSION) {
+			logger.warn("Ignoring a metadata index of version {}, expecting {}", version, VERSION);
+			return Collections.emptyList();
+		}
+		int size = data.readInt();
+		Collection<IndexedMethod> methods = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			String key = data.readUTF();
+			String[] names = readStrings(data);
+			Set<HttpMethod> httpMethods = EnumSet.noneOf(HttpMethod.class);
+			for (int j = data.readInt(); j > 0; j--) {
+				httpMethods.add(HttpMethod.valueOf(data.readUTF()));
+			}
+			methods.add(new IndexedMethod(key, names, httpMethods, readStrings(data)));
+		}
+		return methods;
+	}
+
+	private static void writeStrings(DataOutputStream data, String[] strings) throws IOException {
+		data.writeInt(strings.length);
+		for (String string : strings) {
+			data.writeUTF(string);
+		}
+	}
+
+	private static String[] readStrings(DataInputStream data) throws IOException {
+		String[] strings = new String[data.readInt()];
+		for (int i = 0; i < strings.length; i++) {
+			strings[i] = data.readUTF();
+		}
+		return strings;
+	}
+}
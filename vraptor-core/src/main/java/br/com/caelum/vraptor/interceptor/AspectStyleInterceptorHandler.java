@@ -28,13 +28,14 @@ import br.com.caelum.vraptor.Accepts;
 import br.com.caelum.vraptor.AfterCall;
 import br.com.caelum.vraptor.AroundCall;
 import br.com.caelum.vraptor.BeforeCall;
+import br.com.caelum.vraptor.StaticAccepts;
 import br.com.caelum.vraptor.controller.ControllerMethod;
-import br.com.caelum.vraptor.core.InterceptorHandler;
 import br.com.caelum.vraptor.core.InterceptorStack;
+import br.com.caelum.vraptor.core.StaticAcceptsInterceptorHandler;
 import br.com.caelum.vraptor.ioc.Container;
 
 @Vetoed
-public class AspectStyleInterceptorHandler implements InterceptorHandler {
+public class AspectStyleInterceptorHandler implements StaticAcceptsInterceptorHandler {
 
 	//private static final Logger logger = getLogger(AspectStyleInterceptorHandler.class);
 	private static final Logger logger = LogManager.getLogger(AspectStyleInterceptorHandler.class);
@@ -50,6 +51,7 @@ public class AspectStyleInterceptorHandler implements InterceptorHandler {
 	private Method beforeMethod;
 	private Method acceptsMethod;
 	private Method customAcceptsMethod;
+	private boolean staticAccepts;
 
 	public AspectStyleInterceptorHandler(Class<?> interceptorClass, StepInvoker stepInvoker,
 			Container container, CustomAcceptsExecutor customAcceptsExecutor,
@@ -62,6 +64,7 @@ public class AspectStyleInterceptorHandler implements InterceptorHandler {
 		this.acceptsExecutor = acceptsExecutor;
 		this.interceptorExecutor = interceptorExecutor;
 		extractAllInterceptorMethods();
+		this.staticAccepts = isStatic();
 	}
 
 	private void extractAllInterceptorMethods() {
@@ -73,22 +76,69 @@ public class AspectStyleInterceptorHandler implements InterceptorHandler {
 		this.customAcceptsMethod = findMethodWith(CustomAcceptsFailCallback.class, methods);
 	}
 
+	/**
+	 * Accepts is static when there is no accepts method, when all custom accepts are evaluated by
+	 * {@link StaticAccepts} validators and there is no fail callback, or when the interceptor itself
+	 * is annotated with {@link StaticAccepts}.
+	 */
+	private boolean isStatic() {
+		List<Annotation> customAccepts = CustomAcceptsVerifier.getCustomAcceptsAnnotations(interceptorClass);
+		if (customAccepts.isEmpty()) {
+			return acceptsMethod == null || interceptorClass.isAnnotationPresent(StaticAccepts.class);
+		}
+		if (customAcceptsMethod != null) {
+			return false;
+		}
+		for (Annotation annotation : customAccepts) {
+			AcceptsConstraint constraint = annotation.annotationType().getAnnotation(AcceptsConstraint.class);
+			if (!constraint.value().isAnnotationPresent(StaticAccepts.class)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	@Override
 	public void execute(InterceptorStack stack, ControllerMethod controllerMethod, Object currentController) {
 
 		Object interceptor = container.instanceFor(interceptorClass);
 		logger.debug("Invoking interceptor {}", interceptor.getClass().getSimpleName());
-		List<Annotation> customAccepts = customAcceptsExecutor.getCustomAccepts(interceptor);
 
-		if (customAccepts(interceptor, customAccepts) || internalAccepts(interceptor, customAccepts)) {
-			interceptorExecutor.execute(interceptor, beforeMethod);
-			interceptorExecutor.executeAround(interceptor, aroundMethod);
-			interceptorExecutor.execute(interceptor, afterMethod);
+		if (accepts(interceptor)) {
+			intercept(interceptor);
 		} else {
 			stack.next(controllerMethod, currentController);
 		}
 	}
 
+	@Override
+	public boolean hasStaticAccepts() {
+		return staticAccepts;
+	}
+
+	@Override
+	public boolean accepts(ControllerMethod method) {
+		return accepts(container.instanceFor(interceptorClass));
+	}
+
+	@Override
+	public void executeAccepted(InterceptorStack stack, ControllerMethod method, Object controllerInstance) {
+		Object interceptor = container.instanceFor(interceptorClass);
+		logger.debug("Invoking interceptor {}", interceptor.getClass().getSimpleName());
+		intercept(interceptor);
+	}
+
+	private boolean accepts(Object interceptor) {
+		List<Annotation> customAccepts = customAcceptsExecutor.getCustomAccepts(interceptor);
+		return customAccepts(interceptor, customAccepts) || internalAccepts(interceptor, customAccepts);
+	}
+
+	private void intercept(Object interceptor) {
+		interceptorExecutor.execute(interceptor, beforeMethod);
+		interceptorExecutor.executeAround(interceptor, aroundMethod);
+		interceptorExecutor.execute(interceptor, afterMethod);
+	}
+
 	private Method findMethodWith(Class<? extends Annotation> step, List<Method> methods) {
 		return stepInvoker.findMethod(methods, step, interceptorClass);
 	}
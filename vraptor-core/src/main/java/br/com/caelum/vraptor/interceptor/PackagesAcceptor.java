@@ -21,6 +21,7 @@ import java.util.List;
 
 import javax.enterprise.context.Dependent;
 
+import br.com.caelum.vraptor.StaticAccepts;
 import br.com.caelum.vraptor.controller.ControllerInstance;
 import br.com.caelum.vraptor.controller.ControllerMethod;
 
@@ -28,6 +29,7 @@ import com.google.common.base.Predicate;
 import com.google.common.collect.FluentIterable;
 
 @Dependent
+@StaticAccepts
 public class PackagesAcceptor implements AcceptsValidator<AcceptsForPackages> {
 
 	private List<String> allowedPackages;
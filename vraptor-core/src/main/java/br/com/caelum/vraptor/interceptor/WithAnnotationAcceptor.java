@@ -22,6 +22,7 @@ import java.util.List;
 
 import javax.enterprise.context.Dependent;
 
+import br.com.caelum.vraptor.StaticAccepts;
 import br.com.caelum.vraptor.controller.ControllerInstance;
 import br.com.caelum.vraptor.controller.ControllerMethod;
 
@@ -35,6 +36,7 @@ import com.google.common.collect.FluentIterable;
  *
  */
 @Dependent
+@StaticAccepts
 public class WithAnnotationAcceptor implements AcceptsValidator<AcceptsWithAnnotations> {
 
 	private List<Class<? extends Annotation>> allowedTypes;
@@ -19,6 +19,10 @@
  */
 package br.com.caelum.vraptor.ioc;
 
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
 import javax.enterprise.context.Dependent;
 import javax.enterprise.event.Observes;
 import javax.inject.Inject;
@@ -34,7 +38,10 @@ import br.com.caelum.vraptor.http.route.Router;
 import br.com.caelum.vraptor.http.route.RoutesParser;
 
 /**
- * Called when a controller is discovered, registering routes for it.
+ * Called when a controller is discovered, registering routes for it. On startup the routes are
+ * parsed on the {@link StartupPipeline}, and registered in the order controllers were found.
+ * Parsing runs on the pipeline's threads, so the {@link RoutesParser} must be thread safe, while
+ * routes are always added to the {@link Router} by the starting thread.
  */
 @Dependent
 public class ControllerHandler{
@@ -45,27 +52,48 @@ public class ControllerHandler{
 	private final Router router;
 	private final RoutesParser parser;
 	private final ServletContext context;
+	private final StartupPipeline pipeline;
 
 	/**
 	 * @deprecated CDI eyes only
 	 */
 	protected ControllerHandler() {
-		this(null, null, null);
+		this(null, null, null, null);
 	}
 
-	@Inject
+	/**
+	 * @deprecated Prefer using
+	 *             {@link ControllerHandler#ControllerHandler(Router, RoutesParser, ServletContext, StartupPipeline)}
+	 */
 	public ControllerHandler(Router router, RoutesParser parser,
 			ServletContext context) {
+		this(router, parser, context, new StartupPipeline());
+	}
+
+	@Inject
+	public ControllerHandler(Router router, RoutesParser parser,
+			ServletContext context, StartupPipeline pipeline) {
 		this.router = router;
 		this.parser = parser;
 		this.context = context;
+		this.pipeline = pipeline;
 	}
 
-	public void handle(@Observes @ControllerQualifier BeanClass annotatedType) {
+	public void handle(@Observes @ControllerQualifier final BeanClass annotatedType) {
 		logger.debug("Found controller: {}", annotatedType);
-		for (Route route : parser.rulesFor(annotatedType)) {
-			router.add(route);
-		}
+		pipeline.schedule(StartupPipeline.ROUTES, new Callable<List<Route>>() {
+			@Override
+			public List<Route> call() {
+				return parser.rulesFor(annotatedType);
+			}
+		}, new Consumer<List<Route>>() {
+			@Override
+			public void accept(List<Route> routes) {
+				for (Route route : routes) {
+					router.add(route);
+				}
+			}
+		});
 
 		registerLinkToClass(annotatedType);
 	}
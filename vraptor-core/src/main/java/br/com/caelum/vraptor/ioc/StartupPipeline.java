@@ -0,0 +1,245 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.ioc;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import br.com.caelum.vraptor.VRaptorException;
+import br.com.caelum.vraptor.environment.Environment;
+
+/**
+ * Runs the work of VRaptor startup in phases. While the stereotypes are being registered,
+ * handlers {@link #schedule(String, Callable, Consumer)} their expensive work instead of doing
+ * it, and on {@link #finish()} each phase runs its tasks in parallel on a fork-join pool with one
+ * thread per core. Then the results are handed to the callbacks one at a time, in the order the
+ * tasks were scheduled, so registering routes stays deterministic.
+ * <p>
+ * Tasks run on the pool's threads, so the components they call, such as
+ * {@link br.com.caelum.vraptor.http.route.RoutesParser}, must be thread safe and must not rely on
+ * thread locals set by the starting thread. Callbacks always run on the starting thread. Setting
+ * {@value #PARALLEL_KEY} to {@code false} in the environment runs every task on the starting
+ * thread instead.
+ * <p>
+ * Outside startup, scheduled tasks run right away. The time spent in each phase is logged when
+ * VRaptor is initialized.
+ */
+@ApplicationScoped
+public class StartupPipeline {
+
+	public static final String PARALLEL_KEY = "br.com.caelum.vraptor.startup.parallel";
+
+	/**
+	 * Parsing controllers and compiling the patterns of their routes.
+	 */
+	public static final String ROUTES = "routes";
+
+	/**
+	 * Generating the interfaces used by {@code linkTo}.
+	 */
+	public static final String LINK_TO = "linkTo";
+
+	private final Map<String, List<Step<?>>> phases = new LinkedHashMap<>();
+	private final Map<String, Long> timings = new LinkedHashMap<>();
+	private final Environment environment;
+	private boolean running;
+
+	/**
+	 * A pipeline that always runs its tasks in parallel.
+	 */
+	public StartupPipeline() {
+		this(null);
+	}
+
+	@Inject
+	public StartupPipeline(Environment environment) {
+		this.environment = environment;
+	}
+
+	public void start() {
+		phases.clear();
+		timings.clear();
+		phases.put(ROUTES, new ArrayList<Step<?>>());
+		phases.put(LINK_TO, new ArrayList<Step<?>>());
+		running = true;
+	}
+
+	/**
+	 * Leaves startup without running the tasks that are still scheduled. It does nothing if
+	 * {@link #finish()} already ran them.
+	 */
+	public void stop() {
+		running = false;
+		phases.clear();
+	}
+
+	/**
+	 * Schedules a task for the given phase, handing its result to {@code then} when the phase ends.
+	 * {@code then} may be {@code null}. Outside startup, both run right away.
+	 */
+	public <T> void schedule(String phase, Callable<T> task, Consumer<? super T> then) {
+		Step<T> step = new Step<>(task, then);
+		if (!running) {
+			call(step);
+			step.complete();
+			return;
+		}
+		List<Step<?>> steps = phases.get(phase);
+		if (steps == null) {
+			steps = new ArrayList<>();
+			phases.put(phase, steps);
+		}
+		steps.add(step);
+	}
+
+	/**
+	 * Runs every scheduled phase, in order.
+	 */
+	public void finish() {
+		running = false;
+		ForkJoinPool pool = isParallel() ? newPool() : null;
+		try {
+			for (Entry<String, List<Step<?>>> phase : phases.entrySet()) {
+				long start = System.nanoTime();
+				run(pool, phase.getValue());
+				record(phase.getKey(), start);
+			}
+		} finally {
+			if (pool != null) {
+				pool.shutdown();
+			}
+			phases.clear();
+		}
+	}
+
+	/**
+	 * Records the time spent in a phase that started at the given {@link System#nanoTime()}.
+	 */
+	public void record(String phase, long start) {
+		timings.put(phase, NANOSECONDS.toMillis(System.nanoTime() - start));
+	}
+
+	/**
+	 * @return the milliseconds spent in each phase of the last startup.
+	 */
+	public Map<String, Long> getTimings() {
+		return Collections.unmodifiableMap(timings);
+	}
+
+	private boolean isParallel() {
+		return environment == null || !"false".equals(environment.get(PARALLEL_KEY, "true"));
+	}
+
+	private void run(ForkJoinPool pool, List<Step<?>> steps) {
+		if (steps.isEmpty()) {
+			return;
+		}
+		if (pool == null) {
+			for (Step<?> step : steps) {
+				call(step);
+				step.complete();
+			}
+			return;
+		}
+		List<Future<Void>> results = pool.invokeAll(steps);
+		for (int i = 0; i < steps.size(); i++) {
+			try {
+				results.get(i).get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new VRaptorException(e);
+			} catch (ExecutionException e) {
+				throw propagate(e.getCause());
+			}
+			steps.get(i).complete();
+		}
+	}
+
+	private void call(Step<?> step) {
+		try {
+			step.call();
+		} catch (Exception e) {
+			throw propagate(e);
+		}
+	}
+
+	private RuntimeException propagate(Throwable e) {
+		if (e instanceof RuntimeException) {
+			return (RuntimeException) e;
+		}
+		if (e instanceof Error) {
+			throw (Error) e;
+		}
+		return new VRaptorException(e);
+	}
+
+	/**
+	 * Worker threads see the classes of the application, as the thread that started it does.
+	 */
+	private ForkJoinPool newPool() {
+		final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		return new ForkJoinPool(Runtime.getRuntime().availableProcessors(), new ForkJoinWorkerThreadFactory() {
+			@Override
+			public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+				ForkJoinWorkerThread thread = new ForkJoinWorkerThread(pool) {
+				};
+				thread.setName("vraptor-startup-" + thread.getPoolIndex());
+				thread.setContextClassLoader(classLoader);
+				return thread;
+			}
+		}, null, false);
+	}
+
+	private static final class Step<T> implements Callable<Void> {
+		private final Callable<T> task;
+		private final Consumer<? super T> then;
+		private T result;
+
+		Step(Callable<T> task, Consumer<? super T> then) {
+			this.task = task;
+			this.then = then;
+		}
+
+		@Override
+		public Void call() throws Exception {
+			result = task.call();
+			return null;
+		}
+
+		void complete() {
+			if (then != null) {
+				then.accept(result);
+			}
+		}
+	}
+}
@@ -35,6 +35,7 @@ import br.com.caelum.vraptor.core.DeserializesQualifier;
 import br.com.caelum.vraptor.core.InterceptorStackHandlersCache;
 import br.com.caelum.vraptor.core.InterceptsQualifier;
 import br.com.caelum.vraptor.events.VRaptorInitialized;
+import br.com.caelum.vraptor.ioc.StartupPipeline;
 import br.com.caelum.vraptor.serialization.Deserializes;
 
 import com.google.common.collect.ImmutableMap;
@@ -46,15 +47,27 @@ public class StereotypesRegistry {
 
 	@Inject private BeanManager beanManager;
 	@Inject private InterceptorStackHandlersCache interceptorsCache;
+	@Inject private StartupPipeline pipeline;
 
 	public void configure(@Observes VRaptorInitialized event){
-		for (Bean<?> bean : beanManager.getBeans(Object.class)) {
-			Annotation qualifier = tryToFindAStereotypeQualifier(bean);
-			if (qualifier != null) {
-				beanManager.fireEvent(new DefaultBeanClass(bean.getBeanClass()), qualifier);
+		pipeline.start();
+		long start = System.nanoTime();
+		try {
+			for (Bean<?> bean : beanManager.getBeans(Object.class)) {
+				Annotation qualifier = tryToFindAStereotypeQualifier(bean);
+				if (qualifier != null) {
+					beanManager.fireEvent(new DefaultBeanClass(bean.getBeanClass()), qualifier);
+				}
 			}
+			pipeline.record("stereotypes", start);
+			pipeline.finish();
+		} finally {
+			pipeline.stop();
 		}
+
+		start = System.nanoTime();
 		interceptorsCache.init();
+		pipeline.record("interceptors", start);
 	}
 
 	private Annotation tryToFindAStereotypeQualifier(Bean<?> bean) {
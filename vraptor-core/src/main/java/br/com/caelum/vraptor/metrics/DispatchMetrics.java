@@ -0,0 +1,212 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.metrics;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import br.com.caelum.vraptor.controller.ControllerMethod;
+import br.com.caelum.vraptor.core.InterceptorHandler;
+import br.com.caelum.vraptor.environment.Environment;
+
+/**
+ * Latencies and outcomes of the requests handled by VRaptor, recorded by
+ * {@link DispatchMetricsObserver} and the interceptor stack. Everything is recorded without locks,
+ * so it can be left on in production. Inject it to read the metrics, or map
+ * {@link DispatchMetricsServlet} to read them as JSON.
+ * <p>
+ * Controller methods are named as {@code fully.qualified.Controller#method(ParameterTypes)} and
+ * interceptors by their handlers. Interceptor latencies do not include the time spent on the next
+ * interceptors and the controller.
+ * <p>
+ * Setting {@value #ENABLED_KEY} to {@code false} in the environment turns the metrics off: nothing
+ * is measured nor recorded.
+ */
+@ApplicationScoped
+public class DispatchMetrics {
+
+	public static final String ENABLED_KEY = "br.com.caelum.vraptor.metrics";
+
+	private final LatencyHistogram routing = new LatencyHistogram();
+	private final ConcurrentMap<ControllerMethod, LatencyHistogram> requests = new ConcurrentHashMap<>();
+	private final ConcurrentMap<ControllerMethod, LatencyHistogram> methods = new ConcurrentHashMap<>();
+	private final ConcurrentMap<InterceptorHandler, LatencyHistogram> handlers = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, LatencyHistogram> interceptors = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, LatencyHistogram> serializations = new ConcurrentHashMap<>();
+	private final LongAdder notFound = new LongAdder();
+	private final LongAdder methodNotAllowed = new LongAdder();
+	private final boolean enabled;
+
+	/**
+	 * Metrics that are always enabled.
+	 */
+	public DispatchMetrics() {
+		this(null);
+	}
+
+	@Inject
+	public DispatchMetrics(Environment environment) {
+		this.enabled = environment == null || !"false".equals(environment.get(ENABLED_KEY, "true"));
+	}
+
+	/**
+	 * Returns {@code false} if the metrics are turned off, so callers can skip measuring.
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Records the time spent to find the controller method of a request.
+	 */
+	public void routed(long nanos) {
+		if (!enabled) {
+			return;
+		}
+		routing.record(nanos);
+	}
+
+	/**
+	 * Records the whole time spent by VRaptor on a successful request to the given method.
+	 */
+	public void requestSucceeded(ControllerMethod method, long nanos) {
+		if (!enabled) {
+			return;
+		}
+		histogramFor(requests, method).record(nanos);
+	}
+
+	/**
+	 * Records the time spent executing the given controller method.
+	 */
+	public void methodExecuted(ControllerMethod method, long nanos) {
+		if (!enabled) {
+			return;
+		}
+		histogramFor(methods, method).record(nanos);
+	}
+
+	/**
+	 * Records the time spent by an interceptor, not including the rest of the stack.
+	 */
+	public void interceptorExecuted(InterceptorHandler handler, long nanos) {
+		if (!enabled) {
+			return;
+		}
+		LatencyHistogram histogram = handlers.get(handler);
+		if (histogram == null) {
+			histogram = histogramFor(interceptors, handler.toString());
+			handlers.putIfAbsent(handler, histogram);
+		}
+		histogram.record(nanos);
+	}
+
+	/**
+	 * Records the time spent serializing an object to the given format.
+	 */
+	public void serialized(String format, long nanos) {
+		if (!enabled) {
+			return;
+		}
+		histogramFor(serializations, format).record(nanos);
+	}
+
+	public void controllerNotFound() {
+		if (!enabled) {
+			return;
+		}
+		notFound.increment();
+	}
+
+	public void methodNotAllowed() {
+		if (!enabled) {
+			return;
+		}
+		methodNotAllowed.increment();
+	}
+
+	public LatencyHistogram getRoutingLatency() {
+		return routing;
+	}
+
+	public SortedMap<String, LatencyHistogram> getRequestLatencies() {
+		return byName(requests);
+	}
+
+	public SortedMap<String, LatencyHistogram> getMethodLatencies() {
+		return byName(methods);
+	}
+
+	public SortedMap<String, LatencyHistogram> getInterceptorLatencies() {
+		return new TreeMap<>(interceptors);
+	}
+
+	public SortedMap<String, LatencyHistogram> getSerializationLatencies() {
+		return new TreeMap<>(serializations);
+	}
+
+	public long getNotFoundCount() {
+		return notFound.sum();
+	}
+
+	public long getMethodNotAllowedCount() {
+		return methodNotAllowed.sum();
+	}
+
+	private SortedMap<String, LatencyHistogram> byName(Map<ControllerMethod, LatencyHistogram> histograms) {
+		SortedMap<String, LatencyHistogram> byName = new TreeMap<>();
+		for (Map.Entry<ControllerMethod, LatencyHistogram> entry : histograms.entrySet()) {
+			byName.put(nameOf(entry.getKey()), entry.getValue());
+		}
+		return byName;
+	}
+
+	/**
+	 * Overloads and controllers with the same simple name must not share a histogram.
+	 */
+	private static String nameOf(ControllerMethod method) {
+		StringBuilder name = new StringBuilder(method.getController().getType().getName())
+				.append('#').append(method.getMethod().getName()).append('(');
+		Class<?>[] types = method.getMethod().getParameterTypes();
+		for (int i = 0; i < types.length; i++) {
+			if (i > 0) {
+				name.append(',');
+			}
+			name.append(types[i].getTypeName());
+		}
+		return name.append(')').toString();
+	}
+
+	private static <K> LatencyHistogram histogramFor(ConcurrentMap<K, LatencyHistogram> histograms, K key) {
+		LatencyHistogram histogram = histograms.get(key);
+		if (histogram == null) {
+			histogram = new LatencyHistogram();
+			LatencyHistogram existing = histograms.putIfAbsent(key, histogram);
+			if (existing != null) {
+				histogram = existing;
+			}
+		}
+		return histogram;
+	}
+}
@@ -0,0 +1,97 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.metrics;
+
+import static javax.interceptor.Interceptor.Priority.PLATFORM_AFTER;
+import static javax.interceptor.Interceptor.Priority.PLATFORM_BEFORE;
+
+import javax.annotation.Priority;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+
+import br.com.caelum.vraptor.events.ControllerFound;
+import br.com.caelum.vraptor.events.ControllerNotFound;
+import br.com.caelum.vraptor.events.MethodExecuted;
+import br.com.caelum.vraptor.events.MethodNotAllowed;
+import br.com.caelum.vraptor.events.MethodReady;
+import br.com.caelum.vraptor.events.RequestSucceded;
+import br.com.caelum.vraptor.events.VRaptorRequestStarted;
+
+/**
+ * Feeds {@link DispatchMetrics} from the request events. Start events are observed before the
+ * other observers and end events after them, so their work is included in the measures.
+ */
+@ApplicationScoped
+public class DispatchMetricsObserver {
+
+	private final DispatchMetrics metrics;
+
+	/**
+	 * @deprecated CDI eyes only
+	 */
+	protected DispatchMetricsObserver() {
+		this(null);
+	}
+
+	@Inject
+	public DispatchMetricsObserver(DispatchMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	public void requestStarted(@Observes @Priority(PLATFORM_BEFORE) VRaptorRequestStarted event, DispatchTimer timer) {
+		if (!metrics.isEnabled()) {
+			return;
+		}
+		timer.requestStarted();
+	}
+
+	public void controllerFound(@Observes @Priority(PLATFORM_BEFORE) ControllerFound event, DispatchTimer timer) {
+		if (!metrics.isEnabled()) {
+			return;
+		}
+		metrics.routed(timer.controllerFound(event.getMethod()));
+	}
+
+	public void methodReady(@Observes @Priority(PLATFORM_AFTER) MethodReady event, DispatchTimer timer) {
+		if (!metrics.isEnabled()) {
+			return;
+		}
+		timer.methodStarted();
+	}
+
+	public void methodExecuted(@Observes @Priority(PLATFORM_BEFORE) MethodExecuted event, DispatchTimer timer) {
+		if (!metrics.isEnabled()) {
+			return;
+		}
+		metrics.methodExecuted(event.getControllerMethod(), timer.methodExecuted());
+	}
+
+	public void requestSucceeded(@Observes @Priority(PLATFORM_AFTER) RequestSucceded event, DispatchTimer timer) {
+		if (metrics.isEnabled() && timer.getMethod() != null) {
+			metrics.requestSucceeded(timer.getMethod(), timer.requestSucceeded());
+		}
+	}
+
+	public void controllerNotFound(@Observes ControllerNotFound event) {
+		metrics.controllerNotFound();
+	}
+
+	public void methodNotAllowed(@Observes MethodNotAllowed event) {
+		metrics.methodNotAllowed();
+	}
+}
@@ -0,0 +1,96 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.metrics;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.inject.Inject;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Writes the {@link DispatchMetrics} as JSON, with durations in microseconds. It is not mapped
+ * by default, since metrics should not be public; map it on your {@code web.xml} under a protected
+ * path:
+ *
+ * <pre>
+ * &lt;servlet&gt;
+ *     &lt;servlet-name&gt;metrics&lt;/servlet-name&gt;
+ *     &lt;servlet-class&gt;br.com.caelum.vraptor.metrics.DispatchMetricsServlet&lt;/servlet-class&gt;
+ * &lt;/servlet&gt;
+ * &lt;servlet-mapping&gt;
+ *     &lt;servlet-name&gt;metrics&lt;/servlet-name&gt;
+ *     &lt;url-pattern&gt;/admin/metrics&lt;/url-pattern&gt;
+ * &lt;/servlet-mapping&gt;
+ * </pre>
+ */
+public class DispatchMetricsServlet extends HttpServlet {
+
+	private static final long serialVersionUID = 1L;
+
+	@Inject
+	private DispatchMetrics metrics;
+
+	@Override
+	protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		response.setContentType("application/json");
+		response.setCharacterEncoding("UTF-8");
+		write(metrics, new JsonWriter(response.getWriter()));
+	}
+
+	static void write(DispatchMetrics metrics, JsonWriter json) throws IOException {
+		json.beginObject();
+		json.name("notFound").value(metrics.getNotFoundCount());
+		json.name("methodNotAllowed").value(metrics.getMethodNotAllowedCount());
+		json.name("routing");
+		write(metrics.getRoutingLatency(), json);
+		write("requests", metrics.getRequestLatencies(), json);
+		write("methods", metrics.getMethodLatencies(), json);
+		write("interceptors", metrics.getInterceptorLatencies(), json);
+		write("serializations", metrics.getSerializationLatencies(), json);
+		json.endObject();
+		json.flush();
+	}
+
+	private static void write(String name, Map<String, LatencyHistogram> histograms, JsonWriter json)
+			throws IOException {
+		json.name(name).beginObject();
+		for (Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+			json.name(entry.getKey());
+			write(entry.getValue(), json);
+		}
+		json.endObject();
+	}
+
+	private static void write(LatencyHistogram histogram, JsonWriter json) throws IOException {
+		json.beginObject();
+		json.name("count").value(histogram.getCount());
+		json.name("mean").value(histogram.getMean(MICROSECONDS));
+		json.name("p50").value(histogram.getValueAtPercentile(50, MICROSECONDS));
+		json.name("p90").value(histogram.getValueAtPercentile(90, MICROSECONDS));
+		json.name("p99").value(histogram.getValueAtPercentile(99, MICROSECONDS));
+		json.name("max").value(histogram.getMax(MICROSECONDS));
+		json.endObject();
+	}
+}
@@ -0,0 +1,66 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.metrics;
+
+import javax.enterprise.context.RequestScoped;
+
+import br.com.caelum.vraptor.controller.ControllerMethod;
+
+/**
+ * When each phase of the current request started, used by {@link DispatchMetricsObserver}.
+ */
+@RequestScoped
+public class DispatchTimer {
+
+	private long requestStarted;
+	private long methodStarted;
+	private ControllerMethod method;
+
+	public void requestStarted() {
+		requestStarted = System.nanoTime();
+	}
+
+	/**
+	 * @return the time elapsed since the request started.
+	 */
+	public long controllerFound(ControllerMethod method) {
+		this.method = method;
+		return System.nanoTime() - requestStarted;
+	}
+
+	public void methodStarted() {
+		methodStarted = System.nanoTime();
+	}
+
+	/**
+	 * @return the time elapsed since the method started.
+	 */
+	public long methodExecuted() {
+		return System.nanoTime() - methodStarted;
+	}
+
+	/**
+	 * @return the time elapsed since the request started.
+	 */
+	public long requestSucceeded() {
+		return System.nanoTime() - requestStarted;
+	}
+
+	public ControllerMethod getMethod() {
+		return method;
+	}
+}
@@ -0,0 +1,129 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.enterprise.inject.Vetoed;
+
+/**
+ * A lock-free histogram of durations in nanoseconds. Each power of two is split in
+ * 16 buckets, so recorded values are kept with an error of at most 1/16
+ * (about two significant digits), the same trade-off of HdrHistogram. Durations above
+ * {@link #MAX_VALUE} nanoseconds (about 18 minutes) are counted in the last bucket.
+ * <p>
+ * Reads are not atomic with regard to concurrent writes, so a percentile may miss the values being
+ * recorded at the same time.
+ */
+@Vetoed
+public final class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int MAX_EXPONENT = 40;
+
+	/**
+	 * The biggest value distinguished by this histogram.
+	 */
+	public static final long MAX_VALUE = (1L << MAX_EXPONENT) - 1;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(indexOf(MAX_VALUE) + 1);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder total = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	public void record(long nanos) {
+		long value = Math.max(0, Math.min(nanos, MAX_VALUE));
+		buckets.incrementAndGet(indexOf(value));
+		count.increment();
+		total.add(value);
+		long currentMax = max.get();
+		while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+			currentMax = max.get();
+		}
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getTotal(TimeUnit unit) {
+		return unit.convert(total.sum(), TimeUnit.NANOSECONDS);
+	}
+
+	public long getMax(TimeUnit unit) {
+		return unit.convert(max.get(), TimeUnit.NANOSECONDS);
+	}
+
+	public long getMean(TimeUnit unit) {
+		long count = getCount();
+		return count == 0 ? 0 : unit.convert(total.sum() / count, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @param percentile between 0 and 100.
+	 * @return the highest value equivalent to the one at the given percentile, or zero if nothing
+	 *         was recorded.
+	 */
+	public long getValueAtPercentile(double percentile, TimeUnit unit) {
+		long[] counts = new long[buckets.length()];
+		long recorded = 0;
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = buckets.get(i);
+			recorded += counts[i];
+		}
+		if (recorded == 0) {
+			return 0;
+		}
+		long wanted = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * recorded));
+		long seen = 0;
+		int index = 0;
+		for (; index < counts.length - 1; index++) {
+			seen += counts[index];
+			if (seen >= wanted) {
+				break;
+			}
+		}
+		long value = Math.min(highestValueOf(index), max.get());
+		return unit.convert(value, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Values smaller than 16 have their own buckets. Bigger values are bucketed by their highest bit
+	 * and the four bits that follow it.
+	 */
+	static int indexOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int mantissa = (int) (value >>> (exponent - SUB_BUCKET_BITS));
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + mantissa - SUB_BUCKETS;
+	}
+
+	static long highestValueOf(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long mantissa = SUB_BUCKETS + index % SUB_BUCKETS;
+		return ((mantissa + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+}
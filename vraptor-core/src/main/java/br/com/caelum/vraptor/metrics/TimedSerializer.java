@@ -0,0 +1,79 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.metrics;
+
+import javax.enterprise.inject.Vetoed;
+
+import br.com.caelum.vraptor.serialization.Serializer;
+
+/**
+ * A {@link Serializer} that records in {@link DispatchMetrics} the time spent serializing.
+ */
+@Vetoed
+public class TimedSerializer implements Serializer {
+
+	private final Serializer delegate;
+	private final DispatchMetrics metrics;
+	private final String format;
+
+	public TimedSerializer(Serializer delegate, DispatchMetrics metrics, String format) {
+		this.delegate = delegate;
+		this.metrics = metrics;
+		this.format = format;
+	}
+
+	/**
+	 * @return the serializer itself if there are no metrics to record to, or they are turned off.
+	 */
+	public static Serializer timed(Serializer serializer, DispatchMetrics metrics, String format) {
+		return metrics == null || !metrics.isEnabled() ? serializer : new TimedSerializer(serializer, metrics, format);
+	}
+
+	@Override
+	public Serializer exclude(String... names) {
+		delegate.exclude(names);
+		return this;
+	}
+
+	@Override
+	public Serializer excludeAll() {
+		delegate.excludeAll();
+		return this;
+	}
+
+	@Override
+	public Serializer include(String... names) {
+		delegate.include(names);
+		return this;
+	}
+
+	@Override
+	public Serializer recursive() {
+		delegate.recursive();
+		return this;
+	}
+
+	@Override
+	public void serialize() {
+		long start = System.nanoTime();
+		try {
+			delegate.serialize();
+		} finally {
+			metrics.serialized(format, System.nanoTime() - start);
+		}
+	}
+}
@@ -21,8 +21,11 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 
 import javax.enterprise.inject.Vetoed;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import br.com.caelum.vraptor.view.AsyncOutput;
+
 /**
  * Implements {@link Download} from a byte array.
  *
@@ -34,7 +37,7 @@ import javax.servlet.http.HttpServletResponse;
  * @see FileDownload
  */
 @Vetoed
-public class ByteArrayDownload implements Download {
+public class ByteArrayDownload implements AsyncDownload {
 	
 	private final InputStreamDownload download;
 
@@ -51,4 +54,10 @@ public class ByteArrayDownload implements Download {
 	public void write(HttpServletResponse response) throws IOException {
 		download.write(response);
 	}
+
+	@Override
+	public void write(HttpServletRequest request, HttpServletResponse response, AsyncOutput output)
+			throws IOException {
+		download.write(request, response, output);
+	}
 }
@@ -0,0 +1,36 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.observer.download;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * A {@link Download} that can look at the request before answering it, so it
+ * is able to honor conditional ({@code If-None-Match}, {@code If-Modified-Since})
+ * and partial ({@code Range}) requests. {@link DownloadView} prefers this method
+ * whenever the request is available.
+ *
+ * @since 4.4
+ */
+public interface ConditionalDownload extends Download {
+
+	void write(HttpServletRequest request, HttpServletResponse response) throws IOException;
+
+}
@@ -89,14 +89,24 @@ public final class DownloadBuilder {
 
 	public static class FileDownloadBuilder extends AbstractDownloadBuilder<FileDownloadBuilder> {
 		private final File file;
+		private boolean precompressed;
 
 		FileDownloadBuilder(File file) {
 			this.file = requireNonNull(file, "File can't be null");
 		}
 
+		/**
+		 * Serves a {@code .br} or {@code .gz} sibling of the file when it exists and the
+		 * client accepts that encoding.
+		 */
+		public FileDownloadBuilder precompressed() {
+			this.precompressed = true;
+			return this;
+		}
+
 		public FileDownload build() throws FileNotFoundException {
 			fileName = firstNonNull(fileName, file.getName());
-			return new FileDownload(file, contentType, fileName, doDownload);
+			return new FileDownload(file, contentType, fileName, doDownload, precompressed);
 		}
 	}
 
@@ -20,9 +20,11 @@ import java.io.OutputStream;
 
 import javax.enterprise.context.Dependent;
 import javax.inject.Inject;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import br.com.caelum.vraptor.View;
+import br.com.caelum.vraptor.view.AsyncOutput;
 
 /**
  * A view implementation that writes a download into response.
@@ -32,7 +34,10 @@ import br.com.caelum.vraptor.View;
 @Dependent
 public class DownloadView implements View {
 
+	private HttpServletRequest request;
 	private HttpServletResponse response;
+	private AsyncOutput output;
+	private ZipCompressor compressor;
 
 	/**
 	 * @deprecated CDI eyes only
@@ -40,14 +45,38 @@ public class DownloadView implements View {
 	protected DownloadView() {
 	}
 
-	@Inject
+	/**
+	 * @deprecated Prefer using
+	 *             {@link DownloadView#DownloadView(HttpServletRequest, HttpServletResponse, AsyncOutput, ZipCompressor)}
+	 */
 	public DownloadView(HttpServletResponse response){
+		this(null, response, null, null);
+	}
+
+	@Inject
+	public DownloadView(HttpServletRequest request, HttpServletResponse response, AsyncOutput output,
+			ZipCompressor compressor){
+		this.request = request;
 		this.response = response;
+		this.output = output;
+		this.compressor = compressor;
 	}
 
 	public void of(Download download) throws IOException {
-		OutputStream output = response.getOutputStream();
-		download.write(response);
-		output.flush();
+		OutputStream stream = response.getOutputStream();
+		if (compressor != null && download instanceof ZipDownload) {
+			((ZipDownload) download).compressingOn(compressor);
+		}
+		if (request != null && output != null && output.isEnabled(request) && download instanceof AsyncDownload) {
+			((AsyncDownload) download).write(request, response, output);
+		} else if (request != null && download instanceof ConditionalDownload) {
+			((ConditionalDownload) download).write(request, response);
+		} else {
+			download.write(response);
+		}
+
+		if (request == null || !request.isAsyncStarted()) {
+			stream.flush();
+		}
 	}
 }
@@ -18,16 +18,19 @@
 package br.com.caelum.vraptor.observer.download;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
 
 import javax.enterprise.inject.Vetoed;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import br.com.caelum.vraptor.view.AsyncOutput;
+
 /**
- * Reads bytes from a file into the result.
+ * Reads bytes from a file into the result. When the request is available,
+ * conditional and range requests are honored, and precompressed {@code .br}
+ * or {@code .gz} siblings of the file may be served instead of it.
  *
  * @author filipesabella
  * @author Paulo Silveira
@@ -36,11 +39,12 @@ import javax.servlet.http.HttpServletResponse;
  * @see ByteArrayDownload
  */
 @Vetoed
-public class FileDownload implements Download {
+public class FileDownload implements ConditionalDownload, AsyncDownload {
 	private final File file;
 	private final String contentType;
 	private final String fileName;
 	private final boolean doDownload;
+	private final boolean precompressed;
 
 	public FileDownload(File file, String contentType, String fileName) throws FileNotFoundException {
 		this(file, contentType, fileName, false);
@@ -51,18 +55,84 @@ public class FileDownload implements Download {
 	}
 
 	public FileDownload(File file, String contentType, String fileName, boolean doDownload) throws FileNotFoundException {
+		this(file, contentType, fileName, doDownload, false);
+	}
+
+	/**
+	 * @param precompressed if {@code true}, a {@code file.br} or {@code file.gz} sibling
+	 * is served instead of the file when the client accepts that encoding.
+	 */
+	public FileDownload(File file, String contentType, String fileName, boolean doDownload, boolean precompressed)
+			throws FileNotFoundException {
 		this.file = checkFile(file);
 		this.contentType = contentType;
 		this.fileName = fileName;
 		this.doDownload = doDownload;
+		this.precompressed = precompressed;
 	}
-	
+
 	@Override
 	public void write(HttpServletResponse response) throws IOException {
-		try (InputStream stream = new FileInputStream(file)) {
-			Download download = new InputStreamDownload(stream, contentType, fileName, doDownload, file.length());
-			download.write(response);
+		new FileRangeWriter(file, contentType, contentDisposition(), null, null).write(response);
+	}
+
+	@Override
+	public void write(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		write(request, response, null);
+	}
+
+	@Override
+	public void write(HttpServletRequest request, HttpServletResponse response, AsyncOutput output)
+			throws IOException {
+		File served = file;
+		String encoding = null;
+
+		if (precompressed) {
+			String accepted = request.getHeader("Accept-Encoding");
+			File brotli = new File(file.getPath() + ".br");
+			File gzip = new File(file.getPath() + ".gz");
+			if (brotli.isFile() || gzip.isFile()) {
+				response.setHeader("Vary", "Accept-Encoding");
+			}
+			if (brotli.isFile() && accepts(accepted, "br")) {
+				served = brotli;
+				encoding = "br";
+			} else if (gzip.isFile() && accepts(accepted, "gzip")) {
+				served = gzip;
+				encoding = "gzip";
+			}
+		}
+
+		new FileRangeWriter(served, contentType, contentDisposition(), encoding, output).write(request, response);
+	}
+
+	private String contentDisposition() {
+		return String.format("%s; filename=\"%s\"", doDownload ? "attachment" : "inline", fileName);
+	}
+
+	/**
+	 * Checks whether an {@code Accept-Encoding} header allows the encoding, either
+	 * by name or by wildcard, not excluding it with {@code q=0}.
+	 */
+	static boolean accepts(String header, String encoding) {
+		if (header == null) {
+			return false;
+		}
+		for (String item : header.split(",")) {
+			String[] parts = item.split(";");
+			String name = parts[0].trim();
+			if (!name.equalsIgnoreCase(encoding) && !name.equals("*")) {
+				continue;
+			}
+			for (int i = 1; i < parts.length; i++) {
+				String param = parts[i].trim().replace(" ", "");
+				if (param.startsWith("q=") && param.substring(2).matches("0(\\.0*)?")) {
+					return false;
+				}
+			}
+			return true;
 		}
+		return false;
 	}
 	
 	private static File checkFile(File file) throws FileNotFoundException {
@@ -0,0 +1,391 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.observer.download;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import javax.enterprise.inject.Vetoed;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import br.com.caelum.vraptor.view.AsyncOutput;
+
+import com.google.common.io.ByteStreams;
+
+/**
+ * Writes a file into the response honoring the HTTP validators and range
+ * requests (RFC 7232 and 7233): answers {@code 304} and {@code 412} for
+ * conditional requests, {@code 206} for single and multiple ranges, and
+ * {@code 416} for unsatisfiable ones.
+ *
+ * The body is handed to the container through Tomcat's sendfile attributes
+ * when they are supported, so the kernel copies the file straight into the
+ * socket. Otherwise the file is read through a {@link FileChannel} into pooled
+ * buffers, without allocating a new buffer per request. When an
+ * {@link AsyncOutput} is given, whole files and single ranges are written by it
+ * instead of the request thread.
+ */
+@Vetoed
+final class FileRangeWriter {
+
+	static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+	static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+	static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+	static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+	/**
+	 * More ranges than this are answered with the whole file, as allowed by
+	 * RFC 7233, to avoid serving a large number of tiny slices.
+	 */
+	static final int MAXIMUM_RANGES = 16;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final BlockingQueue<byte[]> BUFFERS = new ArrayBlockingQueue<>(64);
+
+	private final File file;
+	private final String contentType;
+	private final String contentDisposition;
+	private final String contentEncoding;
+	private final AsyncOutput output;
+	private final long length;
+	private final long lastModified;
+	private final String etag;
+
+	FileRangeWriter(File file, String contentType, String contentDisposition, String contentEncoding,
+			AsyncOutput output) {
+		this.file = file;
+		this.contentType = contentType;
+		this.contentDisposition = contentDisposition;
+		this.contentEncoding = contentEncoding;
+		this.output = output;
+		this.length = file.length();
+		this.lastModified = file.lastModified() / 1000 * 1000;
+		this.etag = etagOf(length, lastModified, contentEncoding);
+	}
+
+	static String etagOf(long length, long lastModified, String encoding) {
+		String tag = Long.toHexString(lastModified) + "-" + Long.toHexString(length);
+		return "\"" + (encoding == null ? tag : tag + "-" + encoding) + "\"";
+	}
+
+	String getEtag() {
+		return etag;
+	}
+
+	void write(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		response.setHeader("Accept-Ranges", "bytes");
+		response.setHeader("ETag", etag);
+		response.setDateHeader("Last-Modified", lastModified);
+
+		if (!matchesIfMatch(request.getHeader("If-Match"))) {
+			response.setStatus(HttpServletResponse.SC_PRECONDITION_FAILED);
+			return;
+		}
+		String method = request.getMethod();
+		boolean safe = method == null || "GET".equals(method) || "HEAD".equals(method);
+		String ifNoneMatch = request.getHeader("If-None-Match");
+		if (ifNoneMatch != null && matchesIfNoneMatch(ifNoneMatch)) {
+			response.setStatus(safe ? HttpServletResponse.SC_NOT_MODIFIED : HttpServletResponse.SC_PRECONDITION_FAILED);
+			return;
+		}
+		if (ifNoneMatch == null && safe && isNotModifiedSince(request)) {
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+
+		writeDetails(response);
+		boolean head = "HEAD".equals(method);
+		List<long[]> ranges = rangesOf(request);
+
+		if (ranges == null) {
+			response.setHeader("Content-Length", Long.toString(length));
+			if (!head) {
+				send(request, response, 0, length);
+			}
+		} else if (ranges.isEmpty()) {
+			response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+			response.setHeader("Content-Range", "bytes */" + length);
+			response.setHeader("Content-Length", "0");
+		} else if (ranges.size() == 1) {
+			long[] range = ranges.get(0);
+			response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+			response.setHeader("Content-Range", contentRangeOf(range));
+			response.setHeader("Content-Length", Long.toString(range[1] - range[0] + 1));
+			if (!head) {
+				send(request, response, range[0], range[1] + 1);
+			}
+		} else {
+			writeMultipart(response, ranges, head);
+		}
+	}
+
+	/**
+	 * Writes the content headers and the whole file, ignoring any validator.
+	 */
+	void write(HttpServletResponse response) throws IOException {
+		writeDetails(response);
+		if (length > 0) {
+			response.setHeader("Content-Length", Long.toString(length));
+		}
+		copy(response.getOutputStream(), 0, length);
+	}
+
+	private void writeDetails(HttpServletResponse response) {
+		if (contentType != null) {
+			response.setHeader("Content-disposition", contentDisposition);
+			response.setHeader("Content-type", contentType);
+		}
+		if (contentEncoding != null) {
+			response.setHeader("Content-Encoding", contentEncoding);
+		}
+	}
+
+	private void writeMultipart(HttpServletResponse response, List<long[]> ranges, boolean head) throws IOException {
+		String boundary = UUID.randomUUID().toString().replace("-", "");
+		String partType = contentType == null ? "application/octet-stream" : contentType;
+
+		List<byte[]> headers = new ArrayList<>(ranges.size());
+		long total = 0;
+		for (long[] range : ranges) {
+			String header = "\r\n--" + boundary + "\r\nContent-Type: " + partType
+					+ "\r\nContent-Range: " + contentRangeOf(range) + "\r\n\r\n";
+			byte[] bytes = header.getBytes(ISO_8859_1);
+			headers.add(bytes);
+			total += bytes.length + range[1] - range[0] + 1;
+		}
+		byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(ISO_8859_1);
+		total += closing.length;
+
+		response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+		response.setHeader("Content-type", "multipart/byteranges; boundary=" + boundary);
+		response.setHeader("Content-Length", Long.toString(total));
+		if (head) {
+			return;
+		}
+
+		OutputStream out = response.getOutputStream();
+		for (int i = 0; i < ranges.size(); i++) {
+			long[] range = ranges.get(i);
+			out.write(headers.get(i));
+			copy(out, range[0], range[1] + 1);
+		}
+		out.write(closing);
+	}
+
+	private String contentRangeOf(long[] range) {
+		return "bytes " + range[0] + "-" + range[1] + "/" + length;
+	}
+
+	private void send(HttpServletRequest request, HttpServletResponse response, long start, long end)
+			throws IOException {
+		if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+			request.setAttribute(SENDFILE_FILENAME, file.getCanonicalPath());
+			request.setAttribute(SENDFILE_START, start);
+			request.setAttribute(SENDFILE_END, end);
+			return;
+		}
+		if (output != null && output.accepts(request, end - start)) {
+			output.stream(request, open(start, end));
+			return;
+		}
+		copy(response.getOutputStream(), start, end);
+	}
+
+	private InputStream open(long start, long end) throws IOException {
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		channel.position(start);
+		return ByteStreams.limit(Channels.newInputStream(channel), end - start);
+	}
+
+	private void copy(OutputStream out, long start, long end) throws IOException {
+		byte[] buffer = BUFFERS.poll();
+		if (buffer == null) {
+			buffer = new byte[BUFFER_SIZE];
+		}
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer wrapper = ByteBuffer.wrap(buffer);
+			long position = start;
+			while (position < end) {
+				wrapper.clear();
+				wrapper.limit((int) Math.min(buffer.length, end - position));
+				int read = channel.read(wrapper, position);
+				if (read < 0) {
+					break;
+				}
+				out.write(buffer, 0, read);
+				position += read;
+			}
+		} finally {
+			BUFFERS.offer(buffer);
+		}
+	}
+
+	private boolean matchesIfMatch(String header) {
+		if (header == null) {
+			return true;
+		}
+		for (String tag : header.split(",")) {
+			tag = tag.trim();
+			if (tag.equals("*") || tag.equals(etag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * A matching If-None-Match answers 304 to GET and HEAD, and 412 to other
+	 * methods (RFC 7232, section 3.2).
+	 */
+	private boolean matchesIfNoneMatch(String header) {
+		for (String tag : header.split(",")) {
+			tag = tag.trim();
+			if (tag.equals("*") || weakTag(tag).equals(weakTag(etag))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * If-Modified-Since is only evaluated without If-None-Match.
+	 */
+	private boolean isNotModifiedSince(HttpServletRequest request) {
+		long ifModifiedSince = dateHeader(request, "If-Modified-Since");
+		return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
+	}
+
+	private static String weakTag(String tag) {
+		return tag.startsWith("W/") ? tag.substring(2) : tag;
+	}
+
+	/**
+	 * Returns the satisfiable ranges in the request, an empty list when none
+	 * of them is satisfiable or {@code null} when the whole file must be sent.
+	 * Overlapping and adjacent ranges are coalesced, and ranges asking for more
+	 * bytes than the file has are answered with the whole file (RFC 7233,
+	 * section 6.1).
+	 */
+	List<long[]> rangesOf(HttpServletRequest request) {
+		String header = request.getHeader("Range");
+		if (header == null || !header.startsWith("bytes=") || !matchesIfRange(request)) {
+			return null;
+		}
+
+		String[] specs = header.substring("bytes=".length()).split(",");
+		if (specs.length > MAXIMUM_RANGES) {
+			return null;
+		}
+
+		List<long[]> ranges = new ArrayList<>(specs.length);
+		long requested = 0;
+		for (String spec : specs) {
+			spec = spec.trim();
+			int dash = spec.indexOf('-');
+			if (dash < 0) {
+				return null;
+			}
+			try {
+				long start;
+				long end;
+				if (dash == 0) {
+					long suffix = Long.parseLong(spec.substring(1));
+					if (suffix == 0) {
+						continue;
+					}
+					start = Math.max(0, length - suffix);
+					end = length - 1;
+				} else {
+					start = Long.parseLong(spec.substring(0, dash));
+					end = dash == spec.length() - 1 ? length - 1 : Long.parseLong(spec.substring(dash + 1));
+					if (end < start) {
+						return null;
+					}
+					end = Math.min(end, length - 1);
+				}
+				if (start < length) {
+					ranges.add(new long[] { start, end });
+					requested += end - start + 1;
+				}
+			} catch (NumberFormatException e) {
+				return null;
+			}
+		}
+		if (requested > length) {
+			return null;
+		}
+		return coalesce(ranges);
+	}
+
+	private static List<long[]> coalesce(List<long[]> ranges) {
+		if (ranges.size() < 2) {
+			return ranges;
+		}
+		Collections.sort(ranges, new Comparator<long[]>() {
+			@Override
+			public int compare(long[] one, long[] other) {
+				return Long.compare(one[0], other[0]);
+			}
+		});
+		List<long[]> coalesced = new ArrayList<>(ranges.size());
+		long[] last = null;
+		for (long[] range : ranges) {
+			if (last != null && range[0] <= last[1] + 1) {
+				last[1] = Math.max(last[1], range[1]);
+			} else {
+				last = range;
+				coalesced.add(range);
+			}
+		}
+		return coalesced;
+	}
+
+	private boolean matchesIfRange(HttpServletRequest request) {
+		String ifRange = request.getHeader("If-Range");
+		if (ifRange == null) {
+			return true;
+		}
+		if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+			return ifRange.equals(etag);
+		}
+		return dateHeader(request, "If-Range") == lastModified;
+	}
+
+	private static long dateHeader(HttpServletRequest request, String name) {
+		try {
+			return request.getDateHeader(name);
+		} catch (IllegalArgumentException e) {
+			return -1;
+		}
+	}
+}
@@ -22,13 +22,21 @@ import java.io.InputStream;
 import java.io.OutputStream;
 
 import javax.enterprise.inject.Vetoed;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import br.com.caelum.vraptor.view.AsyncOutput;
+
 import com.google.common.io.ByteStreams;
 
 /**
  * Handles download by reading from a input stream byte by byte.
  *
+ * When the {@link AsyncOutput} is enabled, large streams are read and closed by
+ * container threads after the request has returned, so the stream must not
+ * depend on request scoped resources, like a connection or an entity manager
+ * closed at the end of the request.
+ *
  * @author filipesabella
  * @author Paulo Silveira
  *
@@ -36,7 +44,7 @@ import com.google.common.io.ByteStreams;
  * @see FileDownload
  */
 @Vetoed
-public class InputStreamDownload implements Download {
+public class InputStreamDownload implements AsyncDownload {
 	private final InputStream stream;
 	private final String contentType;
 	private final String fileName;
@@ -64,6 +72,17 @@ public class InputStreamDownload implements Download {
 		stream.close();
 	}
 
+	@Override
+	public void write(HttpServletRequest request, HttpServletResponse response, AsyncOutput output)
+			throws IOException {
+		if (!output.accepts(request, size > 0 ? size : -1)) {
+			write(response);
+			return;
+		}
+		writeDetails(response);
+		output.stream(request, stream);
+	}
+
 	void writeDetails(HttpServletResponse response) {
 		if (contentType != null) {
 			String contentDisposition = String.format("%s; filename=\"%s\"", doDownload ? "attachment" : "inline", fileName);
@@ -0,0 +1,70 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.observer.download;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+
+/**
+ * Compresses the entries of {@link ZipDownload}s, and the chunks of the large
+ * ones, on a pool with one thread per core, shared by every download and shut
+ * down with the application. The pool only receives bytes already read: the
+ * entries themselves are read by the request thread. Downloads written without
+ * it compress their entries on the request thread.
+ *
+ * @since 4.4
+ */
+@ApplicationScoped
+public class ZipCompressor {
+
+	static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+	private ExecutorService pool;
+
+	@PostConstruct
+	public void init() {
+		pool = Executors.newFixedThreadPool(THREADS, new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "vraptor-zip-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	@PreDestroy
+	public void stop() {
+		if (pool != null) {
+			pool.shutdownNow();
+		}
+	}
+
+	public <T> Future<T> submit(Callable<T> task) {
+		return pool.submit(task);
+	}
+}
@@ -1,50 +1,186 @@
 package br.com.caelum.vraptor.observer.download;
 
-import static java.nio.file.Files.copy;
 import static java.util.Arrays.asList;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.zip.CRC32;
-import java.util.zip.CheckedOutputStream;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+import java.util.Set;
 
 import javax.servlet.http.HttpServletResponse;
 
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.io.ByteSource;
+
 /**
  * Supports multiple files download as a zip file.
- * 
+ *
+ * Entries are read in order by the thread writing the zip, and compressed in
+ * parallel on the {@link ZipCompressor}, large ones in chunks. Already
+ * compressed formats like images, videos and archives are stored instead of
+ * deflated, and
+ * ZIP64 is used when the archive needs it. Besides files, entries may be
+ * produced lazily through {@link Entry}, for instance from database blobs, so
+ * the archive never needs to exist on disk.
+ *
+ * Zips are out of the scope of the
+ * {@link br.com.caelum.vraptor.view.AsyncOutput}: they are always streamed by
+ * the request thread, even when it is enabled. The async output pulls bodies
+ * from container threads, but entries are read by the thread writing the zip,
+ * and may be bound to the request, like blobs read in its transaction. Piping
+ * the zip to the async output would still block the request thread on a slow
+ * client, and spooling it would write the whole archive to disk before its
+ * first byte is sent. Streamed directly, the first bytes are sent while the
+ * rest of the archive is still being compressed.
+ *
  * @author Otávio Scherer Garcia
  * @since 4.1
  */
 public class ZipDownload implements Download {
 
 	private final String filename;
-	private final Iterable<Path> files;
+	private final Iterable<? extends Entry> entries;
+	private ZipCompressor compressor;
 
 	public ZipDownload(String filename, Iterable<Path> files) {
-		this.filename = filename;
-		this.files = files;
+		this(Iterables.transform(files, new Function<Path, Entry>() {
+			@Override
+			public Entry apply(Path file) {
+				return Entry.of(file);
+			}
+		}), filename);
 	}
 
 	public ZipDownload(String filename, Path... files) {
 		this(filename, asList(files));
 	}
 
+	private ZipDownload(Iterable<? extends Entry> entries, String filename) {
+		this.filename = filename;
+		this.entries = entries;
+	}
+
+	/**
+	 * Creates a zip whose entries are only pulled from the iterable while the zip
+	 * is written.
+	 */
+	public static ZipDownload ofEntries(String filename, Iterable<? extends Entry> entries) {
+		return new ZipDownload(entries, filename);
+	}
+
+	public static ZipDownload ofEntries(String filename, Entry... entries) {
+		return new ZipDownload(asList(entries), filename);
+	}
+
+	/**
+	 * Compresses the entries in parallel on the given compressor when writing.
+	 */
+	ZipDownload compressingOn(ZipCompressor compressor) {
+		this.compressor = compressor;
+		return this;
+	}
+
 	@Override
 	public void write(HttpServletResponse response)
 		throws IOException {
+		writeDetails(response);
+		writeZip(response.getOutputStream());
+	}
+
+	private void writeDetails(HttpServletResponse response) {
 		response.setHeader("Content-disposition", "attachment; filename=" + filename);
 		response.setHeader("Content-type", "application/zip");
+	}
+
+	private void writeZip(OutputStream output) throws IOException {
+		new ZipWriter(output, compressor).write(entries);
+	}
+
+	/**
+	 * An entry of the zip. Its content is opened and read by the thread writing
+	 * the zip, in the order of the entries, and only once, except when it is
+	 * stored and larger than 1 MiB: then it is read once to compute its CRC,
+	 * which a stored entry needs before its data, and again to be copied, so it
+	 * must return the same bytes both times.
+	 */
+	public static class Entry {
+
+		private static final Set<String> COMPRESSED_EXTENSIONS = ImmutableSet.of("7z", "avi", "br", "bz2",
+				"docx", "gif", "gz", "jar", "jpeg", "jpg", "m4a", "m4v", "mkv", "mov", "mp3", "mp4", "odp",
+				"ods", "odt", "ogg", "png", "pptx", "rar", "tgz", "war", "webm", "webp", "xlsx", "xz", "zip");
 
-		CheckedOutputStream stream = new CheckedOutputStream(response.getOutputStream(), new CRC32());
-		try (ZipOutputStream zip = new ZipOutputStream(stream)) {
-			for (Path file : files) {
-				zip.putNextEntry(new ZipEntry(file.getFileName().toString()));
-				copy(file, zip);
-				zip.closeEntry();
+		private final String name;
+		private final ByteSource content;
+		private final boolean compressible;
+		private final long lastModified;
+
+		/**
+		 * Creates an entry that is deflated unless its name has the extension of
+		 * an already compressed format.
+		 */
+		public Entry(String name, ByteSource content) {
+			this(name, content, !hasCompressedExtension(name), System.currentTimeMillis());
+		}
+
+		public Entry(String name, ByteSource content, boolean compressible, long lastModified) {
+			this.name = name;
+			this.content = content;
+			this.compressible = compressible;
+			this.lastModified = lastModified;
+		}
+
+		public static Entry of(final Path file) {
+			ByteSource content = new ByteSource() {
+				@Override
+				public InputStream openStream() throws IOException {
+					return Files.newInputStream(file);
+				}
+
+				@Override
+				public Optional<Long> sizeIfKnown() {
+					try {
+						return Optional.of(Files.size(file));
+					} catch (IOException e) {
+						return Optional.absent();
+					}
+				}
+			};
+			String name = file.getFileName().toString();
+			return new Entry(name, content, !hasCompressedExtension(name), lastModifiedOf(file));
+		}
+
+		private static long lastModifiedOf(Path file) {
+			try {
+				return Files.getLastModifiedTime(file).toMillis();
+			} catch (IOException e) {
+				return System.currentTimeMillis();
 			}
 		}
+
+		static boolean hasCompressedExtension(String name) {
+			int dot = name.lastIndexOf('.');
+			return dot >= 0 && COMPRESSED_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase());
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public ByteSource getContent() {
+			return content;
+		}
+
+		public boolean isCompressible() {
+			return compressible;
+		}
+
+		public long getLastModified() {
+			return lastModified;
+		}
 	}
 }
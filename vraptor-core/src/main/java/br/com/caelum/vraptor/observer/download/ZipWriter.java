@@ -0,0 +1,535 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.observer.download;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import javax.enterprise.inject.Vetoed;
+
+import br.com.caelum.vraptor.observer.download.ZipDownload.Entry;
+
+import com.google.common.base.Optional;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
+import com.google.common.io.CountingOutputStream;
+import com.google.common.util.concurrent.Futures;
+
+/**
+ * Streams a zip archive, deflating its entries in parallel on a
+ * {@link ZipCompressor} while writing them in their original order.
+ *
+ * Entries are opened and read only by the thread writing the archive, in
+ * order, so sources bound to it, like database blobs read in the request
+ * transaction, are safe. Only the bytes already read are handed to the
+ * compressor. Entries are read in chunks of {@link #MEMORY} bytes: an entry
+ * that fits in one chunk is compressed at once, so its CRC and sizes are known
+ * before its local header is written. Larger deflated entries are still read
+ * once, and each chunk is deflated on its own, primed with the end of the
+ * previous one and ended by a sync flush, so the chunks join in a single
+ * deflate stream followed by a data descriptor. Unless the size of the entry
+ * is known to fit, its local header has a ZIP64 extra field with zero sizes,
+ * and its data descriptor has 8-byte sizes. Larger {@code STORED} entries
+ * are the only ones read twice: their CRC must precede their data, so it is
+ * computed on a first read and the entry is copied on a second one.
+ *
+ * At most {@link #WINDOW} chunks are in flight per archive, bounding the memory
+ * used, and ZIP64 records are written only when sizes, offsets or the number
+ * of entries require them.
+ */
+@Vetoed
+final class ZipWriter {
+
+	static final int WINDOW = 2 * ZipCompressor.THREADS;
+	static final int MEMORY = 1024 * 1024;
+	private static final int DICTIONARY = 32 * 1024;
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+	private static final int ZIP64_ENTRIES = 0xFFFF;
+	private static final int UTF8_NAMES = 0x0800;
+	private static final int DATA_DESCRIPTOR = 0x0008;
+
+	private final CountingOutputStream output;
+	private final ZipCompressor compressor;
+	private final long zip64Limit;
+	private final List<Compressed> written = new ArrayList<>();
+
+	/**
+	 * @param compressor where entries are compressed, or {@code null} to
+	 *            compress them on the calling thread.
+	 */
+	ZipWriter(OutputStream output, ZipCompressor compressor) {
+		this(output, compressor, ZIP64_MAGIC);
+	}
+
+	/**
+	 * @param zip64Limit sizes and offsets from which ZIP64 records are used.
+	 *            Lower than 4 GiB only to test those records.
+	 */
+	ZipWriter(OutputStream output, ZipCompressor compressor, long zip64Limit) {
+		this.output = new CountingOutputStream(output);
+		this.compressor = compressor;
+		this.zip64Limit = zip64Limit;
+	}
+
+	void write(Iterable<? extends Entry> entries) throws IOException {
+		Deque<Chunk> pending = new ArrayDeque<>();
+		Iterator<? extends Entry> iterator = entries.iterator();
+		EntryReader reader = null;
+		try {
+			while (true) {
+				while (pending.size() < WINDOW && (reader != null || iterator.hasNext())) {
+					if (reader == null) {
+						reader = new EntryReader(iterator.next());
+					}
+					Chunk chunk = reader.next();
+					pending.add(chunk);
+					if (chunk.last) {
+						reader.close();
+						reader = null;
+					}
+				}
+				if (pending.isEmpty()) {
+					break;
+				}
+				writeChunk(pending.poll());
+			}
+			writeCentralDirectory();
+		} finally {
+			if (reader != null) {
+				Closeables.close(reader.input, true);
+			}
+			for (Chunk chunk : pending) {
+				if (chunk.data != null) {
+					chunk.data.cancel(true);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads an entry chunk by chunk, computing its CRC and size on the way.
+	 */
+	private final class EntryReader {
+		private final Compressed entry;
+		private final InputStream input;
+		private final Optional<Long> knownSize;
+		private final CRC32 crc = new CRC32();
+		private long size;
+		private byte[] previous;
+
+		EntryReader(Entry source) throws IOException {
+			this.entry = new Compressed(source);
+			this.knownSize = source.getContent().sizeIfKnown();
+			this.input = source.getContent().openStream();
+		}
+
+		Chunk next() throws IOException {
+			boolean first = previous == null;
+			if (first && !entry.deflated && knownSize.isPresent() && knownSize.get() > MEMORY) {
+				finish(crcOf(input, crc));
+				return new Chunk(entry, true, true, null);
+			}
+
+			byte[] buffer = new byte[MEMORY];
+			int length = ByteStreams.read(input, buffer, 0, buffer.length);
+			crc.update(buffer, 0, length);
+			boolean last = length < buffer.length;
+
+			if (first && last) {
+				finish(length);
+				byte[] content = Arrays.copyOf(buffer, length);
+				return new Chunk(entry, true, true, entry.deflated ? deflate(content, null, true) : Futures.immediateFuture(content));
+			}
+			if (first && !entry.deflated) {
+				finish(length + crcOf(input, crc));
+				return new Chunk(entry, true, true, null);
+			}
+
+			if (first) {
+				entry.descriptor = true;
+				entry.zip64 = !knownSize.isPresent() || deflateBound(knownSize.get()) >= zip64Limit;
+			}
+			size += length;
+			if (!entry.zip64 && deflateBound(size) >= zip64Limit) {
+				throw new IOException("Zip entry " + entry.source.getName() + " changed while it was written");
+			}
+			Future<byte[]> data = deflate(last ? Arrays.copyOf(buffer, length) : buffer, previous, last);
+			previous = buffer;
+			if (last) {
+				finish(0);
+			}
+			return new Chunk(entry, first, last, data);
+		}
+
+		private void finish(long remaining) {
+			size += remaining;
+			entry.crc = crc.getValue();
+			entry.size = size;
+		}
+
+		void close() throws IOException {
+			input.close();
+		}
+	}
+
+	private Future<byte[]> deflate(final byte[] content, final byte[] dictionary, final boolean last) {
+		if (compressor == null) {
+			return Futures.immediateFuture(deflation(content, dictionary, last));
+		}
+		return compressor.submit(new Callable<byte[]>() {
+			@Override
+			public byte[] call() {
+				return deflation(content, dictionary, last);
+			}
+		});
+	}
+
+	/**
+	 * Deflates a chunk with a raw deflater of its own. Chunks other than the
+	 * last end with a sync flush, at a byte boundary and without the final
+	 * block, so the next chunk can be appended right after them.
+	 */
+	static byte[] deflation(byte[] content, byte[] dictionary, boolean last) {
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		try {
+			if (dictionary != null) {
+				deflater.setDictionary(dictionary, dictionary.length - DICTIONARY, DICTIONARY);
+			}
+			deflater.setInput(content);
+			if (last) {
+				deflater.finish();
+			}
+			ByteArrayOutputStream deflated = new ByteArrayOutputStream(content.length / 2 + 64);
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int flush = last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH;
+			int count;
+			do {
+				count = deflater.deflate(buffer, 0, buffer.length, flush);
+				deflated.write(buffer, 0, count);
+			} while (last ? !deflater.finished() : count == buffer.length);
+			return deflated.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * More than the deflated size of an entry, with the sync flushes ending its
+	 * chunks.
+	 */
+	private static long deflateBound(long size) {
+		return size + (size >> 11) + 1024;
+	}
+
+	private static long crcOf(InputStream input, CRC32 crc) throws IOException {
+		long size = 0;
+		byte[] buffer = new byte[BUFFER_SIZE];
+		int read;
+		while ((read = input.read(buffer)) >= 0) {
+			crc.update(buffer, 0, read);
+			size += read;
+		}
+		return size;
+	}
+
+	private static byte[] await(Future<byte[]> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while zipping", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Unable to zip entry", e.getCause());
+		}
+	}
+
+	private void writeChunk(Chunk chunk) throws IOException {
+		Compressed entry = chunk.entry;
+		if (chunk.data == null) {
+			entry.offset = output.getCount();
+			entry.compressedSize = entry.size;
+			writeLocalHeader(entry);
+			writeStored(entry);
+			written.add(entry);
+			return;
+		}
+
+		byte[] data = await(chunk.data);
+		if (chunk.first) {
+			entry.offset = output.getCount();
+			if (!entry.descriptor) {
+				entry.compressedSize = data.length;
+			}
+			writeLocalHeader(entry);
+		}
+		output.write(data);
+		if (entry.descriptor) {
+			entry.compressedSize += data.length;
+		}
+		if (chunk.last) {
+			if (entry.descriptor) {
+				writeDataDescriptor(entry);
+			}
+			entry.source = null;
+			written.add(entry);
+		}
+	}
+
+	private void writeLocalHeader(Compressed entry) throws IOException {
+		if (!entry.descriptor) {
+			entry.zip64 = entry.size >= zip64Limit || entry.compressedSize >= zip64Limit;
+		}
+		boolean zip64 = entry.zip64;
+
+		ByteBuffer header = buffer(30 + entry.name.length + (zip64 ? 20 : 0));
+		header.putInt(0x04034b50);
+		header.putShort((short) (zip64 ? 45 : entry.deflated ? 20 : 10));
+		header.putShort((short) (UTF8_NAMES | (entry.descriptor ? DATA_DESCRIPTOR : 0)));
+		header.putShort((short) (entry.deflated ? 8 : 0));
+		header.putInt((int) entry.dosTime);
+		header.putInt(entry.descriptor ? 0 : (int) entry.crc);
+		header.putInt((int) (zip64 ? ZIP64_MAGIC : entry.descriptor ? 0 : entry.compressedSize));
+		header.putInt((int) (zip64 ? ZIP64_MAGIC : entry.descriptor ? 0 : entry.size));
+		header.putShort((short) entry.name.length);
+		header.putShort((short) (zip64 ? 20 : 0));
+		header.put(entry.name);
+		if (zip64) {
+			header.putShort((short) 0x0001);
+			header.putShort((short) 16);
+			header.putLong(entry.descriptor ? 0 : entry.size);
+			header.putLong(entry.descriptor ? 0 : entry.compressedSize);
+		}
+		output.write(header.array());
+	}
+
+	/**
+	 * Copies a large stored entry, whose CRC and size were computed on a first
+	 * read.
+	 */
+	private void writeStored(Compressed entry) throws IOException {
+		CRC32 crc = new CRC32();
+		long size;
+		try (InputStream input = entry.source.getContent().openStream()) {
+			size = copy(input, output, crc);
+		}
+		if (size != entry.size || crc.getValue() != entry.crc) {
+			throw new IOException("Zip entry " + entry.source.getName() + " changed while it was written");
+		}
+		entry.source = null;
+	}
+
+	/**
+	 * Writes the CRC and sizes of an entry deflated in chunks after its data,
+	 * with 8-byte sizes if its local header has a ZIP64 extra field.
+	 */
+	private void writeDataDescriptor(Compressed entry) throws IOException {
+		boolean zip64 = entry.zip64;
+		ByteBuffer descriptor = buffer(zip64 ? 24 : 16);
+		descriptor.putInt(0x08074b50);
+		descriptor.putInt((int) entry.crc);
+		if (zip64) {
+			descriptor.putLong(entry.compressedSize);
+			descriptor.putLong(entry.size);
+		} else {
+			descriptor.putInt((int) entry.compressedSize);
+			descriptor.putInt((int) entry.size);
+		}
+		output.write(descriptor.array());
+	}
+
+	private static long copy(InputStream input, OutputStream target, CRC32 crc) throws IOException {
+		long size = 0;
+		byte[] buffer = new byte[BUFFER_SIZE];
+		int read;
+		while ((read = input.read(buffer)) >= 0) {
+			crc.update(buffer, 0, read);
+			target.write(buffer, 0, read);
+			size += read;
+		}
+		return size;
+	}
+
+	private void writeCentralDirectory() throws IOException {
+		long start = output.getCount();
+		for (Compressed entry : written) {
+			boolean size64 = entry.size >= zip64Limit || entry.compressedSize >= zip64Limit;
+			boolean offset64 = entry.offset >= zip64Limit;
+			int extra = (size64 ? 16 : 0) + (offset64 ? 8 : 0);
+
+			ByteBuffer header = buffer(46 + entry.name.length + (extra > 0 ? extra + 4 : 0));
+			header.putInt(0x02014b50);
+			header.putShort((short) 45);
+			header.putShort((short) (extra > 0 || entry.zip64 ? 45 : entry.deflated ? 20 : 10));
+			header.putShort((short) (UTF8_NAMES | (entry.descriptor ? DATA_DESCRIPTOR : 0)));
+			header.putShort((short) (entry.deflated ? 8 : 0));
+			header.putInt((int) entry.dosTime);
+			header.putInt((int) entry.crc);
+			header.putInt((int) (size64 ? ZIP64_MAGIC : entry.compressedSize));
+			header.putInt((int) (size64 ? ZIP64_MAGIC : entry.size));
+			header.putShort((short) entry.name.length);
+			header.putShort((short) (extra > 0 ? extra + 4 : 0));
+			header.putShort((short) 0);
+			header.putShort((short) 0);
+			header.putShort((short) 0);
+			header.putInt(0);
+			header.putInt((int) (offset64 ? ZIP64_MAGIC : entry.offset));
+			header.put(entry.name);
+			if (extra > 0) {
+				header.putShort((short) 0x0001);
+				header.putShort((short) extra);
+				if (size64) {
+					header.putLong(entry.size);
+					header.putLong(entry.compressedSize);
+				}
+				if (offset64) {
+					header.putLong(entry.offset);
+				}
+			}
+			output.write(header.array());
+		}
+		long end = output.getCount();
+		writeEnd(written.size(), start, end - start);
+	}
+
+	private void writeEnd(long entries, long directoryOffset, long directorySize) throws IOException {
+		boolean zip64 = entries >= ZIP64_ENTRIES || directoryOffset >= zip64Limit || directorySize >= zip64Limit;
+
+		if (zip64) {
+			long recordOffset = output.getCount();
+			ByteBuffer record = buffer(56 + 20);
+			record.putInt(0x06064b50);
+			record.putLong(44);
+			record.putShort((short) 45);
+			record.putShort((short) 45);
+			record.putInt(0);
+			record.putInt(0);
+			record.putLong(entries);
+			record.putLong(entries);
+			record.putLong(directorySize);
+			record.putLong(directoryOffset);
+
+			record.putInt(0x07064b50);
+			record.putInt(0);
+			record.putLong(recordOffset);
+			record.putInt(1);
+			output.write(record.array());
+		}
+
+		ByteBuffer end = buffer(22);
+		end.putInt(0x06054b50);
+		end.putShort((short) 0);
+		end.putShort((short) 0);
+		end.putShort((short) (zip64 ? ZIP64_ENTRIES : entries));
+		end.putShort((short) (zip64 ? ZIP64_ENTRIES : entries));
+		end.putInt((int) (zip64 ? ZIP64_MAGIC : directorySize));
+		end.putInt((int) (zip64 ? ZIP64_MAGIC : directoryOffset));
+		end.putShort((short) 0);
+		output.write(end.array());
+		output.flush();
+	}
+
+	private static ByteBuffer buffer(int size) {
+		return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Converts to MS-DOS date and time, the date on the high 16 bits.
+	 */
+	static long dosTime(long millis) {
+		LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+		if (time.getYear() < 1980) {
+			return (1 << 21) | (1 << 16);
+		}
+		return (time.getYear() - 1980L) << 25 | time.getMonthValue() << 21 | time.getDayOfMonth() << 16
+				| time.getHour() << 11 | time.getMinute() << 5 | time.getSecond() >> 1;
+	}
+
+	@Vetoed
+	static final class Compressed {
+		final byte[] name;
+		final boolean deflated;
+		final long dosTime;
+		/**
+		 * the entry, kept only until it is written
+		 */
+		Entry source;
+		/**
+		 * whether the entry is deflated in chunks, its CRC and sizes written in
+		 * a data descriptor after it
+		 */
+		boolean descriptor;
+		/**
+		 * whether the local header has a ZIP64 extra field
+		 */
+		boolean zip64;
+		long crc;
+		long size;
+		long compressedSize;
+		long offset;
+
+		Compressed(Entry source) {
+			this.name = source.getName().getBytes(UTF_8);
+			this.deflated = source.isCompressible();
+			this.dosTime = dosTime(source.getLastModified());
+			this.source = source;
+		}
+	}
+
+	/**
+	 * A chunk of an entry, in the order it is written.
+	 */
+	@Vetoed
+	private static final class Chunk {
+		final Compressed entry;
+		final boolean first;
+		final boolean last;
+		/**
+		 * the compressed content, or {@code null} for a large stored entry,
+		 * copied from its source while written
+		 */
+		final Future<byte[]> data;
+
+		Chunk(Compressed entry, boolean first, boolean last, Future<byte[]> data) {
+			this.entry = entry;
+			this.first = first;
+			this.last = last;
+			this.data = data;
+		}
+	}
+}
@@ -19,6 +19,8 @@ package br.com.caelum.vraptor.observer.upload;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static org.apache.commons.fileupload.disk.DiskFileItemFactory.DEFAULT_SIZE_THRESHOLD;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.Collection;
 import java.util.List;
@@ -29,10 +31,14 @@ import javax.servlet.ServletRequest;
 
 import org.apache.commons.fileupload.FileItem;
 import org.apache.commons.fileupload.FileItemFactory;
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.FileUploadBase.FileUploadIOException;
 import org.apache.commons.fileupload.FileUploadBase.SizeLimitExceededException;
 import org.apache.commons.fileupload.FileUploadException;
 import org.apache.commons.fileupload.disk.DiskFileItemFactory;
 import org.apache.commons.fileupload.servlet.ServletFileUpload;
+import org.apache.commons.fileupload.util.Streams;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -78,6 +84,11 @@ public class CommonsUploadMultipartObserver {
 		uploader.setFileSizeMax(uploadSizeLimit != null ? uploadSizeLimit.fileSizeLimit() : config.getFileSizeLimit());
 		logger.debug("Setting file sizes: total={}, file={}", uploader.getSizeMax(), uploader.getFileSizeMax());
 
+		if (event.getMethod().getMethod().isAnnotationPresent(StreamingUpload.class)) {
+			streamRequest(uploader, request, validator);
+			return;
+		}
+
 		try {
 			final List<FileItem> items = uploader.parseRequest(request);
 			logger.debug("Found {} attributes in the multipart form submission. Parsing them.", items.size());
@@ -100,16 +111,68 @@ public class CommonsUploadMultipartObserver {
 				}
 			}
 
-			for (String paramName : params.keySet()) {
-				Collection<String> paramValues = params.get(paramName);
-				request.setParameter(paramName, paramValues.toArray(new String[paramValues.size()]));
+			setParameters(params, request);
+
+		} catch (final SizeLimitExceededException e) {
+			reportSizeLimitExceeded(e, validator);
+
+		} catch (FileUploadException e) {
+			reportFileUploadException(e, validator);
+		}
+	}
+
+	/**
+	 * Reads the form fields until the first file, that is bound as a {@link StreamingUploadedFile}
+	 * to be read by the controller straight from the request.
+	 */
+	protected void streamRequest(ServletFileUpload uploader, MutableRequest request, Validator validator) {
+		final Multiset<String> indexes = HashMultiset.create();
+		final Multimap<String, String> params = LinkedListMultimap.create();
+
+		try {
+			FileItemIterator items = uploader.getItemIterator(request);
+			while (items.hasNext()) {
+				FileItemStream item = items.next();
+				String name = fixIndexedParameters(item.getFieldName(), indexes);
+
+				if (item.isFormField()) {
+					logger.debug("{} is a field", name);
+					params.put(name, getValue(item, request));
+
+				} else if (!isNullOrEmpty(item.getName())) {
+					logger.debug("{} is a streamed file, the parts after it will not be read", name);
+					processStream(item, name, request, validator);
+					break;
+
+				} else {
+					logger.debug("A file field is empty: {}", item.getFieldName());
+				}
 			}
 
+			setParameters(params, request);
+
 		} catch (final SizeLimitExceededException e) {
 			reportSizeLimitExceeded(e, validator);
 
 		} catch (FileUploadException e) {
 			reportFileUploadException(e, validator);
+
+		} catch (FileUploadIOException e) {
+			if (e.getCause() instanceof SizeLimitExceededException) {
+				reportSizeLimitExceeded((SizeLimitExceededException) e.getCause(), validator);
+			} else {
+				reportFileUploadException(new FileUploadException(e.getMessage(), e), validator);
+			}
+
+		} catch (IOException e) {
+			reportFileUploadException(new FileUploadException(e.getMessage(), e), validator);
+		}
+	}
+
+	private void setParameters(Multimap<String, String> params, MutableRequest request) {
+		for (String paramName : params.keySet()) {
+			Collection<String> paramValues = params.get(paramName);
+			request.setParameter(paramName, paramValues.toArray(new String[paramValues.size()]));
 		}
 	}
 
@@ -139,6 +202,14 @@ public class CommonsUploadMultipartObserver {
 		logger.debug("Uploaded file: {} with {}", name, upload);
 	}
 
+	protected void processStream(FileItemStream item, String name, MutableRequest request, Validator validator) {
+		UploadedFile upload = new StreamingUploadedFile(item, this, validator);
+		request.setParameter(name, name);
+		request.setAttribute(name, upload);
+
+		logger.debug("Streaming file: {} with {}", name, upload);
+	}
+
 	protected ServletFileUpload createServletFileUpload(MultipartConfig config) {
 		FileItemFactory factory = new DiskFileItemFactory(DEFAULT_SIZE_THRESHOLD, config.getDirectory());
 		logger.debug("Using repository {} for file upload", config.getDirectory());
@@ -158,6 +229,21 @@ public class CommonsUploadMultipartObserver {
 		return item.getString();
 	}
 
+	protected String getValue(FileItemStream item, ServletRequest request) throws IOException {
+		ByteArrayOutputStream value = new ByteArrayOutputStream();
+		Streams.copy(item.openStream(), value, true);
+
+		String encoding = request.getCharacterEncoding();
+		if (!isNullOrEmpty(encoding)) {
+			try {
+				return value.toString(encoding);
+			} catch (UnsupportedEncodingException e) {
+				logger.debug("Request has an invalid encoding. Ignoring it", e);
+			}
+		}
+		return value.toString();
+	}
+
 	protected String fixIndexedParameters(String name, Multiset<String> indexes) {
 		if (name.contains("[]")) {
 			String newName = name.replace("[]", "[" + (indexes.count(name)) + "]");
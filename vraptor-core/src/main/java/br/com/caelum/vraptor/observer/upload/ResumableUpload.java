@@ -0,0 +1,58 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.observer.upload;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Receives an upload through the resumable, chunked protocol of
+ * <a href="https://tus.io/protocols/resumable-upload.html">tus 1.0</a>, with the
+ * creation, checksum, expiration and termination extensions. The method must
+ * accept the {@code POST}, {@code HEAD}, {@code PATCH}, {@code OPTIONS} and
+ * {@code DELETE} verbs:
+ *
+ * <pre>
+ * &#64;Post &#64;Head &#64;Patch &#64;Options &#64;Delete
+ * &#64;Path("/videos/upload")
+ * &#64;ResumableUpload
+ * public void upload(UploadedFile file) {
+ *     ...
+ *     result.nothing();
+ * }
+ * </pre>
+ *
+ * Chunks are staged in {@link MultipartConfig#getDirectory()} and the method only
+ * runs once the upload is complete, receiving it as an {@link UploadedFile}.
+ * Abandoned uploads are removed after {@value ResumableUploadStore#EXPIRATION_KEY}
+ * milliseconds without any chunk, one day by default.
+ *
+ * @see ResumableUploadInterceptor
+ * @since 4.4
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ResumableUpload {
+
+	/** The name of the parameter that receives the completed upload */
+	String value() default "file";
+
+	/** Limits the size of the whole upload, unlimited by default */
+	long maxSize() default -1;
+}
@@ -0,0 +1,303 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.observer.upload;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+import javax.inject.Inject;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.common.collect.ImmutableMap;
+
+import br.com.caelum.vraptor.InterceptionException;
+import br.com.caelum.vraptor.Intercepts;
+import br.com.caelum.vraptor.Result;
+import br.com.caelum.vraptor.controller.ControllerMethod;
+import br.com.caelum.vraptor.core.InterceptorStack;
+import br.com.caelum.vraptor.core.MethodInfo;
+import br.com.caelum.vraptor.http.MutableRequest;
+import br.com.caelum.vraptor.http.ValuedParameter;
+import br.com.caelum.vraptor.interceptor.Interceptor;
+import br.com.caelum.vraptor.observer.upload.ResumableUploadStore.Upload;
+import br.com.caelum.vraptor.view.HttpResult;
+import br.com.caelum.vraptor.view.Results;
+
+/**
+ * Speaks the tus resumable upload protocol for methods annotated with
+ * {@link ResumableUpload}. Creation, offset queries, chunks and termination are
+ * answered here; the method runs only with the request that completes the
+ * upload, receiving it as an {@link UploadedFile}. The upload stays locked while
+ * the method runs, so concurrent chunks and terminations are answered with
+ * {@code 423} and it is delivered only once.
+ *
+ * The upload is addressed by the {@value #UPLOAD_PARAMETER} query parameter
+ * of the {@code Location} returned on creation.
+ *
+ * @since 4.4
+ */
+@Intercepts
+public class ResumableUploadInterceptor implements Interceptor {
+
+	public static final String UPLOAD_PARAMETER = "upload";
+
+	static final String TUS_VERSION = "1.0.0";
+	static final String OFFSET_CONTENT_TYPE = "application/offset+octet-stream";
+	static final int CHECKSUM_MISMATCH = 460;
+
+	private static final ImmutableMap<String, String> ALGORITHMS = ImmutableMap.of(
+			"md5", "MD5", "sha1", "SHA-1", "sha256", "SHA-256");
+
+	private static final Logger logger = LogManager.getLogger(ResumableUploadInterceptor.class);
+
+	private final MutableRequest request;
+	private final HttpServletResponse response;
+	private final Result result;
+	private final ResumableUploadStore store;
+	private final MethodInfo methodInfo;
+
+	/**
+	 * @deprecated CDI eyes only
+	 */
+	protected ResumableUploadInterceptor() {
+		this(null, null, null, null, null);
+	}
+
+	@Inject
+	public ResumableUploadInterceptor(MutableRequest request, HttpServletResponse response, Result result,
+			ResumableUploadStore store, MethodInfo methodInfo) {
+		this.request = request;
+		this.response = response;
+		this.result = result;
+		this.store = store;
+		this.methodInfo = methodInfo;
+	}
+
+	@Override
+	public boolean accepts(ControllerMethod method) {
+		return method.containsAnnotation(ResumableUpload.class);
+	}
+
+	@Override
+	public void intercept(InterceptorStack stack, ControllerMethod method, Object controllerInstance)
+			throws InterceptionException {
+		ResumableUpload config = method.getMethod().getAnnotation(ResumableUpload.class);
+		response.setHeader("Tus-Resumable", TUS_VERSION);
+
+		try {
+			String verb = request.getMethod();
+			if ("OPTIONS".equals(verb)) {
+				options(config);
+				return;
+			}
+
+			String id = request.getParameter(UPLOAD_PARAMETER);
+			if ("POST".equals(verb) && id == null) {
+				Upload upload = create(config);
+				if (upload == null || !upload.isComplete() || !store.lock(upload)) {
+					return;
+				}
+				try {
+					complete(upload, config, stack, method, controllerInstance, HttpServletResponse.SC_CREATED);
+				} finally {
+					store.unlock(upload);
+				}
+				return;
+			}
+
+			Upload upload = store.find(id);
+			if (upload == null) {
+				httpResult().sendError(HttpServletResponse.SC_NOT_FOUND);
+			} else if ("HEAD".equals(verb)) {
+				response.setHeader("Cache-Control", "no-store");
+				response.setHeader("Upload-Length", Long.toString(upload.getLength()));
+				offsetOf(upload).setStatusCode(HttpServletResponse.SC_OK);
+			} else if ("PATCH".equals(verb)) {
+				patch(upload, config, stack, method, controllerInstance);
+			} else if ("DELETE".equals(verb)) {
+				delete(upload);
+			} else {
+				httpResult().sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+			}
+		} catch (IOException e) {
+			throw new InterceptionException(e);
+		}
+	}
+
+	private void options(ResumableUpload config) {
+		response.setHeader("Tus-Version", TUS_VERSION);
+		response.setHeader("Tus-Extension", "creation,checksum,expiration,termination");
+		response.setHeader("Tus-Checksum-Algorithm", "md5,sha1,sha256");
+		if (config.maxSize() >= 0) {
+			response.setHeader("Tus-Max-Size", Long.toString(config.maxSize()));
+		}
+		httpResult().setStatusCode(HttpServletResponse.SC_NO_CONTENT);
+	}
+
+	private Upload create(ResumableUpload config) throws IOException {
+		long length = longHeader("Upload-Length");
+		if (length < 0) {
+			httpResult().sendError(HttpServletResponse.SC_BAD_REQUEST, "Upload-Length is required");
+			return null;
+		}
+		if (config.maxSize() >= 0 && length > config.maxSize()) {
+			httpResult().sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+			return null;
+		}
+
+		Upload upload = store.create(length, request.getHeader("Upload-Metadata"));
+		logger.debug("Created resumable upload {} with {} bytes", upload.getId(), length);
+
+		String location = request.getRequestURI() + "?" + UPLOAD_PARAMETER + "=" + upload.getId();
+		expiresOf(upload).addHeader("Location", location).setStatusCode(HttpServletResponse.SC_CREATED);
+		return upload;
+	}
+
+	private void patch(Upload upload, ResumableUpload config, InterceptorStack stack, ControllerMethod method,
+			Object controllerInstance) throws IOException {
+		String contentType = request.getContentType();
+		if (contentType == null || !contentType.startsWith(OFFSET_CONTENT_TYPE)) {
+			httpResult().sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE);
+			return;
+		}
+
+		long offset = longHeader("Upload-Offset");
+		if (offset < 0) {
+			httpResult().sendError(HttpServletResponse.SC_BAD_REQUEST, "Upload-Offset is required");
+			return;
+		}
+
+		String checksum = request.getHeader("Upload-Checksum");
+		MessageDigest digest = null;
+		byte[] expected = null;
+		if (checksum != null) {
+			String[] parts = checksum.trim().split(" ");
+			String algorithm = ALGORITHMS.get(parts[0]);
+			if (algorithm == null || parts.length != 2) {
+				httpResult().sendError(HttpServletResponse.SC_BAD_REQUEST, "Unsupported Upload-Checksum");
+				return;
+			}
+			try {
+				digest = MessageDigest.getInstance(algorithm);
+				expected = Base64.getDecoder().decode(parts[1]);
+			} catch (NoSuchAlgorithmException | IllegalArgumentException e) {
+				httpResult().sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid Upload-Checksum");
+				return;
+			}
+		}
+
+		if (!store.lock(upload)) {
+			httpResult().sendError(423);
+			return;
+		}
+		try {
+			if (!upload.exists()) {
+				httpResult().sendError(HttpServletResponse.SC_NOT_FOUND);
+				return;
+			}
+			if (offset != upload.getOffset()) {
+				httpResult().sendError(HttpServletResponse.SC_CONFLICT);
+				return;
+			}
+			if (!store.append(upload, request.getInputStream(), digest, expected)) {
+				httpResult().sendError(CHECKSUM_MISMATCH, "Checksum Mismatch");
+				return;
+			}
+
+			if (!upload.isComplete()) {
+				expiresOf(upload);
+				offsetOf(upload).setStatusCode(HttpServletResponse.SC_NO_CONTENT);
+				return;
+			}
+			complete(upload, config, stack, method, controllerInstance, HttpServletResponse.SC_NO_CONTENT);
+		} finally {
+			store.unlock(upload);
+		}
+	}
+
+	private void delete(Upload upload) {
+		if (!store.lock(upload)) {
+			httpResult().sendError(423);
+			return;
+		}
+		try {
+			store.delete(upload);
+			httpResult().setStatusCode(HttpServletResponse.SC_NO_CONTENT);
+		} finally {
+			store.unlock(upload);
+		}
+	}
+
+	/**
+	 * Binds the completed upload and runs the controller method. Parameters were
+	 * already instantiated when the interceptors started, so the upload is set
+	 * straight into the {@link MethodInfo}. The staging files are removed
+	 * afterwards, unless the method moved the file somewhere else.
+	 */
+	private void complete(Upload upload, ResumableUpload config, InterceptorStack stack, ControllerMethod method,
+			Object controllerInstance, int status) {
+		logger.debug("Resumable upload {} completed", upload.getId());
+
+		String fileName = upload.getMetadata("filename");
+		String contentType = upload.getMetadata("filetype");
+		UploadedFile file = new ResumableUploadedFile(upload, isNullOrEmpty(fileName) ? upload.getId() : fileName,
+				isNullOrEmpty(contentType) ? "application/octet-stream" : contentType);
+
+		for (ValuedParameter parameter : methodInfo.getValuedParameters()) {
+			if (parameter.getName().equals(config.value())) {
+				parameter.setValue(file);
+			}
+		}
+		response.setHeader("Upload-Offset", Long.toString(upload.getLength()));
+		response.setStatus(status);
+
+		try {
+			stack.next(method, controllerInstance);
+		} finally {
+			store.delete(upload);
+		}
+	}
+
+	private HttpResult offsetOf(Upload upload) {
+		return httpResult().addHeader("Upload-Offset", Long.toString(upload.getOffset()));
+	}
+
+	private HttpResult expiresOf(Upload upload) {
+		return httpResult().addDateHeader("Upload-Expires", upload.getExpires(store.getExpiration()));
+	}
+
+	private HttpResult httpResult() {
+		return result.use(Results.http());
+	}
+
+	private long longHeader(String name) {
+		String value = request.getHeader(name);
+		try {
+			return value == null ? -1 : Long.parseLong(value.trim());
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,354 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.observer.upload;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.regex.Pattern;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Vetoed;
+import javax.inject.Inject;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import br.com.caelum.vraptor.environment.Environment;
+
+/**
+ * Stages resumable uploads on disk, under {@link MultipartConfig#getDirectory()}.
+ * Each upload is a {@code .part} file, where chunks are written at their
+ * offset, and a {@code .info} file holding its length and metadata. The state
+ * lives only on disk, so uploads survive restarts.
+ *
+ * A background sweeper removes uploads that received no chunk for
+ * {@value #EXPIRATION_KEY} milliseconds.
+ *
+ * @see ResumableUpload
+ * @since 4.4
+ */
+@ApplicationScoped
+public class ResumableUploadStore {
+
+	public static final String EXPIRATION_KEY = "br.com.caelum.vraptor.upload.resumable.expiration";
+
+	private static final Logger logger = LogManager.getLogger(ResumableUploadStore.class);
+	private static final Pattern ID = Pattern.compile("[0-9a-f]{32}");
+	private static final String PART = ".part";
+	private static final String INFO = ".info";
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final MultipartConfig config;
+	private final Environment environment;
+	private final Set<String> locked = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	private File directory;
+	private long expiration;
+	private ScheduledExecutorService sweeper;
+
+	/**
+	 * @deprecated CDI eyes only
+	 */
+	protected ResumableUploadStore() {
+		this(null, null);
+	}
+
+	@Inject
+	public ResumableUploadStore(MultipartConfig config, Environment environment) {
+		this.config = config;
+		this.environment = environment;
+	}
+
+	@PostConstruct
+	public void init() {
+		if (config == null) {
+			return;
+		}
+
+		directory = new File(config.getDirectory(), "vraptor-resumable");
+		expiration = Long.parseLong(environment.get(EXPIRATION_KEY, "86400000"));
+
+		sweeper = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "vraptor-resumable-sweeper");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		long period = Math.max(1000, Math.min(expiration / 4, 3600000));
+		sweeper.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				expire();
+			}
+		}, period, period, MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void stop() {
+		if (sweeper != null) {
+			sweeper.shutdownNow();
+		}
+	}
+
+	public long getExpiration() {
+		return expiration;
+	}
+
+	public Upload create(long length, String metadata) throws IOException {
+		Files.createDirectories(directory.toPath());
+
+		String id = UUID.randomUUID().toString().replace("-", "");
+		Properties info = new Properties();
+		info.setProperty("length", Long.toString(length));
+		if (metadata != null) {
+			info.setProperty("metadata", metadata);
+		}
+
+		Upload upload = new Upload(id, length, metadata, new File(directory, id + PART), new File(directory, id + INFO));
+		Files.createFile(upload.part.toPath());
+		try (OutputStream output = Files.newOutputStream(upload.info.toPath())) {
+			info.store(output, null);
+		}
+		return upload;
+	}
+
+	/**
+	 * Returns the upload or {@code null} if it doesn't exist or has expired.
+	 */
+	public Upload find(String id) throws IOException {
+		if (id == null || !ID.matcher(id).matches() || directory == null) {
+			return null;
+		}
+
+		File infoFile = new File(directory, id + INFO);
+		File part = new File(directory, id + PART);
+		if (!infoFile.isFile() || !part.isFile() || isExpired(infoFile)) {
+			return null;
+		}
+
+		Properties info = new Properties();
+		try (InputStream input = Files.newInputStream(infoFile.toPath())) {
+			info.load(input);
+		}
+		return new Upload(id, Long.parseLong(info.getProperty("length")), info.getProperty("metadata"), part, infoFile);
+	}
+
+	/**
+	 * Reserves the upload for a single writer, returning {@code false} if another
+	 * request is already writing into it.
+	 */
+	public boolean lock(Upload upload) {
+		return locked.add(upload.getId());
+	}
+
+	public void unlock(Upload upload) {
+		locked.remove(upload.getId());
+	}
+
+	/**
+	 * Appends a chunk at the current offset, never beyond the upload length. When
+	 * a digest is given, the chunk is discarded and {@code false} is returned if it
+	 * doesn't match the expected checksum. Without a digest, bytes received before
+	 * a failure are kept, so the client can resume from them.
+	 */
+	public boolean append(Upload upload, InputStream input, MessageDigest digest, byte[] expected)
+			throws IOException {
+		try (FileChannel channel = FileChannel.open(upload.part.toPath(), StandardOpenOption.WRITE)) {
+			long start = channel.size();
+			try {
+				write(channel, start, upload.getLength() - start, input, digest);
+			} catch (IOException e) {
+				if (digest != null) {
+					channel.truncate(start);
+				}
+				throw e;
+			}
+
+			if (digest != null && !MessageDigest.isEqual(digest.digest(), expected)) {
+				channel.truncate(start);
+				return false;
+			}
+			return true;
+		} finally {
+			upload.info.setLastModified(System.currentTimeMillis());
+		}
+	}
+
+	private void write(FileChannel channel, long position, long remaining, InputStream input, MessageDigest digest)
+			throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		byte[] array = buffer.array();
+		int read;
+		while (remaining > 0 && (read = input.read(array, 0, (int) Math.min(array.length, remaining))) >= 0) {
+			if (digest != null) {
+				digest.update(array, 0, read);
+			}
+			buffer.clear();
+			buffer.limit(read);
+			while (buffer.hasRemaining()) {
+				position += channel.write(buffer, position);
+			}
+			remaining -= read;
+		}
+	}
+
+	public void delete(Upload upload) {
+		upload.info.delete();
+		upload.part.delete();
+	}
+
+	private boolean isExpired(File info) {
+		return info.lastModified() < System.currentTimeMillis() - expiration;
+	}
+
+	/**
+	 * Removes the uploads that received no chunk within the expiration. Each
+	 * upload is locked while it is removed, so uploads being written are skipped.
+	 */
+	void expire() {
+		File[] infos = directory.listFiles(new FileFilter() {
+			@Override
+			public boolean accept(File file) {
+				return file.getName().endsWith(INFO) && isExpired(file);
+			}
+		});
+		if (infos == null) {
+			return;
+		}
+
+		for (File info : infos) {
+			String id = info.getName().substring(0, info.getName().length() - INFO.length());
+			if (!locked.add(id)) {
+				continue;
+			}
+			try {
+				if (isExpired(info)) {
+					logger.debug("Removing expired resumable upload {}", id);
+					info.delete();
+					new File(directory, id + PART).delete();
+				}
+			} finally {
+				locked.remove(id);
+			}
+		}
+	}
+
+	/**
+	 * The state of an upload.
+	 */
+	@Vetoed
+	public static final class Upload {
+		private final String id;
+		private final long length;
+		private final String metadata;
+		private final File part;
+		private final File info;
+
+		Upload(String id, long length, String metadata, File part, File info) {
+			this.id = id;
+			this.length = length;
+			this.metadata = metadata;
+			this.part = part;
+			this.info = info;
+		}
+
+		public String getId() {
+			return id;
+		}
+
+		public long getLength() {
+			return length;
+		}
+
+		/**
+		 * Returns how many bytes were already received.
+		 */
+		public long getOffset() {
+			return part.length();
+		}
+
+		public boolean isComplete() {
+			return getOffset() == length;
+		}
+
+		/**
+		 * Returns {@code false} once the upload was delivered, terminated or expired.
+		 */
+		public boolean exists() {
+			return info.isFile() && part.isFile();
+		}
+
+		/**
+		 * Returns the {@code Upload-Metadata} sent on creation, or {@code null}.
+		 */
+		public String getMetadata() {
+			return metadata;
+		}
+
+		/**
+		 * Returns the decoded value of a key of the {@code Upload-Metadata}, or {@code null}.
+		 */
+		public String getMetadata(String key) {
+			if (metadata == null) {
+				return null;
+			}
+			for (String pair : metadata.split(",")) {
+				String[] parts = pair.trim().split(" ");
+				if (parts[0].equals(key)) {
+					try {
+						return parts.length > 1 ? new String(Base64.getDecoder().decode(parts[1]), UTF_8) : "";
+					} catch (IllegalArgumentException e) {
+						return null;
+					}
+				}
+			}
+			return null;
+		}
+
+		public File getPart() {
+			return part;
+		}
+
+		public long getExpires(long expiration) {
+			return info.lastModified() + expiration;
+		}
+	}
+}
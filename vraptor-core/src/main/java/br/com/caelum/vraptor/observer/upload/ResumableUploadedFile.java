@@ -0,0 +1,104 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.observer.upload;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.CopyOption;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import javax.enterprise.inject.Vetoed;
+
+import br.com.caelum.vraptor.observer.upload.ResumableUploadStore.Upload;
+
+/**
+ * A completed resumable upload, backed by its staging file. Writing it to a
+ * file moves the staging file instead of copying it.
+ *
+ * @see ResumableUpload
+ * @since 4.4
+ */
+@Vetoed
+public class ResumableUploadedFile implements UploadedFile {
+	private static final String TARGET_CANNOT_BE_NULL = "Target can't be null";
+
+	private final Upload upload;
+	private final String fileName;
+	private final String contentType;
+
+	public ResumableUploadedFile(Upload upload, String fileName, String contentType) {
+		this.upload = upload;
+		this.fileName = fileName;
+		this.contentType = contentType;
+	}
+
+	@Override
+	public String getContentType() {
+		return contentType;
+	}
+
+	@Override
+	public InputStream getFile() throws IOException {
+		return Files.newInputStream(upload.getPart().toPath());
+	}
+
+	@Override
+	public String getFileName() {
+		return fileName;
+	}
+
+	@Override
+	public long getSize() {
+		return upload.getLength();
+	}
+
+	@Override
+	public void writeTo(File target) throws IOException {
+		requireNonNull(target, TARGET_CANNOT_BE_NULL);
+		writeTo(target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	@Override
+	public void writeTo(Path target, CopyOption... options) throws IOException {
+		requireNonNull(target, TARGET_CANNOT_BE_NULL);
+		Files.move(upload.getPart().toPath(), target, options);
+	}
+
+	@Override
+	public void writeTo(OutputStream target) throws IOException {
+		requireNonNull(target, TARGET_CANNOT_BE_NULL);
+		Files.copy(upload.getPart().toPath(), target);
+	}
+
+	/**
+	 * Returns the {@code Upload-Metadata} the client sent when it created the upload.
+	 */
+	public String getMetadata(String key) {
+		return upload.getMetadata(key);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("ResumableUploadedFile[name=%s]", getFileName());
+	}
+}
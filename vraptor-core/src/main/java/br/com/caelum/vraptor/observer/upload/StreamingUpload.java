@@ -0,0 +1,40 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.observer.upload;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Reads the multipart request as a stream instead of storing every part before
+ * the controller runs. Form fields are bound as usual, and the first file
+ * becomes an {@link UploadedFile} read straight from the request, that can be
+ * consumed only once. Parts after this file are not read, so the file must be
+ * the last field of the form.
+ *
+ * Size limits, from {@link UploadSizeLimit} or {@code MultipartConfig}, are
+ * still reported through the {@code Validator}, also when they are exceeded
+ * while the controller reads the file.
+ *
+ * @since 4.4
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StreamingUpload {
+}
@@ -0,0 +1,152 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.observer.upload;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.CopyOption;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import javax.enterprise.inject.Vetoed;
+
+import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.FileUploadBase.FileUploadIOException;
+import org.apache.commons.fileupload.FileUploadBase.SizeLimitExceededException;
+import org.apache.commons.fileupload.FileUploadException;
+import org.apache.commons.io.FilenameUtils;
+
+import com.google.common.io.ByteStreams;
+
+import br.com.caelum.vraptor.validator.Validator;
+
+/**
+ * An {@link UploadedFile} read straight from the multipart request, without
+ * storing it first. Its content can be consumed only once.
+ *
+ * @see StreamingUpload
+ * @since 4.4
+ */
+@Vetoed
+public class StreamingUploadedFile implements UploadedFile {
+	private static final String TARGET_CANNOT_BE_NULL = "Target can't be null";
+
+	private final FileItemStream item;
+	private final CommonsUploadMultipartObserver observer;
+	private final Validator validator;
+	private boolean consumed;
+
+	public StreamingUploadedFile(FileItemStream item, CommonsUploadMultipartObserver observer, Validator validator) {
+		this.item = item;
+		this.observer = observer;
+		this.validator = validator;
+	}
+
+	@Override
+	public String getContentType() {
+		return item.getContentType();
+	}
+
+	/**
+	 * Returns the contents of the file, read from the request as they are consumed.
+	 *
+	 * @throws IllegalStateException if the contents were already consumed.
+	 */
+	@Override
+	public InputStream getFile() throws IOException {
+		if (consumed) {
+			throw new IllegalStateException("The streamed upload " + getFileName() + " was already consumed");
+		}
+		consumed = true;
+
+		return new FilterInputStream(item.openStream()) {
+			@Override
+			public int read() throws IOException {
+				try {
+					return super.read();
+				} catch (FileUploadIOException e) {
+					throw report(e);
+				}
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				try {
+					return super.read(b, off, len);
+				} catch (FileUploadIOException e) {
+					throw report(e);
+				}
+			}
+		};
+	}
+
+	private IOException report(FileUploadIOException e) {
+		Throwable cause = e.getCause();
+		if (cause instanceof SizeLimitExceededException) {
+			observer.reportSizeLimitExceeded((SizeLimitExceededException) cause, validator);
+		} else if (cause instanceof FileUploadException) {
+			observer.reportFileUploadException((FileUploadException) cause, validator);
+		}
+		return e;
+	}
+
+	@Override
+	public String getFileName() {
+		return FilenameUtils.getName(item.getName());
+	}
+
+	/**
+	 * Returns {@code -1}, since the size isn't known before the file is read.
+	 */
+	@Override
+	public long getSize() {
+		return -1;
+	}
+
+	@Override
+	public void writeTo(File target) throws IOException {
+		requireNonNull(target, TARGET_CANNOT_BE_NULL);
+		writeTo(target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	@Override
+	public void writeTo(Path target, CopyOption... options) throws IOException {
+		requireNonNull(target, TARGET_CANNOT_BE_NULL);
+		try (InputStream input = getFile()) {
+			Files.copy(input, target, options);
+		}
+	}
+
+	@Override
+	public void writeTo(OutputStream target) throws IOException {
+		requireNonNull(target, TARGET_CANNOT_BE_NULL);
+		try (InputStream input = getFile()) {
+			ByteStreams.copy(input, target);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return String.format("StreamingUploadedFile[name=%s]", getFileName());
+	}
+}
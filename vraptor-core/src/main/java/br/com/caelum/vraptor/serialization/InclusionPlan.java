@@ -0,0 +1,151 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.serialization;
+
+import java.lang.reflect.Field;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.enterprise.inject.Vetoed;
+
+import br.com.caelum.vraptor.core.ReflectionProvider;
+
+import com.google.common.collect.Multimap;
+
+/**
+ * The includes, excludes and recursion of a {@link Serializee} compiled into a decision for each
+ * field, shared by the Gson and XStream serializers. The decisions of each class are computed the
+ * first time one of its fields is visited, so each field is reflected only once per plan.
+ * <p>
+ * Plans are immutable and thread safe; {@link InclusionPlans} keeps one for each specification.
+ *
+ * @since 4.4
+ */
+@Vetoed
+public class InclusionPlan {
+
+	public enum Inclusion {
+		/** Explicitly included, so serialized even if excluded. */
+		INCLUDED,
+		/** Explicitly excluded. */
+		EXCLUDED,
+		/** Neither included nor excluded, but serialized by default. */
+		SERIALIZED,
+		/** Neither included nor excluded, and not serialized by default. */
+		SKIPPED
+	}
+
+	private final Map<Class<?>, Set<String>> includes;
+	private final Map<Class<?>, Set<String>> excludes;
+	private final boolean recursive;
+	private final ReflectionProvider reflectionProvider;
+	private final ConcurrentMap<Class<?>, Map<String, Inclusion>> classes = new ConcurrentHashMap<>();
+
+	public InclusionPlan(Multimap<String, Class<?>> includes, Multimap<String, Class<?>> excludes, boolean recursive,
+			ReflectionProvider reflectionProvider) {
+		this.includes = fieldNamesByClass(includes);
+		this.excludes = fieldNamesByClass(excludes);
+		this.recursive = recursive;
+		this.reflectionProvider = reflectionProvider;
+	}
+
+	/**
+	 * A path like {@code "a.b.c"} bound to a class matches the field {@code c} declared on it.
+	 */
+	private static Map<Class<?>, Set<String>> fieldNamesByClass(Multimap<String, Class<?>> paths) {
+		Map<Class<?>, Set<String>> names = new HashMap<>();
+		for (Entry<String, Class<?>> path : paths.entries()) {
+			Set<String> fields = names.get(path.getValue());
+			if (fields == null) {
+				fields = new HashSet<>();
+				names.put(path.getValue(), fields);
+			}
+			fields.add(path.getKey().substring(path.getKey().lastIndexOf('.') + 1));
+		}
+		return names;
+	}
+
+	public boolean isRecursive() {
+		return recursive;
+	}
+
+	/**
+	 * @return what should be done with the field named fieldName declared on definedIn.
+	 */
+	public Inclusion inclusionOf(Class<?> definedIn, String fieldName) {
+		Map<String, Inclusion> fields = classes.get(definedIn);
+		if (fields == null) {
+			fields = compile(definedIn);
+			Map<String, Inclusion> concurrent = classes.putIfAbsent(definedIn, fields);
+			if (concurrent != null) {
+				fields = concurrent;
+			}
+		}
+		Inclusion inclusion = fields.get(fieldName);
+		if (inclusion == null) {
+			return inclusionOf(definedIn, fieldName, reflectionProvider.getField(definedIn, fieldName));
+		}
+		return inclusion;
+	}
+
+	private Map<String, Inclusion> compile(Class<?> definedIn) {
+		Map<String, Inclusion> fields = new HashMap<>();
+		for (Field field : reflectionProvider.getFieldsFor(definedIn)) {
+			if (!fields.containsKey(field.getName())) {
+				fields.put(field.getName(), inclusionOf(definedIn, field.getName(), field));
+			}
+		}
+		return Collections.unmodifiableMap(fields);
+	}
+
+	private Inclusion inclusionOf(Class<?> definedIn, String fieldName, Field field) {
+		if (contains(includes, definedIn, fieldName)) {
+			return Inclusion.INCLUDED;
+		}
+		if (contains(excludes, definedIn, fieldName)) {
+			return Inclusion.EXCLUDED;
+		}
+		return recursive || isSimpleType(field.getType()) ? Inclusion.SERIALIZED : Inclusion.SKIPPED;
+	}
+
+	private static boolean contains(Map<Class<?>, Set<String>> names, Class<?> definedIn, String fieldName) {
+		Set<String> fields = names.get(definedIn);
+		return fields != null && fields.contains(fieldName);
+	}
+
+	/**
+	 * @return true if values of the type are serialized without {@link Serializer#recursive()}.
+	 */
+	public static boolean isSimpleType(Class<?> type) {
+		return type.isPrimitive()
+			|| type.isEnum()
+			|| Number.class.isAssignableFrom(type)
+			|| type.equals(String.class)
+			|| Date.class.isAssignableFrom(type)
+			|| Calendar.class.isAssignableFrom(type)
+			|| Boolean.class.equals(type)
+			|| Character.class.equals(type);
+	}
+}
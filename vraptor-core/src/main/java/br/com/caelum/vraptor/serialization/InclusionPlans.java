@@ -0,0 +1,82 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.serialization;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import br.com.caelum.vraptor.cache.CacheStore;
+import br.com.caelum.vraptor.cache.TinyLFU;
+import br.com.caelum.vraptor.core.ReflectionProvider;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Multimap;
+
+/**
+ * Caches the {@link InclusionPlan} of each include, exclude and recursion specification and the
+ * classes each field path of {@link Serializee} resolves to, so endpoints that always serialize
+ * the same way compile them only once.
+ *
+ * @since 4.4
+ */
+@ApplicationScoped
+public class InclusionPlans {
+
+	private final ReflectionProvider reflectionProvider;
+	private final CacheStore<Object, InclusionPlan> plans;
+	private final CacheStore<Object, Set<Class<?>>> parentTypes;
+
+	/**
+	 * @deprecated CDI eyes only
+	 */
+	protected InclusionPlans() {
+		this(null, null, null);
+	}
+
+	@Inject
+	public InclusionPlans(ReflectionProvider reflectionProvider,
+			@TinyLFU(capacity = 500) CacheStore<Object, InclusionPlan> plans,
+			@TinyLFU(capacity = 2000) CacheStore<Object, Set<Class<?>>> parentTypes) {
+		this.reflectionProvider = reflectionProvider;
+		this.plans = plans;
+		this.parentTypes = parentTypes;
+	}
+
+	public InclusionPlan planFor(Multimap<String, Class<?>> includes, Multimap<String, Class<?>> excludes,
+			final boolean recursive) {
+		final ImmutableSetMultimap<String, Class<?>> included = ImmutableSetMultimap.copyOf(includes);
+		final ImmutableSetMultimap<String, Class<?>> excluded = ImmutableSetMultimap.copyOf(excludes);
+		return plans.fetch(Arrays.asList(included, excluded, recursive), new Supplier<InclusionPlan>() {
+			@Override
+			public InclusionPlan get() {
+				return new InclusionPlan(included, excluded, recursive, reflectionProvider);
+			}
+		});
+	}
+
+	/**
+	 * Returns the classes the field path resolves to from the given type, resolving them with the
+	 * given supplier only once.
+	 */
+	Set<Class<?>> parentTypesFor(Class<?> type, String path, Supplier<Set<Class<?>>> resolver) {
+		return parentTypes.fetch(Arrays.asList(type, path), resolver);
+	}
+}
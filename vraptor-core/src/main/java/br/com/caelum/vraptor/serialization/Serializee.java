@@ -31,13 +31,18 @@ import javax.inject.Inject;
 
 import br.com.caelum.vraptor.core.ReflectionProvider;
 
+import com.google.common.base.Supplier;
+import com.google.common.collect.ForwardingMultimap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
 
 @Dependent
 public class Serializee {
 
 	private final ReflectionProvider reflectionProvider;
+	private final InclusionPlans plans;
 
 	private Object root;
 	private Class<?> rootClass;
@@ -45,10 +50,19 @@ public class Serializee {
 	private Multimap<String, Class<?>> excludes;
 	private Set<Class<?>> elementTypes;
 	private boolean recursive;
+	private InclusionPlan plan;
 
-	@Inject
+	/**
+	 * @deprecated Prefer using {@link Serializee#Serializee(ReflectionProvider, InclusionPlans)}
+	 */
 	public Serializee(ReflectionProvider reflectionProvider) {
+		this(reflectionProvider, null);
+	}
+
+	@Inject
+	public Serializee(ReflectionProvider reflectionProvider, InclusionPlans plans) {
 		this.reflectionProvider = reflectionProvider;
+		this.plans = plans;
 	}
 
 	public Object getRoot() {
@@ -65,19 +79,28 @@ public class Serializee {
 
 	public void setRootClass(Class<?> rootClass) {
 		this.rootClass = rootClass;
+		plan = null;
 	}
 
+	/**
+	 * Writes on the returned multimap recompile the {@link #getInclusionPlan()}, while its views
+	 * are read only. Prefer {@link #includeAll(String...)}.
+	 */
 	public Multimap<String, Class<?>> getIncludes() {
 		if (includes == null) {
-			includes = LinkedListMultimap.create();
+			includes = new Paths();
 		}
 		
 		return includes;
 	}
 
+	/**
+	 * Writes on the returned multimap recompile the {@link #getInclusionPlan()}, while its views
+	 * are read only. Prefer {@link #excludeAll(String...)}.
+	 */
 	public Multimap<String, Class<?>> getExcludes() {
 		if (excludes == null) {
-			excludes = LinkedListMultimap.create();
+			excludes = new Paths();
 		}
 		
 		return excludes;
@@ -89,6 +112,7 @@ public class Serializee {
 
 	public void setElementTypes(Set<Class<?>> elementTypes) {
 		this.elementTypes = elementTypes;
+		plan = null;
 	}
 
 	public boolean isRecursive() {
@@ -97,15 +121,31 @@ public class Serializee {
 
 	public void setRecursive(boolean recursive) {
 		this.recursive = recursive;
+		plan = null;
+	}
+
+	/**
+	 * @return the current includes, excludes and recursion compiled into an {@link InclusionPlan}.
+	 */
+	public InclusionPlan getInclusionPlan() {
+		if (plan == null) {
+			Multimap<String, Class<?>> included = includes == null ? LinkedListMultimap.<String, Class<?>>create() : includes;
+			Multimap<String, Class<?>> excluded = excludes == null ? LinkedListMultimap.<String, Class<?>>create() : excludes;
+			plan = plans == null ? new InclusionPlan(included, excluded, recursive, reflectionProvider)
+					: plans.planFor(included, excluded, recursive);
+		}
+		return plan;
 	}
 
 	public void excludeAll(String... names) {
+		plan = null;
 		for (String name : names) {
 			getExcludes().putAll(name.replaceAll("\\?", ""), getParentTypesFor(name));
 		}
 	}
 	
 	public void excludeAll() {
+		plan = null;
 		Set<Class<?>> types = new HashSet<>();
 
 		if (isCollection(getRootClass())) {
@@ -122,6 +162,7 @@ public class Serializee {
 	}
 
 	public void includeAll(String... names) {
+		plan = null;
 		for (String name : names) {
 			getIncludes().putAll(name.replaceAll("\\?", ""), getParentTypesFor(name));
 		}
@@ -140,7 +181,19 @@ public class Serializee {
 		}
 	}
 
-	private Set<Class<?>> getParentTypes(String name, Class<?> type) {
+	private Set<Class<?>> getParentTypes(final String name, final Class<?> type) {
+		if (plans == null) {
+			return resolveParentTypes(name, type);
+		}
+		return plans.parentTypesFor(type, name, new Supplier<Set<Class<?>>>() {
+			@Override
+			public Set<Class<?>> get() {
+				return ImmutableSet.copyOf(resolveParentTypes(name, type));
+			}
+		});
+	}
+
+	private Set<Class<?>> resolveParentTypes(String name, Class<?> type) {
 		String[] path = name.split("\\.");
 		
 		try {
@@ -197,4 +250,59 @@ public class Serializee {
 		}
 		return Collection.class.isAssignableFrom((Class<?>) type);
 	}
+
+	/**
+	 * Included or excluded paths, dropping the compiled plan whenever they are written.
+	 */
+	private final class Paths extends ForwardingMultimap<String, Class<?>> {
+		private final Multimap<String, Class<?>> paths = LinkedListMultimap.create();
+		private final Multimap<String, Class<?>> readOnly = Multimaps.unmodifiableMultimap(paths);
+
+		@Override
+		protected Multimap<String, Class<?>> delegate() {
+			return readOnly;
+		}
+
+		@Override
+		public boolean put(String key, Class<?> value) {
+			plan = null;
+			return paths.put(key, value);
+		}
+
+		@Override
+		public boolean putAll(String key, Iterable<? extends Class<?>> values) {
+			plan = null;
+			return paths.putAll(key, values);
+		}
+
+		@Override
+		public boolean putAll(Multimap<? extends String, ? extends Class<?>> multimap) {
+			plan = null;
+			return paths.putAll(multimap);
+		}
+
+		@Override
+		public boolean remove(Object key, Object value) {
+			plan = null;
+			return paths.remove(key, value);
+		}
+
+		@Override
+		public Collection<Class<?>> removeAll(Object key) {
+			plan = null;
+			return paths.removeAll(key);
+		}
+
+		@Override
+		public Collection<Class<?>> replaceValues(String key, Iterable<? extends Class<?>> values) {
+			plan = null;
+			return paths.replaceValues(key, values);
+		}
+
+		@Override
+		public void clear() {
+			plan = null;
+			paths.clear();
+		}
+	}
 }
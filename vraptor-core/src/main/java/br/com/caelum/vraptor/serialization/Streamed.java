@@ -0,0 +1,150 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.serialization;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import javax.enterprise.inject.Vetoed;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
+
+/**
+ * Elements that are serialized one by one as they are produced, without keeping all of them in
+ * memory. Serializers also stream a bare {@link Iterator} or {@link Stream}, but declaring the
+ * element type lets includes and excludes be resolved without looking at the first element:
+ *
+ * <pre>
+ * result.use(json()).from(Streamed.of(Order.class, orders.stream())).include("client").serialize();
+ * </pre>
+ *
+ * Other {@link Iterable}s are serialized as they always were, since many of them are beans with
+ * properties of their own; wrap them with {@link #of(Class, Iterable)} to stream their elements.
+ * Streamed elements are written as a list, flushing the output periodically, and are consumed
+ * only once. MessagePack is the exception: its lists start with their sizes, so it keeps all the
+ * elements in memory before writing them. Sources that are {@link AutoCloseable}, like streams
+ * and database cursors, are closed after the serialization.
+ *
+ * @since 4.4
+ */
+@Vetoed
+public class Streamed<T> implements Iterable<T>, Closeable {
+
+	/**
+	 * How many elements serializers write between flushes.
+	 */
+	public static final int FLUSH_INTERVAL = 500;
+
+	private final Class<?> elementType;
+	private final PeekingIterator<T> elements;
+	private final Object source;
+
+	private Streamed(Class<?> elementType, Iterator<? extends T> elements, Object source) {
+		this.elementType = elementType;
+		this.elements = Iterators.peekingIterator(elements);
+		this.source = source;
+	}
+
+	public static <T> Streamed<T> of(Class<T> elementType, Iterator<? extends T> elements) {
+		return new Streamed<T>(requireNonNull(elementType), elements, elements);
+	}
+
+	public static <T> Streamed<T> of(Class<T> elementType, Iterable<? extends T> elements) {
+		return new Streamed<T>(requireNonNull(elementType), elements.iterator(), elements);
+	}
+
+	public static <T> Streamed<T> of(Class<T> elementType, Stream<? extends T> elements) {
+		return new Streamed<T>(requireNonNull(elementType), elements.iterator(), elements);
+	}
+
+	/**
+	 * Elements produced by the supplier until it returns null.
+	 */
+	public static <T> Streamed<T> of(Class<T> elementType, final Supplier<? extends T> elements) {
+		Iterator<T> iterator = new AbstractIterator<T>() {
+			@Override
+			protected T computeNext() {
+				T next = elements.get();
+				return next == null ? endOfData() : next;
+			}
+		};
+		return new Streamed<T>(requireNonNull(elementType), iterator, elements);
+	}
+
+	/**
+	 * @return true if the object is serialized as streamed elements.
+	 */
+	public static boolean isStreamed(Object object) {
+		return object instanceof Streamed || object instanceof Iterator || object instanceof Stream;
+	}
+
+	/**
+	 * @return the given object as streamed elements, or null if it should be serialized as is.
+	 *         Iterators and streams are consumed, so this must be called only once for each of them.
+	 */
+	public static Streamed<?> from(Object object) {
+		if (object instanceof Streamed) {
+			return (Streamed<?>) object;
+		}
+		if (object instanceof Iterator) {
+			return new Streamed<>(null, (Iterator<?>) object, object);
+		}
+		if (object instanceof Stream) {
+			return new Streamed<>(null, ((Stream<?>) object).iterator(), object);
+		}
+		return null;
+	}
+
+	/**
+	 * @return the declared element type or, if none was declared, the type of the first element.
+	 *         Null if there is no element to look at.
+	 */
+	public Class<?> getElementType() {
+		if (elementType != null) {
+			return elementType;
+		}
+		if (elements.hasNext() && elements.peek() != null) {
+			return elements.peek().getClass();
+		}
+		return null;
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		return elements;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (source instanceof AutoCloseable) {
+			try {
+				((AutoCloseable) source).close();
+			} catch (IOException | RuntimeException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new IOException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,73 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.serialization.binary;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.enterprise.inject.Instance;
+import javax.servlet.http.HttpServletRequest;
+
+import com.google.gson.JsonElement;
+
+import br.com.caelum.vraptor.controller.ControllerMethod;
+import br.com.caelum.vraptor.http.ParameterNameProvider;
+import br.com.caelum.vraptor.ioc.Container;
+import br.com.caelum.vraptor.serialization.Deserializee;
+import br.com.caelum.vraptor.serialization.Deserializer;
+import br.com.caelum.vraptor.serialization.gson.GsonDeserialization;
+import br.com.caelum.vraptor.serialization.gson.GsonDeserializerBuilder;
+import br.com.caelum.vraptor.view.ResultException;
+
+/**
+ * Deserializes a {@link BinaryFormat} the same way json is deserialized: the content is read into
+ * a json tree, that is bound to the parameters by {@link GsonDeserialization}.
+ *
+ * @since 4.4
+ */
+public abstract class BinaryDeserialization implements Deserializer {
+
+	private final BinaryFormat format;
+	private final GsonDeserializerBuilder builder;
+	private final ParameterNameProvider paramNameProvider;
+	private final HttpServletRequest request;
+	private final Container container;
+	private final Instance<Deserializee> deserializeeInstance;
+
+	protected BinaryDeserialization(BinaryFormat format, GsonDeserializerBuilder builder,
+			ParameterNameProvider paramNameProvider, HttpServletRequest request, Container container,
+			Instance<Deserializee> deserializeeInstance) {
+		this.format = format;
+		this.builder = builder;
+		this.paramNameProvider = paramNameProvider;
+		this.request = request;
+		this.container = container;
+		this.deserializeeInstance = deserializeeInstance;
+	}
+
+	@Override
+	public Object[] deserialize(InputStream inputStream, ControllerMethod method) {
+		JsonElement tree;
+		try {
+			tree = format.parse(inputStream);
+		} catch (IOException | RuntimeException e) {
+			throw new ResultException("Unable to deserialize data", e);
+		}
+		return new GsonDeserialization(builder, paramNameProvider, request, container, deserializeeInstance)
+				.deserialize(tree, method);
+	}
+}
@@ -0,0 +1,89 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.serialization.binary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Binary representations of the json tree, negotiated by the {@code cbor} and {@code msgpack}
+ * formats. Numbers that neither a long nor a double represent exactly are written by CBOR as
+ * bignums and decimal fractions, and read back as numbers. MessagePack has no such types, so they
+ * are written as their decimal text, and read back as strings.
+ *
+ * @since 4.4
+ */
+public enum BinaryFormat {
+
+	CBOR("cbor", "application/cbor") {
+		@Override
+		public JsonWriter newWriter(OutputStream output) {
+			return new CborWriter(output);
+		}
+
+		@Override
+		BinaryParser newParser(InputStream input) {
+			return new CborParser(input);
+		}
+	},
+
+	MESSAGE_PACK("msgpack", "application/msgpack") {
+		@Override
+		public JsonWriter newWriter(OutputStream output) {
+			return new MessagePackWriter(output);
+		}
+
+		@Override
+		BinaryParser newParser(InputStream input) {
+			return new MessagePackParser(input);
+		}
+	};
+
+	private final String format;
+	private final String contentType;
+
+	BinaryFormat(String format, String contentType) {
+		this.format = format;
+		this.contentType = contentType;
+	}
+
+	public String getFormat() {
+		return format;
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	/**
+	 * @return a writer that Gson can serialize to, encoding the json tree in this format.
+	 */
+	public abstract JsonWriter newWriter(OutputStream output);
+
+	abstract BinaryParser newParser(InputStream input);
+
+	/**
+	 * @return the json tree of the given content, or {@code null} if there is no content.
+	 */
+	public JsonElement parse(InputStream input) throws IOException {
+		return newParser(input).parse();
+	}
+}
@@ -0,0 +1,245 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.serialization.binary;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import javax.enterprise.inject.Vetoed;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * A {@link JsonWriter} that encodes the tree written by Gson in a binary format, so every type
+ * adapter and exclusion strategy of Gson is used as is. Names of null values are dropped unless
+ * nulls are serialized, like Gson does for json text.
+ */
+@Vetoed
+abstract class BinaryJsonWriter extends JsonWriter {
+
+	private static final Writer UNWRITABLE_WRITER = new Writer() {
+		@Override
+		public void write(char[] buffer, int offset, int counter) {
+			throw new AssertionError();
+		}
+
+		@Override
+		public void flush() {
+			throw new AssertionError();
+		}
+
+		@Override
+		public void close() {
+			throw new AssertionError();
+		}
+	};
+
+	final OutputStream out;
+	private String deferredName;
+
+	BinaryJsonWriter(OutputStream out) {
+		super(UNWRITABLE_WRITER);
+		this.out = out;
+	}
+
+	abstract void openArray() throws IOException;
+
+	abstract void closeArray() throws IOException;
+
+	abstract void openObject() throws IOException;
+
+	abstract void closeObject() throws IOException;
+
+	abstract void writeName(String name) throws IOException;
+
+	abstract void writeString(String value) throws IOException;
+
+	abstract void writeLong(long value) throws IOException;
+
+	abstract void writeDouble(double value) throws IOException;
+
+	/**
+	 * Writes a number that neither a long nor a double represent exactly.
+	 */
+	abstract void writeDecimal(BigDecimal value) throws IOException;
+
+	abstract void writeBoolean(boolean value) throws IOException;
+
+	abstract void writeNull() throws IOException;
+
+	@Override
+	public JsonWriter beginArray() throws IOException {
+		writeDeferredName();
+		openArray();
+		return this;
+	}
+
+	@Override
+	public JsonWriter endArray() throws IOException {
+		closeArray();
+		return this;
+	}
+
+	@Override
+	public JsonWriter beginObject() throws IOException {
+		writeDeferredName();
+		openObject();
+		return this;
+	}
+
+	@Override
+	public JsonWriter endObject() throws IOException {
+		if (deferredName != null) {
+			throw new IllegalStateException("Missing value of " + deferredName);
+		}
+		closeObject();
+		return this;
+	}
+
+	@Override
+	public JsonWriter name(String name) throws IOException {
+		requireNonNull(name, "name == null");
+		if (deferredName != null) {
+			throw new IllegalStateException("Missing value of " + deferredName);
+		}
+		deferredName = name;
+		return this;
+	}
+
+	@Override
+	public JsonWriter value(String value) throws IOException {
+		if (value == null) {
+			return nullValue();
+		}
+		writeDeferredName();
+		writeString(value);
+		return this;
+	}
+
+	@Override
+	public JsonWriter jsonValue(String value) throws IOException {
+		throw new UnsupportedOperationException("Raw json values can't be written in a binary format");
+	}
+
+	@Override
+	public JsonWriter nullValue() throws IOException {
+		if (deferredName != null && !getSerializeNulls()) {
+			deferredName = null;
+			return this;
+		}
+		writeDeferredName();
+		writeNull();
+		return this;
+	}
+
+	@Override
+	public JsonWriter value(boolean value) throws IOException {
+		writeDeferredName();
+		writeBoolean(value);
+		return this;
+	}
+
+	@Override
+	public JsonWriter value(Boolean value) throws IOException {
+		if (value == null) {
+			return nullValue();
+		}
+		return value(value.booleanValue());
+	}
+
+	@Override
+	public JsonWriter value(double value) throws IOException {
+		writeDeferredName();
+		writeDouble(value);
+		return this;
+	}
+
+	@Override
+	public JsonWriter value(long value) throws IOException {
+		writeDeferredName();
+		writeLong(value);
+		return this;
+	}
+
+	/**
+	 * Integral numbers are written as integers and the others as floating point numbers. Big
+	 * numbers that neither a long nor a double represent exactly are written as each format
+	 * writes decimals, so no precision is lost.
+	 */
+	@Override
+	public JsonWriter value(Number value) throws IOException {
+		if (value == null) {
+			return nullValue();
+		}
+		if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+			return value(value.longValue());
+		}
+		if (value instanceof Double || value instanceof Float) {
+			return value(value.doubleValue());
+		}
+		if (value instanceof BigDecimal || value instanceof BigInteger) {
+			return exactValue(new BigDecimal(value.toString()));
+		}
+		try {
+			return value(Long.parseLong(value.toString()));
+		} catch (NumberFormatException e) {
+			return value(value.doubleValue());
+		}
+	}
+
+	private JsonWriter exactValue(BigDecimal value) throws IOException {
+		try {
+			return value(value.longValueExact());
+		} catch (ArithmeticException e) {
+			double approximation = value.doubleValue();
+			if (!Double.isInfinite(approximation) && new BigDecimal(approximation).compareTo(value) == 0) {
+				return value(approximation);
+			}
+			writeDeferredName();
+			writeDecimal(value);
+			return this;
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+	private void writeDeferredName() throws IOException {
+		if (deferredName != null) {
+			writeName(deferredName);
+			deferredName = null;
+		}
+	}
+
+	static void writeBigEndian(OutputStream sink, long value, int bytes) throws IOException {
+		for (int shift = (bytes - 1) * 8; shift >= 0; shift -= 8) {
+			sink.write((int) (value >>> shift));
+		}
+	}
+}
@@ -0,0 +1,121 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.serialization.binary;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+
+import javax.enterprise.inject.Vetoed;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Reads a binary format into the same tree Gson reads from json text. Byte strings become arrays
+ * of numbers, as Gson writes byte arrays, and scalar map keys become strings.
+ */
+@Vetoed
+abstract class BinaryParser {
+
+	private static final int MAX_DEPTH = 512;
+	private static final int CHUNK = 8192;
+
+	final DataInputStream in;
+
+	BinaryParser(InputStream input) {
+		this.in = new DataInputStream(new BufferedInputStream(input));
+	}
+
+	/**
+	 * @return the tree of the first value, or {@code null} if there is no content.
+	 */
+	JsonElement parse() throws IOException {
+		int head = in.read();
+		if (head < 0) {
+			return null;
+		}
+		return readValue(head, 0);
+	}
+
+	abstract JsonElement readValue(int head, int depth) throws IOException;
+
+	JsonElement next(int depth) throws IOException {
+		return read(in.readUnsignedByte(), depth);
+	}
+
+	JsonElement read(int head, int depth) throws IOException {
+		if (depth > MAX_DEPTH) {
+			throw new IllegalArgumentException("Content nested deeper than " + MAX_DEPTH + " levels");
+		}
+		return readValue(head, depth);
+	}
+
+	String readText(long length) throws IOException {
+		return new String(readBytes(length), UTF_8);
+	}
+
+	/**
+	 * Lengths come from the content, so large ones are read in chunks instead of trusted.
+	 */
+	byte[] readBytes(long length) throws IOException {
+		if (length < 0 || length > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Content of " + Long.toUnsignedString(length) + " bytes is too large");
+		}
+		if (length <= CHUNK) {
+			byte[] bytes = new byte[(int) length];
+			in.readFully(bytes);
+			return bytes;
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(CHUNK);
+		byte[] chunk = new byte[CHUNK];
+		for (long remaining = length; remaining > 0; remaining -= CHUNK) {
+			int size = (int) Math.min(remaining, CHUNK);
+			in.readFully(chunk, 0, size);
+			bytes.write(chunk, 0, size);
+		}
+		return bytes.toByteArray();
+	}
+
+	static JsonArray toArray(byte[] bytes) {
+		JsonArray array = new JsonArray(bytes.length);
+		for (byte b : bytes) {
+			array.add(b);
+		}
+		return array;
+	}
+
+	static String keyOf(JsonElement key) {
+		if (!key.isJsonPrimitive()) {
+			throw new IllegalArgumentException("Only scalar map keys are supported, but found " + key);
+		}
+		return key.getAsString();
+	}
+
+	static JsonPrimitive unsigned(long value) {
+		if (value >= 0) {
+			return new JsonPrimitive(value);
+		}
+		return new JsonPrimitive(new BigInteger(Long.toUnsignedString(value)));
+	}
+}
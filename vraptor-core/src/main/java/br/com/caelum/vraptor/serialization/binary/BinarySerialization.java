@@ -0,0 +1,117 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.serialization.binary;
+
+import static br.com.caelum.vraptor.metrics.TimedSerializer.timed;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletResponse;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+import br.com.caelum.vraptor.core.ReflectionProvider;
+import br.com.caelum.vraptor.interceptor.TypeNameExtractor;
+import br.com.caelum.vraptor.metrics.DispatchMetrics;
+import br.com.caelum.vraptor.serialization.NoRootSerialization;
+import br.com.caelum.vraptor.serialization.Serialization;
+import br.com.caelum.vraptor.serialization.Serializer;
+import br.com.caelum.vraptor.serialization.SerializerBuilder;
+import br.com.caelum.vraptor.serialization.gson.GsonSerializer;
+import br.com.caelum.vraptor.serialization.gson.GsonSerializerBuilder;
+import br.com.caelum.vraptor.view.ResultException;
+
+/**
+ * Serializes the same tree the json serialization does, with the same includes, excludes,
+ * recursion and {@code SkipSerialization} rules, but encoded in a {@link BinaryFormat}.
+ *
+ * @since 4.4
+ */
+public abstract class BinarySerialization implements Serialization {
+
+	private final BinaryFormat format;
+	private final HttpServletResponse response;
+	private final TypeNameExtractor extractor;
+	private final GsonSerializerBuilder builder;
+	private final ReflectionProvider reflectionProvider;
+	private final DispatchMetrics metrics;
+
+	protected BinarySerialization(BinaryFormat format, HttpServletResponse response, TypeNameExtractor extractor,
+			GsonSerializerBuilder builder, ReflectionProvider reflectionProvider, DispatchMetrics metrics) {
+		this.format = format;
+		this.response = response;
+		this.extractor = extractor;
+		this.builder = builder;
+		this.reflectionProvider = reflectionProvider;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public boolean accepts(String format) {
+		return this.format.getFormat().equals(format);
+	}
+
+	@Override
+	public <T> Serializer from(T object) {
+		return from(object, null);
+	}
+
+	@Override
+	public <T> Serializer from(T object, String alias) {
+		response.setContentType(format.getContentType());
+		return timed(getSerializer().from(object, alias), metrics, format.getFormat());
+	}
+
+	protected SerializerBuilder getSerializer() {
+		return new GsonSerializer(builder, null, extractor, reflectionProvider) {
+			private JsonWriter writer;
+
+			@Override
+			protected JsonWriter newJsonWriter(Gson gson) throws IOException {
+				writer = format.newWriter(new BufferedOutputStream(response.getOutputStream()));
+				return writer;
+			}
+
+			@Override
+			public void serialize() {
+				super.serialize();
+				try {
+					writer.flush();
+				} catch (IOException e) {
+					throw new ResultException("Unable to serialize data", e);
+				}
+			}
+		};
+	}
+
+	public NoRootSerialization withoutRoot() {
+		builder.setWithoutRoot(true);
+		return this;
+	}
+
+	public BinarySerialization version(double versionNumber) {
+		builder.version(versionNumber);
+		return this;
+	}
+
+	public BinarySerialization serializeNulls() {
+		builder.serializeNulls();
+		return this;
+	}
+}
@@ -0,0 +1,49 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.serialization.binary;
+
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import javax.servlet.http.HttpServletRequest;
+
+import br.com.caelum.vraptor.http.ParameterNameProvider;
+import br.com.caelum.vraptor.ioc.Container;
+import br.com.caelum.vraptor.serialization.Deserializee;
+import br.com.caelum.vraptor.serialization.Deserializes;
+import br.com.caelum.vraptor.serialization.gson.GsonDeserializerBuilder;
+
+/**
+ * Deserializes CBOR request bodies.
+ *
+ * @since 4.4
+ */
+@Deserializes({ "application/cbor", "cbor" })
+public class CborDeserialization extends BinaryDeserialization {
+
+	/**
+	 * @deprecated CDI eyes only
+	 */
+	protected CborDeserialization() {
+		this(null, null, null, null, null);
+	}
+
+	@Inject
+	public CborDeserialization(GsonDeserializerBuilder builder, ParameterNameProvider paramNameProvider,
+			HttpServletRequest request, Container container, Instance<Deserializee> deserializeeInstance) {
+		super(BinaryFormat.CBOR, builder, paramNameProvider, request, container, deserializeeInstance);
+	}
+}
@@ -0,0 +1,208 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.serialization.binary;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import javax.enterprise.inject.Vetoed;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Reads CBOR (RFC 8949), with definite and indefinite lengths. Tags are ignored, except for
+ * bignums and decimal fractions, that are read as numbers.
+ */
+@Vetoed
+class CborParser extends BinaryParser {
+
+	private static final int BREAK = 0xff;
+	private static final int INDEFINITE = 31;
+	private static final int POSITIVE_BIGNUM = 2;
+	private static final int NEGATIVE_BIGNUM = 3;
+	private static final int DECIMAL_FRACTION = 4;
+	private static final int PAIR = 0x82;
+
+	CborParser(InputStream input) {
+		super(input);
+	}
+
+	@Override
+	JsonElement readValue(int head, int depth) throws IOException {
+		int major = head >>> 5;
+		int info = head & 0x1f;
+		switch (major) {
+		case 0:
+			return unsigned(readArgument(info));
+		case 1:
+			return negative(readArgument(info));
+		case 2:
+			return toArray(readString(2, info));
+		case 3:
+			return new JsonPrimitive(new String(readString(3, info), UTF_8));
+		case 4:
+			return readArray(info, depth);
+		case 5:
+			return readMap(info, depth);
+		case 6:
+			return readTagged(readArgument(info), depth);
+		default:
+			return readSimple(info);
+		}
+	}
+
+	private JsonArray readArray(int info, int depth) throws IOException {
+		JsonArray array = new JsonArray();
+		if (info == INDEFINITE) {
+			for (int head = in.readUnsignedByte(); head != BREAK; head = in.readUnsignedByte()) {
+				array.add(read(head, depth + 1));
+			}
+		} else {
+			for (long i = readArgument(info); i != 0; i--) {
+				array.add(next(depth + 1));
+			}
+		}
+		return array;
+	}
+
+	private JsonObject readMap(int info, int depth) throws IOException {
+		JsonObject map = new JsonObject();
+		if (info == INDEFINITE) {
+			for (int head = in.readUnsignedByte(); head != BREAK; head = in.readUnsignedByte()) {
+				map.add(keyOf(read(head, depth + 1)), next(depth + 1));
+			}
+		} else {
+			for (long i = readArgument(info); i != 0; i--) {
+				map.add(keyOf(next(depth + 1)), next(depth + 1));
+			}
+		}
+		return map;
+	}
+
+	private JsonElement readTagged(long tag, int depth) throws IOException {
+		int head = in.readUnsignedByte();
+		if ((tag == POSITIVE_BIGNUM || tag == NEGATIVE_BIGNUM) && head >>> 5 == 2) {
+			BigInteger value = new BigInteger(1, readString(2, head & 0x1f));
+			return new JsonPrimitive(tag == POSITIVE_BIGNUM ? value : value.not());
+		}
+		if (tag == DECIMAL_FRACTION && head == PAIR) {
+			BigInteger exponent = integerOf(next(depth + 1));
+			BigInteger mantissa = integerOf(next(depth + 1));
+			try {
+				return new JsonPrimitive(new BigDecimal(mantissa, exponent.negate().intValueExact()));
+			} catch (ArithmeticException e) {
+				throw new IllegalArgumentException("CBOR decimal fraction exponent " + exponent + " is too large");
+			}
+		}
+		return read(head, depth + 1);
+	}
+
+	private static BigInteger integerOf(JsonElement element) {
+		if (element.isJsonPrimitive()) {
+			Number number = element.getAsJsonPrimitive().isNumber() ? element.getAsNumber() : null;
+			if (number instanceof Long || number instanceof BigInteger) {
+				return element.getAsBigInteger();
+			}
+		}
+		throw new IllegalArgumentException("Expected an integer in a CBOR decimal fraction, but found " + element);
+	}
+
+	private JsonElement readSimple(int info) throws IOException {
+		switch (info) {
+		case 20:
+			return new JsonPrimitive(false);
+		case 21:
+			return new JsonPrimitive(true);
+		case 22:
+		case 23:
+			return JsonNull.INSTANCE;
+		case 25:
+			return new JsonPrimitive(halfToDouble(in.readUnsignedShort()));
+		case 26:
+			return new JsonPrimitive(in.readFloat());
+		case 27:
+			return new JsonPrimitive(in.readDouble());
+		default:
+			throw new IllegalArgumentException("Unsupported CBOR simple value " + info);
+		}
+	}
+
+	/**
+	 * Indefinite strings are a sequence of definite chunks of the same major type.
+	 */
+	private byte[] readString(int major, int info) throws IOException {
+		if (info != INDEFINITE) {
+			return readBytes(readArgument(info));
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		for (int head = in.readUnsignedByte(); head != BREAK; head = in.readUnsignedByte()) {
+			if (head >>> 5 != major || (head & 0x1f) == INDEFINITE) {
+				throw new IllegalArgumentException("Invalid chunk of an indefinite CBOR string");
+			}
+			bytes.write(readBytes(readArgument(head & 0x1f)));
+		}
+		return bytes.toByteArray();
+	}
+
+	private long readArgument(int info) throws IOException {
+		if (info < 24) {
+			return info;
+		}
+		switch (info) {
+		case 24:
+			return in.readUnsignedByte();
+		case 25:
+			return in.readUnsignedShort();
+		case 26:
+			return in.readInt() & 0xffffffffL;
+		case 27:
+			return in.readLong();
+		default:
+			throw new IllegalArgumentException("Invalid CBOR additional information " + info);
+		}
+	}
+
+	private static JsonPrimitive negative(long argument) {
+		if (argument >= 0) {
+			return new JsonPrimitive(~argument);
+		}
+		return new JsonPrimitive(new BigInteger(Long.toUnsignedString(argument)).not());
+	}
+
+	private static double halfToDouble(int half) {
+		int exponent = (half >>> 10) & 0x1f;
+		int mantissa = half & 0x3ff;
+		double value;
+		if (exponent == 0) {
+			value = mantissa * Math.pow(2, -24);
+		} else if (exponent == 31) {
+			value = mantissa == 0 ? Double.POSITIVE_INFINITY : Double.NaN;
+		} else {
+			value = (mantissa + 1024) * Math.pow(2, exponent - 25);
+		}
+		return (half & 0x8000) == 0 ? value : -value;
+	}
+}
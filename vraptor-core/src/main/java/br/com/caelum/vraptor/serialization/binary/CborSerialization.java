@@ -0,0 +1,48 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.serialization.binary;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.servlet.http.HttpServletResponse;
+
+import br.com.caelum.vraptor.core.ReflectionProvider;
+import br.com.caelum.vraptor.interceptor.TypeNameExtractor;
+import br.com.caelum.vraptor.metrics.DispatchMetrics;
+import br.com.caelum.vraptor.serialization.gson.GsonSerializerBuilder;
+
+/**
+ * Serializes to CBOR, when the {@code cbor} format is accepted.
+ *
+ * @since 4.4
+ */
+@RequestScoped
+public class CborSerialization extends BinarySerialization {
+
+	/**
+	 * @deprecated CDI eyes only
+	 */
+	protected CborSerialization() {
+		this(null, null, null, null, null);
+	}
+
+	@Inject
+	public CborSerialization(HttpServletResponse response, TypeNameExtractor extractor, GsonSerializerBuilder builder,
+			ReflectionProvider reflectionProvider, DispatchMetrics metrics) {
+		super(BinaryFormat.CBOR, response, extractor, builder, reflectionProvider, metrics);
+	}
+}
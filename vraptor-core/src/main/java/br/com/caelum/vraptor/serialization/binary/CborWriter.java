@@ -0,0 +1,174 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.serialization.binary;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import javax.enterprise.inject.Vetoed;
+
+/**
+ * Writes CBOR (RFC 8949). Arrays and maps are written with indefinite lengths, so elements are
+ * sent as soon as they are serialized.
+ */
+@Vetoed
+class CborWriter extends BinaryJsonWriter {
+
+	private static final int UNSIGNED = 0;
+	private static final int NEGATIVE = 1;
+	private static final int BYTES = 2;
+	private static final int TEXT = 3;
+	private static final int TAG = 6;
+	private static final int POSITIVE_BIGNUM = 2;
+	private static final int NEGATIVE_BIGNUM = 3;
+	private static final int DECIMAL_FRACTION = 4;
+	private static final int PAIR = 0x82;
+	private static final int INDEFINITE_ARRAY = 0x9f;
+	private static final int INDEFINITE_MAP = 0xbf;
+	private static final int BREAK = 0xff;
+
+	private int depth;
+
+	CborWriter(OutputStream out) {
+		super(out);
+	}
+
+	@Override
+	void openArray() throws IOException {
+		depth++;
+		out.write(INDEFINITE_ARRAY);
+	}
+
+	@Override
+	void closeArray() throws IOException {
+		end();
+	}
+
+	@Override
+	void openObject() throws IOException {
+		depth++;
+		out.write(INDEFINITE_MAP);
+	}
+
+	@Override
+	void closeObject() throws IOException {
+		end();
+	}
+
+	private void end() throws IOException {
+		if (depth == 0) {
+			throw new IllegalStateException("Nesting problem.");
+		}
+		depth--;
+		out.write(BREAK);
+	}
+
+	@Override
+	void writeName(String name) throws IOException {
+		writeString(name);
+	}
+
+	@Override
+	void writeString(String value) throws IOException {
+		byte[] bytes = value.getBytes(UTF_8);
+		writeHead(TEXT, bytes.length);
+		out.write(bytes);
+	}
+
+	@Override
+	void writeLong(long value) throws IOException {
+		if (value >= 0) {
+			writeHead(UNSIGNED, value);
+		} else {
+			writeHead(NEGATIVE, ~value);
+		}
+	}
+
+	/**
+	 * Values a float holds exactly are written in half of the size.
+	 */
+	@Override
+	void writeDouble(double value) throws IOException {
+		if ((float) value == value || Double.isNaN(value)) {
+			out.write(0xfa);
+			writeBigEndian(out, Float.floatToIntBits((float) value), 4);
+		} else {
+			out.write(0xfb);
+			writeBigEndian(out, Double.doubleToLongBits(value), 8);
+		}
+	}
+
+	/**
+	 * Integers are written as bignums, and other decimals as decimal fractions: the base 10
+	 * exponent followed by the mantissa.
+	 */
+	@Override
+	void writeDecimal(BigDecimal value) throws IOException {
+		if (value.scale() != 0) {
+			writeHead(TAG, DECIMAL_FRACTION);
+			out.write(PAIR);
+			writeLong(-(long) value.scale());
+		}
+		writeInteger(value.unscaledValue());
+	}
+
+	private void writeInteger(BigInteger value) throws IOException {
+		if (value.bitLength() < 64) {
+			writeLong(value.longValue());
+			return;
+		}
+		boolean negative = value.signum() < 0;
+		byte[] bytes = (negative ? value.not() : value).toByteArray();
+		int offset = bytes[0] == 0 ? 1 : 0;
+		writeHead(TAG, negative ? NEGATIVE_BIGNUM : POSITIVE_BIGNUM);
+		writeHead(BYTES, bytes.length - offset);
+		out.write(bytes, offset, bytes.length - offset);
+	}
+
+	@Override
+	void writeBoolean(boolean value) throws IOException {
+		out.write(value ? 0xf5 : 0xf4);
+	}
+
+	@Override
+	void writeNull() throws IOException {
+		out.write(0xf6);
+	}
+
+	private void writeHead(int major, long argument) throws IOException {
+		int type = major << 5;
+		if (argument < 24) {
+			out.write(type | (int) argument);
+		} else if (argument < 0x100) {
+			out.write(type | 24);
+			writeBigEndian(out, argument, 1);
+		} else if (argument < 0x10000) {
+			out.write(type | 25);
+			writeBigEndian(out, argument, 2);
+		} else if (argument < 0x100000000L) {
+			out.write(type | 26);
+			writeBigEndian(out, argument, 4);
+		} else {
+			out.write(type | 27);
+			writeBigEndian(out, argument, 8);
+		}
+	}
+}
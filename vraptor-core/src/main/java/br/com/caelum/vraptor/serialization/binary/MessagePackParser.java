@@ -0,0 +1,124 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.serialization.binary;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.enterprise.inject.Vetoed;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Reads MessagePack. Extension types have no json counterpart, so they are refused.
+ */
+@Vetoed
+class MessagePackParser extends BinaryParser {
+
+	MessagePackParser(InputStream input) {
+		super(input);
+	}
+
+	@Override
+	JsonElement readValue(int head, int depth) throws IOException {
+		if (head < 0x80) {
+			return new JsonPrimitive(head);
+		}
+		if (head >= 0xe0) {
+			return new JsonPrimitive((byte) head);
+		}
+		if (head < 0x90) {
+			return readMap(head & 0x0f, depth);
+		}
+		if (head < 0xa0) {
+			return readArray(head & 0x0f, depth);
+		}
+		if (head < 0xc0) {
+			return new JsonPrimitive(readText(head & 0x1f));
+		}
+		switch (head) {
+		case 0xc0:
+			return JsonNull.INSTANCE;
+		case 0xc2:
+			return new JsonPrimitive(false);
+		case 0xc3:
+			return new JsonPrimitive(true);
+		case 0xc4:
+			return toArray(readBytes(in.readUnsignedByte()));
+		case 0xc5:
+			return toArray(readBytes(in.readUnsignedShort()));
+		case 0xc6:
+			return toArray(readBytes(in.readInt() & 0xffffffffL));
+		case 0xca:
+			return new JsonPrimitive(in.readFloat());
+		case 0xcb:
+			return new JsonPrimitive(in.readDouble());
+		case 0xcc:
+			return new JsonPrimitive(in.readUnsignedByte());
+		case 0xcd:
+			return new JsonPrimitive(in.readUnsignedShort());
+		case 0xce:
+			return new JsonPrimitive(in.readInt() & 0xffffffffL);
+		case 0xcf:
+			return unsigned(in.readLong());
+		case 0xd0:
+			return new JsonPrimitive(in.readByte());
+		case 0xd1:
+			return new JsonPrimitive(in.readShort());
+		case 0xd2:
+			return new JsonPrimitive(in.readInt());
+		case 0xd3:
+			return new JsonPrimitive(in.readLong());
+		case 0xd9:
+			return new JsonPrimitive(readText(in.readUnsignedByte()));
+		case 0xda:
+			return new JsonPrimitive(readText(in.readUnsignedShort()));
+		case 0xdb:
+			return new JsonPrimitive(readText(in.readInt() & 0xffffffffL));
+		case 0xdc:
+			return readArray(in.readUnsignedShort(), depth);
+		case 0xdd:
+			return readArray(in.readInt() & 0xffffffffL, depth);
+		case 0xde:
+			return readMap(in.readUnsignedShort(), depth);
+		case 0xdf:
+			return readMap(in.readInt() & 0xffffffffL, depth);
+		default:
+			throw new IllegalArgumentException("Unsupported MessagePack type 0x" + Integer.toHexString(head));
+		}
+	}
+
+	private JsonArray readArray(long size, int depth) throws IOException {
+		JsonArray array = new JsonArray();
+		for (long i = 0; i < size; i++) {
+			array.add(next(depth + 1));
+		}
+		return array;
+	}
+
+	private JsonObject readMap(long size, int depth) throws IOException {
+		JsonObject map = new JsonObject();
+		for (long i = 0; i < size; i++) {
+			map.add(keyOf(next(depth + 1)), next(depth + 1));
+		}
+		return map;
+	}
+}
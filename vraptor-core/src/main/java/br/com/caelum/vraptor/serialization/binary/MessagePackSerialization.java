@@ -0,0 +1,53 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.serialization.binary;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.servlet.http.HttpServletResponse;
+
+import br.com.caelum.vraptor.core.ReflectionProvider;
+import br.com.caelum.vraptor.interceptor.TypeNameExtractor;
+import br.com.caelum.vraptor.metrics.DispatchMetrics;
+import br.com.caelum.vraptor.serialization.Streamed;
+import br.com.caelum.vraptor.serialization.gson.GsonSerializerBuilder;
+
+/**
+ * Serializes to MessagePack, when the {@code msgpack} format is accepted.
+ * <p>
+ * MessagePack arrays and maps start with their sizes, so each of them is kept in memory until it
+ * ends. This includes the list of {@link Streamed} elements: all of them are serialized before
+ * the first byte is sent. Large streamed results are better served as json or cbor.
+ *
+ * @since 4.4
+ */
+@RequestScoped
+public class MessagePackSerialization extends BinarySerialization {
+
+	/**
+	 * @deprecated CDI eyes only
+	 */
+	protected MessagePackSerialization() {
+		this(null, null, null, null, null);
+	}
+
+	@Inject
+	public MessagePackSerialization(HttpServletResponse response, TypeNameExtractor extractor, GsonSerializerBuilder builder,
+			ReflectionProvider reflectionProvider, DispatchMetrics metrics) {
+		super(BinaryFormat.MESSAGE_PACK, response, extractor, builder, reflectionProvider, metrics);
+	}
+}
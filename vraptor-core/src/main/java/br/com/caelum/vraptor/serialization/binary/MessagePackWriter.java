@@ -0,0 +1,262 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.serialization.binary;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.enterprise.inject.Vetoed;
+
+/**
+ * Writes MessagePack. Its arrays and maps start with their sizes, so each open container is
+ * buffered until it ends. The buffers are reused by the containers of the same depth.
+ */
+@Vetoed
+class MessagePackWriter extends BinaryJsonWriter {
+
+	private final List<Container> containers = new ArrayList<>();
+	private int depth;
+
+	MessagePackWriter(OutputStream out) {
+		super(out);
+	}
+
+	@Override
+	void openArray() throws IOException {
+		open(false);
+	}
+
+	@Override
+	void closeArray() throws IOException {
+		Container container = close(false);
+		int size = container.size;
+		if (size < 16) {
+			sink().write(0x90 | size);
+		} else if (size < 0x10000) {
+			sink().write(0xdc);
+			writeBigEndian(sink(), size, 2);
+		} else {
+			sink().write(0xdd);
+			writeBigEndian(sink(), size, 4);
+		}
+		container.writeTo(sink());
+	}
+
+	@Override
+	void openObject() throws IOException {
+		open(true);
+	}
+
+	@Override
+	void closeObject() throws IOException {
+		Container container = close(true);
+		int size = container.size;
+		if (size < 16) {
+			sink().write(0x80 | size);
+		} else if (size < 0x10000) {
+			sink().write(0xde);
+			writeBigEndian(sink(), size, 2);
+		} else {
+			sink().write(0xdf);
+			writeBigEndian(sink(), size, 4);
+		}
+		container.writeTo(sink());
+	}
+
+	private void open(boolean map) {
+		element();
+		if (containers.size() == depth) {
+			containers.add(new Container());
+		}
+		containers.get(depth++).reset(map);
+	}
+
+	private Container close(boolean map) {
+		if (depth == 0 || containers.get(depth - 1).map != map) {
+			throw new IllegalStateException("Nesting problem.");
+		}
+		return containers.get(--depth);
+	}
+
+	@Override
+	void writeName(String name) throws IOException {
+		if (depth == 0 || !containers.get(depth - 1).map) {
+			throw new IllegalStateException("Names must be written inside objects");
+		}
+		containers.get(depth - 1).size++;
+		writeText(name);
+	}
+
+	@Override
+	void writeString(String value) throws IOException {
+		element();
+		writeText(value);
+	}
+
+	private void writeText(String value) throws IOException {
+		byte[] bytes = value.getBytes(UTF_8);
+		OutputStream sink = sink();
+		if (bytes.length < 32) {
+			sink.write(0xa0 | bytes.length);
+		} else if (bytes.length < 0x100) {
+			sink.write(0xd9);
+			writeBigEndian(sink, bytes.length, 1);
+		} else if (bytes.length < 0x10000) {
+			sink.write(0xda);
+			writeBigEndian(sink, bytes.length, 2);
+		} else {
+			sink.write(0xdb);
+			writeBigEndian(sink, bytes.length, 4);
+		}
+		sink.write(bytes);
+	}
+
+	@Override
+	void writeLong(long value) throws IOException {
+		element();
+		OutputStream sink = sink();
+		if (value >= 0) {
+			if (value < 0x80) {
+				sink.write((int) value);
+			} else if (value < 0x100) {
+				sink.write(0xcc);
+				writeBigEndian(sink, value, 1);
+			} else if (value < 0x10000) {
+				sink.write(0xcd);
+				writeBigEndian(sink, value, 2);
+			} else if (value < 0x100000000L) {
+				sink.write(0xce);
+				writeBigEndian(sink, value, 4);
+			} else {
+				sink.write(0xcf);
+				writeBigEndian(sink, value, 8);
+			}
+		} else if (value >= -32) {
+			sink.write((int) value & 0xff);
+		} else if (value >= Byte.MIN_VALUE) {
+			sink.write(0xd0);
+			writeBigEndian(sink, value, 1);
+		} else if (value >= Short.MIN_VALUE) {
+			sink.write(0xd1);
+			writeBigEndian(sink, value, 2);
+		} else if (value >= Integer.MIN_VALUE) {
+			sink.write(0xd2);
+			writeBigEndian(sink, value, 4);
+		} else {
+			sink.write(0xd3);
+			writeBigEndian(sink, value, 8);
+		}
+	}
+
+	/**
+	 * Values a float holds exactly are written in half of the size.
+	 */
+	@Override
+	void writeDouble(double value) throws IOException {
+		element();
+		OutputStream sink = sink();
+		if ((float) value == value || Double.isNaN(value)) {
+			sink.write(0xca);
+			writeBigEndian(sink, Float.floatToIntBits((float) value), 4);
+		} else {
+			sink.write(0xcb);
+			writeBigEndian(sink, Double.doubleToLongBits(value), 8);
+		}
+	}
+
+	/**
+	 * MessagePack has no decimal type, so decimals are written as their text.
+	 */
+	@Override
+	void writeDecimal(BigDecimal value) throws IOException {
+		writeString(value.toString());
+	}
+
+	@Override
+	void writeBoolean(boolean value) throws IOException {
+		element();
+		sink().write(value ? 0xc3 : 0xc2);
+	}
+
+	@Override
+	void writeNull() throws IOException {
+		element();
+		sink().write(0xc0);
+	}
+
+	/**
+	 * Counts the elements of arrays. The entries of maps are counted by their names.
+	 */
+	private void element() {
+		if (depth > 0 && !containers.get(depth - 1).map) {
+			containers.get(depth - 1).size++;
+		}
+	}
+
+	private OutputStream sink() {
+		return depth == 0 ? out : containers.get(depth - 1);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (depth == 0) {
+			super.flush();
+		}
+	}
+
+	private static class Container extends OutputStream {
+		private byte[] bytes = new byte[256];
+		private int count;
+		private boolean map;
+		private int size;
+
+		void reset(boolean map) {
+			this.map = map;
+			this.size = 0;
+			this.count = 0;
+		}
+
+		@Override
+		public void write(int b) {
+			ensureCapacity(count + 1);
+			bytes[count++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] b, int offset, int length) {
+			ensureCapacity(count + length);
+			System.arraycopy(b, offset, bytes, count, length);
+			count += length;
+		}
+
+		private void ensureCapacity(int capacity) {
+			if (capacity > bytes.length) {
+				bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+			}
+		}
+
+		void writeTo(OutputStream sink) throws IOException {
+			sink.write(bytes, 0, count);
+		}
+	}
+}
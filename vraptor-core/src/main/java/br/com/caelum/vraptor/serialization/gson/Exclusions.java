@@ -15,14 +15,11 @@
  */
 package br.com.caelum.vraptor.serialization.gson;
 
-import static br.com.caelum.vraptor.serialization.gson.GsonSerializer.shouldSerializeField;
-
-import java.lang.reflect.Field;
-import java.util.Map.Entry;
-
 import javax.enterprise.inject.Vetoed;
 
 import br.com.caelum.vraptor.core.ReflectionProvider;
+import br.com.caelum.vraptor.serialization.InclusionPlan;
+import br.com.caelum.vraptor.serialization.InclusionPlan.Inclusion;
 import br.com.caelum.vraptor.serialization.Serializee;
 import br.com.caelum.vraptor.serialization.SkipSerialization;
 
@@ -39,11 +36,33 @@ import com.google.gson.FieldAttributes;
 public class Exclusions implements ExclusionStrategy {
 
 	private final Serializee serializee;
-	private final ReflectionProvider reflectionProvider;
+	private final InclusionPlan plan;
 
+	/**
+	 * @deprecated Prefer using {@link Exclusions#Exclusions(Serializee)}
+	 */
 	public Exclusions(Serializee serializee, ReflectionProvider reflectionProvider) {
+		this(serializee);
+	}
+
+	/**
+	 * Skips fields as the current includes and excludes of the serializee say.
+	 *
+	 * @since 4.4
+	 */
+	public Exclusions(Serializee serializee) {
 		this.serializee = serializee;
-		this.reflectionProvider = reflectionProvider;
+		this.plan = null;
+	}
+
+	/**
+	 * Skips fields as the given plan says, no matter later changes on the serializee it came from.
+	 *
+	 * @since 4.4
+	 */
+	public Exclusions(InclusionPlan plan) {
+		this.serializee = null;
+		this.plan = plan;
 	}
 
 	@Override
@@ -52,27 +71,13 @@ public class Exclusions implements ExclusionStrategy {
 		if (annotation != null)
 			return true;
 		
-		String fieldName = f.getName();
-		Class<?> definedIn = f.getDeclaringClass();
-
-		for (Entry<String, Class<?>> include : serializee.getIncludes().entries()) {
-			if (isCompatiblePath(include, definedIn, fieldName)) {
-				return false;
-			}
-		}
-		for (Entry<String, Class<?>> exclude : serializee.getExcludes().entries()) {
-			if (isCompatiblePath(exclude, definedIn, fieldName)) {
-				return true;
-			}
-		}
-		
-		Field field = reflectionProvider.getField(definedIn, fieldName);
-		return !serializee.isRecursive() && !shouldSerializeField(field.getType());
+		InclusionPlan current = plan != null ? plan : serializee.getInclusionPlan();
+		Inclusion inclusion = current.inclusionOf(f.getDeclaringClass(), f.getName());
+		return inclusion == Inclusion.EXCLUDED || inclusion == Inclusion.SKIPPED;
 	}
 
-	private boolean isCompatiblePath(Entry<String, Class<?>> path, Class<?> definedIn, String fieldName) {
-		return path.getValue().equals(definedIn) && (path.getKey().equals(fieldName) || 
-				path.getKey().endsWith("." + fieldName));
+	boolean isFor(Serializee serializee) {
+		return this.serializee == serializee;
 	}
 
 	@Override
@@ -20,13 +20,18 @@ import static java.util.Collections.singletonList;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 import javax.enterprise.context.Dependent;
 import javax.enterprise.inject.Any;
 import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
 
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.gson.ExclusionStrategy;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -34,10 +39,21 @@ import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonSerializer;
 
 import br.com.caelum.vraptor.core.ReflectionProvider;
+import br.com.caelum.vraptor.serialization.InclusionPlan;
 import br.com.caelum.vraptor.serialization.Serializee;
 
 /**
  * Builder Wrapper for JSON using GSON.
+ * <p>
+ * When a {@link GsonCache} is available, the created {@link Gson} instances are shared by every
+ * wrapper with the same adapters, indentation, version, null serialization and includes,
+ * excludes and recursion of the {@link Serializee}, so Gson reuses the type adapters it already
+ * created. Subclasses and wrappers with custom exclusion strategies always create a new instance.
+ * <p>
+ * As a cached instance keeps the adapters of the request that created it, {@link JsonSerializer}s
+ * and {@link JsonDeserializer}s must be stateless: they must not keep anything of a request in
+ * their fields. The {@link GsonCache} checks the scopes of the adapters and of their dependencies,
+ * and nothing is cached if some of them may hold request state.
  * 
  * @author Rafael Dipold
  */
@@ -52,20 +68,77 @@ public class GsonBuilderWrapper implements GsonSerializerBuilder, GsonDeserializ
 	private final Serializee serializee;
 	private final Iterable<JsonSerializer<?>> jsonSerializers;
 	private final Iterable<JsonDeserializer<?>> jsonDeserializers;
+	private final GsonCache cache;
+
+	private boolean indented;
+	private Double version;
+	private boolean serializeNulls;
+	private boolean customStrategies;
+	private boolean deserializationExclusions;
+
+	/**
+	 * @deprecated Prefer using {@link GsonBuilderWrapper#GsonBuilderWrapper(Instance, Instance,
+	 *             Serializee, ReflectionProvider, GsonCache)}
+	 */
+	public GsonBuilderWrapper(Instance<JsonSerializer<?>> jsonSerializers, 
+			Instance<JsonDeserializer<?>> jsonDeserializers,
+			Serializee serializee, ReflectionProvider reflectionProvider) {
+		this(jsonSerializers, jsonDeserializers, serializee, reflectionProvider, null);
+	}
 
 	@Inject
 	public GsonBuilderWrapper(@Any Instance<JsonSerializer<?>> jsonSerializers, 
 			@Any Instance<JsonDeserializer<?>> jsonDeserializers,
-			Serializee serializee, ReflectionProvider reflectionProvider) {
+			Serializee serializee, ReflectionProvider reflectionProvider, GsonCache cache) {
 		this.jsonSerializers = jsonSerializers;
 		this.jsonDeserializers = jsonDeserializers;
 		this.serializee = serializee;
-		ExclusionStrategy exclusion = new Exclusions(serializee, reflectionProvider);
+		this.cache = cache;
+		ExclusionStrategy exclusion = new Exclusions(serializee);
 		exclusions = singletonList(exclusion);
 	}
 
+	/**
+	 * Creates the {@link Gson}, or reuses the one cached for the same configuration. The adapters
+	 * are only resolved when a new instance is created, and the instance holds the adapters of the
+	 * request that created it.
+	 */
 	@Override
 	public Gson create() {
+		if (cache == null || !cache.isCacheable() || customStrategies || getClass() != GsonBuilderWrapper.class) {
+			return createUncached();
+		}
+
+		List<Class<?>> adapterClasses = cache.getAdapterClasses();
+		if (adapterClasses == null) {
+			adapterClasses = new ArrayList<>();
+			for (Object adapter : adapters()) {
+				adapterClasses.add(extractRawTypeIfPossible(adapter.getClass()));
+			}
+		}
+
+		final Configuration configuration = new Configuration(adapterClasses, indented, version, serializeNulls,
+				deserializationExclusions, serializee);
+		return cache.gsonFor(configuration, new Supplier<Gson>() {
+			@Override
+			public Gson get() {
+				return configuration.create(adapters());
+			}
+		});
+	}
+
+	private List<Object> adapters() {
+		List<Object> adapters = new ArrayList<>();
+		for (Object adapter : jsonSerializers) {
+			adapters.add(adapter);
+		}
+		for (Object adapter : jsonDeserializers) {
+			adapters.add(adapter);
+		}
+		return adapters;
+	}
+
+	private Gson createUncached() {
 		for (JsonSerializer<?> adapter : jsonSerializers) {
 			registerAdapter(getAdapterType(adapter), adapter);
 		}
@@ -82,15 +155,19 @@ public class GsonBuilderWrapper implements GsonSerializerBuilder, GsonDeserializ
 	}
 	
 	protected void registerAdapter(Class<?> adapterType, Object adapter) {
+		register(getGsonBuilder(), adapterType, adapter);
+	}
+
+	private static void register(GsonBuilder builder, Class<?> adapterType, Object adapter) {
 		RegisterStrategy registerStrategy = adapter.getClass().getAnnotation(RegisterStrategy.class);
 		if ((registerStrategy != null) && (registerStrategy.value().equals(RegisterType.SINGLE))) {
-			getGsonBuilder().registerTypeAdapter(adapterType, adapter);
+			builder.registerTypeAdapter(adapterType, adapter);
 		} else {
-			getGsonBuilder().registerTypeHierarchyAdapter(adapterType, adapter);
+			builder.registerTypeHierarchyAdapter(adapterType, adapter);
 		}	
 	}
 	
-	private Class<?> getAdapterType(Object adapter) {
+	private static Class<?> getAdapterType(Object adapter) {
 		final Class<?> klazz = extractRawTypeIfPossible(adapter.getClass());
 		final Type[] genericInterfaces = klazz.getGenericInterfaces();
 		final ParameterizedType type = (ParameterizedType) genericInterfaces[0];
@@ -130,11 +207,18 @@ public class GsonBuilderWrapper implements GsonSerializerBuilder, GsonDeserializ
 
 	@Override
 	public void indented() {
+		indented = true;
 		getGsonBuilder().setPrettyPrinting();
 	}
 
 	@Override
 	public void setExclusionStrategies(ExclusionStrategy... strategies) {
+		for (ExclusionStrategy strategy : strategies) {
+			if (!(strategy instanceof Exclusions) || !((Exclusions) strategy).isFor(serializee)) {
+				customStrategies = true;
+			}
+		}
+		deserializationExclusions = true;
 		getGsonBuilder().setExclusionStrategies(strategies);
 	}
 
@@ -144,12 +228,86 @@ public class GsonBuilderWrapper implements GsonSerializerBuilder, GsonDeserializ
 
 	@Override
 	public void version(double versionNumber) {
+		version = versionNumber;
 		getGsonBuilder().setVersion(versionNumber);
 	}
 
 	@Override
 	public void serializeNulls() {
+		serializeNulls = true;
 		getGsonBuilder().serializeNulls();
 	}
 
+	/**
+	 * Everything that changes the behavior of a created {@link Gson}. The includes and excludes
+	 * are copied and compiled, so the cached instance doesn't see later changes on the
+	 * {@link Serializee}.
+	 */
+	private static final class Configuration {
+		private final List<Class<?>> adapters;
+		private final boolean indented;
+		private final Double version;
+		private final boolean serializeNulls;
+		private final boolean deserializationExclusions;
+		private final ImmutableSetMultimap<String, Class<?>> includes;
+		private final ImmutableSetMultimap<String, Class<?>> excludes;
+		private final boolean recursive;
+		private final InclusionPlan plan;
+
+		Configuration(List<Class<?>> adapters, boolean indented, Double version, boolean serializeNulls,
+				boolean deserializationExclusions, Serializee serializee) {
+			this.adapters = ImmutableList.copyOf(adapters);
+			this.indented = indented;
+			this.version = version;
+			this.serializeNulls = serializeNulls;
+			this.deserializationExclusions = deserializationExclusions;
+			this.includes = ImmutableSetMultimap.copyOf(serializee.getIncludes());
+			this.excludes = ImmutableSetMultimap.copyOf(serializee.getExcludes());
+			this.recursive = serializee.isRecursive();
+			this.plan = serializee.getInclusionPlan();
+		}
+
+		Gson create(List<Object> instances) {
+			GsonBuilder builder = new GsonBuilder();
+			for (Object adapter : instances) {
+				register(builder, getAdapterType(adapter), adapter);
+			}
+
+			Exclusions exclusions = new Exclusions(plan);
+			builder.addSerializationExclusionStrategy(exclusions);
+			if (deserializationExclusions) {
+				builder.addDeserializationExclusionStrategy(exclusions);
+			}
+
+			if (indented) {
+				builder.setPrettyPrinting();
+			}
+			if (version != null) {
+				builder.setVersion(version);
+			}
+			if (serializeNulls) {
+				builder.serializeNulls();
+			}
+			return builder.create();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Configuration)) {
+				return false;
+			}
+			Configuration other = (Configuration) obj;
+			return indented == other.indented && serializeNulls == other.serializeNulls
+					&& deserializationExclusions == other.deserializationExclusions && recursive == other.recursive
+					&& Objects.equals(version, other.version) && adapters.equals(other.adapters)
+					&& includes.equals(other.includes) && excludes.equals(other.excludes);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(adapters, indented, version, serializeNulls, deserializationExclusions, includes,
+					excludes, recursive);
+		}
+	}
+
 }
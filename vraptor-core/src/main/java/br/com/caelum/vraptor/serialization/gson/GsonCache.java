@@ -0,0 +1,155 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.serialization.gson;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Any;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.InjectionPoint;
+import javax.enterprise.util.TypeLiteral;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
+import com.google.gson.Gson;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonSerializer;
+
+import br.com.caelum.vraptor.cache.CacheStore;
+import br.com.caelum.vraptor.cache.TinyLFU;
+
+/**
+ * Keeps the {@link Gson} instances created by {@link GsonBuilderWrapper} for each configuration,
+ * so the type adapters Gson creates for each serialized type are reused between requests.
+ * <p>
+ * The classes of the {@link JsonSerializer} and {@link JsonDeserializer} beans are found once, from
+ * their bean metadata, so wrappers only resolve the adapters when a new instance is created. A
+ * cached instance outlives the request that created it, so nothing is cached if an adapter may
+ * hold request state: every adapter must be normal scoped, {@link Singleton}, or dependent with
+ * only normal scoped or singleton dependencies, which are injected through their proxies.
+ *
+ * @since 4.4
+ */
+@ApplicationScoped
+public class GsonCache {
+
+	private static final Logger logger = LogManager.getLogger(GsonCache.class);
+
+	private static final Type SERIALIZERS = new TypeLiteral<JsonSerializer<?>>() {}.getType();
+	private static final Type DESERIALIZERS = new TypeLiteral<JsonDeserializer<?>>() {}.getType();
+
+	private final CacheStore<Object, Gson> instances;
+	private final BeanManager beanManager;
+	private List<Class<?>> adapters;
+	private boolean cacheable = true;
+
+	/**
+	 * @deprecated CDI eyes only
+	 */
+	protected GsonCache() {
+		this(null);
+	}
+
+	/**
+	 * A cache without bean metadata, where the adapters are found out from each wrapper.
+	 */
+	public GsonCache(CacheStore<Object, Gson> instances) {
+		this(instances, null);
+	}
+
+	@Inject
+	public GsonCache(@TinyLFU(capacity = 500) CacheStore<Object, Gson> instances, BeanManager beanManager) {
+		this.instances = instances;
+		this.beanManager = beanManager;
+	}
+
+	@PostConstruct
+	public void init() {
+		if (beanManager == null) {
+			return;
+		}
+
+		List<Class<?>> classes = new ArrayList<>();
+		for (Type type : new Type[] { SERIALIZERS, DESERIALIZERS }) {
+			for (Bean<?> bean : beanManager.getBeans(type, Any.Literal.INSTANCE)) {
+				if (!isStateless(bean)) {
+					logger.info("Gson instances will not be cached, since {} may hold request state", bean);
+					cacheable = false;
+				}
+				classes.add(bean.getBeanClass());
+			}
+		}
+		adapters = ImmutableList.copyOf(classes);
+	}
+
+	/**
+	 * Returns {@code false} if some adapter may hold request state, so instances must not be shared.
+	 */
+	public boolean isCacheable() {
+		return cacheable;
+	}
+
+	/**
+	 * Returns the classes of the adapters, or {@code null} if they are unknown and must be found out
+	 * from the adapters of each wrapper.
+	 */
+	public List<Class<?>> getAdapterClasses() {
+		return adapters;
+	}
+
+	/**
+	 * Returns the instance for the given configuration, creating it with the given supplier only
+	 * once. The configuration must implement {@code equals} and {@code hashCode}, and the supplied
+	 * instance must not depend on request state.
+	 */
+	public Gson gsonFor(Object configuration, Supplier<Gson> supplier) {
+		return instances.fetch(configuration, supplier);
+	}
+
+	private boolean isStateless(Bean<?> bean) {
+		if (isShared(bean)) {
+			return true;
+		}
+		for (InjectionPoint point : bean.getInjectionPoints()) {
+			Annotation[] qualifiers = point.getQualifiers().toArray(new Annotation[0]);
+			Bean<?> dependency = beanManager.resolve(beanManager.getBeans(point.getType(), qualifiers));
+			if (dependency == null || !isShared(dependency)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Normal scoped beans are injected through proxies that find the instance of the current
+	 * context, and singletons are the same on every request.
+	 */
+	private boolean isShared(Bean<?> bean) {
+		return beanManager.isNormalScope(bean.getScope()) || bean.getScope() == Singleton.class;
+	}
+}
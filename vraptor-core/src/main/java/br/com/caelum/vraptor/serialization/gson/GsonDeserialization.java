@@ -16,11 +16,13 @@
 package br.com.caelum.vraptor.serialization.gson;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
-import static com.google.common.base.Strings.isNullOrEmpty;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
@@ -35,10 +37,11 @@ import org.apache.logging.log4j.Logger;
 
 import com.google.common.io.CharStreams;
 import com.google.gson.Gson;
-import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 import br.com.caelum.vraptor.Consumes;
 import br.com.caelum.vraptor.controller.ControllerMethod;
@@ -52,7 +55,8 @@ import br.com.caelum.vraptor.serialization.Deserializes;
 import br.com.caelum.vraptor.view.ResultException;
 
 /**
- * A GSON deserializer.
+ * A GSON deserializer. The request body is read as a stream, and each parameter is bound as
+ * soon as it is found.
  * @author Renan Reis
  * @author Guilherme Mangabeira
  */
@@ -88,8 +92,75 @@ public class GsonDeserialization implements Deserializer {
 
 	@Override
 	public Object[] deserialize(InputStream inputStream, ControllerMethod method) {
+		JsonReader reader;
+		try {
+			reader = new JsonReader(getReaderOf(inputStream));
+		} catch (IOException | RuntimeException e) {
+			throw new ResultException("Unable to deserialize data", e);
+		}
+		return deserialize(reader, method);
+	}
+
+	/**
+	 * Binds a tree that was already parsed to the parameters, with the same rules used for the
+	 * request body. Deserializers of other representations of the same tree can parse their content
+	 * and call this. The tree is bound directly, without being written back as json.
+	 *
+	 * @param tree the parsed content, or {@code null} if there is no content.
+	 * @since 4.4
+	 */
+	public Object[] deserialize(JsonElement tree, ControllerMethod method) {
 		Class<?>[] types = getTypes(method);
-		
+		Gson gson = gsonFor(method, types);
+		final Parameter[] parameterNames = paramNameProvider.parametersFor(method.getMethod());
+		final Object[] values = new Object[parameterNames.length];
+		final Deserializee deserializee = deserializeeInstance.get();
+
+		try {
+			if (tree != null && tree.isJsonObject()) {
+				Consumes consumes = method.getMethod().getAnnotation(Consumes.class);
+				deserializeObject(tree.getAsJsonObject(), gson, deserializee, consumes.options(), parameterNames, types, values);
+			} else if (tree != null && tree.isJsonArray()) {
+				values[0] = gson.fromJson(tree, arrayTypeOf(parameterNames));
+			} else if (tree != null && !tree.isJsonNull()) {
+				throw new IllegalArgumentException("This is an invalid or not supported json content");
+			}
+		} catch (Exception e) {
+			throw new ResultException("Unable to deserialize data", e);
+		}
+
+		logger.debug("tree deserialized: {}", (Object) values);
+		return values;
+	}
+
+	private Object[] deserialize(JsonReader reader, ControllerMethod method) {
+		Class<?>[] types = getTypes(method);
+		Gson gson = gsonFor(method, types);
+		final Parameter[] parameterNames = paramNameProvider.parametersFor(method.getMethod());
+		final Object[] values = new Object[parameterNames.length];
+		final Deserializee deserializee = deserializeeInstance.get();
+
+		try {
+			reader.setLenient(true);
+			JsonToken token = firstTokenOf(reader);
+
+			if (token == JsonToken.BEGIN_OBJECT) {
+				Consumes consumes = method.getMethod().getAnnotation(Consumes.class);
+				deserializeObject(reader, gson, deserializee, consumes.options(), parameterNames, types, values);
+			} else if (token == JsonToken.BEGIN_ARRAY) {
+				values[0] = gson.fromJson(reader, arrayTypeOf(parameterNames));
+			} else if (token != null) {
+				throw new IllegalArgumentException("This is an invalid or not supported json content");
+			}
+		} catch (Exception e) {
+			throw new ResultException("Unable to deserialize data", e);
+		}
+
+		logger.debug("json deserialized: {}", (Object) values);
+		return values;
+	}
+
+	private Gson gsonFor(ControllerMethod method, Class<?>[] types) {
 		if (types.length == 0) {
 			throw new IllegalArgumentException("Methods that consumes representations must receive just one argument");
 		}
@@ -109,67 +180,149 @@ public class GsonDeserialization implements Deserializer {
 		}else {
 			gson = builder.create();
 		}
-		
-		final Parameter[] parameterNames = paramNameProvider.parametersFor(method.getMethod());
-		final Object[] values = new Object[parameterNames.length];
-		final Deserializee deserializee = deserializeeInstance.get();
+		return gson;
+	}
 
-		try {
-			String content = getContentOfStream(inputStream);
-			logger.debug("json retrieved: {}", content);
-			
-			if (!isNullOrEmpty(content)) {
-				JsonParser parser = new JsonParser();
-				JsonElement jsonElement = parser.parse(content);
-				if (jsonElement.isJsonObject()) {
-					JsonObject root = jsonElement.getAsJsonObject();
-		
-					deserializee.setWithoutRoot(isWithoutRoot(parameterNames, root));
-					
-					for(Class<? extends DeserializerConfig> option: method.getMethod().getAnnotation(Consumes.class).options()) {
-						DeserializerConfig config = container.instanceFor(option);
-						config.config(deserializee);
-					}
-					
-					for (int i = 0; i < types.length; i++) {
-						Parameter parameter = parameterNames[i];
-						JsonElement node = root.get(parameter.getName());
-						
-						if (deserializee.isWithoutRoot()) { 
-							values[i] = gson.fromJson(root, fallbackTo(parameter.getParameterizedType(), types[i]));
-							logger.debug("json without root deserialized");
-							break;
-
-						} else if (node != null) {
-							if (node.isJsonArray()) {
-								JsonArray jsonArray= node.getAsJsonArray();
-								Type type = parameter.getParameterizedType();
-								if (type instanceof ParameterizedType) {
-									values[i] = gson.fromJson(jsonArray, type);
-								} else {
-									values[i] = gson.fromJson(jsonArray, types[i]);
-								}
-							} else {
-								values[i] = gson.fromJson(node, types[i]);
-							}
-						}
-					}
-				} else if (jsonElement.isJsonArray()) {
-					if ((parameterNames.length != 1) || (!(parameterNames[0].getParameterizedType() instanceof ParameterizedType)))
-						throw new IllegalArgumentException("Methods that consumes an array representation must receive only just one collection generic typed argument");
-
-					JsonArray jsonArray= jsonElement.getAsJsonArray();
-					values[0] = gson.fromJson(jsonArray, parameterNames[0].getParameterizedType());
-				} else {
-					throw new IllegalArgumentException("This is an invalid or not supported json content");
-				}
+	private static Type arrayTypeOf(Parameter[] parameterNames) {
+		if ((parameterNames.length != 1) || (!(parameterNames[0].getParameterizedType() instanceof ParameterizedType)))
+			throw new IllegalArgumentException("Methods that consumes an array representation must receive only just one collection generic typed argument");
+
+		return parameterNames[0].getParameterizedType();
+	}
+
+	/**
+	 * Binds each root property named after a parameter straight from the stream. Without a
+	 * {@link DeserializerConfig} telling whether the json has a root, the properties read before
+	 * finding a parameter are kept, since if no parameter is found the whole object is the value of
+	 * the first parameter.
+	 */
+	private void deserializeObject(JsonReader reader, Gson gson, Deserializee deserializee,
+			Class<? extends DeserializerConfig>[] options, Parameter[] parameterNames, Class<?>[] types,
+			Object[] values) throws IOException {
+		Boolean withoutRoot = configuredWithoutRoot(deserializee, options);
+		if (Boolean.TRUE.equals(withoutRoot)) {
+			values[0] = gson.fromJson(reader, fallbackTo(parameterNames[0].getParameterizedType(), types[0]));
+			logger.debug("json without root deserialized");
+			return;
+		}
+
+		JsonObject root = withoutRoot == null ? new JsonObject() : null;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			int i = indexOf(parameterNames, name);
+			if (i >= 0) {
+				values[i] = gson.fromJson(reader, typeOf(reader.peek() == JsonToken.BEGIN_ARRAY, parameterNames[i], types[i]));
+				root = null;
+			} else if (root != null) {
+				root.add(name, JsonParser.parseReader(reader));
+			} else {
+				reader.skipValue();
 			}
-		} catch (Exception e) {
-			throw new ResultException("Unable to deserialize data", e);
 		}
+		reader.endObject();
 
-		logger.debug("json deserialized: {}", (Object) values);
-		return values;
+		deserializee.setWithoutRoot(root != null);
+		if (root != null) {
+			values[0] = gson.fromJson(root, fallbackTo(parameterNames[0].getParameterizedType(), types[0]));
+			logger.debug("json without root deserialized");
+		}
+	}
+
+	/**
+	 * Binds each root property named after a parameter. As on the stream, if the {@link Consumes}
+	 * options don't tell whether the json has a root and no parameter is found, the whole object is
+	 * the value of the first parameter.
+	 */
+	private void deserializeObject(JsonObject root, Gson gson, Deserializee deserializee,
+			Class<? extends DeserializerConfig>[] options, Parameter[] parameterNames, Class<?>[] types,
+			Object[] values) {
+		Boolean withoutRoot = configuredWithoutRoot(deserializee, options);
+		if (withoutRoot == null) {
+			withoutRoot = !hasAnyOf(parameterNames, root);
+			deserializee.setWithoutRoot(withoutRoot);
+		}
+		if (withoutRoot) {
+			values[0] = gson.fromJson(root, fallbackTo(parameterNames[0].getParameterizedType(), types[0]));
+			logger.debug("json without root deserialized");
+			return;
+		}
+
+		for (int i = 0; i < parameterNames.length; i++) {
+			JsonElement node = root.get(parameterNames[i].getName());
+			if (node != null) {
+				values[i] = gson.fromJson(node, typeOf(node.isJsonArray(), parameterNames[i], types[i]));
+			}
+		}
+	}
+
+	private static boolean hasAnyOf(Parameter[] parameters, JsonObject root) {
+		for (Parameter parameter : parameters) {
+			if (root.has(parameter.getName())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Runs the {@link Consumes} options once, on a {@link Deserializee} that records whether they
+	 * set if the json has a root.
+	 *
+	 * @return the value set by the options, or {@code null} if they don't set any and it must be
+	 *         found out from the json.
+	 */
+	private Boolean configuredWithoutRoot(Deserializee deserializee, Class<? extends DeserializerConfig>[] options) {
+		if (options.length == 0) {
+			return null;
+		}
+		RecordingDeserializee recorder = new RecordingDeserializee();
+		for (Class<? extends DeserializerConfig> option : options) {
+			DeserializerConfig config = container.instanceFor(option);
+			config.config(recorder);
+		}
+		if (!recorder.configured) {
+			return null;
+		}
+		deserializee.setWithoutRoot(recorder.isWithoutRoot());
+		return recorder.isWithoutRoot();
+	}
+
+	private static class RecordingDeserializee extends Deserializee {
+		private boolean configured;
+
+		@Override
+		public void setWithoutRoot(boolean withoutRoot) {
+			configured = true;
+			super.setWithoutRoot(withoutRoot);
+		}
+	}
+
+	private static Type typeOf(boolean array, Parameter parameter, Class<?> type) {
+		if (array && parameter.getParameterizedType() instanceof ParameterizedType) {
+			return parameter.getParameterizedType();
+		}
+		return type;
+	}
+
+	private static int indexOf(Parameter[] parameters, String name) {
+		for (int i = 0; i < parameters.length; i++) {
+			if (parameters[i].getName().equals(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the first token, or {@code null} if there is no content.
+	 */
+	private static JsonToken firstTokenOf(JsonReader reader) throws IOException {
+		try {
+			return reader.peek();
+		} catch (EOFException e) {
+			return null;
+		}
 	}
 
 	private static Type fallbackTo(Type parameterizedType, Class<?> type) {
@@ -177,11 +330,21 @@ public class GsonDeserialization implements Deserializer {
 		return parameterizedType;
 	}
 
-	private String getContentOfStream(InputStream input) throws IOException {
+	/**
+	 * The content is read as it is deserialized. Only when trace is enabled it is read at once, so
+	 * it can be logged.
+	 */
+	private Reader getReaderOf(InputStream input) throws IOException {
 		Charset charset = Charset.forName(getRequestCharset());
 		logger.debug("Using charset {}", charset);
 
-		return CharStreams.toString(new InputStreamReader(input, charset));
+		Reader reader = new InputStreamReader(input, charset);
+		if (logger.isTraceEnabled()) {
+			String content = CharStreams.toString(reader);
+			logger.trace("json retrieved: {}", content);
+			return new StringReader(content);
+		}
+		return reader;
 	}
 
 	private String getRequestCharset() {
@@ -189,14 +352,6 @@ public class GsonDeserialization implements Deserializer {
 		return charset.split(",")[0];
 	}
 
-	private static boolean isWithoutRoot(Parameter[] parameters, JsonObject root) {
-		for (Parameter parameter : parameters) {
-			if (root.get(parameter.getName()) != null)
-				return false;
-		}
-		return true;
-	}
-
 	protected Class<?>[] getTypes(ControllerMethod method) {
 		Class<?>[] parameterTypes = method.getMethod().getParameterTypes();
 		Type genericType = getGenericSuperClass(method);
@@ -24,6 +24,7 @@ import javax.servlet.http.HttpServletResponse;
 import br.com.caelum.vraptor.core.ReflectionProvider;
 import br.com.caelum.vraptor.environment.Environment;
 import br.com.caelum.vraptor.interceptor.TypeNameExtractor;
+import br.com.caelum.vraptor.metrics.DispatchMetrics;
 import br.com.caelum.vraptor.serialization.JSONPSerialization;
 import br.com.caelum.vraptor.serialization.JSONSerialization;
 import br.com.caelum.vraptor.serialization.SerializerBuilder;
@@ -43,27 +44,40 @@ public class GsonJSONPSerialization implements JSONPSerialization {
 	private final GsonSerializerBuilder builder;
 	private final Environment environment;
 	private final ReflectionProvider reflectionProvider;
+	private final DispatchMetrics metrics;
 	
 	/** 
 	 * @deprecated CDI eyes only
 	 */
 	protected GsonJSONPSerialization() {
-		this(null, null, null, null, null);
+		this(null, null, null, null, null, null);
 	}
 
-	@Inject
+	/**
+	 * @deprecated Prefer using {@link GsonJSONPSerialization#GsonJSONPSerialization(HttpServletResponse,
+	 *             TypeNameExtractor, GsonSerializerBuilder, Environment, ReflectionProvider, DispatchMetrics)}
+	 */
 	public GsonJSONPSerialization(HttpServletResponse response, TypeNameExtractor extractor,
 			GsonSerializerBuilder builder, Environment environment, ReflectionProvider reflectionProvider) {
+		this(response, extractor, builder, environment, reflectionProvider, null);
+	}
+
+	@Inject
+	public GsonJSONPSerialization(HttpServletResponse response, TypeNameExtractor extractor,
+			GsonSerializerBuilder builder, Environment environment, ReflectionProvider reflectionProvider,
+			DispatchMetrics metrics) {
 		this.response = response;
 		this.extractor = extractor;
 		this.builder = builder;
 		this.environment = environment;
 		this.reflectionProvider = reflectionProvider;
+		this.metrics = metrics;
 	}
 	
 	@Override
 	public JSONSerialization withCallback(final String callbackName) {
-		return new GsonJSONSerialization(response, extractor, builder, environment, reflectionProvider) {
+		return new GsonJSONSerialization(null, response, extractor, builder, environment, reflectionProvider, metrics,
+				null) {
 			@Override
 			protected SerializerBuilder getSerializer() {
 				try {
@@ -15,21 +15,30 @@
  */
 package br.com.caelum.vraptor.serialization.gson;
 
+import static br.com.caelum.vraptor.metrics.TimedSerializer.timed;
+
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import br.com.caelum.vraptor.core.ReflectionProvider;
 import br.com.caelum.vraptor.environment.Environment;
 import br.com.caelum.vraptor.interceptor.TypeNameExtractor;
+import br.com.caelum.vraptor.metrics.DispatchMetrics;
 import br.com.caelum.vraptor.serialization.JSONSerialization;
 import br.com.caelum.vraptor.serialization.NoRootSerialization;
 import br.com.caelum.vraptor.serialization.Serializer;
 import br.com.caelum.vraptor.serialization.SerializerBuilder;
+import br.com.caelum.vraptor.serialization.Streamed;
+import br.com.caelum.vraptor.view.AsyncOutput;
 import br.com.caelum.vraptor.view.ResultException;
+import br.com.caelum.vraptor.view.SpooledOutput;
 
 /**
  * Gson implementation for JSONSerialization
@@ -40,27 +49,45 @@ import br.com.caelum.vraptor.view.ResultException;
 @RequestScoped
 public class GsonJSONSerialization implements JSONSerialization {
 
+	private final HttpServletRequest request;
 	private final HttpServletResponse response;
 	private final TypeNameExtractor extractor;
 	private final GsonSerializerBuilder builder;
 	private Environment environment;
 	private ReflectionProvider reflectionProvider;
+	private DispatchMetrics metrics;
+	private AsyncOutput output;
+	private boolean streamed;
 
 	/** 
 	 * @deprecated CDI eyes only
 	 */
 	protected GsonJSONSerialization() {
-		this(null, null, null, null, null);
+		this(null, null, null, null, null, null, null, null);
 	}
 
-	@Inject
+	/**
+	 * @deprecated Prefer using {@link GsonJSONSerialization#GsonJSONSerialization(HttpServletRequest,
+	 *             HttpServletResponse, TypeNameExtractor, GsonSerializerBuilder, Environment,
+	 *             ReflectionProvider, DispatchMetrics, AsyncOutput)}
+	 */
 	public GsonJSONSerialization(HttpServletResponse response, TypeNameExtractor extractor,
 			GsonSerializerBuilder builder, Environment environment, ReflectionProvider reflectionProvider) {
+		this(null, response, extractor, builder, environment, reflectionProvider, null, null);
+	}
+
+	@Inject
+	public GsonJSONSerialization(HttpServletRequest request, HttpServletResponse response,
+			TypeNameExtractor extractor, GsonSerializerBuilder builder, Environment environment,
+			ReflectionProvider reflectionProvider, DispatchMetrics metrics, AsyncOutput output) {
+		this.request = request;
 		this.response = response;
 		this.extractor = extractor;
 		this.builder = builder;
 		this.environment = environment;
 		this.reflectionProvider = reflectionProvider;
+		this.metrics = metrics;
+		this.output = output;
 	}
 
 	@PostConstruct
@@ -83,17 +110,49 @@ public class GsonJSONSerialization implements JSONSerialization {
 	@Override
 	public <T> Serializer from(T object, String alias) {
 		response.setContentType("application/json");
-		return getSerializer().from(object, alias);
+		streamed = Streamed.isStreamed(object);
+		return timed(getSerializer().from(object, alias), metrics, "json");
 	}
 
 	protected SerializerBuilder getSerializer() {
 		try {
+			if (!streamed && output != null && request != null && output.isEnabled(request)) {
+				return getSpooledSerializer();
+			}
 			return new GsonSerializer(builder, response.getWriter(), extractor, reflectionProvider);
 		} catch (IOException e) {
 			throw new ResultException("Unable to serialize data", e);
 		}
 	}
 
+	/**
+	 * Serializes into a spool, that is sent without holding the request thread
+	 * when the json is large. Streamed elements are written directly instead.
+	 */
+	private SerializerBuilder getSpooledSerializer() throws IOException {
+		final SpooledOutput spool = output.spool();
+		final Writer writer = new OutputStreamWriter(spool, response.getCharacterEncoding());
+
+		return new GsonSerializer(builder, writer, extractor, reflectionProvider) {
+			@Override
+			public void serialize() {
+				boolean serialized = false;
+				try {
+					super.serialize();
+					writer.flush();
+					serialized = true;
+					spool.send(request, response);
+				} catch (IOException e) {
+					throw new ResultException("Unable to serialize data", e);
+				} finally {
+					if (!serialized) {
+						spool.discard();
+					}
+				}
+			}
+		};
+	}
+
 	/**
 	 * You can override this method for configuring Driver before serialization
 	 */
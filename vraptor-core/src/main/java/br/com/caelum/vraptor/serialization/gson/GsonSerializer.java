@@ -18,10 +18,9 @@ package br.com.caelum.vraptor.serialization.gson;
 import static java.util.Collections.singletonMap;
 import static java.util.Objects.requireNonNull;
 
+import java.io.IOException;
 import java.io.Writer;
-import java.util.Calendar;
 import java.util.Collection;
-import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -29,11 +28,15 @@ import java.util.Set;
 import javax.enterprise.inject.Vetoed;
 
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 
 import br.com.caelum.vraptor.core.ReflectionProvider;
 import br.com.caelum.vraptor.interceptor.TypeNameExtractor;
+import br.com.caelum.vraptor.serialization.InclusionPlan;
 import br.com.caelum.vraptor.serialization.Serializer;
 import br.com.caelum.vraptor.serialization.SerializerBuilder;
+import br.com.caelum.vraptor.serialization.Streamed;
+import br.com.caelum.vraptor.view.ResultException;
 
 /**
  * A SerializerBuilder based on Gson.
@@ -47,14 +50,12 @@ public class GsonSerializer implements SerializerBuilder {
 	private final GsonSerializerBuilder builder;
 	private final Writer writer;
 	private final TypeNameExtractor extractor;
-	private final ReflectionProvider reflectionProvider;
 
 	public GsonSerializer(GsonSerializerBuilder builder, Writer writer, TypeNameExtractor extractor, 
 			ReflectionProvider reflectionProvider) {
 		this.writer = writer;
 		this.extractor = extractor;
 		this.builder = builder;
-		this.reflectionProvider = reflectionProvider;
 	}
 
 	@Override
@@ -72,6 +73,12 @@ public class GsonSerializer implements SerializerBuilder {
 	private void preConfigure(Object obj, String alias) {
 		requireNonNull(obj, "You can't serialize null objects");
 
+		Streamed<?> streamed = Streamed.from(obj);
+		if (streamed != null) {
+			preConfigure(streamed, alias);
+			return;
+		}
+
 		builder.getSerializee().setRootClass(obj.getClass());
 
 		if (alias == null) {
@@ -87,6 +94,23 @@ public class GsonSerializer implements SerializerBuilder {
 		setRoot(obj);
 	}
 
+	/**
+	 * Streamed elements are written as a list, so includes and excludes are resolved from the
+	 * element type.
+	 */
+	private void preConfigure(Streamed<?> streamed, String alias) {
+		Class<?> elementType = streamed.getElementType();
+		Set<Class<?>> elementTypes = new HashSet<>();
+		if (elementType != null && !shouldSerializeField(elementType)) {
+			elementTypes.add(elementType);
+		}
+
+		builder.getSerializee().setRootClass(List.class);
+		builder.getSerializee().setElementTypes(elementTypes);
+		builder.getSerializee().setRoot(streamed);
+		builder.setAlias(alias == null ? "list" : alias);
+	}
+
 	private void setRoot(Object obj) {
 		if (Collection.class.isInstance(obj)) {
 			builder.getSerializee().setRoot(normalizeList(obj));
@@ -132,19 +156,63 @@ public class GsonSerializer implements SerializerBuilder {
 
 	@Override
 	public void serialize() {
-		builder.setExclusionStrategies(new Exclusions(builder.getSerializee(), reflectionProvider));
+		builder.setExclusionStrategies(new Exclusions(builder.getSerializee()));
 		Gson gson = builder.create();
 		
 		String alias = builder.getAlias();
 		Object root = builder.getSerializee().getRoot();
 
-		if (builder.isWithoutRoot()) {
-			gson.toJson(root, writer);
-		} else {
-			gson.toJson(singletonMap(alias, root), writer);
+		try {
+			JsonWriter json = newJsonWriter(gson);
+			if (root instanceof Streamed) {
+				serializeStreamed(gson, json, alias, (Streamed<?>) root);
+			} else if (builder.isWithoutRoot()) {
+				gson.toJson(root, root.getClass(), json);
+			} else {
+				Object wrapped = singletonMap(alias, root);
+				gson.toJson(wrapped, wrapped.getClass(), json);
+			}
+		} catch (IOException e) {
+			throw new ResultException("Unable to serialize data", e);
 		}
 	}
-	
+
+	/**
+	 * Creates the writer the serialized tree is written to. Override it to write other
+	 * representations of the same tree.
+	 *
+	 * @since 4.4
+	 */
+	protected JsonWriter newJsonWriter(Gson gson) throws IOException {
+		return gson.newJsonWriter(writer);
+	}
+
+	private void serializeStreamed(Gson gson, JsonWriter json, String alias, Streamed<?> elements)
+			throws IOException {
+		try (Streamed<?> closing = elements) {
+			if (!builder.isWithoutRoot()) {
+				json.beginObject().name(alias);
+			}
+			json.beginArray();
+			int written = 0;
+			for (Object element : elements) {
+				if (element == null) {
+					json.nullValue();
+				} else {
+					gson.toJson(element, element.getClass(), json);
+				}
+				if (++written % Streamed.FLUSH_INTERVAL == 0) {
+					json.flush();
+				}
+			}
+			json.endArray();
+			if (!builder.isWithoutRoot()) {
+				json.endObject();
+			}
+			json.flush();
+		}
+	}
+
 	@Override
 	public Serializer recursive() {
 		builder.getSerializee().setRecursive(true);
@@ -152,8 +220,6 @@ public class GsonSerializer implements SerializerBuilder {
 	}
 
 	static boolean shouldSerializeField(Class<?> type) {
-		return type.isPrimitive() || type.isEnum() || Number.class.isAssignableFrom(type) || type.equals(String.class)
-				|| Date.class.isAssignableFrom(type) || Calendar.class.isAssignableFrom(type)
-				|| Boolean.class.equals(type) || Character.class.equals(type);
+		return InclusionPlan.isSimpleType(type);
 	}
 }
@@ -0,0 +1,61 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.serialization.xstream;
+
+import javax.enterprise.inject.Vetoed;
+
+import br.com.caelum.vraptor.serialization.Serializee;
+
+/**
+ * Holds the {@link Serializee} of the serialization running on the current thread, so cached
+ * {@link VRaptorXStream} instances can be shared between requests while each one sees its own
+ * includes and excludes.
+ */
+@Vetoed
+final class CurrentSerializee {
+
+	private static final ThreadLocal<Serializee> CURRENT = new ThreadLocal<>();
+
+	private CurrentSerializee() {
+	}
+
+	/**
+	 * @return the bound serializee, or null when nothing is being serialized on this thread.
+	 */
+	static Serializee get() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Binds the serializee to the current thread.
+	 *
+	 * @return the previously bound serializee, that must be given back to {@link #restore(Serializee)}.
+	 */
+	static Serializee bind(Serializee serializee) {
+		Serializee previous = CURRENT.get();
+		CURRENT.set(serializee);
+		return previous;
+	}
+
+	static void restore(Serializee previous) {
+		if (previous == null) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set(previous);
+		}
+	}
+}
@@ -17,14 +17,12 @@
 
 package br.com.caelum.vraptor.serialization.xstream;
 
-import java.util.Calendar;
-import java.util.Date;
-import java.util.Map.Entry;
-
 import javax.enterprise.inject.Vetoed;
 
 import br.com.caelum.vraptor.core.ReflectionProvider;
 import br.com.caelum.vraptor.interceptor.TypeNameExtractor;
+import br.com.caelum.vraptor.serialization.InclusionPlan;
+import br.com.caelum.vraptor.serialization.InclusionPlan.Inclusion;
 import br.com.caelum.vraptor.serialization.Serializee;
 import br.com.caelum.vraptor.validator.Message;
 
@@ -37,48 +35,35 @@ public class VRaptorClassMapper extends MapperWrapper {
 
 	private final Supplier<TypeNameExtractor> extractor;
 	private final Supplier<Serializee> serializee;
-	private final Supplier<ReflectionProvider> reflectionProvider;
 
+	/**
+	 * @deprecated Prefer using {@link VRaptorClassMapper#VRaptorClassMapper(Mapper, Supplier, Supplier)}
+	 */
 	public VRaptorClassMapper(Mapper wrapped, Supplier<TypeNameExtractor> supplier, Supplier<Serializee> serializee,
 			Supplier<ReflectionProvider> reflectionProvider) {
+		this(wrapped, supplier, serializee);
+	}
+
+	/**
+	 * @since 4.4
+	 */
+	public VRaptorClassMapper(Mapper wrapped, Supplier<TypeNameExtractor> supplier, Supplier<Serializee> serializee) {
 		super(wrapped);
 		this.extractor = supplier;
 		this.serializee = serializee;
-		this.reflectionProvider = reflectionProvider;
 	}
 
 	static boolean isPrimitive(Class<?> type) {
-		return type.isPrimitive()
-			|| type.isEnum()
-			|| Number.class.isAssignableFrom(type)
-			|| type.equals(String.class)
-			|| Date.class.isAssignableFrom(type)
-			|| Calendar.class.isAssignableFrom(type)
-			|| Boolean.class.equals(type)
-			|| Character.class.equals(type);
+		return InclusionPlan.isSimpleType(type);
 	}
 
 	@Override
 	public boolean shouldSerializeMember(Class definedIn, String fieldName) {
-		for (Entry<String, Class<?>> include : getSerializee().getIncludes().entries()) {
-			if (isCompatiblePath(include, definedIn, fieldName)) {
-				return true;
-			}
+		Inclusion inclusion = getSerializee().getInclusionPlan().inclusionOf(definedIn, fieldName);
+		if (inclusion == Inclusion.INCLUDED) {
+			return true;
 		}
-		for (Entry<String, Class<?>> exclude : getSerializee().getExcludes().entries()) {
-			if (isCompatiblePath(exclude, definedIn, fieldName)) {
-				return false;
-			}
-		}
-		
-		boolean should = super.shouldSerializeMember(definedIn, fieldName);
-		if (!getSerializee().isRecursive())
-			should = should && isPrimitive(reflectionProvider.get().getField(definedIn, fieldName).getType());
-		return should;
-	}
-
-	private static boolean isCompatiblePath(Entry<String, Class<?>> path, Class definedIn, String fieldName) {
-		return path.getValue().equals(definedIn) && (path.getKey().equals(fieldName) || path.getKey().endsWith("." + fieldName));
+		return inclusion == Inclusion.SERIALIZED && super.shouldSerializeMember(definedIn, fieldName);
 	}
 
 	@Override
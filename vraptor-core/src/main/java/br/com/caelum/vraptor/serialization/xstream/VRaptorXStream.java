@@ -31,7 +31,6 @@ import com.thoughtworks.xstream.mapper.MapperWrapper;
 public  class VRaptorXStream extends XStream {
 	private final TypeNameExtractor extractor;
 	private final Serializee serializee;
-	private final ReflectionProvider reflectionProvider;
 	private VRaptorClassMapper vraptorMapper;
 
 	{setMode(NO_REFERENCES);}
@@ -40,7 +39,6 @@ public  class VRaptorXStream extends XStream {
 		super(new PureJavaReflectionProvider());
 		this.extractor = extractor;
 		this.serializee = serializee;
-		this.reflectionProvider = reflectionProvider;
 	}
 	
 	public VRaptorXStream(TypeNameExtractor extractor, HierarchicalStreamDriver hierarchicalStreamDriver, 
@@ -48,14 +46,13 @@ public  class VRaptorXStream extends XStream {
 		super(new PureJavaReflectionProvider(),hierarchicalStreamDriver);
 		this.extractor = extractor;
 		this.serializee = serializee;
-		this.reflectionProvider = reflectionProvider;
 	}
 
 	@Override
 	protected MapperWrapper wrapMapper(MapperWrapper next) {
 		/* this method is called in the super constructor, so we cannot use instance variables, so we're
 		 * using this 'lazy' get */
-		vraptorMapper = new VRaptorClassMapper(next, lazyTypeNameExtractor(), lazySerializee(), lazyReflectionProvider());
+		vraptorMapper = new VRaptorClassMapper(next, lazyTypeNameExtractor(), lazySerializee());
 		return vraptorMapper;
 	}
 
@@ -64,20 +61,13 @@ public  class VRaptorXStream extends XStream {
 	}
 
 
-	private Supplier<ReflectionProvider> lazyReflectionProvider() {
-		return new Supplier<ReflectionProvider>() {
-			@Override
-			public ReflectionProvider get() {
-				return reflectionProvider;
-			}
-		};
-	}
-
 	private Supplier<Serializee> lazySerializee() {
 		return new Supplier<Serializee>() {
 			@Override
 			public Serializee get() {
-				return serializee;
+				/* cached instances are shared between requests, each one binding its own serializee */
+				Serializee current = CurrentSerializee.get();
+				return current != null ? current : serializee;
 			}
 		};
 	}
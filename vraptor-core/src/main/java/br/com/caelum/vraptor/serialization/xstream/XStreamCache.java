@@ -0,0 +1,60 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.serialization.xstream;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import br.com.caelum.vraptor.cache.CacheStore;
+import br.com.caelum.vraptor.cache.TinyLFU;
+
+import com.google.common.base.Supplier;
+import com.thoughtworks.xstream.XStream;
+
+/**
+ * Keeps configured {@link XStream} instances, so annotation processing and aliasing run once per
+ * controller method or serialized root type instead of once per request. The per request
+ * includes and excludes are read from the serializee bound to the current thread.
+ *
+ * @since 4.4
+ */
+@ApplicationScoped
+public class XStreamCache {
+
+	private final CacheStore<Object, XStream> instances;
+
+	/**
+	 * @deprecated CDI eyes only
+	 */
+	protected XStreamCache() {
+		this(null);
+	}
+
+	@Inject
+	public XStreamCache(@TinyLFU(capacity = 500) CacheStore<Object, XStream> instances) {
+		this.instances = instances;
+	}
+
+	/**
+	 * Returns the instance for the given key, creating and configuring it with the given supplier
+	 * only once. The key must implement {@code equals} and {@code hashCode}, and the supplier must
+	 * finish every configuration of the instance, since it is shared between threads afterwards.
+	 */
+	public XStream instanceFor(Object key, Supplier<XStream> supplier) {
+		return instances.fetch(key, supplier);
+	}
+}
@@ -18,8 +18,10 @@ package br.com.caelum.vraptor.serialization.xstream;
 import static br.com.caelum.vraptor.serialization.xstream.VRaptorClassMapper.isPrimitive;
 import static java.util.Objects.requireNonNull;
 
+import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -30,7 +32,10 @@ import javax.enterprise.inject.Vetoed;
 import br.com.caelum.vraptor.serialization.Serializee;
 import br.com.caelum.vraptor.serialization.Serializer;
 import br.com.caelum.vraptor.serialization.SerializerBuilder;
+import br.com.caelum.vraptor.serialization.Streamed;
+import br.com.caelum.vraptor.view.ResultException;
 
+import com.google.common.base.Supplier;
 import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
 import com.thoughtworks.xstream.io.xml.PrettyPrintWriter;
@@ -43,14 +48,34 @@ import com.thoughtworks.xstream.io.xml.PrettyPrintWriter;
 @Vetoed
 public class XStreamSerializer implements SerializerBuilder {
 
-	private final XStream xstream;
 	private final HierarchicalStreamWriter writer;
 	private final Serializee serializee;
+	private final XStreamBuilder builder;
+	private final XStreamCache cache;
+	private XStream xstream;
+	private String streamAlias;
 
 	public XStreamSerializer(XStream xstream, HierarchicalStreamWriter writer) {
 		this.xstream = xstream;
 		this.writer = writer;
 		this.serializee = ((VRaptorXStream) xstream).getVRaptorMapper().getSerializee();
+		this.builder = null;
+		this.cache = null;
+	}
+
+	/**
+	 * Uses the instances of the cache, configured once for each root type and alias. The given
+	 * serializee holds the includes and excludes of this serialization, and is bound to the
+	 * current thread while serializing.
+	 *
+	 * @since 4.4
+	 */
+	public XStreamSerializer(XStreamBuilder builder, XStreamCache cache, Serializee serializee,
+			HierarchicalStreamWriter writer) {
+		this.builder = builder;
+		this.cache = cache;
+		this.serializee = serializee;
+		this.writer = writer;
 	}
 
 	public XStreamSerializer(XStream xstream, Writer writer) {
@@ -72,11 +97,69 @@ public class XStreamSerializer implements SerializerBuilder {
 	private void preConfigure(Object obj,String alias) {
 		requireNonNull(obj, "You can't serialize null objects");
 
-		xstream.processAnnotations(obj.getClass());
+		Streamed<?> streamed = Streamed.from(obj);
+		if (streamed != null) {
+			preConfigure(streamed, alias);
+			return;
+		}
 
 		serializee.setRootClass(obj.getClass());
+		if (cache == null) {
+			xstream.processAnnotations(obj.getClass());
+			setAlias(xstream, obj, alias);
+		} else {
+			xstream = cachedInstance(obj, alias);
+		}
 		setRoot(obj);
-		setAlias(obj, alias);
+	}
+
+	/**
+	 * The aliases depend only on the root type, so instances are shared by every object of the
+	 * same type serialized with the same alias.
+	 */
+	private XStream cachedInstance(final Object obj, final String alias) {
+		final Class<?> rootClass = obj.getClass();
+		return cache.instanceFor(Arrays.asList(XStreamSerializer.class, rootClass, alias), new Supplier<XStream>() {
+			@Override
+			public XStream get() {
+				XStream instance = builder.xmlInstance();
+				instance.processAnnotations(rootClass);
+				setAlias(instance, obj, alias);
+				return instance;
+			}
+		});
+	}
+
+	/**
+	 * Streamed elements are written as a list, so includes and excludes are resolved from the
+	 * element type.
+	 */
+	private void preConfigure(Streamed<?> streamed, String alias) {
+		final Class<?> elementType = streamed.getElementType();
+		if (cache != null) {
+			xstream = cache.instanceFor(Arrays.asList(Streamed.class, elementType), new Supplier<XStream>() {
+				@Override
+				public XStream get() {
+					XStream instance = builder.xmlInstance();
+					if (elementType != null) {
+						instance.processAnnotations(elementType);
+					}
+					return instance;
+				}
+			});
+		} else if (elementType != null) {
+			xstream.processAnnotations(elementType);
+		}
+
+		Set<Class<?>> elementTypes = new HashSet<>();
+		if (elementType != null && !isPrimitive(elementType)) {
+			elementTypes.add(elementType);
+		}
+
+		serializee.setRootClass(List.class);
+		serializee.setElementTypes(elementTypes);
+		serializee.setRoot(streamed);
+		streamAlias = alias == null ? xstream.getMapper().serializedClass(List.class) : alias;
 	}
 
 	private void setRoot(Object obj) {
@@ -90,7 +173,7 @@ public class XStreamSerializer implements SerializerBuilder {
 	@SuppressWarnings("unchecked")
 	private Collection<Object> normalizeList(Object obj) {
 		Collection<Object> list;
-		if (hasDefaultConverter()) {
+		if (hasDefaultConverter(xstream)) {
 			list = new ArrayList<>((Collection<?>)obj);
 		} else {
 			list = (Collection<Object>) obj;
@@ -99,14 +182,14 @@ public class XStreamSerializer implements SerializerBuilder {
 		return list;
 	}
 
-	private boolean hasDefaultConverter() {
+	private boolean hasDefaultConverter(XStream xstream) {
 		return xstream.getConverterLookup().lookupConverterForType(serializee.getRootClass())
 				.equals(xstream.getConverterLookup().lookupConverterForType(Object.class));
 	}
 
-	private void setAlias(Object obj, String alias) {
+	private void setAlias(XStream xstream, Object obj, String alias) {
 		if (alias != null) {
-			if (Collection.class.isInstance(obj) && (List.class.isInstance(obj) || hasDefaultConverter())) {
+			if (Collection.class.isInstance(obj) && (List.class.isInstance(obj) || hasDefaultConverter(xstream))) {
 				xstream.alias(alias, List.class);
 			}
 			xstream.alias(alias, obj.getClass());
@@ -143,7 +226,41 @@ public class XStreamSerializer implements SerializerBuilder {
 
 	@Override
 	public void serialize() {
-		xstream.marshal(serializee.getRoot(), writer);
+		Serializee previous = CurrentSerializee.bind(serializee);
+		try {
+			if (serializee.getRoot() instanceof Streamed) {
+				serializeStreamed((Streamed<?>) serializee.getRoot());
+			} else {
+				xstream.marshal(serializee.getRoot(), writer);
+			}
+		} finally {
+			CurrentSerializee.restore(previous);
+		}
+	}
+
+	/**
+	 * Marshals each element on its own, so references between elements are not tracked.
+	 */
+	private void serializeStreamed(Streamed<?> elements) {
+		try (Streamed<?> closing = elements) {
+			writer.startNode(streamAlias);
+			int written = 0;
+			for (Object element : elements) {
+				if (element == null) {
+					writer.startNode(xstream.getMapper().serializedClass(null));
+					writer.endNode();
+				} else {
+					xstream.marshal(element, writer);
+				}
+				if (++written % Streamed.FLUSH_INTERVAL == 0) {
+					writer.flush();
+				}
+			}
+			writer.endNode();
+			writer.flush();
+		} catch (IOException e) {
+			throw new ResultException("Unable to serialize data", e);
+		}
 	}
 
 	@Override
@@ -17,6 +17,7 @@ package br.com.caelum.vraptor.serialization.xstream;
 
 import java.io.InputStream;
 import java.lang.reflect.Method;
+import java.util.Arrays;
 
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
@@ -26,7 +27,9 @@ import br.com.caelum.vraptor.http.Parameter;
 import br.com.caelum.vraptor.http.ParameterNameProvider;
 import br.com.caelum.vraptor.serialization.Deserializer;
 import br.com.caelum.vraptor.serialization.Deserializes;
+import br.com.caelum.vraptor.serialization.Serializee;
 
+import com.google.common.base.Supplier;
 import com.thoughtworks.xstream.XStream;
 
 /**
@@ -43,18 +46,31 @@ public class XStreamXMLDeserializer implements Deserializer {
 
 	private final ParameterNameProvider provider;
 	private final XStreamBuilder builder;
+	private final XStreamCache cache;
+	private final Serializee serializee;
 
 	/** 
 	 * @deprecated CDI eyes only
 	 */
 	protected XStreamXMLDeserializer() {
-		this(null, null);
+		this(null, null, null, null);
 	}
 
-	@Inject
+	/**
+	 * @deprecated Prefer using {@link XStreamXMLDeserializer#XStreamXMLDeserializer(ParameterNameProvider,
+	 *             XStreamBuilder, XStreamCache, Serializee)}
+	 */
 	public XStreamXMLDeserializer(ParameterNameProvider provider, XStreamBuilder builder) {
+		this(provider, builder, null, null);
+	}
+
+	@Inject
+	public XStreamXMLDeserializer(ParameterNameProvider provider, XStreamBuilder builder, XStreamCache cache,
+			Serializee serializee) {
 		this.provider = provider;
 		this.builder = builder;
+		this.cache = cache;
+		this.serializee = serializee;
 	}
 
 	@Override
@@ -64,15 +80,35 @@ public class XStreamXMLDeserializer implements Deserializer {
 		if (types.length == 0) {
 			throw new IllegalArgumentException("Methods that consumes xml must receive just one argument: the xml root element");
 		}
-		XStream xStream = getConfiguredXStream(javaMethod, types);
-
 		Object[] params = new Object[types.length];
 
-		chooseParam(types, params, xStream.fromXML(inputStream));
+		chooseParam(types, params, fromXML(inputStream, javaMethod, types));
 
 		return params;
 	}
 
+	private Object fromXML(InputStream inputStream, final Method javaMethod, final Class<?>[] types) {
+		if (cache == null) {
+			return getConfiguredXStream(javaMethod, types).fromXML(inputStream);
+		}
+
+		Object key = Arrays.asList(XStreamXMLDeserializer.class, javaMethod);
+		XStream xStream = cache.instanceFor(key, new Supplier<XStream>() {
+			@Override
+			public XStream get() {
+				return getConfiguredXStream(javaMethod, types);
+			}
+		});
+
+		serializee.setRecursive(true);
+		Serializee previous = CurrentSerializee.bind(serializee);
+		try {
+			return xStream.fromXML(inputStream);
+		} finally {
+			CurrentSerializee.restore(previous);
+		}
+	}
+
 	/**
 	 * @return an xstream instance already configured.
 	 */
@@ -15,6 +15,8 @@
  */
 package br.com.caelum.vraptor.serialization.xstream;
 
+import static br.com.caelum.vraptor.metrics.TimedSerializer.timed;
+
 import java.io.IOException;
 import java.io.PrintWriter;
 
@@ -24,6 +26,8 @@ import javax.inject.Inject;
 import javax.servlet.http.HttpServletResponse;
 
 import br.com.caelum.vraptor.environment.Environment;
+import br.com.caelum.vraptor.metrics.DispatchMetrics;
+import br.com.caelum.vraptor.serialization.Serializee;
 import br.com.caelum.vraptor.serialization.Serializer;
 import br.com.caelum.vraptor.serialization.SerializerBuilder;
 import br.com.caelum.vraptor.serialization.XMLSerialization;
@@ -45,20 +49,35 @@ public class XStreamXMLSerialization implements XMLSerialization {
 	private final HttpServletResponse response;
 	private final XStreamBuilder builder;
 	private final Environment environment;
+	private final DispatchMetrics metrics;
+	private final XStreamCache cache;
+	private final Serializee serializee;
 	private boolean indented;
 
 	/** 
 	 * @deprecated CDI eyes only
 	 */
 	protected XStreamXMLSerialization() {
-		this(null, null, null);
+		this(null, null, null, null, null, null);
 	}
 
-	@Inject
+	/**
+	 * @deprecated Prefer using {@link XStreamXMLSerialization#XStreamXMLSerialization(HttpServletResponse,
+	 *             XStreamBuilder, Environment, DispatchMetrics, XStreamCache, Serializee)}
+	 */
 	public XStreamXMLSerialization(HttpServletResponse response, XStreamBuilder builder, Environment environment) {
+		this(response, builder, environment, null, null, null);
+	}
+
+	@Inject
+	public XStreamXMLSerialization(HttpServletResponse response, XStreamBuilder builder, Environment environment,
+			DispatchMetrics metrics, XStreamCache cache, Serializee serializee) {
 		this.response = response;
 		this.builder = builder;
 		this.environment = environment;
+		this.metrics = metrics;
+		this.cache = cache;
+		this.serializee = serializee;
 	}
 
 	@PostConstruct
@@ -80,10 +99,13 @@ public class XStreamXMLSerialization implements XMLSerialization {
 	@Override
 	public <T> Serializer from(T object) {
 		response.setContentType("application/xml");
-		return getSerializer().from(object);
+		return timed(getSerializer().from(object), metrics, "xml");
 	}
 
 	protected SerializerBuilder getSerializer() {
+		if (cache != null) {
+			return new XStreamSerializer(builder, cache, serializee, getWriter());
+		}
 		return new XStreamSerializer(builder.xmlInstance(), getWriter());
 	}
 
@@ -99,6 +121,6 @@ public class XStreamXMLSerialization implements XMLSerialization {
 	@Override
 	public <T> Serializer from(T object, String alias) {
 		response.setContentType("application/xml");
-		return getSerializer().from(object, alias);
+		return timed(getSerializer().from(object, alias), metrics, "xml");
 	}
 }
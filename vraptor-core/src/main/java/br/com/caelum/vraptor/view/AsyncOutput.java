@@ -0,0 +1,150 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.view;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServletRequest;
+
+import br.com.caelum.vraptor.environment.Environment;
+
+/**
+ * Writes response bodies without holding the request thread, using the
+ * Servlet 3.1 non-blocking output: an {@link AsyncContext} is started and the
+ * body is pulled from its source only while the client is able to receive it.
+ * A slow client then costs a few buffers instead of a container thread.
+ *
+ * It is disabled by default, since nothing may post-process the response once
+ * the request thread returns. It is configured in the environment through:
+ * <ul>
+ * <li>{@value #ENABLED_KEY}: {@code true} to enable it;</li>
+ * <li>{@value #THRESHOLD_KEY}: bodies smaller than this, in bytes, are still
+ * written by the request thread. Defaults to 64 KiB;</li>
+ * <li>{@value #IDLE_TIMEOUT_KEY}: milliseconds a transfer may go without any
+ * progress before it is aborted. Defaults to 30 seconds;</li>
+ * <li>{@value #MEMORY_KEY}: bytes a {@link SpooledOutput} keeps in memory
+ * before spilling to a temporary file. Defaults to 1 MiB.</li>
+ * </ul>
+ *
+ * Zip downloads are never written through it, since their entries must be read
+ * by the request thread. See
+ * {@link br.com.caelum.vraptor.observer.download.ZipDownload}.
+ *
+ * @since 4.4
+ */
+@ApplicationScoped
+public class AsyncOutput {
+
+	public static final String ENABLED_KEY = "br.com.caelum.vraptor.async.output";
+	public static final String THRESHOLD_KEY = "br.com.caelum.vraptor.async.output.threshold";
+	public static final String IDLE_TIMEOUT_KEY = "br.com.caelum.vraptor.async.output.idleTimeout";
+	public static final String MEMORY_KEY = "br.com.caelum.vraptor.async.output.memory";
+
+	private final Environment environment;
+
+	private boolean enabled;
+	private long threshold;
+	private long idleTimeout;
+	private int memory;
+	private ScheduledExecutorService watchdog;
+
+	/**
+	 * @deprecated CDI eyes only
+	 */
+	protected AsyncOutput() {
+		this(null);
+	}
+
+	@Inject
+	public AsyncOutput(Environment environment) {
+		this.environment = environment;
+	}
+
+	@PostConstruct
+	public void init() {
+		if (environment == null) {
+			return;
+		}
+
+		enabled = environment.supports(ENABLED_KEY);
+		threshold = Long.parseLong(environment.get(THRESHOLD_KEY, "65536"));
+		idleTimeout = Long.parseLong(environment.get(IDLE_TIMEOUT_KEY, "30000"));
+		memory = Integer.parseInt(environment.get(MEMORY_KEY, "1048576"));
+
+		if (enabled) {
+			watchdog = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "vraptor-async-output");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+	}
+
+	@PreDestroy
+	public void stop() {
+		if (watchdog != null) {
+			watchdog.shutdownNow();
+		}
+	}
+
+	/**
+	 * Returns {@code true} if the body of this request may be written asynchronously.
+	 */
+	public boolean isEnabled(HttpServletRequest request) {
+		return enabled && request.isAsyncSupported() && !request.isAsyncStarted();
+	}
+
+	/**
+	 * Returns {@code true} if a body with the given length, or {@code -1} when it
+	 * is unknown, should be written asynchronously.
+	 */
+	public boolean accepts(HttpServletRequest request, long length) {
+		return isEnabled(request) && (length < 0 || length >= threshold);
+	}
+
+	/**
+	 * Starts the request asynchronously and writes the whole source into the
+	 * response as the client consumes it. The source is closed at the end. The
+	 * response headers must be already set, and nothing may write into the response
+	 * after this call.
+	 */
+	public void stream(HttpServletRequest request, InputStream source) throws IOException {
+		AsyncContext context = request.startAsync();
+		context.setTimeout(0);
+		new AsyncTransfer(context, source, watchdog, idleTimeout).start();
+	}
+
+	/**
+	 * Creates a buffer for bodies that can only be pushed, like a serialization,
+	 * to be sent through {@link SpooledOutput#send(HttpServletRequest, javax.servlet.http.HttpServletResponse)}.
+	 */
+	public SpooledOutput spool() {
+		return new SpooledOutput(this, memory);
+	}
+}
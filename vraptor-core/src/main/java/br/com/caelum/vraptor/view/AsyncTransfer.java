@@ -0,0 +1,128 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.view;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.enterprise.inject.Vetoed;
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Copies a source into an asynchronous response while the output is ready,
+ * aborting when the client stops reading for longer than the idle timeout.
+ *
+ * Reading the source and writing it happen on container threads, while the
+ * watchdog detects idle transfers on its own thread. Both hold the lock of the
+ * transfer, so the watchdog only closes the source and completes the response
+ * between writes.
+ */
+@Vetoed
+class AsyncTransfer implements WriteListener, Runnable {
+
+	private static final Logger logger = LogManager.getLogger(AsyncTransfer.class);
+	private static final int BUFFER_SIZE = 16 * 1024;
+
+	private final AsyncContext context;
+	private final InputStream source;
+	private final ScheduledExecutorService watchdog;
+	private final long idleTimeout;
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private final AtomicBoolean finished = new AtomicBoolean();
+
+	private ServletOutputStream output;
+	private ScheduledFuture<?> check;
+	private volatile long lastProgress;
+
+	AsyncTransfer(AsyncContext context, InputStream source, ScheduledExecutorService watchdog, long idleTimeout) {
+		this.context = context;
+		this.source = source;
+		this.watchdog = watchdog;
+		this.idleTimeout = idleTimeout;
+	}
+
+	void start() throws IOException {
+		lastProgress = System.nanoTime();
+		if (watchdog != null && idleTimeout > 0) {
+			check = watchdog.scheduleWithFixedDelay(this, idleTimeout, Math.max(idleTimeout / 4, 1), MILLISECONDS);
+		}
+		output = context.getResponse().getOutputStream();
+		output.setWriteListener(this);
+	}
+
+	@Override
+	public synchronized void onWritePossible() throws IOException {
+		while (!finished.get() && output.isReady()) {
+			int read = source.read(buffer);
+			if (read < 0) {
+				finish(null);
+				return;
+			}
+			output.write(buffer, 0, read);
+			lastProgress = System.nanoTime();
+		}
+	}
+
+	@Override
+	public void onError(Throwable error) {
+		finish(error);
+	}
+
+	/**
+	 * Checks for idle transfers.
+	 */
+	@Override
+	public void run() {
+		if (MILLISECONDS.convert(System.nanoTime() - lastProgress, NANOSECONDS) >= idleTimeout) {
+			finish(new TimeoutException("No progress in " + idleTimeout + " ms"));
+		}
+	}
+
+	boolean isFinished() {
+		return finished.get();
+	}
+
+	private synchronized void finish(Throwable error) {
+		if (!finished.compareAndSet(false, true)) {
+			return;
+		}
+		if (check != null) {
+			check.cancel(false);
+		}
+		if (error != null) {
+			logger.debug("Aborting asynchronous response", error);
+		}
+		try {
+			source.close();
+		} catch (IOException e) {
+			logger.debug("Unable to close the response source", e);
+		}
+		context.complete();
+	}
+}
@@ -28,7 +28,7 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
 import br.com.caelum.vraptor.cache.CacheStore;
-import br.com.caelum.vraptor.cache.LRU;
+import br.com.caelum.vraptor.cache.TinyLFU;
 
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
@@ -59,7 +59,7 @@ public class DefaultAcceptHeaderToFormat implements AcceptHeaderToFormat {
 	}
 
 	@Inject
-	public DefaultAcceptHeaderToFormat(@LRU CacheStore<String, String> acceptToFormatCache) {
+	public DefaultAcceptHeaderToFormat(@TinyLFU CacheStore<String, String> acceptToFormatCache) {
 		this.acceptToFormatCache = acceptToFormatCache;
 		mimeToFormat = new ConcurrentHashMap<>();
 		mimeToFormat.put("text/html", "html");
@@ -67,6 +67,9 @@ public class DefaultAcceptHeaderToFormat implements AcceptHeaderToFormat {
 		mimeToFormat.put("application/xml", "xml");
 		mimeToFormat.put("text/xml", "xml");
 		mimeToFormat.put("xml", "xml");
+		mimeToFormat.put("application/cbor", "cbor");
+		mimeToFormat.put("application/msgpack", "msgpack");
+		mimeToFormat.put("application/x-msgpack", "msgpack");
 	}
 
 	@Override
@@ -30,6 +30,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.Lock;
@@ -38,6 +39,7 @@ import java.util.concurrent.locks.ReentrantLock;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.servlet.ServletContext;
@@ -48,8 +50,10 @@ import org.apache.logging.log4j.Logger;
 import com.google.common.collect.ForwardingMap;
 
 import br.com.caelum.vraptor.controller.BeanClass;
+import br.com.caelum.vraptor.core.ControllerQualifier;
 import br.com.caelum.vraptor.core.ReflectionProvider;
 import br.com.caelum.vraptor.http.route.Router;
+import br.com.caelum.vraptor.ioc.StartupPipeline;
 import br.com.caelum.vraptor.proxy.MethodInvocation;
 import br.com.caelum.vraptor.proxy.Proxifier;
 import br.com.caelum.vraptor.proxy.ProxyCreationException;
@@ -62,7 +66,8 @@ import javassist.CtMethod;
 import javassist.NotFoundException;
 
 /**
- * View helper for generating uris
+ * View helper for generating uris. The interfaces of each controller are generated on startup,
+ * in parallel, so the first pages using {@code linkTo} don't pay for them.
  * 
  * @author Otávio Garcia
  * @author Lucas Cavalcanti
@@ -79,6 +84,7 @@ public class LinkToHandler extends ForwardingMap<Class<?>, Object> {
 	private final Router router;
 	private final Proxifier proxifier;
 	private final ReflectionProvider reflectionProvider;
+	private final StartupPipeline pipeline;
 
 	private final ConcurrentMap<Class<?>, Class<?>> interfaces = new ConcurrentHashMap<>();
 
@@ -88,15 +94,25 @@ public class LinkToHandler extends ForwardingMap<Class<?>, Object> {
 	 * @deprecated CDI eyes only
 	 */
 	protected LinkToHandler() {
-		this(null, null, null, null);
+		this(null, null, null, null, null);
 	}
 
-	@Inject
+	/**
+	 * @deprecated Prefer using
+	 *             {@link LinkToHandler#LinkToHandler(ServletContext, Router, Proxifier, ReflectionProvider, StartupPipeline)}
+	 */
 	public LinkToHandler(ServletContext context, Router router, Proxifier proxifier, ReflectionProvider reflectionProvider) {
+		this(context, router, proxifier, reflectionProvider, new StartupPipeline());
+	}
+
+	@Inject
+	public LinkToHandler(ServletContext context, Router router, Proxifier proxifier, ReflectionProvider reflectionProvider,
+			StartupPipeline pipeline) {
 		this.context = context;
 		this.router = router;
 		this.proxifier = proxifier;
 		this.reflectionProvider = reflectionProvider;
+		this.pipeline = pipeline;
 	}
 
 	@PostConstruct
@@ -109,12 +125,44 @@ public class LinkToHandler extends ForwardingMap<Class<?>, Object> {
 		return Collections.emptyMap();
 	}
 
+	/**
+	 * Generates the interface of a controller found on startup.
+	 */
+	public void pregenerate(@Observes @ControllerQualifier final BeanClass controller) {
+		pipeline.schedule(StartupPipeline.LINK_TO, new Callable<Void>() {
+			@Override
+			public Void call() {
+				try {
+					generateConcurrently(controller.getType());
+				} catch (RuntimeException e) {
+					logger.warn("Unable to generate the linkTo interface of {}, it will be generated on first use",
+							controller, e);
+				}
+				return null;
+			}
+		}, null);
+	}
+
 	@Override
 	public Object get(Object key) {
 		logger.debug("getting key {}", key);
 		
 		BeanClass beanClass = (BeanClass) key;
 		final Class<?> controller = beanClass.getType();
+		Class<?> linkToInterface = interfaceFor(controller);
+
+		return proxifier.proxify(linkToInterface, new MethodInvocation<Object>() {
+			@Override
+			public Object intercept(Object proxy, Method method, Object[] args, SuperMethod superMethod) {
+				String methodName = StringUtils.decapitalize(method.getName().replaceFirst("^get", ""));
+				List<Object> params = args.length == 0 ? Collections.emptyList() : Arrays.asList(args);
+				return linker(controller, methodName, params).getLink();
+			}
+
+		});
+	}
+
+	private Class<?> interfaceFor(Class<?> controller) {
 		Class<?> linkToInterface = interfaces.get(controller);
 		if (linkToInterface == null) {
 			logger.debug("interface not found, creating one {}", controller);
@@ -123,42 +171,65 @@ public class LinkToHandler extends ForwardingMap<Class<?>, Object> {
 			try {
 				linkToInterface = interfaces.get(controller);
 				if (linkToInterface == null) {
-					String path = context.getContextPath().replace('/', '$');
-					String interfaceName = controller.getName() + "$linkTo" + path;
-					linkToInterface = createLinkToInterface(controller, interfaceName);
-					interfaces.put(controller, linkToInterface);
-
-					logger.debug("created interface {} to {}", interfaceName, controller);
+					linkToInterface = define(controller, generate(controller));
 				}
 			} finally {
 				lock.unlock();
 			}
 		}
+		return linkToInterface;
+	}
 
-		return proxifier.proxify(linkToInterface, new MethodInvocation<Object>() {
-			@Override
-			public Object intercept(Object proxy, Method method, Object[] args, SuperMethod superMethod) {
-				String methodName = StringUtils.decapitalize(method.getName().replaceFirst("^get", ""));
-				List<Object> params = args.length == 0 ? Collections.emptyList() : Arrays.asList(args);
-				return linker(controller, methodName, params).getLink();
+	/**
+	 * On startup each controller is generated once, so interfaces are built concurrently and only
+	 * defined under the lock.
+	 */
+	private void generateConcurrently(Class<?> controller) {
+		if (!interfaces.containsKey(controller)) {
+			Object generated = generate(controller);
+			lock.lock();
+			try {
+				if (!interfaces.containsKey(controller)) {
+					define(controller, generated);
+				}
+			} finally {
+				lock.unlock();
 			}
-
-		});
+		}
 	}
 
-	protected Linker linker(final Class<?> controller,
-			String methodName, List<Object> params) {
-		return new Linker(context, router, controller, methodName, params, reflectionProvider);
-	}
-	
-	private Class<?> createLinkToInterface(final Class<?> controller, String interfaceName) {
+	/**
+	 * @return the interface, if it was already loaded, or its {@link CtClass}.
+	 */
+	private Object generate(Class<?> controller) {
+		String interfaceName = controller.getName() + "$linkTo" + context.getContextPath().replace('/', '$');
 		try {
 			return Class.forName(interfaceName);
 		} catch (ClassNotFoundException e1) {
 			logger.debug("Could not find class, but will keep looking", e1);
 			// ok, continue
 		}
+		return createLinkToInterface(controller, interfaceName);
+	}
 
+	private Class<?> define(Class<?> controller, Object generated) {
+		try {
+			Class<?> linkToInterface = generated instanceof CtClass ? ((CtClass) generated).toClass() : (Class<?>) generated;
+			interfaces.put(controller, linkToInterface);
+
+			logger.debug("created interface {} to {}", linkToInterface.getName(), controller);
+			return linkToInterface;
+		} catch (CannotCompileException e) {
+			throw new ProxyCreationException(e);
+		}
+	}
+
+	protected Linker linker(final Class<?> controller,
+			String methodName, List<Object> params) {
+		return new Linker(context, router, controller, methodName, params, reflectionProvider);
+	}
+	
+	private CtClass createLinkToInterface(final Class<?> controller, String interfaceName) {
 		final Set<CtMethod> used = new HashSet<>();
 		ClassPool pool = ClassPool.getDefault();
 		CtClass inter = pool.makeInterface(interfaceName);
@@ -187,7 +258,7 @@ public class LinkToHandler extends ForwardingMap<Class<?>, Object> {
 					logger.debug("added getter {} to interface {}", getter.getName(), controller);
 				}
 			}
-			return inter.toClass();
+			return inter;
 		} catch (CannotCompileException | NotFoundException e) {
 			throw new ProxyCreationException(e);
 		}
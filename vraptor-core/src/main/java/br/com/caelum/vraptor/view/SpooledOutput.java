@@ -0,0 +1,167 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.view;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import javax.enterprise.inject.Vetoed;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.google.common.io.ByteStreams;
+
+/**
+ * Buffers a body that is pushed by its producer, keeping it in memory up to a
+ * limit and spilling it to a temporary file after that. Once complete, the
+ * body is sent with its {@code Content-Length}, asynchronously when it is large
+ * enough, or read back through {@link #openInputStream()}.
+ *
+ * @see AsyncOutput#spool()
+ * @since 4.4
+ */
+@Vetoed
+public class SpooledOutput extends OutputStream {
+
+	private final AsyncOutput output;
+	private final int memoryLimit;
+
+	private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+	private File file;
+	private OutputStream fileStream;
+	private long size;
+
+	/**
+	 * Creates a spool that is not tied to an {@link AsyncOutput}, so it is always
+	 * sent by the calling thread.
+	 */
+	public SpooledOutput(int memoryLimit) {
+		this(null, memoryLimit);
+	}
+
+	SpooledOutput(AsyncOutput output, int memoryLimit) {
+		this.output = output;
+		this.memoryLimit = memoryLimit;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		target(1).write(b);
+		size++;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		target(len).write(b, off, len);
+		size += len;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (fileStream != null) {
+			fileStream.flush();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (fileStream != null) {
+			fileStream.close();
+		}
+	}
+
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Drops the content without reading it, deleting a spilled file. Producers
+	 * must call it when they fail before the spool is sent, so the temporary file
+	 * doesn't outlive the request.
+	 */
+	public void discard() {
+		try {
+			close();
+		} catch (IOException e) {
+			// the content is dropped anyway
+		}
+		if (file != null) {
+			file.delete();
+		}
+		memory = null;
+	}
+
+	private OutputStream target(int length) throws IOException {
+		if (file == null && memory.size() + length > memoryLimit) {
+			file = File.createTempFile("vraptor", ".spool");
+			fileStream = new BufferedOutputStream(new FileOutputStream(file));
+			memory.writeTo(fileStream);
+			memory = null;
+		}
+		return file == null ? memory : fileStream;
+	}
+
+	/**
+	 * Sends the buffered body, releasing the request thread if it is large enough.
+	 */
+	public void send(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		close();
+		if (!response.isCommitted()) {
+			response.setHeader("Content-Length", Long.toString(size));
+		}
+
+		if (output == null || !output.accepts(request, size)) {
+			try (InputStream source = openInputStream()) {
+				ByteStreams.copy(source, response.getOutputStream());
+			}
+			return;
+		}
+		InputStream source = openInputStream();
+		try {
+			output.stream(request, source);
+		} catch (IOException | RuntimeException e) {
+			source.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Closes the spool and opens its content. A spilled file is deleted when the
+	 * returned stream is closed, so the content can be read only once.
+	 */
+	public InputStream openInputStream() throws IOException {
+		close();
+		if (file == null) {
+			return new ByteArrayInputStream(memory.toByteArray());
+		}
+		final File spilled = file;
+		return new FileInputStream(spilled) {
+			@Override
+			public void close() throws IOException {
+				super.close();
+				spilled.delete();
+			}
+		};
+	}
+}
@@ -19,6 +19,7 @@ import javax.inject.Inject;
 
 import br.com.caelum.vraptor.cache.CacheStore;
 import br.com.caelum.vraptor.cache.LRU;
+import br.com.caelum.vraptor.cache.TinyLFU;
 
 public class UsingCacheComponent {
 
@@ -26,6 +27,10 @@ public class UsingCacheComponent {
 	@LRU(capacity=200)
 	private CacheStore<String,String> cacheLRU;
 
+	@Inject
+	@TinyLFU(capacity=200)
+	private CacheStore<String,String> cacheTinyLFU;
+
 	@Inject
 	private CacheStore<String,String> cache;
 
@@ -33,6 +38,10 @@ public class UsingCacheComponent {
 		return cacheLRU.write(key, value);
 	}
 
+	public String putWithTinyLFU(String key,String value) {
+		return cacheTinyLFU.write(key, value);
+	}
+
 	public String putWithDefault(String key,String value) {
 		return cache.write(key, value);
 	}
@@ -0,0 +1,285 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.cache;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.inject.spi.AnnotatedParameter;
+import javax.enterprise.inject.spi.InjectionPoint;
+
+import org.junit.Test;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Ticker;
+
+public class TinyLFUCacheStoreTest {
+
+	private final FakeTicker ticker = new FakeTicker();
+
+	@Test
+	public void shouldWriteAndFetchValues() {
+		TinyLFUCacheStore<String, String> cache = new TinyLFUCacheStore<>(10);
+
+		assertNull(cache.write("key", "first"));
+		assertEquals("first", cache.write("key", "second"));
+		assertEquals("second", cache.fetch("key"));
+		assertNull(cache.fetch("other"));
+	}
+
+	@Test
+	public void shouldComputeValueOnceOnConcurrentMisses() throws Exception {
+		final TinyLFUCacheStore<String, String> cache = new TinyLFUCacheStore<>(10);
+		final AtomicInteger computations = new AtomicInteger();
+		final CountDownLatch computing = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(executor.submit(new Callable<String>() {
+					@Override
+					public String call() throws Exception {
+						return cache.fetch("key", new Supplier<String>() {
+							@Override
+							public String get() {
+								computations.incrementAndGet();
+								computing.countDown();
+								try {
+									release.await();
+								} catch (InterruptedException e) {
+									throw new IllegalStateException(e);
+								}
+								return "value";
+							}
+						});
+					}
+				}));
+			}
+			computing.await(5, TimeUnit.SECONDS);
+			Thread.sleep(100);
+			release.countDown();
+
+			for (Future<String> result : results) {
+				assertEquals("value", result.get(5, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(1, computations.get());
+		assertEquals(1, cache.stats().getMisses());
+		assertEquals(7, cache.stats().getHits());
+	}
+
+	@Test
+	public void shouldNotStoreFailedComputations() {
+		TinyLFUCacheStore<String, String> cache = new TinyLFUCacheStore<>(10);
+		try {
+			cache.fetch("key", new Supplier<String>() {
+				@Override
+				public String get() {
+					throw new IllegalArgumentException("boom");
+				}
+			});
+			fail("should propagate the exception");
+		} catch (IllegalArgumentException e) {
+			assertEquals("boom", e.getMessage());
+		}
+
+		assertEquals("value", cache.fetch("key", constant("value")));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void shouldComplainAboutRecursiveComputations() {
+		final TinyLFUCacheStore<String, String> cache = new TinyLFUCacheStore<>(10);
+		cache.fetch("key", new Supplier<String>() {
+			@Override
+			public String get() {
+				return cache.fetch("key", constant("value"));
+			}
+		});
+	}
+
+	@Test
+	public void shouldNeverGrowBeyondCapacity() {
+		TinyLFUCacheStore<Integer, Integer> cache = new TinyLFUCacheStore<>(100);
+		for (int i = 0; i < 10000; i++) {
+			cache.write(i, i);
+			assertThat(cache.size(), lessThanOrEqualTo(100));
+		}
+		assertEquals(9900, cache.stats().getEvictions());
+	}
+
+	@Test
+	public void shouldKeepFrequentlyUsedKeysWhenScanned() {
+		TinyLFUCacheStore<Integer, Integer> cache = new TinyLFUCacheStore<>(100);
+		for (int round = 0; round < 5; round++) {
+			for (int hot = 0; hot < 50; hot++) {
+				cache.fetch(hot, constant(hot));
+			}
+		}
+		for (int scanned = 1000; scanned < 3000; scanned++) {
+			cache.fetch(scanned, constant(scanned));
+		}
+
+		int kept = 0;
+		for (int hot = 0; hot < 50; hot++) {
+			if (cache.fetch(hot) != null) {
+				kept++;
+			}
+		}
+		assertThat(kept, greaterThanOrEqualTo(45));
+	}
+
+	@Test
+	public void shouldExpireAfterWrite() {
+		TinyLFUCacheStore<String, String> cache = new TinyLFUCacheStore<>(10, 1000, 0, new CacheCounters(), ticker);
+		cache.write("key", "value");
+
+		ticker.advance(999);
+		assertEquals("value", cache.fetch("key"));
+		ticker.advance(1);
+		assertNull(cache.fetch("key"));
+		assertEquals(0, cache.size());
+		assertEquals(1, cache.stats().getEvictions());
+	}
+
+	@Test
+	public void shouldExpireAfterAccess() {
+		TinyLFUCacheStore<String, String> cache = new TinyLFUCacheStore<>(10, 0, 1000, new CacheCounters(), ticker);
+		cache.write("key", "value");
+
+		ticker.advance(600);
+		assertEquals("value", cache.fetch("key"));
+		ticker.advance(600);
+		assertEquals("value", cache.fetch("key"));
+		ticker.advance(1000);
+		assertNull(cache.fetch("key"));
+	}
+
+	@Test
+	public void shouldRemoveExpiredValuesWhenWritten() {
+		TinyLFUCacheStore<String, String> cache = new TinyLFUCacheStore<>(10, 1000, 0, new CacheCounters(), ticker);
+		cache.write("old", "value");
+		ticker.advance(1000);
+		cache.write("new", "value");
+
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void shouldCountHitsAndMisses() {
+		TinyLFUCacheStore<String, String> cache = new TinyLFUCacheStore<>(10);
+		cache.fetch("key", constant("value"));
+		cache.fetch("key", constant("other"));
+		cache.fetch("key");
+		cache.fetch("missing");
+
+		CacheStats stats = cache.stats();
+		assertEquals(2, stats.getHits());
+		assertEquals(2, stats.getMisses());
+		assertEquals(0.5, stats.getHitRate(), 0.001);
+	}
+
+	@Test
+	public void shouldShareStatisticsOfTheSameInjectionPoint() throws Exception {
+		CacheStatistics statistics = new CacheStatistics();
+		CacheCounters counters = statistics.countersFor(injectionPoint());
+		new TinyLFUCacheStore<String, String>(10, 0, 0, counters, ticker).fetch("key");
+		new TinyLFUCacheStore<String, String>(10, 0, 0, statistics.countersFor(injectionPoint()), ticker).fetch("key");
+
+		String name = TinyLFUCacheStoreTest.class.getName() + "#cached";
+		assertEquals(2, statistics.of(name).getMisses());
+		assertEquals(1, statistics.snapshot().size());
+	}
+
+	@Test
+	public void shouldKeepStatisticsOfEachParameterOfAConstructor() throws Exception {
+		CacheStatistics statistics = new CacheStatistics();
+		new TinyLFUCacheStore<String, String>(10, 0, 0, statistics.countersFor(parameter(0)), ticker).fetch("key");
+		new TinyLFUCacheStore<String, String>(10, 0, 0, statistics.countersFor(parameter(1)), ticker).fetch("key");
+
+		String name = TwoCaches.class.getName() + "#<init>";
+		assertEquals(1, statistics.of(name + "[0]").getMisses());
+		assertEquals(1, statistics.of(name + "[1]").getMisses());
+		assertEquals(2, statistics.snapshot().size());
+	}
+
+	@SuppressWarnings("unchecked")
+	private InjectionPoint parameter(int position) throws Exception {
+		AnnotatedParameter<Object> parameter = mock(AnnotatedParameter.class);
+		when(parameter.getPosition()).thenReturn(position);
+		InjectionPoint ip = mock(InjectionPoint.class);
+		when(ip.getMember()).thenReturn(TwoCaches.class.getDeclaredConstructor(CacheStore.class, CacheStore.class));
+		when(ip.getAnnotated()).thenReturn(parameter);
+		return ip;
+	}
+
+	static class TwoCaches {
+		TwoCaches(CacheStore<String, String> first, CacheStore<String, String> second) {
+		}
+	}
+
+	private InjectionPoint injectionPoint() throws Exception {
+		InjectionPoint ip = mock(InjectionPoint.class);
+		when(ip.getMember()).thenReturn(TinyLFUCacheStoreTest.class.getDeclaredField("cached"));
+		return ip;
+	}
+
+	@SuppressWarnings("unused")
+	private CacheStore<String, String> cached;
+
+	private static <T> Supplier<T> constant(final T value) {
+		return new Supplier<T>() {
+			@Override
+			public T get() {
+				return value;
+			}
+		};
+	}
+
+	private static class FakeTicker extends Ticker {
+		private long nanos;
+
+		void advance(long millis) {
+			nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+		}
+
+		@Override
+		public long read() {
+			return nanos;
+		}
+	}
+}
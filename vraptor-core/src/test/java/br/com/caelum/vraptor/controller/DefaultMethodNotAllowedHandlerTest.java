@@ -15,6 +15,7 @@
  */
 package br.com.caelum.vraptor.controller;
 
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -25,6 +26,7 @@ import static org.mockito.Mockito.when;
 import java.io.IOException;
 import java.util.EnumSet;
 
+import javax.enterprise.event.Event;
 import javax.servlet.http.HttpServletResponse;
 
 import org.junit.Before;
@@ -33,6 +35,7 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import br.com.caelum.vraptor.InterceptionException;
+import br.com.caelum.vraptor.events.MethodNotAllowed;
 import br.com.caelum.vraptor.http.MutableRequest;
 import br.com.caelum.vraptor.http.MutableResponse;
 
@@ -44,12 +47,22 @@ public class DefaultMethodNotAllowedHandlerTest {
 	private DefaultMethodNotAllowedHandler handler;
 	private MutableResponse response;
 	private MutableRequest request;
+	private Event<MethodNotAllowed> event;
 
 	@Before
+	@SuppressWarnings("unchecked")
 	public void setUp() throws Exception {
 		this.response = mock(MutableResponse.class);
 		this.request = mock(MutableRequest.class);
-		this.handler = new DefaultMethodNotAllowedHandler();
+		this.event = mock(Event.class);
+		this.handler = new DefaultMethodNotAllowedHandler(event);
+	}
+
+	@Test
+	public void shouldFireMethodNotAllowedEvent() throws Exception {
+		this.handler.deny(request, response, EnumSet.of(HttpMethod.GET, HttpMethod.POST));
+
+		verify(event).fire(any(MethodNotAllowed.class));
 	}
 
 	@Test
@@ -33,6 +33,7 @@ import br.com.caelum.vraptor.controller.ControllerMethod;
 import br.com.caelum.vraptor.controller.DefaultControllerInstance;
 import br.com.caelum.vraptor.events.InterceptorsExecuted;
 import br.com.caelum.vraptor.events.InterceptorsReady;
+import br.com.caelum.vraptor.metrics.DispatchMetrics;
 import br.com.caelum.vraptor.util.test.MockInstanceImpl;
 
 public class DefaultInterceptorStackTest {
@@ -53,11 +54,11 @@ public class DefaultInterceptorStackTest {
 	public void setUp() {
 		MockitoAnnotations.initMocks(this);
 		controllerInstance = new DefaultControllerInstance(controller);
-		stack = new DefaultInterceptorStack(cache, new MockInstanceImpl<>(controllerMethod), new MockInstanceImpl<>(controllerInstance), interceptorsExecutedEvent, interceptorsReadyEvent);
+		stack = new DefaultInterceptorStack(cache, new MockInstanceImpl<>(controllerMethod), new MockInstanceImpl<>(controllerInstance), interceptorsExecutedEvent, interceptorsReadyEvent, new DispatchMetrics());
 		LinkedList<InterceptorHandler> handlers = new LinkedList<>();
 		handlers.add(handler);
 		
-		when(cache.getInterceptorHandlers()).thenReturn(handlers);
+		when(cache.getInterceptorHandlers(controllerMethod)).thenReturn(handlers);
 	}
 	
 	@Test
@@ -90,6 +91,17 @@ public class DefaultInterceptorStackTest {
 		verify(interceptorsExecutedEvent).fire(any(InterceptorsExecuted.class));
 	}
 
+	@Test
+	@SuppressWarnings("deprecation")
+	public void executesHandlersWithoutMetrics() throws Exception {
+		stack = new DefaultInterceptorStack(cache, new MockInstanceImpl<>(controllerMethod),
+				new MockInstanceImpl<>(controllerInstance), interceptorsExecutedEvent, interceptorsReadyEvent);
+
+		stack.start();
+
+		verify(handler).execute(stack, controllerMethod, controller);
+	}
+
 	private Answer<Void> callNext() {
 		return new Answer<Void>() {
 
@@ -19,9 +19,18 @@ package br.com.caelum.vraptor.core;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
 
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
@@ -33,6 +42,9 @@ import org.junit.rules.TemporaryFolder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import br.com.caelum.vraptor.environment.Environment;
+import br.com.caelum.vraptor.events.VRaptorInitialized;
+
 public class DefaultStaticContentHandlerTest {
 
 	@Rule
@@ -91,4 +103,100 @@ public class DefaultStaticContentHandlerTest {
 		boolean result = new DefaultStaticContentHandler(context).requestingStaticFile(request);
 		assertThat(result, is(equalTo(false)));
 	}
+
+	private DefaultStaticContentHandler indexedHandler() {
+		when(context.getResourcePaths("/")).thenReturn(new HashSet<>(Arrays.asList("/css/", "/index.html", "/WEB-INF/")));
+		when(context.getResourcePaths("/css/")).thenReturn(new HashSet<>(Arrays.asList("/css/app.css")));
+		when(context.getResourcePaths("/WEB-INF/")).thenReturn(new HashSet<>(Arrays.asList("/WEB-INF/web.xml")));
+		DefaultStaticContentHandler handler = new DefaultStaticContentHandler(context, null);
+		handler.init();
+		return handler;
+	}
+
+	private void requesting(String uri) {
+		when(request.getRequestURI()).thenReturn("/contextName" + uri);
+		when(request.getContextPath()).thenReturn("/contextName");
+	}
+
+	@Test
+	public void doesNotLookForIndexedFiles() throws Exception {
+		DefaultStaticContentHandler handler = indexedHandler();
+
+		requesting("/css/app.css;jsessionid=12lkjahfsd12414");
+		assertThat(handler.requestingStaticFile(request), is(true));
+		requesting("/index.html");
+		assertThat(handler.requestingStaticFile(request), is(true));
+		verify(context, never()).getResource(anyString());
+		verify(context, never()).getResourcePaths("/WEB-INF/");
+	}
+
+	@Test
+	public void indexesWhenVRaptorIsInitialized() throws Exception {
+		DefaultStaticContentHandler handler = indexedHandler();
+		handler.indexOnStartup(new VRaptorInitialized(context));
+
+		verify(context, times(1)).getResourcePaths("/");
+	}
+
+	@Test
+	public void looksForOtherUrisOnlyOnce() throws Exception {
+		DefaultStaticContentHandler handler = indexedHandler();
+
+		requesting("/products/12");
+		assertThat(handler.requestingStaticFile(request), is(false));
+		assertThat(handler.requestingStaticFile(request), is(false));
+		verify(context, times(1)).getResource("/products/12");
+	}
+
+	@Test
+	public void remembersStaticFilesThatWereNotIndexed() throws Exception {
+		DefaultStaticContentHandler handler = indexedHandler();
+		when(context.getResource("/webjars/app.js")).thenReturn(file.toURI().toURL());
+
+		requesting("/webjars/app.js");
+		assertThat(handler.requestingStaticFile(request), is(true));
+		assertThat(handler.requestingStaticFile(request), is(true));
+		verify(context, times(1)).getResource("/webjars/app.js");
+	}
+
+	@Test
+	public void usesTheConfiguredRules() throws Exception {
+		when(context.getInitParameter(DefaultStaticContentHandler.STATIC_PATHS_KEY))
+			.thenReturn("/favicon.ico, /assets/**, *.png");
+		DefaultStaticContentHandler handler = indexedHandler();
+
+		for (String uri : Arrays.asList("/favicon.ico", "/assets/js/app.js", "/img/logo.png")) {
+			requesting(uri);
+			assertThat(handler.requestingStaticFile(request), is(true));
+		}
+		requesting("/assets");
+		assertThat(handler.requestingStaticFile(request), is(false));
+		verify(context, times(1)).getResource(anyString());
+	}
+
+	@Test
+	public void looksForEveryUriWhenTheIndexIsDisabled() throws Exception {
+		when(context.getInitParameter(DefaultStaticContentHandler.STATIC_INDEX_KEY)).thenReturn("false");
+		DefaultStaticContentHandler handler = indexedHandler();
+
+		requesting("/index.html");
+		assertThat(handler.requestingStaticFile(request), is(false));
+		assertThat(handler.requestingStaticFile(request), is(false));
+		verify(context, times(2)).getResource("/index.html");
+	}
+
+	@Test
+	public void reindexesChangedFilesInDevelopment() throws Exception {
+		Environment environment = mock(Environment.class);
+		when(environment.isDevelopment()).thenReturn(true);
+		when(context.getRealPath("/")).thenReturn(tmpdir.getRoot().getAbsolutePath());
+		DefaultStaticContentHandler handler = new DefaultStaticContentHandler(context, environment);
+		handler.init();
+		try {
+			tmpdir.newFile("new.html");
+			verify(context, timeout(10000).atLeast(2)).getResourcePaths("/");
+		} finally {
+			handler.stop();
+		}
+	}
 }
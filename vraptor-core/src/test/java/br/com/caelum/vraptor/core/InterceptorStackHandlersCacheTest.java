@@ -28,11 +28,17 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import br.com.caelum.vraptor.InterceptionException;
+import br.com.caelum.vraptor.cache.DefaultCacheStore;
 import br.com.caelum.vraptor.controller.ControllerMethod;
 import br.com.caelum.vraptor.interceptor.Interceptor;
 import br.com.caelum.vraptor.interceptor.InterceptorRegistry;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import static org.mockito.Mockito.when;
 
@@ -41,6 +47,9 @@ public class InterceptorStackHandlersCacheTest {
 	private @Mock InterceptorRegistry registry;
 	private @Mock InterceptorHandlerFactory handlerFactory;
 	private InterceptorStackHandlersCache cache;
+	private @Mock ControllerMethod method;
+	private @Mock InterceptorStack stack;
+	private Object controller = new Object();
 	private List<Class<?>> interceptors;
 
 	@Before
@@ -62,7 +71,8 @@ public class InterceptorStackHandlersCacheTest {
 			}
 		});
 		
-		cache = new InterceptorStackHandlersCache(registry, handlerFactory);
+		cache = new InterceptorStackHandlersCache(registry, handlerFactory,
+				new DefaultCacheStore<ControllerMethod, List<InterceptorHandler>>());
 		cache.init();
 	}
 
@@ -81,12 +91,46 @@ public class InterceptorStackHandlersCacheTest {
 		assertEquals(2, cache.getInterceptorHandlers().size());
 	}
 	
+	@Test
+	public void shouldEvaluateStaticAcceptsOncePerMethod() {
+		StaticAcceptsInterceptorHandler accepted = staticHandler(true);
+		StaticAcceptsInterceptorHandler rejected = staticHandler(false);
+		StaticAcceptsInterceptorHandler dynamic = mock(StaticAcceptsInterceptorHandler.class);
+		when(handlerFactory.handlerFor(FirstInterceptor.class)).thenReturn(accepted);
+		when(handlerFactory.handlerFor(SecondInterceptor.class)).thenReturn(rejected);
+		when(handlerFactory.handlerFor(ThirdInterceptor.class)).thenReturn(dynamic);
+		interceptors.add(ThirdInterceptor.class);
+		cache = new InterceptorStackHandlersCache(registry, handlerFactory,
+				new DefaultCacheStore<ControllerMethod, List<InterceptorHandler>>());
+		cache.init();
+
+		List<InterceptorHandler> handlers = cache.getInterceptorHandlers(method);
+		assertSame(handlers, cache.getInterceptorHandlers(method));
+		assertEquals(2, handlers.size());
+		assertSame(dynamic, handlers.get(1));
+		verify(accepted, times(1)).accepts(method);
+		verify(rejected, times(1)).accepts(method);
+		verify(dynamic, never()).accepts(method);
+
+		handlers.get(0).execute(stack, method, controller);
+		verify(accepted).executeAccepted(stack, method, controller);
+		verify(accepted, never()).execute(stack, method, controller);
+	}
+
+	private StaticAcceptsInterceptorHandler staticHandler(boolean accepts) {
+		StaticAcceptsInterceptorHandler handler = mock(StaticAcceptsInterceptorHandler.class);
+		when(handler.hasStaticAccepts()).thenReturn(true);
+		when(handler.accepts(method)).thenReturn(accepts);
+		return handler;
+	}
+
 	private Class<?> extractInterceptor(InterceptorHandler handler){
 		return ((MockInterceptorHandler)handler).interceptor;
 	}
 	
 	static interface FirstInterceptor extends Interceptor {}
 	static interface SecondInterceptor extends Interceptor {}
+	static interface ThirdInterceptor extends Interceptor {}
 	
 	private class MockInterceptorHandler implements InterceptorHandler{
 
@@ -0,0 +1,63 @@
+package br.com.caelum.vraptor.core;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MethodHandleReflectionProviderTest extends ReflectionProviderTest {
+
+	public static class Cat {
+		public void scratch() throws IOException {
+			throw new IOException("ouch");
+		}
+
+		public static int lives(int taken) {
+			return 7 - taken;
+		}
+
+		public void meow() {
+		}
+	}
+
+	@Override
+	@Before
+	public void setup() {
+		reflectionProvider = new MethodHandleReflectionProvider();
+	}
+
+	@Test
+	public void shouldReuseMetadataOfTheSameClass() {
+		assertThat(reflectionProvider.getMethodsFor(Dog.class), sameInstance(reflectionProvider.getMethodsFor(Dog.class)));
+		assertThat(reflectionProvider.getFieldsFor(Dog.class), sameInstance(reflectionProvider.getFieldsFor(Dog.class)));
+		assertThat(reflectionProvider.getMethod(Dog.class, "setName", String.class),
+				sameInstance(reflectionProvider.getMethod(Dog.class, "setName", String.class)));
+	}
+
+	@Test
+	public void shouldWrapExceptionsThrownByTheMethod() throws Exception {
+		Method scratch = Cat.class.getMethod("scratch");
+		try {
+			reflectionProvider.invoke(new Cat(), scratch);
+			fail("should throw an exception");
+		} catch (ReflectionProviderException e) {
+			assertThat(e.getCause(), instanceOf(IOException.class));
+			assertThat(e.getCause().getMessage(), equalTo("ouch"));
+		}
+	}
+
+	@Test
+	public void shouldInvokeStaticAndVoidMethods() throws Exception {
+		assertThat((Integer) reflectionProvider.invoke(null, Cat.class.getMethod("lives", int.class), 2), equalTo(5));
+		assertThat(reflectionProvider.invoke(new Cat(), Cat.class.getMethod("meow")), nullValue());
+		assertThat((Integer) reflectionProvider.invoke(new Cat(), "lives", 3), equalTo(4));
+	}
+}
@@ -0,0 +1,60 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.core;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+
+public class StaticResourceIndexTest {
+
+	private long now;
+
+	private final Ticker ticker = new Ticker() {
+		@Override
+		public long read() {
+			return now;
+		}
+	};
+
+	private final StaticResourceIndex index = new StaticResourceIndex(Collections.<String> emptyList(), 10, 60,
+			SECONDS, ticker);
+
+	@Test
+	public void forgetsMissesAfterAWhile() {
+		index.remember("/new.html", false);
+		assertThat(index.isStatic("/new.html"), is(false));
+
+		now += SECONDS.toNanos(61);
+		assertThat(index.isStatic("/new.html"), is(nullValue()));
+	}
+
+	@Test
+	public void keepsRememberingStaticFiles() {
+		index.remember("/webjars/app.js", true);
+
+		now += SECONDS.toNanos(61);
+		assertThat(index.isStatic("/webjars/app.js"), is(true));
+	}
+}
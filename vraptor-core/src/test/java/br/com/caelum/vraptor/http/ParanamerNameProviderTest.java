@@ -21,13 +21,20 @@ import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 
 import javax.inject.Named;
 
 import org.junit.Test;
 
+import br.com.caelum.vraptor.controller.HttpMethod;
+import br.com.caelum.vraptor.index.IndexedMethod;
+import br.com.caelum.vraptor.index.MetadataIndex;
+
 public class ParanamerNameProviderTest {
 
 	private ParanamerNameProvider provider = new ParanamerNameProvider();
@@ -72,6 +79,17 @@ public class ParanamerNameProviderTest {
 		assertThat(secondCall[0], notNullValue());
 	}
 	
+	@Test
+	public void shouldUseTheNamesOfIndexedMethods() throws Exception {
+		Method rest = Horse.class.getMethod("rest", int.class);
+		MetadataIndex index = new MetadataIndex(Collections.singletonList(new IndexedMethod(IndexedMethod.keyOf(rest),
+				new String[] { "indexed" }, EnumSet.noneOf(HttpMethod.class), new String[0])));
+		provider = new ParanamerNameProvider(index);
+
+		assertThat(toNames(provider.parametersFor(rest)), contains("indexed"));
+		assertThat(toNames(provider.parametersFor(Horse.class.getMethod("setLeg", int[].class))), contains("length"));
+	}
+
 	@Test
 	public void shouldNameFieldsAnnotatedWithNamed() throws SecurityException, NoSuchMethodException  {
 		Parameter[] namesFor = provider.parametersFor(Horse.class.getMethod("runThroughWithAnnotation", Field.class));
@@ -47,6 +47,8 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -70,6 +72,7 @@ import br.com.caelum.iogi.parameters.Parameter;
 import br.com.caelum.iogi.parameters.Parameters;
 import br.com.caelum.iogi.reflection.Target;
 import br.com.caelum.vraptor.Result;
+import br.com.caelum.vraptor.cache.DefaultCacheStore;
 import br.com.caelum.vraptor.controller.ControllerMethod;
 import br.com.caelum.vraptor.controller.DefaultControllerMethod;
 import br.com.caelum.vraptor.converter.Converter;
@@ -96,6 +99,7 @@ public class IogiParametersProviderTest {
 	private @Mock Container container;
 
 	private ParameterNameProvider nameProvider;
+	private ParametersBinders binders;
 	private ArrayList<Message> errors;
 	private ParametersProvider iogi;
 
@@ -103,6 +107,7 @@ public class IogiParametersProviderTest {
 	public void setup() throws Exception {
 		MockitoAnnotations.initMocks(this);
 		nameProvider = new ParanamerNameProvider();
+		binders = new ParametersBinders(nameProvider, new DefaultCacheStore<ControllerMethod, ParametersBinder>());
 		errors = new ArrayList<>();
 		iogi = createIogiInstance();
 		
@@ -423,7 +428,7 @@ public class IogiParametersProviderTest {
 				new VRaptorParameterNamesProvider(nameProvider), request);
 
 		instantiator.createInstantiator();
-		IogiParametersProvider provider = new IogiParametersProvider(nameProvider, request, instantiator);
+		IogiParametersProvider provider = new IogiParametersProvider(request, instantiator, binders);
 
 		thereAreNoParameters();
 		ControllerMethod method = method(House.class, House.class, "setCat", Cat.class);
@@ -471,24 +476,52 @@ public class IogiParametersProviderTest {
 	//---------- The Following tests mock iogi to unit test the ParametersProvider impl.
 	@Test
 	public void willCreateAnIogiParameterForEachRequestParameterValue() throws Exception {
-		requestParameterIs("name", "a", "b");
+		requestParameterIs("house.name", "a", "b");
 
 		final InstantiatorWithErrors mockInstantiator = mock(InstantiatorWithErrors.class);
-		final Parameters expectedParamters = new Parameters(new Parameter("name", "a"), new Parameter("name", "b"));
+		final Parameters expectedParamters = new Parameters(new Parameter("house.name", "a"), new Parameter("house.name", "b"));
 
-		IogiParametersProvider iogiProvider = new IogiParametersProvider(nameProvider, request, mockInstantiator);
+		IogiParametersProvider iogiProvider = new IogiParametersProvider(request, mockInstantiator, binders);
 
 		iogiProvider.getParametersFor(method("buyA", House.class), errors);
 
 		verify(mockInstantiator).instantiate(any(Target.class), eq(expectedParamters), eq(errors));
 	}
 
+	@Test
+	public void willOnlyGiveTheParametersRelatedToTheTargets() throws Exception {
+		requestParametersAre(ImmutableMap.of("house.name", new String[] {"a"}, "house[0]", new String[] {"b"},
+				"houseName", new String[] {"c"}, "other.house", new String[] {"d"}));
+
+		final InstantiatorWithErrors mockInstantiator = mock(InstantiatorWithErrors.class);
+		final Parameters expectedParamters = new Parameters(new Parameter("house.name", "a"), new Parameter("house[0]", "b"));
+
+		IogiParametersProvider iogiProvider = new IogiParametersProvider(request, mockInstantiator, binders);
+
+		iogiProvider.getParametersFor(method("buyA", House.class), errors);
+
+		verify(mockInstantiator).instantiate(any(Target.class), eq(expectedParamters), eq(errors));
+	}
+
+	@Test
+	public void willFindTheTargetsOfEachMethodOnlyOnce() throws Exception {
+		ParameterNameProvider mockNameProvider = spy(nameProvider);
+		binders = new ParametersBinders(mockNameProvider, new DefaultCacheStore<ControllerMethod, ParametersBinder>());
+		iogi = createIogiInstance();
+		requestParameterIs("xyz", "42");
+
+		assertThat(this.<Long> getFirstParameterFor(method("simple", Long.class)), is(42L));
+		assertThat(this.<Long> getFirstParameterFor(method("simple", Long.class)), is(42L));
+
+		verify(mockNameProvider, times(1)).parametersFor(MyResource.class.getDeclaredMethod("simple", Long.class));
+	}
+
 	@Test
 	public void willCreateATargerForEachFormalParameterDeclaredByTheMethod() throws Exception {
 		requestParameterIs("house", "");
 
 		final InstantiatorWithErrors mockInstantiator = mock(InstantiatorWithErrors.class);
-		IogiParametersProvider iogiProvider = new IogiParametersProvider(nameProvider, request, mockInstantiator);
+		IogiParametersProvider iogiProvider = new IogiParametersProvider(request, mockInstantiator, binders);
 		final Target<House> expectedTarget = Target.create(House.class, "house");
 
 		iogiProvider.getParametersFor(method("buyA", House.class), errors);
@@ -580,7 +613,7 @@ public class IogiParametersProviderTest {
 		VRaptorInstantiator instantiator = new VRaptorInstantiator(converters, new VRaptorDependencyProvider(container),
 				new VRaptorParameterNamesProvider(nameProvider), request);
 		instantiator.createInstantiator();
-		return new IogiParametersProvider(nameProvider, request, instantiator);
+		return new IogiParametersProvider(request, instantiator, binders);
 	}
 
 	private ControllerMethod method(String methodName, Class<?>... argTypes) throws NoSuchMethodException {
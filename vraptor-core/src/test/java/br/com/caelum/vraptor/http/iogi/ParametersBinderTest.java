@@ -0,0 +1,57 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.http.iogi;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import br.com.caelum.iogi.reflection.Target;
+
+public class ParametersBinderTest {
+
+	@SuppressWarnings("unchecked")
+	private final ParametersBinder binder = new ParametersBinder(asList(
+			new Target<Object>(Object.class, "product"), new Target<Object>(Object.class, "id")));
+
+	@Test
+	public void shouldAcceptParametersNamedAfterTheTargets() {
+		assertTrue(binder.isRelevant("id"));
+		assertTrue(binder.isRelevant("product"));
+		assertTrue(binder.isRelevant("product.name"));
+		assertTrue(binder.isRelevant("product.category.name"));
+	}
+
+	@Test
+	public void shouldAcceptIndexedParameters() {
+		assertTrue(binder.isRelevant("id[0]"));
+		assertTrue(binder.isRelevant("product[1].name"));
+		assertTrue(binder.isRelevant("product[key_1].name"));
+	}
+
+	@Test
+	public void shouldIgnoreOtherParameters() {
+		assertFalse(binder.isRelevant("ids"));
+		assertFalse(binder.isRelevant("productName"));
+		assertFalse(binder.isRelevant("order.product"));
+		assertFalse(binder.isRelevant("product[].name"));
+		assertFalse(binder.isRelevant("product[0][1]"));
+		assertFalse(binder.isRelevant("product[a-b]"));
+	}
+}
@@ -20,6 +20,7 @@ package br.com.caelum.vraptor.http.route;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
@@ -39,6 +40,7 @@ import br.com.caelum.vraptor.core.Converters;
 import br.com.caelum.vraptor.core.DefaultReflectionProvider;
 import br.com.caelum.vraptor.http.EncodingHandler;
 import br.com.caelum.vraptor.http.MutableRequest;
+import br.com.caelum.vraptor.http.Parameter;
 import br.com.caelum.vraptor.http.ParameterNameProvider;
 import br.com.caelum.vraptor.http.ParanamerNameProvider;
 
@@ -232,6 +234,24 @@ public class DefaultParametersControlTest {
 				is(uri));
 	}
 
+	@Test
+	public void shouldApplyValuesToPatternsWithRegexes() throws Exception {
+		DefaultParametersControl control = getDefaultParameterControlForUrl("/clients/{id:[0-9]{1,}}/{name}/.*");
+
+		assertThat(control.apply(new String[] {"15", "john"}), is("/clients/15/john/.*"));
+		assertThat(control.apply(new String[] {"15"}), is("/clients/15/{name}/.*"));
+	}
+
+	@Test
+	public void shouldFillUrisAgainWithOtherValues() throws Exception {
+		Method method = Controller.class.getDeclaredMethod("mregex", String.class, String.class, String.class);
+		DefaultParametersControl control = getDefaultParameterControlForUrl("/test/{hash1}/{id}/{hash2}");
+		Parameter[] names = nameProvider.parametersFor(method);
+
+		assertThat(control.fillUri(names, "a", "b", "c"), is("/test/a/b/c"));
+		assertThat(control.fillUri(names, "x", null, "z"), is("/test/x//z"));
+	}
+
 	@Test
 	public void registerExtraParametersFromAcessedUrlWithGreedyParameters() throws SecurityException, NoSuchMethodException {
 		DefaultParametersControl control = getDefaultParameterControlForUrl("/clients/{pathToFile*}");
@@ -328,6 +348,36 @@ public class DefaultParametersControlTest {
 		assertThat(uri, is(equalTo("/language/c%23/about")));
 	}
 
+	@Test
+	public void shouldMatchAndFillWithTheOlderMethodsOfCustomControls() {
+		final DefaultParametersControl delegate = getDefaultParameterControlForUrl("/clients/{dog.id}");
+		ParametersControl control = new ParametersControl() {
+			@Override
+			public boolean matches(String uri) {
+				return delegate.matches(uri);
+			}
+
+			@Override
+			public void fillIntoRequest(String uri, MutableRequest request) {
+				delegate.fillIntoRequest(uri, request);
+			}
+
+			@Override
+			public String fillUri(Parameter[] paramNames, Object... paramValues) {
+				return delegate.fillUri(paramNames, paramValues);
+			}
+
+			@Override
+			public String apply(String[] values) {
+				return delegate.apply(values);
+			}
+		};
+
+		assertThat(control.match("/dogs/45"), is(nullValue()));
+		control.fillIntoRequest(control.match("/clients/45"), request);
+		verify(request).setParameter("dog.id", new String[] {"45"});
+	}
+
 	public static class Controller {
 		void lang(String lang) {}
 		void show(Long id) {}
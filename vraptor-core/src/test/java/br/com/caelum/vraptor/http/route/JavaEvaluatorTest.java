@@ -29,6 +29,7 @@ import java.util.TreeSet;
 import org.junit.Before;
 import org.junit.Test;
 
+import br.com.caelum.vraptor.VRaptorException;
 import br.com.caelum.vraptor.core.DefaultReflectionProvider;
 
 public class JavaEvaluatorTest {
@@ -47,6 +48,7 @@ public class JavaEvaluatorTest {
 		private Set<Integer> favoriteNumbers;
 		private String[] favoriteColors;
 		private boolean ugly;
+		private List<Client> children;
 
 		public Client(Long id) {
 			this.id = id;
@@ -72,6 +74,10 @@ public class JavaEvaluatorTest {
 			return favoriteColors;
 		}
 
+		public List<Client> getChildren() {
+			return children;
+		}
+
 		public boolean isUgly() {
 			return ugly;
 		}
@@ -141,6 +147,32 @@ public class JavaEvaluatorTest {
 		assertThat((Boolean) evaluator.get(c, "client.ugly"), is(equalTo(true)));
 	}
 
+	@Test
+	public void shouldAccessPropertiesOfIndexedElements() {
+		Client c = client(1L);
+		c.children = Arrays.asList(client(2L), vipClient(3L));
+		assertThat((Long) evaluator.get(c, "client.children[1].id"), is(equalTo(3L)));
+	}
+
+	@Test
+	public void shouldReevaluateWithOtherTypesOnTheWay() {
+		Client c = client(1L);
+		c.child = client(2L);
+		assertThat((Long) evaluator.get(c, "client.child.id"), is(equalTo(2L)));
+
+		c.child = vipClient(3L);
+		assertThat((Long) evaluator.get(c, "client.child.id"), is(equalTo(3L)));
+
+		Client other = vipClient(4L);
+		other.child = client(5L);
+		assertThat((Long) evaluator.get(other, "client.child.id"), is(equalTo(5L)));
+	}
+
+	@Test(expected = VRaptorException.class)
+	public void shouldComplainAboutMissingGetters() {
+		evaluator.get(client(1L), "client.name");
+	}
+
 	private Client client(Long id) {
 		return new Client(id);
 	}
@@ -27,6 +27,7 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.when;
 
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 
@@ -58,6 +59,8 @@ import br.com.caelum.vraptor.core.ReflectionProvider;
 import br.com.caelum.vraptor.http.EncodingHandler;
 import br.com.caelum.vraptor.http.ParameterNameProvider;
 import br.com.caelum.vraptor.http.ParanamerNameProvider;
+import br.com.caelum.vraptor.index.IndexedMethod;
+import br.com.caelum.vraptor.index.MetadataIndex;
 import br.com.caelum.vraptor.proxy.JavassistProxifier;
 import br.com.caelum.vraptor.proxy.Proxifier;
 
@@ -564,4 +567,20 @@ public class PathAnnotationRoutesParserTest {
 		parser.rulesFor(new DefaultBeanClass(WrongGetAnnotatedController.class));
 	}
 
+	@Test
+	public void usesTheHttpMethodsAndUrisOfIndexedMethods() throws Exception {
+		IndexedMethod indexed = new IndexedMethod(
+				IndexedMethod.keyOf(GetAnnotatedController.class.getMethod("withAbsolutePath")),
+				new String[0], EnumSet.of(HttpMethod.POST), new String[] { "/indexed" });
+		parser = new PathAnnotationRoutesParser(router, reflectionProvider,
+				new MetadataIndex(Collections.singletonList(indexed)));
+
+		List<Route> routes = parser.rulesFor(new DefaultBeanClass(GetAnnotatedController.class));
+		Route route = getRouteMatching(routes, "/prefix/indexed");
+
+		assertThat(route, canHandle(GetAnnotatedController.class, "withAbsolutePath"));
+		assertThat(route.allowedMethods(), is(EnumSet.of(HttpMethod.POST)));
+		assertNull(getRouteMatching(routes, "/prefix/absolutePath"));
+	}
+
 }
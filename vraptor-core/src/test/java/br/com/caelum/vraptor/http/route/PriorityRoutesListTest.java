@@ -0,0 +1,102 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.http.route;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.caelum.vraptor.Path;
+
+public class PriorityRoutesListTest {
+
+	private PriorityRoutesList routes;
+
+	@Before
+	public void setUp() {
+		routes = new PriorityRoutesList();
+	}
+
+	private Route route(int priority) {
+		Route route = mock(Route.class);
+		when(route.getPriority()).thenReturn(priority);
+		return route;
+	}
+
+	@Test
+	public void shouldOrderRoutesByPriorityKeepingTheRegistrationOrder() {
+		Route low = route(Path.LOW);
+		Route first = route(Path.DEFAULT);
+		Route high = route(Path.HIGH);
+		Route second = route(Path.DEFAULT);
+
+		routes.add(low);
+		routes.add(first);
+		routes.add(high);
+		routes.add(second);
+
+		assertThat(routes, contains(high, first, second, low));
+		assertThat(routes.snapshot(), contains(high, first, second, low));
+	}
+
+	@Test
+	public void shouldNotChangeSnapshotsAlreadyPublished() {
+		Route first = route(Path.DEFAULT);
+		Route second = route(Path.HIGH);
+		routes.add(first);
+
+		List<Route> snapshot = routes.snapshot();
+		routes.add(second);
+
+		assertThat(snapshot, contains(first));
+		assertThat(routes.snapshot(), contains(second, first));
+	}
+
+	@Test
+	public void shouldNotAddTheSameRouteTwice() {
+		Route route = route(Path.DEFAULT);
+
+		routes.add(route);
+		assertFalse(routes.add(route));
+
+		assertThat(routes.snapshot(), contains(route));
+	}
+
+	@Test
+	public void shouldPublishAnEmptySnapshotWhenCleared() {
+		routes.add(route(Path.DEFAULT));
+		routes.clear();
+
+		assertThat(routes.snapshot(), is(empty()));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void shouldNotAllowChangingTheSnapshot() {
+		routes.add(route(Path.DEFAULT));
+
+		routes.snapshot().clear();
+	}
+}
@@ -0,0 +1,220 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.http.route;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import br.com.caelum.vraptor.Path;
+import br.com.caelum.vraptor.controller.HttpMethod;
+import br.com.caelum.vraptor.core.Converters;
+import br.com.caelum.vraptor.core.DefaultReflectionProvider;
+import br.com.caelum.vraptor.http.EncodingHandler;
+import br.com.caelum.vraptor.http.MutableRequest;
+import br.com.caelum.vraptor.http.ParameterNameProvider;
+import br.com.caelum.vraptor.http.ParanamerNameProvider;
+import br.com.caelum.vraptor.proxy.JavassistProxifier;
+
+public class RouteIndexTest {
+
+	private @Mock Converters converters;
+	private @Mock EncodingHandler encodingHandler;
+	private ParameterNameProvider provider;
+	private TypeFinder typeFinder;
+
+	public static class MyController {
+		public void list() {
+		}
+		public void show(Long id) {
+		}
+		public void edit(Long id) {
+		}
+		public void find(String path) {
+		}
+	}
+
+	@Before
+	public void setUp() {
+		MockitoAnnotations.initMocks(this);
+		provider = new ParanamerNameProvider();
+		typeFinder = new DefaultTypeFinder(provider, new DefaultReflectionProvider());
+	}
+
+	private Route route(String uri, String method, int priority) throws Exception {
+		DefaultRouteBuilder builder = new DefaultRouteBuilder(new JavassistProxifier(), typeFinder, converters,
+				provider, new JavaEvaluator(new DefaultReflectionProvider()), uri, encodingHandler);
+		builder.withPriority(priority);
+		for (java.lang.reflect.Method candidate : MyController.class.getMethods()) {
+			if (candidate.getName().equals(method)) {
+				builder.is(MyController.class, candidate);
+			}
+		}
+		return builder.build();
+	}
+
+	private Route route(String uri, String method) throws Exception {
+		return route(uri, method, Path.DEFAULT);
+	}
+
+	@Test
+	public void shouldFindLiteralRoutes() throws Exception {
+		Route list = route("/products", "list");
+		Route other = route("/clients", "list");
+		RouteIndex index = new RouteIndex(asList(list, other));
+
+		assertThat(index.routesMatching("/products"), contains(list));
+		assertThat(index.routesMatching("/clients"), contains(other));
+		assertThat(index.routesMatching("/products/"), is(empty()));
+		assertThat(index.routesMatching("/prod"), is(empty()));
+	}
+
+	@Test
+	public void shouldFindRoutesWithParameterSegments() throws Exception {
+		Route show = route("/products/{id}", "show");
+		Route edit = route("/products/{id}/edit", "edit");
+		RouteIndex index = new RouteIndex(asList(show, edit));
+
+		assertThat(index.routesMatching("/products/12"), contains(show));
+		assertThat(index.routesMatching("/products/12/edit"), contains(edit));
+		assertThat(index.routesMatching("/products/abc"), is(empty()));
+		assertThat(index.routesMatching("/products/12/show"), is(empty()));
+	}
+
+	@Test
+	public void shouldFindRoutesWithRegexParameters() throws Exception {
+		Route show = route("/products/{id:[0-9]{3}}", "show");
+		Route find = route("/files/{path*}", "find");
+		Route crossing = route("/docs/{path:.+}", "find");
+		RouteIndex index = new RouteIndex(asList(show, find, crossing));
+
+		assertThat(index.routesMatching("/products/123"), contains(show));
+		assertThat(index.routesMatching("/products/12"), is(empty()));
+		assertThat(index.routesMatching("/files/a/b/c.txt"), contains(find));
+		assertThat(index.routesMatching("/docs/a/b"), contains(crossing));
+	}
+
+	@Test
+	public void shouldKeepTheGivenOrder() throws Exception {
+		Route first = route("/products/{path}", "find", Path.HIGH);
+		Route second = route("/products/{path*}", "find", Path.DEFAULT);
+		Route third = route("/products/new", "list", Path.LOW);
+		RouteIndex index = new RouteIndex(asList(first, second, third));
+
+		assertThat(index.routesMatching("/products/new"), contains(first, second, third));
+	}
+
+	@Test
+	public void shouldTreatRegexCharactersOnLiteralsAsRegexes() throws Exception {
+		Route star = route("/*/list", "list");
+		Route dot = route("/products.json", "list");
+		RouteIndex index = new RouteIndex(asList(star, dot));
+
+		assertThat(index.routesMatching("/anything/list"), contains(star));
+		assertThat(index.routesMatching("/productsXjson"), contains(dot));
+	}
+
+	@Test
+	public void shouldAlwaysAskUnknownRoutes() throws Exception {
+		Route custom = mock(Route.class);
+		when(custom.canHandle("any uri")).thenReturn(true);
+		RouteIndex index = new RouteIndex(Collections.singletonList(custom));
+
+		assertThat(index.routesMatching("any uri"), contains(custom));
+		assertThat(index.routesMatching("/other"), is(empty()));
+	}
+
+	@Test
+	public void shouldNotUseRegexesForLiteralRoutes() throws Exception {
+		FixedMethodStrategy literal = mock(FixedMethodStrategy.class);
+		DefaultParametersControl control = new DefaultParametersControl("/literal", converters, null, encodingHandler);
+		when(literal.getOriginalUri()).thenReturn("/literal");
+		when(literal.getParametersControl()).thenReturn(control);
+		RouteIndex index = new RouteIndex(Collections.singletonList(literal));
+
+		assertThat(index.routesMatching("/literal"), contains((Route) literal));
+		verify(literal, never()).canHandle("/literal");
+	}
+
+	@Test
+	public void shouldFindTheBestRouteForTheHttpMethod() throws Exception {
+		Route first = route("/products/{path}", "find", Path.HIGH);
+		Route second = route("/products/{path*}", "find", Path.DEFAULT);
+		Route third = route("/products/new", "list", Path.LOW);
+		RouteIndex index = new RouteIndex(asList(first, second, third));
+
+		RouteIndex.Match match = index.find("/products/new", HttpMethod.GET);
+		assertThat(match.getRoute(), is(first));
+		assertThat(match.getOtherRoute(), is(second));
+		assertTrue(match.isUriMatched());
+	}
+
+	@Test
+	public void shouldReportMatchedUrisWithoutAllowedRoutes() throws Exception {
+		DefaultRouteBuilder builder = new DefaultRouteBuilder(new JavassistProxifier(), typeFinder, converters,
+				provider, new JavaEvaluator(new DefaultReflectionProvider()), "/products", encodingHandler);
+		builder.with(HttpMethod.POST).is(MyController.class, MyController.class.getMethod("list"));
+		RouteIndex index = new RouteIndex(Collections.singletonList(builder.build()));
+
+		RouteIndex.Match match = index.find("/products", HttpMethod.GET);
+		assertThat(match.getRoute(), is(nullValue()));
+		assertTrue(match.isUriMatched());
+		assertFalse(index.find("/clients", HttpMethod.GET).isUriMatched());
+	}
+
+	@Test
+	public void shouldFillSegmentParametersWithoutRegexes() throws Exception {
+		Route show = route("/products/{id}/edit", "edit");
+		Route find = route("/files/{path*}", "find");
+		RouteIndex index = new RouteIndex(asList(show, find));
+		MutableRequest request = mock(MutableRequest.class);
+		when(encodingHandler.getEncoding()).thenReturn("UTF-8");
+
+		index.find("/products/-12/edit", HttpMethod.GET).controllerMethod(request);
+		verify(request).setParameter("id", "-12");
+
+		index.find("/files/a%20b/c", HttpMethod.GET).controllerMethod(request);
+		verify(request).setParameter("path", "a b/c");
+	}
+
+	@Test
+	public void shouldDetectParametersThatCantCrossSegments() {
+		assertTrue(RouteIndex.isSingleSegment("[^/]*"));
+		assertTrue(RouteIndex.isSingleSegment("-?\\d*\\.?\\d+"));
+		assertTrue(RouteIndex.isSingleSegment("true|false"));
+		assertTrue(RouteIndex.isSingleSegment("a+b+c+"));
+		assertFalse(RouteIndex.isSingleSegment(".*"));
+		assertFalse(RouteIndex.isSingleSegment("."));
+		assertFalse(RouteIndex.isSingleSegment("[a-z/]+"));
+	}
+}
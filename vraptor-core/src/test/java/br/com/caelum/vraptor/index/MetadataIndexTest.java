@@ -0,0 +1,141 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.index;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Enumeration;
+import java.util.List;
+
+import org.junit.Test;
+
+import br.com.caelum.vraptor.controller.HttpMethod;
+
+public class MetadataIndexTest {
+
+	public static class ProductController {
+		public void show(Long id, String[] sections, int page) {
+		}
+		public void list() {
+		}
+	}
+
+	private IndexedMethod show() throws Exception {
+		return new IndexedMethod(IndexedMethod.keyOf(ProductController.class.getName(), "show",
+				asList("java.lang.Long", "[Ljava.lang.String;", "int")), new String[] { "id", "sections", "page" },
+				EnumSet.of(HttpMethod.GET, HttpMethod.HEAD), new String[] { "/products/{id}" });
+	}
+
+	@Test
+	public void shouldFindMethodsByTheirErasedSignature() throws Exception {
+		MetadataIndex index = new MetadataIndex(asList(show()));
+
+		IndexedMethod method = index.methodOf(ProductController.class.getMethod("show", Long.class, String[].class, int.class));
+		assertThat(method.getParameterNames(), arrayContaining("id", "sections", "page"));
+		assertThat(method.getHttpMethods(), contains(HttpMethod.GET, HttpMethod.HEAD));
+		assertThat(method.getUris(), arrayContaining("/products/{id}"));
+		assertThat(index.methodOf(ProductController.class.getMethod("list")), is(nullValue()));
+		assertThat(index.parameterNamesOf(ProductController.class.getConstructor()), is(nullValue()));
+	}
+
+	@Test
+	public void shouldReadWhatWasWritten() throws Exception {
+		IndexedMethod list = new IndexedMethod(IndexedMethod.keyOf(ProductController.class.getMethod("list")),
+				new String[0], EnumSet.noneOf(HttpMethod.class), new String[0]);
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		MetadataIndex.write(asList(show(), list), output);
+
+		List<IndexedMethod> read = (List<IndexedMethod>) MetadataIndex.read(new ByteArrayInputStream(output.toByteArray()));
+		assertThat(read.get(0).getKey(), is(show().getKey()));
+		assertThat(read.get(0).getParameterNames(), arrayContaining("id", "sections", "page"));
+		assertThat(read.get(0).getHttpMethods(), contains(HttpMethod.GET, HttpMethod.HEAD));
+		assertThat(read.get(0).getUris(), arrayContaining("/products/{id}"));
+		assertThat(read.get(1).getKey(), is(list.getKey()));
+		assertThat(read.get(1).getHttpMethods(), is(empty()));
+	}
+
+	@Test
+	public void shouldMergeTheIndexesOfEveryJar() throws Exception {
+		IndexedMethod list = new IndexedMethod(IndexedMethod.keyOf(ProductController.class.getMethod("list")),
+				new String[0], EnumSet.of(HttpMethod.POST), new String[0]);
+		MetadataIndex index = new MetadataIndex();
+		index.load(classLoaderWith(asList(show()), Collections.singletonList(list)));
+
+		assertThat(index.methodOf(ProductController.class.getMethod("list")).getHttpMethods(), contains(HttpMethod.POST));
+		assertThat(index.methodOf(ProductController.class.getMethod("show", Long.class, String[].class, int.class))
+				.getParameterNames(), arrayContaining("id", "sections", "page"));
+	}
+
+	@Test
+	public void shouldBeEmptyWithoutIndexes() {
+		MetadataIndex index = new MetadataIndex();
+		index.load(classLoaderWith());
+
+		assertTrue(index.isEmpty());
+	}
+
+	@SafeVarargs
+	private final ClassLoader classLoaderWith(final Collection<IndexedMethod>... indexes) {
+		return new ClassLoader() {
+			@Override
+			public Enumeration<URL> getResources(String name) throws IOException {
+				List<URL> resources = new ArrayList<>();
+				for (Collection<IndexedMethod> indexed : indexes) {
+					ByteArrayOutputStream output = new ByteArrayOutputStream();
+					MetadataIndex.write(indexed, output);
+					resources.add(urlOf(output.toByteArray()));
+				}
+				return Collections.enumeration(resources);
+			}
+		};
+	}
+
+	private URL urlOf(final byte[] content) throws IOException {
+		return new URL("memory", null, 0, "index", new URLStreamHandler() {
+			@Override
+			protected URLConnection openConnection(URL url) {
+				return new URLConnection(url) {
+					@Override
+					public void connect() {
+					}
+					@Override
+					public InputStream getInputStream() {
+						return new ByteArrayInputStream(content);
+					}
+				};
+			}
+		});
+	}
+}
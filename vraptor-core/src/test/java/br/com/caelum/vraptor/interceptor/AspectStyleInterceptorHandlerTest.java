@@ -34,6 +34,7 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
+import br.com.caelum.vraptor.StaticAccepts;
 import br.com.caelum.vraptor.controller.ControllerInstance;
 import br.com.caelum.vraptor.controller.ControllerMethod;
 import br.com.caelum.vraptor.core.DefaultReflectionProvider;
@@ -243,6 +244,37 @@ public class AspectStyleInterceptorHandlerTest {
 		verify(interceptor).customAcceptsFailCallback();
 	}
 
+	@Test
+	public void shouldKnowWhenAcceptsDependsOnlyOnTheControllerMethod() {
+		assertTrue(newAspectStyleInterceptorHandler(AlwaysAcceptsAspectInterceptor.class,
+				new AlwaysAcceptsAspectInterceptor()).hasStaticAccepts());
+		assertTrue(newAspectStyleInterceptorHandler(StaticAcceptsInterceptor.class,
+				new StaticAcceptsInterceptor()).hasStaticAccepts());
+		assertFalse(newAspectStyleInterceptorHandler(AcceptsInterceptor.class,
+				new AcceptsInterceptor(true)).hasStaticAccepts());
+		assertFalse(newAspectStyleInterceptorHandler(InterceptorWithCustomizedAccepts.class,
+				new InterceptorWithCustomizedAccepts(), withAnnotationAcceptor).hasStaticAccepts());
+	}
+
+	@Test
+	public void shouldExecuteAcceptedInterceptorsWithoutEvaluatingAccepts() {
+		AcceptsInterceptor interceptor = spy(new AcceptsInterceptor(false));
+		AspectStyleInterceptorHandler handler = newAspectStyleInterceptorHandler(AcceptsInterceptor.class, interceptor);
+
+		handler.executeAccepted(stack, controllerMethod, currentController);
+
+		verify(interceptor, never()).accepts(controllerMethod);
+		verify(interceptor).around(Mockito.same(stack), Mockito.same(controllerMethod),
+				Mockito.any(ControllerInstance.class));
+	}
+
+	@StaticAccepts
+	public static class StaticAcceptsInterceptor extends AcceptsInterceptor {
+		public StaticAcceptsInterceptor() {
+			super(true);
+		}
+	}
+
 	private AspectStyleInterceptorHandler newAspectStyleInterceptorHandler(Class<?> interceptorClass, Object... dependencies) {
 		List<Object> deps = new ArrayList<>(Arrays.asList(dependencies));
 		boolean hasControllerInstance = false;
@@ -0,0 +1,197 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.ioc;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.caelum.vraptor.environment.Environment;
+
+public class StartupPipelineTest {
+
+	private StartupPipeline pipeline;
+	private List<String> completed;
+
+	@Before
+	public void setUp() {
+		pipeline = new StartupPipeline();
+		completed = new ArrayList<>();
+	}
+
+	private Callable<String> returning(final String value) {
+		return new Callable<String>() {
+			@Override
+			public String call() throws Exception {
+				return value;
+			}
+		};
+	}
+
+	private Consumer<String> collect(final List<String> values) {
+		return new Consumer<String>() {
+			@Override
+			public void accept(String value) {
+				values.add(value);
+			}
+		};
+	}
+
+	@Test
+	public void shouldRunRightAwayOutsideStartup() {
+		pipeline.schedule(StartupPipeline.ROUTES, returning("first"), collect(completed));
+
+		assertThat(completed, contains("first"));
+	}
+
+	@Test
+	public void shouldDeferTasksUntilStartupFinishes() {
+		pipeline.start();
+		pipeline.schedule(StartupPipeline.ROUTES, returning("first"), collect(completed));
+		assertThat(completed.isEmpty(), is(true));
+
+		pipeline.finish();
+		assertThat(completed, contains("first"));
+	}
+
+	@Test
+	public void shouldCompleteTasksInTheOrderTheyWereScheduled() {
+		pipeline.start();
+		for (int i = 0; i < 100; i++) {
+			final int delay = 100 - i;
+			final String value = String.valueOf(i);
+			pipeline.schedule(StartupPipeline.ROUTES, new Callable<String>() {
+				@Override
+				public String call() throws Exception {
+					Thread.sleep(delay % 5);
+					return value;
+				}
+			}, collect(completed));
+		}
+		pipeline.finish();
+
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			expected.add(String.valueOf(i));
+		}
+		assertThat(completed, is(expected));
+	}
+
+	@Test
+	public void shouldRunPhasesInOrder() {
+		pipeline.start();
+		pipeline.schedule("custom", returning("custom"), collect(completed));
+		pipeline.schedule(StartupPipeline.LINK_TO, returning("linkTo"), collect(completed));
+		pipeline.schedule(StartupPipeline.ROUTES, returning("routes"), collect(completed));
+		pipeline.finish();
+
+		assertThat(completed, contains("routes", "linkTo", "custom"));
+		assertThat(pipeline.getTimings().keySet(), contains(StartupPipeline.ROUTES, StartupPipeline.LINK_TO, "custom"));
+	}
+
+	@Test
+	public void shouldRecordTimings() {
+		pipeline.start();
+		pipeline.record("stereotypes", System.nanoTime());
+		pipeline.finish();
+
+		assertThat(pipeline.getTimings(), hasKey("stereotypes"));
+		assertThat(pipeline.getTimings(), hasKey(StartupPipeline.ROUTES));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRethrowExceptionsOfTasks() {
+		pipeline.start();
+		pipeline.schedule(StartupPipeline.ROUTES, new Callable<String>() {
+			@Override
+			public String call() throws Exception {
+				throw new IllegalArgumentException("You must specify at least one path");
+			}
+		}, collect(completed));
+		pipeline.finish();
+	}
+
+	@Test
+	public void shouldRunTasksWithTheClassLoaderOfTheApplication() {
+		final List<ClassLoader> classLoaders = new ArrayList<>();
+		pipeline.start();
+		pipeline.schedule(StartupPipeline.ROUTES, new Callable<ClassLoader>() {
+			@Override
+			public ClassLoader call() {
+				return Thread.currentThread().getContextClassLoader();
+			}
+		}, new Consumer<ClassLoader>() {
+			@Override
+			public void accept(ClassLoader classLoader) {
+				classLoaders.add(classLoader);
+			}
+		});
+		pipeline.finish();
+
+		assertThat(classLoaders, contains(Thread.currentThread().getContextClassLoader()));
+	}
+
+	@Test
+	public void shouldRunTasksOnTheStartingThreadWhenParallelStartupIsDisabled() {
+		Environment environment = mock(Environment.class);
+		when(environment.get(StartupPipeline.PARALLEL_KEY, "true")).thenReturn("false");
+		pipeline = new StartupPipeline(environment);
+
+		final List<Thread> threads = new ArrayList<>();
+		pipeline.start();
+		for (int i = 0; i < 3; i++) {
+			pipeline.schedule(StartupPipeline.ROUTES, new Callable<Thread>() {
+				@Override
+				public Thread call() {
+					return Thread.currentThread();
+				}
+			}, new Consumer<Thread>() {
+				@Override
+				public void accept(Thread thread) {
+					threads.add(thread);
+				}
+			});
+		}
+		pipeline.finish();
+
+		assertThat(threads, contains(Thread.currentThread(), Thread.currentThread(), Thread.currentThread()));
+		assertThat(pipeline.getTimings(), hasKey(StartupPipeline.ROUTES));
+	}
+
+	@Test
+	public void shouldRunRightAwayAfterStartupIsStopped() {
+		pipeline.start();
+		pipeline.schedule(StartupPipeline.ROUTES, returning("dropped"), collect(completed));
+		pipeline.stop();
+
+		pipeline.schedule(StartupPipeline.ROUTES, returning("first"), collect(completed));
+		pipeline.finish();
+
+		assertThat(completed, contains("first"));
+	}
+}
@@ -64,8 +64,10 @@ public class CDIBasedContainerTest {
 		UsingCacheComponent component = cdiBasedContainer.instanceFor(UsingCacheComponent.class);
 		component.putWithLRU("test","test");
 		component.putWithDefault("test2","test2");
+		component.putWithTinyLFU("test3","test3");
 		assertEquals(component.putWithLRU("test","test"),"test");
 		assertEquals(component.putWithDefault("test2","test2"),"test2");
+		assertEquals(component.putWithTinyLFU("test3","test3"),"test3");
 	}
 
 	@Test
@@ -0,0 +1,151 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.metrics;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasKey;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.StringWriter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.caelum.vraptor.controller.ControllerMethod;
+import br.com.caelum.vraptor.controller.DefaultControllerMethod;
+import br.com.caelum.vraptor.core.InterceptorHandler;
+import br.com.caelum.vraptor.core.InterceptorStack;
+import br.com.caelum.vraptor.environment.Environment;
+
+import com.google.gson.stream.JsonWriter;
+
+public class DispatchMetricsTest {
+
+	private static final String LIST = "br.com.caelum.vraptor.metrics.DispatchMetricsTest$ProductController#list()";
+
+	private DispatchMetrics metrics;
+	private ControllerMethod list;
+	private ControllerMethod search;
+
+	public static class ProductController {
+		public void list() {
+		}
+
+		public void list(String category, int[] ids) {
+		}
+	}
+
+	@Before
+	public void setup() throws Exception {
+		metrics = new DispatchMetrics();
+		list = DefaultControllerMethod.instanceFor(ProductController.class, ProductController.class.getMethod("list"));
+		search = DefaultControllerMethod.instanceFor(ProductController.class,
+				ProductController.class.getMethod("list", String.class, int[].class));
+	}
+
+	@Test
+	public void shouldNameHistogramsByControllerMethod() {
+		metrics.requestSucceeded(list, 1000);
+		metrics.requestSucceeded(list, 3000);
+		metrics.methodExecuted(list, 500);
+
+		assertThat(metrics.getRequestLatencies().get(LIST).getCount(), equalTo(2L));
+		assertThat(metrics.getRequestLatencies().get(LIST).getMean(NANOSECONDS), equalTo(2000L));
+		assertThat(metrics.getMethodLatencies(), hasKey(LIST));
+	}
+
+	@Test
+	public void shouldNotShareHistogramsOfOverloadedMethods() {
+		metrics.methodExecuted(list, 500);
+		metrics.methodExecuted(search, 700);
+
+		assertThat(metrics.getMethodLatencies().size(), equalTo(2));
+		assertThat(metrics.getMethodLatencies().get(
+				"br.com.caelum.vraptor.metrics.DispatchMetricsTest$ProductController#list(java.lang.String,int[])")
+				.getCount(), equalTo(1L));
+	}
+
+	@Test
+	public void shouldRecordNothingWhenTurnedOff() {
+		Environment environment = mock(Environment.class);
+		when(environment.get(DispatchMetrics.ENABLED_KEY, "true")).thenReturn("false");
+		metrics = new DispatchMetrics(environment);
+
+		metrics.requestSucceeded(list, 1000);
+		metrics.controllerNotFound();
+
+		assertThat(metrics.isEnabled(), equalTo(false));
+		assertThat(metrics.getRequestLatencies().size(), equalTo(0));
+		assertThat(metrics.getNotFoundCount(), equalTo(0L));
+	}
+
+	@Test
+	public void shouldShareHistogramsOfHandlersForTheSameInterceptor() {
+		InterceptorHandler handler = handler("AuditInterceptor");
+		InterceptorHandler sameInterceptor = handler("AuditInterceptor");
+
+		metrics.interceptorExecuted(handler, 100);
+		metrics.interceptorExecuted(sameInterceptor, 200);
+
+		assertThat(metrics.getInterceptorLatencies().size(), equalTo(1));
+		assertThat(metrics.getInterceptorLatencies().get("AuditInterceptor").getCount(), equalTo(2L));
+	}
+
+	@Test
+	public void shouldCountNotFoundAndMethodNotAllowed() {
+		metrics.controllerNotFound();
+		metrics.controllerNotFound();
+		metrics.methodNotAllowed();
+
+		assertThat(metrics.getNotFoundCount(), equalTo(2L));
+		assertThat(metrics.getMethodNotAllowedCount(), equalTo(1L));
+	}
+
+	@Test
+	public void shouldWriteMetricsAsJson() throws Exception {
+		metrics.routed(2000);
+		metrics.requestSucceeded(list, 5000);
+		metrics.serialized("json", 1000);
+		metrics.methodNotAllowed();
+		StringWriter writer = new StringWriter();
+
+		DispatchMetricsServlet.write(metrics, new JsonWriter(writer));
+
+		String json = writer.toString();
+		assertThat(json, containsString("\"methodNotAllowed\":1"));
+		assertThat(json, containsString("\"routing\":{\"count\":1,\"mean\":2,"));
+		assertThat(json, containsString("\"requests\":{\"" + LIST + "\":{\"count\":1,\"mean\":5,"));
+		assertThat(json, containsString("\"serializations\":{\"json\":{\"count\":1"));
+	}
+
+	private InterceptorHandler handler(final String name) {
+		return new InterceptorHandler() {
+			@Override
+			public void execute(InterceptorStack stack, ControllerMethod method, Object controllerInstance) {
+			}
+
+			@Override
+			public String toString() {
+				return name;
+			}
+		};
+	}
+}
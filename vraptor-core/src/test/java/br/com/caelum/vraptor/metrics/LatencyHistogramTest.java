@@ -0,0 +1,76 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.metrics;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void shouldBucketValuesWithinAnErrorOfOneSixteenth() {
+		for (long value = 0; value < 1 << 20; value += 7) {
+			int index = LatencyHistogram.indexOf(value);
+			long highest = LatencyHistogram.highestValueOf(index);
+			assertThat(highest, greaterThanOrEqualTo(value));
+			assertThat(highest - value, lessThanOrEqualTo(value / 16));
+			assertThat(LatencyHistogram.indexOf(highest), equalTo(index));
+		}
+	}
+
+	@Test
+	public void shouldCalculatePercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long i = 1; i <= 100; i++) {
+			histogram.record(i * 1000);
+		}
+
+		assertThat(histogram.getCount(), equalTo(100L));
+		assertThat(histogram.getMean(NANOSECONDS), equalTo(50500L));
+		assertThat(histogram.getMax(MICROSECONDS), equalTo(100L));
+		assertThat(histogram.getValueAtPercentile(50, NANOSECONDS), allOf(greaterThanOrEqualTo(50000L),
+				lessThanOrEqualTo(50000L + 50000L / 16)));
+		assertThat(histogram.getValueAtPercentile(99, NANOSECONDS), allOf(greaterThanOrEqualTo(99000L),
+				lessThanOrEqualTo(100000L)));
+		assertThat(histogram.getValueAtPercentile(100, NANOSECONDS), equalTo(100000L));
+	}
+
+	@Test
+	public void shouldKeepValuesOutOfRangeOnTheEdges() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(-5);
+		histogram.record(Long.MAX_VALUE);
+
+		assertThat(histogram.getValueAtPercentile(50, NANOSECONDS), equalTo(0L));
+		assertThat(histogram.getMax(NANOSECONDS), equalTo(LatencyHistogram.MAX_VALUE));
+	}
+
+	@Test
+	public void shouldReturnZeroWhenEmpty() {
+		LatencyHistogram histogram = new LatencyHistogram();
+
+		assertThat(histogram.getMean(NANOSECONDS), equalTo(0L));
+		assertThat(histogram.getValueAtPercentile(99, NANOSECONDS), equalTo(0L));
+	}
+}
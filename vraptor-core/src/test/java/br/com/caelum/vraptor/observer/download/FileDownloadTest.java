@@ -15,7 +15,16 @@
  */
 package br.com.caelum.vraptor.observer.download;
 
+import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -28,6 +37,7 @@ import java.nio.file.Files;
 
 import javax.servlet.ServletOutputStream;
 import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.junit.Before;
@@ -35,6 +45,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
@@ -48,6 +59,7 @@ public class FileDownloadTest {
 
 	private File file;
 	private byte[] bytes;
+	private @Mock HttpServletRequest request;
 	private @Mock HttpServletResponse response;
 	private ServletOutputStream socketStream;
 	private ByteArrayOutputStream outputStream;
@@ -79,6 +91,18 @@ public class FileDownloadTest {
 		};
 
 		when(response.getOutputStream()).thenReturn(socketStream);
+		when(request.getMethod()).thenReturn("GET");
+		when(request.getDateHeader(anyString())).thenReturn(-1L);
+	}
+
+	private File fileWith(String content) throws IOException {
+		File file = folder.newFile();
+		Files.write(file.toPath(), content.getBytes());
+		return file;
+	}
+
+	private String etagOf(File file) {
+		return FileRangeWriter.etagOf(file.length(), file.lastModified() / 1000 * 1000, null);
 	}
 
 	@Test
@@ -125,4 +149,197 @@ public class FileDownloadTest {
 		verify(response).setHeader("Content-Length", String.valueOf(file.length()));
 		verify(response).setHeader("Content-disposition", "inline; filename=" + file.getName());
 	}
+
+	@Test
+	public void shouldSendWholeFileWithValidatorsWhenThereIsNoRange() throws IOException {
+		File file = fileWith("0123456789");
+		new FileDownload(file, "text/plain").write(request, response);
+
+		assertEquals("0123456789", outputStream.toString());
+		verify(response).setHeader("Accept-Ranges", "bytes");
+		verify(response).setHeader("ETag", etagOf(file));
+		verify(response).setHeader("Content-Length", "10");
+		verify(response, never()).setStatus(anyInt());
+	}
+
+	@Test
+	public void shouldSendASingleRange() throws IOException {
+		File file = fileWith("0123456789");
+		when(request.getHeader("Range")).thenReturn("bytes=2-4");
+		new FileDownload(file, "text/plain").write(request, response);
+
+		assertEquals("234", outputStream.toString());
+		verify(response).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+		verify(response).setHeader("Content-Range", "bytes 2-4/10");
+		verify(response).setHeader("Content-Length", "3");
+	}
+
+	@Test
+	public void shouldSendSuffixAndOpenRanges() throws IOException {
+		File file = fileWith("0123456789");
+		when(request.getHeader("Range")).thenReturn("bytes=-3");
+		new FileDownload(file, "text/plain").write(request, response);
+		assertEquals("789", outputStream.toString());
+
+		outputStream.reset();
+		when(request.getHeader("Range")).thenReturn("bytes=8-");
+		new FileDownload(file, "text/plain").write(request, response);
+		assertEquals("89", outputStream.toString());
+	}
+
+	@Test
+	public void shouldSendMultipleRangesAsMultipartByteranges() throws IOException {
+		File file = fileWith("0123456789");
+		when(request.getHeader("Range")).thenReturn("bytes=0-1, 5-6");
+		new FileDownload(file, "text/plain").write(request, response);
+
+		ArgumentCaptor<String> type = ArgumentCaptor.forClass(String.class);
+		verify(response).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+		verify(response, times(2)).setHeader(eq("Content-type"), type.capture());
+		String boundary = type.getValue().substring("multipart/byteranges; boundary=".length());
+
+		String expected = "\r\n--" + boundary + "\r\nContent-Type: text/plain\r\nContent-Range: bytes 0-1/10\r\n\r\n01"
+				+ "\r\n--" + boundary + "\r\nContent-Type: text/plain\r\nContent-Range: bytes 5-6/10\r\n\r\n56"
+				+ "\r\n--" + boundary + "--\r\n";
+		assertEquals(expected, outputStream.toString());
+		verify(response).setHeader("Content-Length", String.valueOf(expected.length()));
+	}
+
+	@Test
+	public void shouldCoalesceOverlappingAndAdjacentRanges() throws IOException {
+		File file = fileWith("0123456789");
+		when(request.getHeader("Range")).thenReturn("bytes=5-6, 0-1, 2-3, 6-7");
+		new FileDownload(file, "text/plain").write(request, response);
+
+		ArgumentCaptor<String> type = ArgumentCaptor.forClass(String.class);
+		verify(response, times(2)).setHeader(eq("Content-type"), type.capture());
+		String boundary = type.getValue().substring("multipart/byteranges; boundary=".length());
+
+		String expected = "\r\n--" + boundary + "\r\nContent-Type: text/plain\r\nContent-Range: bytes 0-3/10\r\n\r\n0123"
+				+ "\r\n--" + boundary + "\r\nContent-Type: text/plain\r\nContent-Range: bytes 5-7/10\r\n\r\n567"
+				+ "\r\n--" + boundary + "--\r\n";
+		assertEquals(expected, outputStream.toString());
+	}
+
+	@Test
+	public void shouldSendTheWholeFileWhenRangesAskForMoreThanItHas() throws IOException {
+		File file = fileWith("0123456789");
+		when(request.getHeader("Range")).thenReturn("bytes=0-,0-,0-,0-");
+		new FileDownload(file, "text/plain").write(request, response);
+
+		assertEquals("0123456789", outputStream.toString());
+		verify(response).setHeader("Content-Length", "10");
+		verify(response, never()).setStatus(anyInt());
+	}
+
+	@Test
+	public void shouldAnswerUnsatisfiableRanges() throws IOException {
+		File file = fileWith("0123456789");
+		when(request.getHeader("Range")).thenReturn("bytes=20-30");
+		new FileDownload(file, "text/plain").write(request, response);
+
+		verify(response).setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+		verify(response).setHeader("Content-Range", "bytes */10");
+		assertEquals(0, outputStream.size());
+	}
+
+	@Test
+	public void shouldIgnoreRangeWhenIfRangeDoesNotMatch() throws IOException {
+		File file = fileWith("0123456789");
+		when(request.getHeader("Range")).thenReturn("bytes=2-4");
+		when(request.getHeader("If-Range")).thenReturn("\"outdated\"");
+		new FileDownload(file, "text/plain").write(request, response);
+
+		assertEquals("0123456789", outputStream.toString());
+		verify(response, never()).setStatus(anyInt());
+	}
+
+	@Test
+	public void shouldAnswerNotModifiedWhenEtagMatches() throws IOException {
+		File file = fileWith("0123456789");
+		when(request.getHeader("If-None-Match")).thenReturn("\"other\", W/" + etagOf(file));
+		new FileDownload(file, "text/plain").write(request, response);
+
+		verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+		assertEquals(0, outputStream.size());
+	}
+
+	@Test
+	public void shouldFailThePreconditionWhenEtagMatchesOnOtherMethods() throws IOException {
+		File file = fileWith("0123456789");
+		when(request.getMethod()).thenReturn("POST");
+		when(request.getHeader("If-None-Match")).thenReturn(etagOf(file));
+		new FileDownload(file, "text/plain").write(request, response);
+
+		verify(response).setStatus(HttpServletResponse.SC_PRECONDITION_FAILED);
+		assertEquals(0, outputStream.size());
+	}
+
+	@Test
+	public void shouldAnswerNotModifiedWhenNotModifiedSince() throws IOException {
+		File file = fileWith("0123456789");
+		when(request.getDateHeader("If-Modified-Since")).thenReturn(file.lastModified() / 1000 * 1000);
+		new FileDownload(file, "text/plain").write(request, response);
+
+		verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+		assertEquals(0, outputStream.size());
+	}
+
+	@Test
+	public void shouldFailPreconditionWhenIfMatchDoesNotMatch() throws IOException {
+		File file = fileWith("0123456789");
+		when(request.getHeader("If-Match")).thenReturn("\"other\"");
+		new FileDownload(file, "text/plain").write(request, response);
+
+		verify(response).setStatus(HttpServletResponse.SC_PRECONDITION_FAILED);
+		assertEquals(0, outputStream.size());
+	}
+
+	@Test
+	public void shouldDelegateBodyToContainerWhenSendfileIsSupported() throws IOException {
+		File file = fileWith("0123456789");
+		when(request.getAttribute(FileRangeWriter.SENDFILE_SUPPORT)).thenReturn(Boolean.TRUE);
+		when(request.getHeader("Range")).thenReturn("bytes=2-4");
+		new FileDownload(file, "text/plain").write(request, response);
+
+		verify(request).setAttribute(FileRangeWriter.SENDFILE_FILENAME, file.getCanonicalPath());
+		verify(request).setAttribute(FileRangeWriter.SENDFILE_START, 2L);
+		verify(request).setAttribute(FileRangeWriter.SENDFILE_END, 5L);
+		assertEquals(0, outputStream.size());
+	}
+
+	@Test
+	public void shouldServePrecompressedSiblingWhenAccepted() throws IOException {
+		File file = fileWith("plain");
+		Files.write(new File(file.getPath() + ".gz").toPath(), "gzipped".getBytes());
+		when(request.getHeader("Accept-Encoding")).thenReturn("gzip, deflate");
+
+		DownloadBuilder.of(file).withContentType("text/plain").precompressed().build().write(request, response);
+
+		assertEquals("gzipped", outputStream.toString());
+		verify(response).setHeader("Content-Encoding", "gzip");
+		verify(response).setHeader("Vary", "Accept-Encoding");
+	}
+
+	@Test
+	public void shouldNotServePrecompressedSiblingUnlessAsked() throws IOException {
+		File file = fileWith("plain");
+		Files.write(new File(file.getPath() + ".gz").toPath(), "gzipped".getBytes());
+		when(request.getHeader("Accept-Encoding")).thenReturn("gzip");
+
+		new FileDownload(file, "text/plain").write(request, response);
+
+		assertEquals("plain", outputStream.toString());
+		verify(response, never()).setHeader(eq("Content-Encoding"), anyString());
+	}
+
+	@Test
+	public void shouldRespectAcceptEncodingQualities() {
+		assertTrue(FileDownload.accepts("br;q=1.0, gzip", "br"));
+		assertTrue(FileDownload.accepts("*", "gzip"));
+		assertFalse(FileDownload.accepts("gzip;q=0", "gzip"));
+		assertFalse(FileDownload.accepts("deflate", "gzip"));
+		assertFalse(FileDownload.accepts(null, "gzip"));
+		assertThat(FileDownload.accepts("identity, br ; q=0.5", "br"), is(true));
+	}
 }
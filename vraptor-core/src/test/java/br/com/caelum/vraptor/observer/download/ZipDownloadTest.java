@@ -15,19 +15,40 @@
  */
 package br.com.caelum.vraptor.observer.download;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 
 import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletResponse;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -36,6 +57,12 @@ import org.junit.rules.TemporaryFolder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import br.com.caelum.vraptor.observer.download.ZipDownload.Entry;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
+
 public class ZipDownloadTest {
 
 	@Rule
@@ -49,6 +76,7 @@ public class ZipDownloadTest {
 
 	private @Mock HttpServletResponse response;
 	private @Mock ServletOutputStream socketStream;
+	private ZipCompressor compressor;
 
 	@Before
 	public void setUp() throws Exception {
@@ -58,6 +86,13 @@ public class ZipDownloadTest {
 		inpuFile1 = folder.newFile().toPath();
 
 		when(response.getOutputStream()).thenReturn(socketStream);
+		compressor = new ZipCompressor();
+		compressor.init();
+	}
+
+	@After
+	public void tearDown() {
+		compressor.stop();
 	}
 
 	@Test
@@ -86,4 +121,297 @@ public class ZipDownloadTest {
 
 		verify(response).setHeader("Content-disposition", "attachment; filename=download.zip");
 	}
+
+	@Test
+	public void shouldKeepEntriesInOrderAndStoreCompressedFormats() throws IOException {
+		List<Entry> entries = new ArrayList<>();
+		for (int i = 0; i < ZipWriter.WINDOW * 3; i++) {
+			String name = i % 2 == 0 ? "text" + i + ".txt" : "image" + i + ".jpg";
+			entries.add(new Entry(name, ByteSource.wrap(contentOf(i))));
+		}
+
+		byte[] zip = zip(ZipDownload.ofEntries("download.zip", entries).compressingOn(compressor));
+
+		try (ZipInputStream input = new ZipInputStream(new ByteArrayInputStream(zip))) {
+			for (int i = 0; i < entries.size(); i++) {
+				ZipEntry entry = input.getNextEntry();
+				assertThat(entry.getName(), is(entries.get(i).getName()));
+				assertThat(entry.getMethod(), is(i % 2 == 0 ? ZipEntry.DEFLATED : ZipEntry.STORED));
+				assertThat(ByteStreams.toByteArray(input), is(contentOf(i)));
+			}
+			assertThat(input.getNextEntry() == null, is(true));
+		}
+	}
+
+	@Test
+	public void shouldZipFilesReadableByZipFile() throws IOException {
+		Files.write(inpuFile0, "first".getBytes(UTF_8));
+		Files.write(inpuFile1, "second".getBytes(UTF_8));
+
+		File zip = folder.newFile();
+		Files.write(zip.toPath(), zip(new ZipDownload("download.zip", inpuFile0, inpuFile1)));
+
+		try (ZipFile file = new ZipFile(zip)) {
+			assertThat(file.size(), is(2));
+			ZipEntry second = file.getEntry(inpuFile1.getFileName().toString());
+			assertThat(ByteStreams.toByteArray(file.getInputStream(second)), is("second".getBytes(UTF_8)));
+		}
+	}
+
+	@Test
+	public void shouldPullLazyEntriesWhileZipping() throws IOException {
+		final int[] produced = { 0 };
+		Iterable<Entry> lazy = new Iterable<Entry>() {
+			@Override
+			public Iterator<Entry> iterator() {
+				return new AbstractIterator<Entry>() {
+					@Override
+					protected Entry computeNext() {
+						if (produced[0] == 100) {
+							return endOfData();
+						}
+						int i = produced[0]++;
+						return new Entry("blob" + i, ByteSource.wrap(contentOf(i)));
+					}
+				};
+			}
+		};
+
+		byte[] zip = zip(ZipDownload.ofEntries("blobs.zip", lazy).compressingOn(compressor));
+
+		assertThat(produced[0], is(100));
+		try (ZipInputStream input = new ZipInputStream(new ByteArrayInputStream(zip))) {
+			int count = 0;
+			while (input.getNextEntry() != null) {
+				count++;
+			}
+			assertThat(count, is(100));
+		}
+	}
+
+	@Test
+	public void shouldUseZip64WhenThereAreTooManyEntries() throws IOException {
+		List<Entry> entries = new ArrayList<>();
+		ByteSource empty = ByteSource.empty();
+		for (int i = 0; i < 0x10000 + 10; i++) {
+			entries.add(new Entry("e" + i, empty));
+		}
+
+		File zip = folder.newFile();
+		Files.write(zip.toPath(), zip(ZipDownload.ofEntries("many.zip", entries)));
+
+		try (ZipFile file = new ZipFile(zip)) {
+			assertThat(file.size(), is(entries.size()));
+			assertThat(file.getEntry("e65540") == null, is(false));
+		}
+	}
+
+	@Test
+	public void shouldPropagateTheFailureOfAnEntry() throws IOException {
+		ByteSource failing = new ByteSource() {
+			@Override
+			public InputStream openStream() throws IOException {
+				throw new IOException("blob is gone");
+			}
+		};
+
+		try {
+			ZipDownload.ofEntries("broken.zip", new Entry("first.txt", ByteSource.wrap(contentOf(10))),
+					new Entry("second.txt", failing)).compressingOn(compressor).write(response);
+			fail("should propagate the failure of the entry");
+		} catch (IOException e) {
+			assertThat(e.getMessage(), is("blob is gone"));
+		}
+	}
+
+	@Test
+	public void shouldStreamLargeEntriesWithoutBufferingThem() throws IOException {
+		final byte[] noise = new byte[3 * ZipWriter.MEMORY];
+		new Random(42).nextBytes(noise);
+		byte[] text = contentOf(3000);
+		ByteSource unknownSize = new ByteSource() {
+			@Override
+			public InputStream openStream() throws IOException {
+				return new ByteArrayInputStream(noise);
+			}
+		};
+		List<Entry> entries = asList(new Entry("text.txt", ByteSource.wrap(text)),
+				new Entry("noise.dat", ByteSource.wrap(noise), true, 0), new Entry("noise.jpg", ByteSource.wrap(noise)),
+				new Entry("noise.bin", unknownSize, true, 0));
+
+		File zip = folder.newFile();
+		Files.write(zip.toPath(), zip(ZipDownload.ofEntries("large.zip", entries).compressingOn(compressor)));
+
+		try (ZipInputStream input = new ZipInputStream(Files.newInputStream(zip.toPath()))) {
+			assertThat(ByteStreams.toByteArray(skipTo(input, "text.txt")), is(text));
+			assertThat(ByteStreams.toByteArray(skipTo(input, "noise.dat")), is(noise));
+			assertThat(ByteStreams.toByteArray(skipTo(input, "noise.jpg")), is(noise));
+		}
+		try (ZipFile file = new ZipFile(zip)) {
+			ZipEntry stored = file.getEntry("noise.jpg");
+			assertThat(stored.getMethod(), is(ZipEntry.STORED));
+			assertThat(ByteStreams.toByteArray(file.getInputStream(stored)), is(noise));
+			assertThat(ByteStreams.toByteArray(file.getInputStream(file.getEntry("noise.bin"))), is(noise));
+			assertThat(file.getEntry("noise.bin").getSize(), is((long) noise.length));
+		}
+	}
+
+	@Test
+	public void shouldUseZip64DescriptorsForEntriesOfUnknownSize() throws IOException {
+		final byte[] text = contentOf(1000);
+		ByteSource unknownSize = new ByteSource() {
+			@Override
+			public InputStream openStream() throws IOException {
+				return new ByteArrayInputStream(text);
+			}
+		};
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new ZipWriter(out, compressor).write(asList(new Entry("text.txt", unknownSize, true, 0)));
+
+		ByteBuffer zip = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+		assertThat(zip.getShort(4), is((short) 45));
+		assertThat(zip.getShort(6) & 0x0008, is(0x0008));
+		assertThat(zip.getInt(18), is(-1));
+		assertThat(zip.getInt(22), is(-1));
+		assertThat(zip.getShort(28), is((short) 20));
+		int extra = 30 + zip.getShort(26);
+		assertThat(zip.getShort(extra), is((short) 1));
+		assertThat(zip.getLong(extra + 4), is(0L));
+		assertThat(zip.getLong(extra + 12), is(0L));
+
+		int directory = zip.getInt(zip.limit() - 22 + 16);
+		int descriptor = directory - 24;
+		assertThat(zip.getInt(descriptor), is(0x08074b50));
+		assertThat(zip.getLong(descriptor + 16), is((long) text.length));
+		assertThat(zip.getShort(directory + 6), is((short) 45));
+	}
+
+	@Test
+	public void shouldReadEachDeflatedEntryOnceOnTheWritingThread() throws IOException {
+		final byte[] small = contentOf(10);
+		final byte[] large = contentOf(1000);
+		final List<Thread> readers = new ArrayList<>();
+		class Recorded extends ByteSource {
+			private final byte[] content;
+
+			Recorded(byte[] content) {
+				this.content = content;
+			}
+
+			@Override
+			public InputStream openStream() {
+				readers.add(Thread.currentThread());
+				return new ByteArrayInputStream(content);
+			}
+		}
+
+		File zip = folder.newFile();
+		Files.write(zip.toPath(), zip(ZipDownload.ofEntries("large.zip", new Entry("small.txt", new Recorded(small)),
+				new Entry("large.txt", new Recorded(large))).compressingOn(compressor)));
+
+		assertThat(readers, is(asList(Thread.currentThread(), Thread.currentThread())));
+		try (ZipFile file = new ZipFile(zip)) {
+			assertThat(ByteStreams.toByteArray(file.getInputStream(file.getEntry("small.txt"))), is(small));
+			assertThat(ByteStreams.toByteArray(file.getInputStream(file.getEntry("large.txt"))), is(large));
+		}
+	}
+
+	@Test
+	public void shouldUseZip64ForEntriesAndOffsetsOverTheLimit() throws IOException {
+		long limit = 4096;
+		long big = limit + 10;
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new ZipWriter(out, compressor, limit).write(asList(new Entry("big.bin", zeros(big), false, 0),
+				new Entry("small.txt", ByteSource.wrap("small".getBytes(UTF_8)))));
+
+		ByteBuffer zip = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+		int end = zip.limit() - 22;
+		assertThat(zip.getInt(end), is(0x06054b50));
+		assertThat(zip.getInt(end + 16), is(-1));
+
+		int locator = end - 20;
+		assertThat(zip.getInt(locator), is(0x07064b50));
+		int record = (int) zip.getLong(locator + 8);
+		assertThat(zip.getInt(record), is(0x06064b50));
+		assertThat(zip.getLong(record + 32), is(2L));
+
+		int first = (int) zip.getLong(record + 48);
+		assertThat(zip.getInt(first), is(0x02014b50));
+		assertThat(zip.getInt(first + 20), is(-1));
+		assertThat(zip.getInt(first + 24), is(-1));
+		int extra = first + 46 + zip.getShort(first + 28);
+		assertThat(zip.getShort(extra), is((short) 1));
+		assertThat(zip.getLong(extra + 4), is(big));
+		assertThat(zip.getLong(extra + 12), is(big));
+
+		int second = extra + zip.getShort(first + 30);
+		assertThat(zip.getInt(second), is(0x02014b50));
+		assertThat(zip.getInt(second + 42), is(-1));
+		long offset = zip.getLong(second + 46 + zip.getShort(second + 28) + 4);
+		assertThat(offset > big, is(true));
+		assertThat(zip.getInt((int) offset), is(0x04034b50));
+
+		assertThat(zip.getInt(0), is(0x04034b50));
+		assertThat(zip.getInt(18), is(-1));
+		assertThat(zip.getInt(22), is(-1));
+	}
+
+	private static ZipInputStream skipTo(ZipInputStream input, String name) throws IOException {
+		assertThat(input.getNextEntry().getName(), is(name));
+		return input;
+	}
+
+	private static ByteSource zeros(final long length) {
+		return new ByteSource() {
+			@Override
+			public InputStream openStream() {
+				return ByteStreams.limit(new InputStream() {
+					@Override
+					public int read() {
+						return 0;
+					}
+
+					@Override
+					public int read(byte[] b, int off, int len) {
+						Arrays.fill(b, off, off + len, (byte) 0);
+						return len;
+					}
+				}, length);
+			}
+		};
+	}
+
+	private static byte[] contentOf(int i) {
+		StringBuilder content = new StringBuilder();
+		for (int j = 0; j < i * 100; j++) {
+			content.append("line ").append(j).append('\n');
+		}
+		return content.toString().getBytes(UTF_8);
+	}
+
+	private byte[] zip(Download download) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				bytes.write(b);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				bytes.write(b, off, len);
+			}
+
+			@Override
+			public boolean isReady() {
+				return true;
+			}
+
+			@Override
+			public void setWriteListener(WriteListener writeListener) {
+			}
+		});
+		download.write(response);
+		return bytes.toByteArray();
+	}
 }
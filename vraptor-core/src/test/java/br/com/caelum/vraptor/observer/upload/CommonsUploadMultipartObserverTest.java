@@ -24,11 +24,13 @@ import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -38,6 +40,9 @@ import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+
 import org.apache.commons.fileupload.FileItem;
 import org.apache.commons.fileupload.FileUploadBase;
 import org.apache.commons.fileupload.FileUploadException;
@@ -363,9 +368,115 @@ public class CommonsUploadMultipartObserverTest {
 		assertThat(Files.readAllBytes(outputFile.toPath()), is(byteOnlyFileContent));
 	}
 
+	@Test
+	public void streamingShouldBindFieldsAndStreamTheFile() throws Exception {
+		when(event.getMethod()).thenReturn(streamingMethod("streamingMethod"));
+		multipartBody("0123456789");
+
+		observer.upload(event, request, config, validator);
+
+		verify(request).setParameter("title", "hello");
+		ArgumentCaptor<UploadedFile> argument = ArgumentCaptor.forClass(UploadedFile.class);
+		verify(request).setAttribute(eq("file"), argument.capture());
+
+		UploadedFile file = argument.getValue();
+		assertThat(file.getFileName(), is("data.txt"));
+		assertThat(file.getContentType(), is("text/plain"));
+
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		file.writeTo(content);
+		assertThat(content.toString("UTF-8"), is("0123456789"));
+
+		exception.expect(IllegalStateException.class);
+		file.getFile();
+	}
+
+	@Test
+	public void streamingShouldReportFileSizeLimitWhileReading() throws Exception {
+		when(event.getMethod()).thenReturn(streamingMethod("streamingMethodWithLimit"));
+		multipartBody("0123456789");
+
+		observer.upload(event, request, config, validator);
+
+		ArgumentCaptor<UploadedFile> argument = ArgumentCaptor.forClass(UploadedFile.class);
+		verify(request).setAttribute(eq("file"), argument.capture());
+		try {
+			toByteArray(argument.getValue().getFile());
+		} catch (IOException e) {
+			verify(validator).add(any(I18nMessage.class));
+			return;
+		}
+		throw new AssertionError("Size limit should be exceeded");
+	}
+
+	@Test
+	public void streamingShouldReportTotalSizeLimitBeforeTheController() throws Exception {
+		when(event.getMethod()).thenReturn(streamingMethod("streamingMethodWithTotalLimit"));
+		multipartBody("0123456789");
+
+		observer.upload(event, request, config, validator);
+
+		verify(validator, times(1)).add(any(I18nMessage.class));
+		verify(request, times(0)).setAttribute(anyString(), any());
+	}
+
+	private ControllerMethod streamingMethod(String name) throws NoSuchMethodException {
+		return DefaultControllerMethod.instanceFor(getClass(), getClass().getDeclaredMethod(name, UploadedFile.class));
+	}
+
+	private void multipartBody(String fileContent) throws IOException {
+		String body = "--XYZ\r\n"
+				+ "Content-Disposition: form-data; name=\"title\"\r\n\r\n"
+				+ "hello\r\n"
+				+ "--XYZ\r\n"
+				+ "Content-Disposition: form-data; name=\"file\"; filename=\"data.txt\"\r\n"
+				+ "Content-Type: text/plain\r\n\r\n"
+				+ fileContent + "\r\n"
+				+ "--XYZ--\r\n";
+		final ByteArrayInputStream input = new ByteArrayInputStream(body.getBytes("UTF-8"));
+
+		when(request.getContentType()).thenReturn("multipart/form-data; boundary=XYZ");
+		when(request.getContentLength()).thenReturn(body.length());
+		when(request.getCharacterEncoding()).thenReturn("UTF-8");
+		when(request.getInputStream()).thenReturn(new ServletInputStream() {
+			@Override
+			public int read() throws IOException {
+				return input.read();
+			}
+
+			@Override
+			public boolean isFinished() {
+				return input.available() == 0;
+			}
+
+			@Override
+			public boolean isReady() {
+				return true;
+			}
+
+			@Override
+			public void setReadListener(ReadListener readListener) {
+			}
+		});
+	}
+
 	public void uploadMethod(UploadedFile file) {
 	}
 
+	@StreamingUpload
+	public void streamingMethod(UploadedFile file) {
+	}
+
+	@StreamingUpload
+	@UploadSizeLimit(fileSizeLimit = 5, sizeLimit = 1000)
+	public void streamingMethodWithLimit(UploadedFile file) {
+	}
+
+	@StreamingUpload
+	@UploadSizeLimit(fileSizeLimit = 1000, sizeLimit = 20)
+	public void streamingMethodWithTotalLimit(UploadedFile file) {
+	}
+
 	@UploadSizeLimit(fileSizeLimit = 10, sizeLimit = 20)
 	public void uploadMethodWthAnnotation(UploadedFile file) {
 	}
@@ -0,0 +1,368 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.observer.upload;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Collections;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import br.com.caelum.vraptor.Result;
+import br.com.caelum.vraptor.controller.ControllerMethod;
+import br.com.caelum.vraptor.controller.DefaultControllerMethod;
+import br.com.caelum.vraptor.core.InterceptorStack;
+import br.com.caelum.vraptor.core.MethodInfo;
+import br.com.caelum.vraptor.environment.Environment;
+import br.com.caelum.vraptor.events.InterceptorsReady;
+import br.com.caelum.vraptor.http.MutableRequest;
+import br.com.caelum.vraptor.http.ParametersProvider;
+import br.com.caelum.vraptor.http.ParanamerNameProvider;
+import br.com.caelum.vraptor.observer.ParametersInstantiator;
+import br.com.caelum.vraptor.observer.upload.ResumableUploadStore.Upload;
+import br.com.caelum.vraptor.validator.Message;
+import br.com.caelum.vraptor.validator.Validator;
+import br.com.caelum.vraptor.view.FlashScope;
+import br.com.caelum.vraptor.view.HttpResult;
+
+public class ResumableUploadInterceptorTest {
+
+	@Rule
+	public TemporaryFolder tmpdir = new TemporaryFolder();
+
+	@Mock private MutableRequest request;
+	@Mock private HttpServletResponse response;
+	@Mock private Result result;
+	@Mock private HttpResult http;
+	@Mock private InterceptorStack stack;
+	@Mock private MultipartConfig config;
+	@Mock private Environment environment;
+	@Mock private ParametersProvider provider;
+	@Mock private Validator validator;
+	@Mock private FlashScope flash;
+
+	private MethodInfo methodInfo;
+	private ParametersInstantiator instantiator;
+	private ResumableUploadStore store;
+	private ResumableUploadInterceptor interceptor;
+	private ControllerMethod method;
+
+	@Before
+	public void setup() throws Exception {
+		MockitoAnnotations.initMocks(this);
+
+		when(config.getDirectory()).thenReturn(tmpdir.getRoot());
+		when(environment.get(ResumableUploadStore.EXPIRATION_KEY, "86400000")).thenReturn("86400000");
+		store = new ResumableUploadStore(config, environment);
+		store.init();
+
+		when(result.use(HttpResult.class)).thenReturn(http);
+		when(http.addHeader(anyString(), anyString())).thenReturn(http);
+		when(http.addDateHeader(anyString(), anyLong())).thenReturn(http);
+		when(request.getRequestURI()).thenReturn("/videos/upload");
+		when(request.getParameterNames()).thenReturn(Collections.<String> emptyEnumeration());
+
+		methodInfo = new MethodInfo(new ParanamerNameProvider());
+		instantiator = new ParametersInstantiator(provider, methodInfo, validator, request, flash);
+		interceptor = new ResumableUploadInterceptor(request, response, result, store, methodInfo);
+		method = DefaultControllerMethod.instanceFor(getClass(), getClass().getDeclaredMethod("upload", UploadedFile.class));
+
+		// there is no request parameter named file, so it is instantiated as null
+		when(provider.getParametersFor(any(ControllerMethod.class), anyListOf(Message.class)))
+				.thenReturn(new Object[1]);
+	}
+
+	@After
+	public void tearDown() {
+		store.stop();
+	}
+
+	@Test
+	public void shouldOnlyAcceptAnnotatedMethods() throws Exception {
+		assertThat(interceptor.accepts(method), is(true));
+		ControllerMethod other = DefaultControllerMethod.instanceFor(getClass(), getClass().getDeclaredMethod("tearDown"));
+		assertThat(interceptor.accepts(other), is(false));
+	}
+
+	@Test
+	public void shouldCreateUploads() throws Exception {
+		String id = create(10);
+
+		verify(http).addHeader("Location", "/videos/upload?upload=" + id);
+		verify(http).setStatusCode(HttpServletResponse.SC_CREATED);
+		assertThat(store.find(id).getOffset(), is(0L));
+		verify(stack, never()).next(method, this);
+	}
+
+	@Test
+	public void shouldResumeFromTheOffsetAndDeliverTheCompletedUpload() throws Exception {
+		String id = create(10);
+
+		patch(id, 0, "01234", null);
+		verify(http).addHeader("Upload-Offset", "5");
+		verify(stack, never()).next(method, this);
+
+		head(id);
+		verify(response).setHeader("Upload-Length", "10");
+		verify(http, times(2)).addHeader("Upload-Offset", "5");
+
+		patch(id, 5, "56789", null);
+
+		verify(stack).next(method, this);
+		Object file = methodInfo.getParametersValues()[0];
+		assertThat(file, instanceOf(ResumableUploadedFile.class));
+		UploadedFile uploaded = (UploadedFile) file;
+		assertThat(uploaded.getFileName(), is("video.mp4"));
+		assertThat(uploaded.getSize(), is(10L));
+
+		assertThat(store.find(id) == null, is(true));
+	}
+
+	@Test
+	public void shouldLetTheMethodMoveTheCompletedUpload() throws Exception {
+		final File target = new File(tmpdir.getRoot(), "video.mp4");
+		String id = create(3);
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				((UploadedFile) methodInfo.getParametersValues()[0]).writeTo(target);
+				return null;
+			}
+		}).when(stack).next(method, this);
+
+		patch(id, 0, "abc", null);
+
+		assertThat(new String(Files.readAllBytes(target.toPath()), "UTF-8"), is("abc"));
+	}
+
+	@Test
+	public void shouldDeliverTheUploadOnlyOnceWhenRequestsRaceTheLastChunk() throws Exception {
+		final String id = create(5);
+		final MutableRequest concurrent = mock(MutableRequest.class);
+		final Result concurrentResult = mock(Result.class);
+		final HttpResult concurrentHttp = mock(HttpResult.class);
+		final InterceptorStack concurrentStack = mock(InterceptorStack.class);
+		when(concurrentResult.use(HttpResult.class)).thenReturn(concurrentHttp);
+		when(concurrent.getParameter(ResumableUploadInterceptor.UPLOAD_PARAMETER)).thenReturn(id);
+		when(concurrent.getContentType()).thenReturn(ResumableUploadInterceptor.OFFSET_CONTENT_TYPE);
+		when(concurrent.getHeader("Upload-Offset")).thenReturn("5");
+		when(concurrent.getInputStream()).thenReturn(inputOf(""));
+		final ResumableUploadInterceptor other = new ResumableUploadInterceptor(concurrent, response,
+				concurrentResult, store, new MethodInfo(new ParanamerNameProvider()));
+
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				Thread racing = new Thread() {
+					@Override
+					public void run() {
+						when(concurrent.getMethod()).thenReturn("PATCH");
+						other.intercept(concurrentStack, method, ResumableUploadInterceptorTest.this);
+						when(concurrent.getMethod()).thenReturn("DELETE");
+						other.intercept(concurrentStack, method, ResumableUploadInterceptorTest.this);
+					}
+				};
+				racing.start();
+				racing.join();
+				return null;
+			}
+		}).when(stack).next(method, this);
+
+		patch(id, 0, "01234", null);
+
+		verify(stack).next(method, this);
+		verify(concurrentHttp, times(2)).sendError(423);
+		verify(concurrentStack, never()).next(method, this);
+
+		when(concurrent.getMethod()).thenReturn("PATCH");
+		other.intercept(concurrentStack, method, this);
+		verify(concurrentHttp).sendError(HttpServletResponse.SC_NOT_FOUND);
+		verify(concurrentStack, never()).next(method, this);
+	}
+
+	@Test
+	public void shouldRejectChunksAtAnotherOffset() throws Exception {
+		String id = create(10);
+
+		patch(id, 3, "34567", null);
+
+		verify(http).sendError(HttpServletResponse.SC_CONFLICT);
+		assertThat(store.find(id).getOffset(), is(0L));
+	}
+
+	@Test
+	public void shouldDiscardChunksWithWrongChecksum() throws Exception {
+		String id = create(10);
+
+		patch(id, 0, "01234", "sha1 " + Base64.getEncoder().encodeToString(sha1("other")));
+		verify(http).sendError(ResumableUploadInterceptor.CHECKSUM_MISMATCH, "Checksum Mismatch");
+		assertThat(store.find(id).getOffset(), is(0L));
+
+		patch(id, 0, "01234", "sha1 " + Base64.getEncoder().encodeToString(sha1("01234")));
+		assertThat(store.find(id).getOffset(), is(5L));
+	}
+
+	@Test
+	public void shouldAnswerNotFoundForUnknownUploads() throws Exception {
+		head("0123456789abcdef0123456789abcdef");
+		verify(http).sendError(HttpServletResponse.SC_NOT_FOUND);
+
+		head("../../etc/passwd");
+		verify(http, times(2)).sendError(HttpServletResponse.SC_NOT_FOUND);
+	}
+
+	@Test
+	public void shouldRejectUploadsLargerThanTheLimit() throws Exception {
+		when(request.getMethod()).thenReturn("POST");
+		when(request.getHeader("Upload-Length")).thenReturn("101");
+
+		intercept();
+
+		verify(http).sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+	}
+
+	@Test
+	public void shouldExpireAbandonedUploads() throws Exception {
+		Upload upload = store.create(10, null);
+		new File(tmpdir.getRoot(), "vraptor-resumable/" + upload.getId() + ".info").setLastModified(0);
+
+		store.expire();
+
+		assertThat(store.find(upload.getId()) == null, is(true));
+		assertThat(upload.getPart().exists(), is(false));
+	}
+
+	@Test
+	public void shouldNotExpireUploadsBeingWritten() throws Exception {
+		Upload upload = store.create(10, null);
+		new File(tmpdir.getRoot(), "vraptor-resumable/" + upload.getId() + ".info").setLastModified(0);
+		assertThat(store.find(upload.getId()) == null, is(true));
+
+		assertThat(store.lock(upload), is(true));
+		store.expire();
+		assertThat(upload.exists(), is(true));
+
+		store.unlock(upload);
+		store.expire();
+		assertThat(upload.exists(), is(false));
+	}
+
+	private String create(long length) throws Exception {
+		when(request.getMethod()).thenReturn("POST");
+		when(request.getParameter(ResumableUploadInterceptor.UPLOAD_PARAMETER)).thenReturn(null);
+		when(request.getHeader("Upload-Length")).thenReturn(Long.toString(length));
+		when(request.getHeader("Upload-Metadata")).thenReturn(
+				"filename " + Base64.getEncoder().encodeToString("video.mp4".getBytes("UTF-8")));
+
+		intercept();
+
+		ArgumentCaptor<String> location = ArgumentCaptor.forClass(String.class);
+		verify(http, atLeastOnce()).addHeader(eq("Location"), location.capture());
+		return location.getValue().substring(location.getValue().indexOf('=') + 1);
+	}
+
+	private void head(String id) throws Exception {
+		when(request.getMethod()).thenReturn("HEAD");
+		when(request.getParameter(ResumableUploadInterceptor.UPLOAD_PARAMETER)).thenReturn(id);
+		intercept();
+	}
+
+	private void patch(String id, long offset, String chunk, String checksum) throws Exception {
+		when(request.getMethod()).thenReturn("PATCH");
+		when(request.getParameter(ResumableUploadInterceptor.UPLOAD_PARAMETER)).thenReturn(id);
+		when(request.getContentType()).thenReturn(ResumableUploadInterceptor.OFFSET_CONTENT_TYPE);
+		when(request.getHeader("Upload-Offset")).thenReturn(Long.toString(offset));
+		when(request.getHeader("Upload-Checksum")).thenReturn(checksum);
+		when(request.getInputStream()).thenReturn(inputOf(chunk));
+		intercept();
+	}
+
+	/**
+	 * Instantiates the parameters before running the interceptor, as the
+	 * {@link InterceptorsReady} event does.
+	 */
+	private void intercept() {
+		methodInfo.setControllerMethod(method);
+		instantiator.instantiate(new InterceptorsReady(method));
+		interceptor.intercept(stack, method, this);
+	}
+
+	private static ServletInputStream inputOf(String content) throws IOException {
+		final ByteArrayInputStream input = new ByteArrayInputStream(content.getBytes("UTF-8"));
+		return new ServletInputStream() {
+			@Override
+			public int read() throws IOException {
+				return input.read();
+			}
+
+			@Override
+			public boolean isFinished() {
+				return input.available() == 0;
+			}
+
+			@Override
+			public boolean isReady() {
+				return true;
+			}
+
+			@Override
+			public void setReadListener(ReadListener readListener) {
+			}
+		};
+	}
+
+	private static byte[] sha1(String content) throws Exception {
+		return MessageDigest.getInstance("SHA-1").digest(content.getBytes("UTF-8"));
+	}
+
+	@ResumableUpload(maxSize = 100)
+	public void upload(UploadedFile file) {
+	}
+}
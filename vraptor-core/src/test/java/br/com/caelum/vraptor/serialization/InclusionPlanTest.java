@@ -0,0 +1,172 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.serialization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.caelum.vraptor.cache.TinyLFUCacheStore;
+import br.com.caelum.vraptor.core.DefaultReflectionProvider;
+import br.com.caelum.vraptor.serialization.InclusionPlan.Inclusion;
+
+public class InclusionPlanTest {
+
+	private DefaultReflectionProvider reflectionProvider;
+	private InclusionPlans plans;
+
+	@Before
+	public void setup() {
+		reflectionProvider = new DefaultReflectionProvider();
+		plans = new InclusionPlans(reflectionProvider, new TinyLFUCacheStore<Object, InclusionPlan>(10),
+				new TinyLFUCacheStore<Object, Set<Class<?>>>(10));
+	}
+
+	static class Address {
+		String street;
+	}
+
+	static class Client {
+		String name;
+		int age;
+		Address address;
+		List<Address> addresses;
+	}
+
+	static class Order {
+		String code;
+		Client client;
+	}
+
+	@Test
+	public void shouldSerializeOnlySimpleFieldsByDefault() {
+		InclusionPlan plan = serializee(Client.class).getInclusionPlan();
+
+		assertEquals(Inclusion.SERIALIZED, plan.inclusionOf(Client.class, "name"));
+		assertEquals(Inclusion.SERIALIZED, plan.inclusionOf(Client.class, "age"));
+		assertEquals(Inclusion.SKIPPED, plan.inclusionOf(Client.class, "address"));
+		assertEquals(Inclusion.SKIPPED, plan.inclusionOf(Client.class, "addresses"));
+	}
+
+	@Test
+	public void shouldSerializeEveryFieldWhenRecursive() {
+		Serializee serializee = serializee(Client.class);
+		serializee.setRecursive(true);
+
+		assertEquals(Inclusion.SERIALIZED, serializee.getInclusionPlan().inclusionOf(Client.class, "address"));
+	}
+
+	@Test
+	public void shouldCompileIncludesAndExcludesOfNestedPaths() {
+		Serializee serializee = serializee(Order.class);
+		serializee.includeAll("client", "client.address");
+		serializee.excludeAll("code", "client.address.street");
+		InclusionPlan plan = serializee.getInclusionPlan();
+
+		assertEquals(Inclusion.INCLUDED, plan.inclusionOf(Order.class, "client"));
+		assertEquals(Inclusion.INCLUDED, plan.inclusionOf(Client.class, "address"));
+		assertEquals(Inclusion.EXCLUDED, plan.inclusionOf(Order.class, "code"));
+		assertEquals(Inclusion.EXCLUDED, plan.inclusionOf(Address.class, "street"));
+		assertEquals(Inclusion.SERIALIZED, plan.inclusionOf(Client.class, "name"));
+	}
+
+	@Test
+	public void shouldPreferIncludesOverExcludes() {
+		Serializee serializee = serializee(Client.class);
+		serializee.excludeAll();
+		serializee.includeAll("name");
+		InclusionPlan plan = serializee.getInclusionPlan();
+
+		assertEquals(Inclusion.INCLUDED, plan.inclusionOf(Client.class, "name"));
+		assertEquals(Inclusion.EXCLUDED, plan.inclusionOf(Client.class, "age"));
+	}
+
+	@Test
+	public void shouldShareThePlanOfTheSameSpecification() {
+		Serializee first = serializee(Order.class);
+		first.excludeAll("code");
+		Serializee second = serializee(Order.class);
+		second.excludeAll("code");
+		Serializee third = serializee(Order.class);
+		third.excludeAll("client");
+
+		assertSame(first.getInclusionPlan(), second.getInclusionPlan());
+		assertNotSame(first.getInclusionPlan(), third.getInclusionPlan());
+	}
+
+	@Test
+	public void shouldCompileAgainWhenTheSpecificationChanges() {
+		Serializee serializee = serializee(Order.class);
+		InclusionPlan before = serializee.getInclusionPlan();
+		serializee.excludeAll("code");
+
+		assertEquals(Inclusion.SERIALIZED, before.inclusionOf(Order.class, "code"));
+		assertEquals(Inclusion.EXCLUDED, serializee.getInclusionPlan().inclusionOf(Order.class, "code"));
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void shouldKeepThePlanWhenTheSpecificationIsOnlyRead() {
+		Serializee serializee = new Serializee(reflectionProvider);
+		serializee.setRootClass(Order.class);
+		serializee.excludeAll("code");
+		InclusionPlan plan = serializee.getInclusionPlan();
+
+		serializee.getIncludes();
+		serializee.getExcludes();
+		assertSame(plan, serializee.getInclusionPlan());
+
+		serializee.getExcludes().put("client", Order.class);
+		assertEquals(Inclusion.EXCLUDED, serializee.getInclusionPlan().inclusionOf(Order.class, "client"));
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void shouldRecompileThePlanWhenAPathIsReplacedByAnother() {
+		Serializee serializee = new Serializee(reflectionProvider);
+		serializee.setRootClass(Order.class);
+		serializee.excludeAll("code");
+		assertEquals(Inclusion.EXCLUDED, serializee.getInclusionPlan().inclusionOf(Order.class, "code"));
+
+		serializee.getExcludes().removeAll("code");
+		serializee.getExcludes().put("client", Order.class);
+
+		assertEquals(Inclusion.SERIALIZED, serializee.getInclusionPlan().inclusionOf(Order.class, "code"));
+		assertEquals(Inclusion.EXCLUDED, serializee.getInclusionPlan().inclusionOf(Order.class, "client"));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	@SuppressWarnings("deprecation")
+	public void shouldNotAllowWritesThroughTheViewsOfThePaths() {
+		Serializee serializee = new Serializee(reflectionProvider);
+		serializee.setRootClass(Order.class);
+
+		serializee.getExcludes().get("code").add(Order.class);
+	}
+
+	private Serializee serializee(Class<?> rootClass) {
+		Serializee serializee = new Serializee(reflectionProvider, plans);
+		serializee.setRootClass(rootClass);
+		return serializee;
+	}
+}
@@ -0,0 +1,168 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.serialization.binary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.enterprise.inject.Instance;
+import javax.servlet.http.HttpServletRequest;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonSerializer;
+import com.google.gson.stream.JsonWriter;
+
+import br.com.caelum.vraptor.Consumes;
+import br.com.caelum.vraptor.controller.BeanClass;
+import br.com.caelum.vraptor.controller.ControllerMethod;
+import br.com.caelum.vraptor.controller.DefaultBeanClass;
+import br.com.caelum.vraptor.controller.DefaultControllerMethod;
+import br.com.caelum.vraptor.core.DefaultReflectionProvider;
+import br.com.caelum.vraptor.http.ParanamerNameProvider;
+import br.com.caelum.vraptor.ioc.Container;
+import br.com.caelum.vraptor.serialization.Deserializee;
+import br.com.caelum.vraptor.serialization.Serializee;
+import br.com.caelum.vraptor.serialization.gson.GsonBuilderWrapper;
+import br.com.caelum.vraptor.serialization.gson.WithoutRoot;
+import br.com.caelum.vraptor.util.test.MockInstanceImpl;
+
+public class BinaryDeserializationTest {
+
+	private CborDeserialization cbor;
+	private MessagePackDeserialization messagePack;
+	private ControllerMethod dogParameter;
+	private ControllerMethod dogParameterWithoutRoot;
+	private ControllerMethod list;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setup() throws Exception {
+		GsonBuilderWrapper builder = new GsonBuilderWrapper(new MockInstanceImpl<JsonSerializer<?>>(),
+				new MockInstanceImpl<JsonDeserializer<?>>(), new Serializee(new DefaultReflectionProvider()),
+				new DefaultReflectionProvider());
+		HttpServletRequest request = mock(HttpServletRequest.class);
+		Container container = mock(Container.class);
+		when(container.instanceFor(WithoutRoot.class)).thenReturn(new WithoutRoot());
+		Instance<Deserializee> deserializees = mock(Instance.class);
+		when(deserializees.get()).thenReturn(new Deserializee());
+
+		ParanamerNameProvider provider = new ParanamerNameProvider();
+		cbor = new CborDeserialization(builder, provider, request, container, deserializees);
+		messagePack = new MessagePackDeserialization(builder, provider, request, container, deserializees);
+
+		BeanClass controller = new DefaultBeanClass(DogController.class);
+		dogParameter = new DefaultControllerMethod(controller, DogController.class.getDeclaredMethod("dogParameter", Dog.class));
+		dogParameterWithoutRoot = new DefaultControllerMethod(controller,
+				DogController.class.getDeclaredMethod("dogParameterWithoutRoot", Dog.class));
+		list = new DefaultControllerMethod(controller, DogController.class.getDeclaredMethod("list", List.class));
+	}
+
+	static class Dog {
+		private String name;
+		private Integer age;
+	}
+
+	static class DogController {
+		@Consumes
+		public void dogParameter(Dog dog) {}
+
+		@Consumes(options = WithoutRoot.class)
+		public void dogParameterWithoutRoot(Dog dog) {}
+
+		@Consumes
+		public void list(List<Dog> dogs) {}
+	}
+
+	@Test
+	public void shouldDeserializeCborWithRoot() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BinaryFormat.CBOR.newWriter(out).beginObject().name("dog")
+			.beginObject().name("name").value("Brutus").name("age").value(7).endObject()
+			.endObject().flush();
+
+		Dog dog = (Dog) cbor.deserialize(input(out), dogParameter)[0];
+
+		assertEquals("Brutus", dog.name);
+		assertEquals(Integer.valueOf(7), dog.age);
+	}
+
+	@Test
+	public void shouldDeserializeMessagePackWithoutRoot() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BinaryFormat.MESSAGE_PACK.newWriter(out).beginObject().name("name").value("Brutus").endObject().flush();
+
+		Dog dog = (Dog) messagePack.deserialize(input(out), dogParameterWithoutRoot)[0];
+
+		assertEquals("Brutus", dog.name);
+	}
+
+	@Test
+	public void shouldTakeTheWholeObjectWhenNoPropertyIsNamedAfterAParameter() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BinaryFormat.CBOR.newWriter(out).beginObject().name("name").value("Brutus").name("age").value(7)
+			.endObject().flush();
+
+		Dog dog = (Dog) cbor.deserialize(input(out), dogParameter)[0];
+
+		assertEquals("Brutus", dog.name);
+		assertEquals(Integer.valueOf(7), dog.age);
+	}
+
+	@Test
+	public void shouldDeserializeLists() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		JsonWriter writer = BinaryFormat.MESSAGE_PACK.newWriter(out);
+		writer.beginArray();
+		for (String name : new String[] { "Brutus", "Rex" }) {
+			writer.beginObject().name("name").value(name).endObject();
+		}
+		writer.endArray().flush();
+
+		Object[] values = messagePack.deserialize(input(out), list);
+
+		List<Dog> dogs = new ArrayList<>();
+		for (Object dog : (List<?>) values[0]) {
+			dogs.add((Dog) dog);
+		}
+		assertEquals("Brutus", dogs.get(0).name);
+		assertEquals("Rex", dogs.get(1).name);
+	}
+
+	@Test
+	public void shouldReturnNullsWithoutContent() {
+		Object[] values = cbor.deserialize(new ByteArrayInputStream(new byte[0]), dogParameter);
+
+		assertEquals(1, values.length);
+		assertNull(values[0]);
+	}
+
+	private static InputStream input(ByteArrayOutputStream out) {
+		return new ByteArrayInputStream(out.toByteArray());
+	}
+}
@@ -0,0 +1,225 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.serialization.binary;
+
+import static br.com.caelum.vraptor.serialization.binary.BinaryFormat.CBOR;
+import static br.com.caelum.vraptor.serialization.binary.BinaryFormat.MESSAGE_PACK;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
+
+public class BinaryFormatTest {
+
+	@Test
+	public void shouldWriteCborIntegersInTheirShortestForm() throws IOException {
+		assertArrayEquals(bytes(0x00), write(CBOR, 0));
+		assertArrayEquals(bytes(0x17), write(CBOR, 23));
+		assertArrayEquals(bytes(0x18, 0x18), write(CBOR, 24));
+		assertArrayEquals(bytes(0x19, 0x03, 0xe8), write(CBOR, 1000));
+		assertArrayEquals(bytes(0x20), write(CBOR, -1));
+		assertArrayEquals(bytes(0x39, 0x03, 0xe7), write(CBOR, -1000));
+		assertArrayEquals(bytes(0x1b, 0x00, 0x00, 0x00, 0xe8, 0xd4, 0xa5, 0x10, 0x00), write(CBOR, 1000000000000L));
+	}
+
+	@Test
+	public void shouldWriteCborContainersWithIndefiniteLengths() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		JsonWriter writer = CBOR.newWriter(out);
+		writer.beginObject().name("a").beginArray().value(1).value("b").value(true).endArray().endObject().flush();
+
+		assertArrayEquals(bytes(0xbf, 0x61, 0x61, 0x9f, 0x01, 0x61, 0x62, 0xf5, 0xff, 0xff), out.toByteArray());
+	}
+
+	@Test
+	public void shouldReadCborValues() throws IOException {
+		assertEquals(json("[1,[2,3]]"), read(CBOR, 0x82, 0x01, 0x82, 0x02, 0x03));
+		assertEquals(json("{\"a\":1,\"b\":[2,3]}"), read(CBOR, 0xa2, 0x61, 0x61, 0x01, 0x61, 0x62, 0x82, 0x02, 0x03));
+		assertEquals(json("\"streaming\""), read(CBOR, 0x7f, 0x65, 0x73, 0x74, 0x72, 0x65, 0x61, 0x64, 0x6d, 0x69,
+				0x6e, 0x67, 0xff));
+		assertEquals(1.5, read(CBOR, 0xf9, 0x3e, 0x00).getAsDouble(), 0);
+		assertEquals(-4.1, read(CBOR, 0xfb, 0xc0, 0x10, 0x66, 0x66, 0x66, 0x66, 0x66, 0x66).getAsDouble(), 0);
+		assertEquals(new BigInteger("18446744073709551615"),
+				read(CBOR, 0x1b, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff).getAsBigInteger());
+		assertEquals(new BigInteger("-18446744073709551617"),
+				read(CBOR, 0xc3, 0x49, 0x01, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00).getAsBigInteger());
+		assertEquals(json("null"), read(CBOR, 0xf6));
+	}
+
+	@Test
+	public void shouldWriteMessagePackInItsShortestForm() throws IOException {
+		assertArrayEquals(bytes(0x7f), write(MESSAGE_PACK, 127));
+		assertArrayEquals(bytes(0xcc, 0xc8), write(MESSAGE_PACK, 200));
+		assertArrayEquals(bytes(0xe0), write(MESSAGE_PACK, -32));
+		assertArrayEquals(bytes(0xd0, 0x9c), write(MESSAGE_PACK, -100));
+		assertArrayEquals(bytes(0xcd, 0xff, 0xff), write(MESSAGE_PACK, 65535));
+		assertArrayEquals(bytes(0xca, 0x3f, 0xc0, 0x00, 0x00), write(MESSAGE_PACK, 1.5));
+	}
+
+	@Test
+	public void shouldWriteMessagePackContainersWithTheirSizes() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		JsonWriter writer = MESSAGE_PACK.newWriter(out);
+		writer.beginObject().name("a").beginArray().value(1).value("b").nullValue().endArray()
+			.name("c").value(false).endObject().flush();
+
+		assertArrayEquals(bytes(0x82, 0xa1, 0x61, 0x93, 0x01, 0xa1, 0x62, 0xc0, 0xa1, 0x63, 0xc2), out.toByteArray());
+	}
+
+	@Test
+	public void shouldWriteLargeMessagePackArrays() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		JsonWriter writer = MESSAGE_PACK.newWriter(out);
+		writer.beginArray();
+		for (int i = 0; i < 20; i++) {
+			writer.value(i);
+		}
+		writer.endArray().flush();
+
+		byte[] bytes = out.toByteArray();
+		assertEquals(0xdc, bytes[0] & 0xff);
+		assertEquals(20, bytes[2]);
+		assertEquals(json("[0,1,2,3,4,5,6,7,8,9,10,11,12,13,14,15,16,17,18,19]"), MESSAGE_PACK.parse(
+				new ByteArrayInputStream(bytes)));
+	}
+
+	@Test
+	public void shouldRoundTripTheSameTreeInBothFormats() throws IOException {
+		JsonElement tree = json("{\"name\":\"Caelum é\",\"list\":[1,-70000,3000000000,2.5,0.1,true,\"x\"],"
+				+ "\"nested\":{\"empty\":{},\"none\":[]}}");
+		for (BinaryFormat format : BinaryFormat.values()) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			JsonWriter writer = format.newWriter(out);
+			new Gson().toJson(tree, writer);
+			writer.flush();
+
+			assertEquals(format.name(), tree, format.parse(new ByteArrayInputStream(out.toByteArray())));
+		}
+	}
+
+	@Test
+	public void shouldDropNullValuesUnlessNullsAreSerialized() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		JsonWriter writer = CBOR.newWriter(out);
+		writer.setSerializeNulls(false);
+		writer.beginObject().name("a").nullValue().name("b").value(1).endObject().flush();
+
+		assertEquals(json("{\"b\":1}"), CBOR.parse(new ByteArrayInputStream(out.toByteArray())));
+	}
+
+	@Test
+	public void shouldKeepThePrecisionOfBigNumbers() throws IOException {
+		assertEquals(new BigDecimal("0.1"), roundTrip(CBOR, new BigDecimal("0.1")).getAsBigDecimal());
+		assertEquals(new JsonPrimitive(2.5), roundTrip(CBOR, new BigDecimal("2.5")));
+		assertEquals(new JsonPrimitive(10L), roundTrip(CBOR, new BigDecimal("10.00")));
+		assertEquals(new BigInteger("123456789012345678901234567890"),
+				roundTrip(CBOR, new BigInteger("123456789012345678901234567890")).getAsBigInteger());
+		assertEquals(new BigInteger("-123456789012345678901234567890"),
+				roundTrip(CBOR, new BigInteger("-123456789012345678901234567890")).getAsBigInteger());
+		assertEquals(new BigDecimal("-1234567890123456789012345.67890"),
+				roundTrip(CBOR, new BigDecimal("-1234567890123456789012345.67890")).getAsBigDecimal());
+		assertEquals(new BigDecimal("1E+400"), roundTrip(CBOR, new BigDecimal("1E+400")).getAsBigDecimal());
+	}
+
+	@Test
+	public void shouldWriteCborDecimalFractions() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CBOR.newWriter(out).value(new BigDecimal("273.15")).flush();
+
+		assertArrayEquals(bytes(0xc4, 0x82, 0x21, 0x19, 0x6a, 0xb3), out.toByteArray());
+		assertEquals(new BigDecimal("273.15"), read(CBOR, 0xc4, 0x82, 0x21, 0x19, 0x6a, 0xb3).getAsBigDecimal());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRefuseCborDecimalFractionsWithoutIntegers() throws IOException {
+		read(CBOR, 0xc4, 0x82, 0x21, 0xf9, 0x3e, 0x00);
+	}
+
+	@Test
+	public void shouldWriteMessagePackBigNumbersAsTheirText() throws IOException {
+		assertEquals(new JsonPrimitive("0.1"), roundTrip(MESSAGE_PACK, new BigDecimal("0.1")));
+		assertEquals(new JsonPrimitive(2.5), roundTrip(MESSAGE_PACK, new BigDecimal("2.5")));
+		assertEquals(new JsonPrimitive("123456789012345678901234567890"),
+				roundTrip(MESSAGE_PACK, new BigInteger("123456789012345678901234567890")));
+	}
+
+	@Test
+	public void shouldReturnNullWithoutContent() throws IOException {
+		assertNull(CBOR.parse(new ByteArrayInputStream(new byte[0])));
+		assertNull(MESSAGE_PACK.parse(new ByteArrayInputStream(new byte[0])));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRefuseTooDeeplyNestedContent() throws IOException {
+		byte[] bytes = new byte[2000];
+		Arrays.fill(bytes, (byte) 0x91);
+		MESSAGE_PACK.parse(new ByteArrayInputStream(bytes));
+	}
+
+	@Test(expected = IOException.class)
+	public void shouldNotTrustDeclaredLengths() throws IOException {
+		read(CBOR, 0x7a, 0x7f, 0xff, 0xff, 0xff, 0x61);
+	}
+
+	private static JsonElement roundTrip(BinaryFormat format, Number value) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		format.newWriter(out).value(value).flush();
+		return format.parse(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+	private static byte[] write(BinaryFormat format, long value) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		format.newWriter(out).value(value).flush();
+		return out.toByteArray();
+	}
+
+	private static byte[] write(BinaryFormat format, double value) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		format.newWriter(out).value(value).flush();
+		return out.toByteArray();
+	}
+
+	private static JsonElement read(BinaryFormat format, int... bytes) throws IOException {
+		return format.parse(new ByteArrayInputStream(bytes(bytes)));
+	}
+
+	private static JsonElement json(String json) {
+		return JsonParser.parseString(json);
+	}
+
+	private static byte[] bytes(int... values) {
+		byte[] bytes = new byte[values.length];
+		for (int i = 0; i < values.length; i++) {
+			bytes[i] = (byte) values[i];
+		}
+		return bytes;
+	}
+}
@@ -0,0 +1,190 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.serialization.binary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSerializer;
+
+import br.com.caelum.vraptor.core.DefaultReflectionProvider;
+import br.com.caelum.vraptor.interceptor.DefaultTypeNameExtractor;
+import br.com.caelum.vraptor.serialization.Serializee;
+import br.com.caelum.vraptor.serialization.SkipSerialization;
+import br.com.caelum.vraptor.serialization.Streamed;
+import br.com.caelum.vraptor.serialization.gson.GsonBuilderWrapper;
+import br.com.caelum.vraptor.util.test.MockInstanceImpl;
+
+public class BinarySerializationTest {
+
+	private ByteArrayOutputStream stream;
+	private HttpServletResponse response;
+	private GsonBuilderWrapper builder;
+
+	@Before
+	public void setup() throws Exception {
+		stream = new ByteArrayOutputStream();
+		response = mock(HttpServletResponse.class);
+		when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+			@Override
+			public void write(int b) {
+				stream.write(b);
+			}
+
+			@Override
+			public boolean isReady() {
+				return true;
+			}
+
+			@Override
+			public void setWriteListener(WriteListener listener) {
+			}
+		});
+
+		builder = new GsonBuilderWrapper(new MockInstanceImpl<JsonSerializer<?>>(),
+				new MockInstanceImpl<JsonDeserializer<?>>(), new Serializee(new DefaultReflectionProvider()),
+				new DefaultReflectionProvider());
+	}
+
+	public static class Address {
+		String street;
+
+		public Address(String street) {
+			this.street = street;
+		}
+	}
+
+	public static class Client {
+		String name;
+		Address address;
+		@SkipSerialization
+		String password;
+
+		public Client(String name, Address address) {
+			this.name = name;
+			this.address = address;
+			this.password = "secret";
+		}
+	}
+
+	@Test
+	public void shouldAcceptOnlyItsFormat() {
+		assertTrue(cbor().accepts("cbor"));
+		assertFalse(cbor().accepts("json"));
+		assertTrue(messagePack().accepts("msgpack"));
+		assertFalse(messagePack().accepts("cbor"));
+	}
+
+	@Test
+	public void shouldSerializeTheSameTreeOfJsonWithContentType() throws IOException {
+		cbor().from(new Client("guilherme", new Address("vergueiro"))).serialize();
+
+		verify(response).setContentType("application/cbor");
+		assertEquals(json("{\"client\":{\"name\":\"guilherme\"}}"), parsed(BinaryFormat.CBOR));
+	}
+
+	@Test
+	public void shouldHonorIncludesAndExcludes() throws IOException {
+		messagePack().from(new Client("guilherme", new Address("vergueiro")), "person")
+			.include("address").exclude("name").serialize();
+
+		verify(response).setContentType("application/msgpack");
+		assertEquals(json("{\"person\":{\"address\":{\"street\":\"vergueiro\"}}}"), parsed(BinaryFormat.MESSAGE_PACK));
+	}
+
+	@Test
+	public void shouldSerializeRecursivelyWithoutRoot() throws IOException {
+		cbor().withoutRoot().from(new Client("guilherme", new Address("vergueiro"))).recursive().serialize();
+
+		assertEquals(json("{\"name\":\"guilherme\",\"address\":{\"street\":\"vergueiro\"}}"), parsed(BinaryFormat.CBOR));
+	}
+
+	@Test
+	public void shouldSerializeCollections() throws IOException {
+		List<Client> clients = new ArrayList<>(Arrays.asList(new Client("a", null), new Client("b", null)));
+		messagePack().from(clients).serialize();
+
+		assertEquals(json("{\"list\":[{\"name\":\"a\"},{\"name\":\"b\"}]}"), parsed(BinaryFormat.MESSAGE_PACK));
+	}
+
+	@Test
+	public void shouldSendStreamedElementsAsTheyAreProducedOnlyInCbor() throws IOException {
+		assertTrue(bytesSentBeforeTheLastElement(cbor()) > 0);
+		assertEquals(0, bytesSentBeforeTheLastElement(messagePack()));
+		assertEquals(2000, parsed(BinaryFormat.MESSAGE_PACK).getAsJsonObject().get("list").getAsJsonArray().size());
+	}
+
+	private int bytesSentBeforeTheLastElement(BinarySerialization serialization) {
+		stream.reset();
+		final int[] sent = new int[1];
+		Iterator<Client> clients = new AbstractIterator<Client>() {
+			private int produced;
+
+			@Override
+			protected Client computeNext() {
+				if (produced == 2000) {
+					return endOfData();
+				}
+				sent[0] = stream.size();
+				return new Client("client " + produced++, null);
+			}
+		};
+		serialization.from(Streamed.of(Client.class, clients)).serialize();
+		return sent[0];
+	}
+
+	private CborSerialization cbor() {
+		return new CborSerialization(response, new DefaultTypeNameExtractor(), builder,
+				new DefaultReflectionProvider(), null);
+	}
+
+	private MessagePackSerialization messagePack() {
+		return new MessagePackSerialization(response, new DefaultTypeNameExtractor(), builder,
+				new DefaultReflectionProvider(), null);
+	}
+
+	private JsonElement parsed(BinaryFormat format) throws IOException {
+		return format.parse(new ByteArrayInputStream(stream.toByteArray()));
+	}
+
+	private static JsonElement json(String json) {
+		return JsonParser.parseString(json);
+	}
+}
@@ -0,0 +1,175 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.serialization.gson;
+
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.StringWriter;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.enterprise.context.Dependent;
+import javax.enterprise.inject.Any;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.InjectionPoint;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
+import com.google.gson.Gson;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonSerializer;
+
+import br.com.caelum.vraptor.cache.TinyLFUCacheStore;
+import br.com.caelum.vraptor.core.DefaultReflectionProvider;
+import br.com.caelum.vraptor.interceptor.DefaultTypeNameExtractor;
+import br.com.caelum.vraptor.serialization.Serializee;
+import br.com.caelum.vraptor.util.test.MockInstanceImpl;
+
+public class GsonCacheTest {
+
+	private GsonCache cache;
+	private DefaultReflectionProvider reflectionProvider;
+
+	@Before
+	public void setup() {
+		cache = new GsonCache(new TinyLFUCacheStore<Object, Gson>(10));
+		reflectionProvider = new DefaultReflectionProvider();
+	}
+
+	public static class Client {
+		String name;
+		String email;
+
+		public Client(String name, String email) {
+			this.name = name;
+			this.email = email;
+		}
+	}
+
+	@Test
+	public void shouldReuseInstancesWithTheSameConfiguration() {
+		assertSame(wrapper().create(), wrapper().create());
+	}
+
+	@Test
+	public void shouldCreateAnotherInstanceForAnotherConfiguration() {
+		GsonBuilderWrapper indented = wrapper();
+		indented.indented();
+		GsonBuilderWrapper versioned = wrapper();
+		versioned.version(1.0);
+
+		assertNotSame(wrapper().create(), indented.create());
+		assertNotSame(indented.create(), versioned.create());
+	}
+
+	@Test
+	public void shouldKeepTheExclusionsOfEachConfiguration() {
+		Client client = new Client("guilherme", "guilherme@example.com");
+
+		assertEquals("{\"client\":{\"email\":\"guilherme@example.com\"}}", serialize(client, "name"));
+		assertEquals("{\"client\":{\"name\":\"guilherme\",\"email\":\"guilherme@example.com\"}}", serialize(client));
+		assertEquals("{\"client\":{\"name\":\"guilherme\"}}", serialize(client, "email"));
+		assertEquals("{\"client\":{\"email\":\"guilherme@example.com\"}}", serialize(client, "name"));
+	}
+
+	@Test
+	public void shouldNotCacheCustomExclusionStrategies() {
+		GsonBuilderWrapper wrapper = wrapper();
+		wrapper.setExclusionStrategies(new ExclusionStrategy() {
+			@Override
+			public boolean shouldSkipField(FieldAttributes f) {
+				return false;
+			}
+
+			@Override
+			public boolean shouldSkipClass(Class<?> clazz) {
+				return false;
+			}
+		});
+
+		assertNotSame(wrapper.create(), wrapper().create());
+	}
+
+	@Test
+	public void shouldFindTheAdaptersFromTheBeanMetadata() {
+		BeanManager beanManager = mock(BeanManager.class);
+		Bean<?> adapter = dependentBean(CalendarGsonConverter.class);
+		doReturn(singleton(adapter)).when(beanManager).getBeans(any(Type.class), eq(Any.Literal.INSTANCE));
+		cache = new GsonCache(new TinyLFUCacheStore<Object, Gson>(10), beanManager);
+		cache.init();
+
+		assertSame(wrapper().create(), wrapper().create());
+		assertEquals(2, cache.getAdapterClasses().size());
+	}
+
+	@Test
+	public void shouldNotCacheWhenAnAdapterMayHoldRequestState() {
+		BeanManager beanManager = mock(BeanManager.class);
+		Bean<?> adapter = dependentBean(CalendarGsonConverter.class);
+		InjectionPoint point = mock(InjectionPoint.class);
+		when(point.getType()).thenReturn((Type) Object.class);
+		when(point.getQualifiers()).thenReturn(Collections.<Annotation>emptySet());
+		when(adapter.getInjectionPoints()).thenReturn(singleton(point));
+		Bean<?> dependency = dependentBean(Object.class);
+		doReturn(singleton(adapter)).when(beanManager).getBeans(any(Type.class), eq(Any.Literal.INSTANCE));
+		doReturn(singleton(dependency)).when(beanManager).getBeans(Object.class);
+		doReturn(dependency).when(beanManager).resolve(any(Set.class));
+		cache = new GsonCache(new TinyLFUCacheStore<Object, Gson>(10), beanManager);
+		cache.init();
+
+		assertNotSame(wrapper().create(), wrapper().create());
+	}
+
+	private Bean<?> dependentBean(Class<?> type) {
+		Bean<?> bean = mock(Bean.class);
+		doReturn(Dependent.class).when(bean).getScope();
+		doReturn(type).when(bean).getBeanClass();
+		return bean;
+	}
+
+	private String serialize(Client client, String... excludes) {
+		StringWriter writer = new StringWriter();
+		new GsonSerializer(wrapper(), writer, new DefaultTypeNameExtractor(), reflectionProvider)
+			.from(client).exclude(excludes).serialize();
+		return writer.toString();
+	}
+
+	private GsonBuilderWrapper wrapper() {
+		List<JsonSerializer<?>> serializers = new ArrayList<>();
+		serializers.add(new CalendarGsonConverter());
+		serializers.add(new DateGsonConverter());
+		List<JsonDeserializer<?>> deserializers = new ArrayList<>();
+		return new GsonBuilderWrapper(new MockInstanceImpl<>(serializers), new MockInstanceImpl<>(deserializers),
+				new Serializee(reflectionProvider), reflectionProvider, cache);
+	}
+}
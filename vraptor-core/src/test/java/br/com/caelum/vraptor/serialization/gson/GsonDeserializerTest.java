@@ -21,7 +21,10 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayInputStream;
@@ -230,6 +233,18 @@ public class GsonDeserializerTest {
 		assertThat(dog.age, is(7));
 	}
 
+	@Test
+	public void shouldIgnoreOtherPropertiesOfTheRoot() throws Exception {
+		InputStream stream = asStream("{'owner':{'name':'John'},'dog':{'name':'Brutus','age':7},'tags':[1,2]}");
+
+		Object[] deserialized = deserializer.deserialize(stream, dogParameter);
+
+		assertThat(deserialized.length, is(1));
+		Dog dog = (Dog) deserialized[0];
+		assertThat(dog.name, is("Brutus"));
+		assertThat(dog.age, is(7));
+	}
+
 	@Test
 	public void shouldBeAbleToDeserializeADogWithoutRootAndParameterNameEqualsJsonProperty() throws Exception {
 		InputStream stream = asStream("{'name':'Brutus','age':7}");
@@ -256,6 +271,17 @@ public class GsonDeserializerTest {
 		assertThat(dog.age, is(7));
 	}
 
+	@Test
+	public void shouldRunConsumesOptionsOnlyOnce() throws Exception {
+		WithoutRoot option = spy(new WithoutRoot());
+		when(container.instanceFor(WithoutRoot.class)).thenReturn(option);
+		InputStream stream = asStream("{'name':'Brutus','age':7}");
+
+		deserializer.deserialize(stream, dogParameterNameEqualsJsonPropertyWithoutRoot);
+
+		verify(option).config(any(Deserializee.class));
+	}
+
 	@Test
 	public void shouldBeAbleToDeserializeADogWithDeserializerAdapter() throws Exception {
 		List<JsonDeserializer<?>> deserializers = new ArrayList<>();
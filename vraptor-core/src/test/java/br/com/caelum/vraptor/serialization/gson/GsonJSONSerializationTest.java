@@ -34,14 +34,17 @@ import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.Iterator;
 import java.util.List;
 import java.util.TimeZone;
+import java.util.stream.Stream;
 
 import javax.servlet.http.HttpServletResponse;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.base.Supplier;
 import com.google.common.collect.ForwardingCollection;
 import com.google.gson.ExclusionStrategy;
 import com.google.gson.FieldAttributes;
@@ -60,6 +63,7 @@ import br.com.caelum.vraptor.serialization.JSONPSerialization;
 import br.com.caelum.vraptor.serialization.JSONSerialization;
 import br.com.caelum.vraptor.serialization.Serializee;
 import br.com.caelum.vraptor.serialization.SkipSerialization;
+import br.com.caelum.vraptor.serialization.Streamed;
 import br.com.caelum.vraptor.util.test.MockInstanceImpl;
 
 public class GsonJSONSerializationTest {
@@ -339,6 +343,34 @@ public class GsonJSONSerializationTest {
 		assertThat(result(), is(equalTo(expectedResult)));
 	}
 
+	@Test
+	public void shouldSerializeStreamedElements() {
+		String expectedResult = "{\"price\":15.0,\"comments\":\"pack it nicely, please\"}";
+		expectedResult += "," + expectedResult;
+		expectedResult = "{\"list\":[" + expectedResult + "]}";
+
+		Order order = new Order(new Client("guilherme silveira"), 15.0, "pack it nicely, please");
+		serialization.from(Stream.of(order, order)).serialize();
+		assertThat(result(), is(equalTo(expectedResult)));
+	}
+
+	@Test
+	public void shouldResolveIncludesOfStreamedElementsFromTheDeclaredType() {
+		final Order order = new Order(new Client("guilherme silveira"), 15.0, "pack it nicely, please");
+		final Iterator<Order> orders = Arrays.asList(order, order).iterator();
+		Supplier<Order> supplier = new Supplier<Order>() {
+			@Override
+			public Order get() {
+				return orders.hasNext() ? orders.next() : null;
+			}
+		};
+		serialization.withoutRoot().from(Streamed.of(Order.class, supplier)).include("client").exclude("price")
+			.serialize();
+
+		String expected = "{\"client\":{\"name\":\"guilherme silveira\"},\"comments\":\"pack it nicely, please\"}";
+		assertThat(result(), is(equalTo("[" + expected + "," + expected + "]")));
+	}
+
 	@Test
 	public void shouldSerializeCollectionWithPrefixTag() {
 		String expectedResult = "{\"price\":15.0,\"comments\":\"pack it nicely, please\"}";
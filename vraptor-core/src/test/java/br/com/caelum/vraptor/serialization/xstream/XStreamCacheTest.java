@@ -0,0 +1,184 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.serialization.xstream;
+
+import static br.com.caelum.vraptor.serialization.xstream.XStreamBuilderImpl.cleanInstance;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import br.com.caelum.vraptor.cache.TinyLFUCacheStore;
+import br.com.caelum.vraptor.controller.DefaultBeanClass;
+import br.com.caelum.vraptor.controller.DefaultControllerMethod;
+import br.com.caelum.vraptor.core.DefaultReflectionProvider;
+import br.com.caelum.vraptor.http.ParanamerNameProvider;
+import br.com.caelum.vraptor.serialization.InclusionPlan;
+import br.com.caelum.vraptor.serialization.InclusionPlans;
+import br.com.caelum.vraptor.serialization.Serializee;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.xml.CompactWriter;
+
+public class XStreamCacheTest {
+
+	private TinyLFUCacheStore<Object, XStream> instances;
+	private XStreamCache cache;
+	private DefaultReflectionProvider reflectionProvider;
+	private InclusionPlans plans;
+
+	@Before
+	public void setup() {
+		instances = new TinyLFUCacheStore<>(10);
+		cache = new XStreamCache(instances);
+		reflectionProvider = new DefaultReflectionProvider();
+		plans = new InclusionPlans(reflectionProvider, new TinyLFUCacheStore<Object, InclusionPlan>(10),
+				new TinyLFUCacheStore<Object, Set<Class<?>>>(10));
+	}
+
+	public static class Client {
+		String name;
+		String email;
+
+		public Client() {
+		}
+
+		public Client(String name, String email) {
+			this.name = name;
+			this.email = email;
+		}
+	}
+
+	static class ClientController {
+		public void save(Client client) {
+		}
+	}
+
+	@Test
+	public void shouldReuseTheInstanceOfTheSameRootTypeAndAlias() {
+		serialize(new Client("john", "john@example.com"), "client");
+		serialize(new Client("mary", "mary@example.com"), "client");
+		serialize(new Client("paul", "paul@example.com"), "person");
+
+		assertEquals(2, instances.size());
+		assertEquals(1, instances.stats().getHits());
+	}
+
+	@Test
+	public void shouldApplyTheExcludesOfEachSerializationToSharedInstances() {
+		String first = serialize(new Client("john", "john@example.com"), "client", "email");
+		String second = serialize(new Client("mary", "mary@example.com"), "client");
+
+		assertEquals("<client><name>john</name></client>", first);
+		assertEquals("<client><name>mary</name><email>mary@example.com</email></client>", second);
+	}
+
+	@Test
+	public void shouldSerializeConcurrentlyWithTheSameInstance() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				final String exclude = i % 2 == 0 ? "email" : "name";
+				results.add(executor.submit(new Callable<String>() {
+					@Override
+					public String call() {
+						return serialize(new Client("john", "john@example.com"), "client", exclude);
+					}
+				}));
+			}
+			for (int i = 0; i < results.size(); i++) {
+				String xml = results.get(i).get();
+				if (i % 2 == 0) {
+					assertThat(xml, not(containsString("email")));
+				} else {
+					assertThat(xml, not(containsString("name")));
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(1, instances.size());
+	}
+
+	@Test
+	public void shouldReuseTheInstanceOfTheSameControllerMethod() throws Exception {
+		XStreamXMLDeserializer deserializer = new XStreamXMLDeserializer(new ParanamerNameProvider(),
+				allowingClients(cleanInstance()), cache, new Serializee(reflectionProvider, plans));
+		DefaultControllerMethod save = new DefaultControllerMethod(new DefaultBeanClass(ClientController.class),
+				ClientController.class.getDeclaredMethod("save", Client.class));
+
+		for (String name : new String[] { "john", "mary" }) {
+			String xml = "<client><name>" + name + "</name></client>";
+			Object[] params = deserializer.deserialize(new ByteArrayInputStream(xml.getBytes()), save);
+
+			assertThat(params[0], instanceOf(Client.class));
+			assertEquals(name, ((Client) params[0]).name);
+		}
+		assertEquals(1, instances.size());
+		assertEquals(1, instances.stats().getHits());
+	}
+
+	private static XStreamBuilder allowingClients(final XStreamBuilder builder) {
+		return new XStreamBuilder() {
+			@Override
+			public XStream xmlInstance() {
+				XStream xstream = builder.xmlInstance();
+				xstream.allowTypes(new Class[] { Client.class });
+				return xstream;
+			}
+
+			@Override
+			public XStream configure(XStream xstream) {
+				return builder.configure(xstream);
+			}
+
+			@Override
+			public XStreamBuilder indented() {
+				builder.indented();
+				return this;
+			}
+
+			@Override
+			public XStreamBuilder recursive() {
+				builder.recursive();
+				return this;
+			}
+		};
+	}
+
+	private String serialize(Object object, String alias, String... excludes) {
+		StringWriter writer = new StringWriter();
+		new XStreamSerializer(cleanInstance(), cache, new Serializee(reflectionProvider, plans),
+				new CompactWriter(writer)).from(object, alias).exclude(excludes).serialize();
+		return writer.toString();
+	}
+}
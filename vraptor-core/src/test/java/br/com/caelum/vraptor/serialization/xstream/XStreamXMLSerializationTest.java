@@ -34,9 +34,11 @@ import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.stream.Stream;
 
 import javax.servlet.http.HttpServletResponse;
 
@@ -46,6 +48,7 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import br.com.caelum.vraptor.environment.Environment;
+import br.com.caelum.vraptor.serialization.Streamed;
 
 import com.google.common.collect.Lists;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
@@ -276,6 +279,55 @@ public class XStreamXMLSerializationTest {
 		serialization.from(Arrays.asList(order, order), "orders").serialize();
 		assertThat(result(), is(equalTo(expectedResult)));
 	}
+	@Test
+	public void shouldSerializeStreamedElements() {
+		String expectedResult = "<order><price>15.0</price><comments>pack it nicely, please</comments></order>";
+		expectedResult += expectedResult;
+		expectedResult = "<orders>" + expectedResult + "</orders>";
+		Order order = new Order(new Client("guilherme silveira"), 15.0, "pack it nicely, please");
+		serialization.from(Arrays.asList(order, order).iterator(), "orders").serialize();
+		assertThat(result(), is(equalTo(expectedResult)));
+	}
+
+	static class Shipment implements Iterable<Order> {
+		private final String carrier;
+		private final transient List<Order> orders;
+
+		Shipment(String carrier, Order... orders) {
+			this.carrier = carrier;
+			this.orders = Arrays.asList(orders);
+		}
+
+		@Override
+		public Iterator<Order> iterator() {
+			return orders.iterator();
+		}
+	}
+
+	@Test
+	public void shouldStreamIterablesOnlyWhenAskedTo() {
+		Order order = new Order(new Client("guilherme silveira"), 15.0, "pack it nicely, please");
+		Shipment shipment = new Shipment("ups", order, order);
+
+		serialization.from(shipment).serialize();
+		assertThat(result(), is(equalTo("<shipment><carrier>ups</carrier></shipment>")));
+
+		stream.reset();
+		serialization.from(Streamed.of(Order.class, shipment), "orders").serialize();
+		String expected = "<order><price>15.0</price><comments>pack it nicely, please</comments></order>";
+		assertThat(result(), is(equalTo("<orders>" + expected + expected + "</orders>")));
+	}
+
+	@Test
+	public void shouldResolveIncludesOfStreamedElementsFromTheDeclaredType() {
+		Order order = new Order(new Client("guilherme silveira"), 15.0, "pack it nicely, please");
+		Stream<Order> orders = Stream.of(order, order);
+		serialization.from(Streamed.of(Order.class, orders), "orders").include("client").exclude("price").serialize();
+
+		assertThat(result(), containsString("<client><name>guilherme silveira</name></client>"));
+		assertThat(result(), not(containsString("<price>")));
+	}
+
 	@Test
 	public void shouldIncludeFieldsFromACollection() {
 		Order order = new Order(new Client("guilherme silveira"), 15.0, "pack it nicely, please",
@@ -0,0 +1,271 @@
+/***
+ * Copyright (c) 2009 Caelum - www.caelum.com.br/opensource
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package br.com.caelum.vraptor.view;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import br.com.caelum.vraptor.environment.Environment;
+
+public class AsyncOutputTest {
+
+	private @Mock Environment environment;
+	private @Mock HttpServletRequest request;
+	private @Mock HttpServletResponse response;
+	private @Mock AsyncContext context;
+
+	private SlowOutputStream stream;
+	private AsyncOutput output;
+
+	@Before
+	public void setUp() throws Exception {
+		MockitoAnnotations.initMocks(this);
+
+		when(environment.supports(AsyncOutput.ENABLED_KEY)).thenReturn(true);
+		when(environment.get(anyString(), anyString())).thenAnswer(new Answer<String>() {
+			@Override
+			public String answer(InvocationOnMock invocation) {
+				return (String) invocation.getArguments()[1];
+			}
+		});
+		when(environment.get(AsyncOutput.THRESHOLD_KEY, "65536")).thenReturn("4");
+		when(environment.get(AsyncOutput.MEMORY_KEY, "1048576")).thenReturn("8");
+
+		stream = new SlowOutputStream();
+		when(request.isAsyncSupported()).thenReturn(true);
+		when(request.startAsync()).thenReturn(context);
+		when(context.getResponse()).thenReturn(response);
+		when(response.getOutputStream()).thenReturn(stream);
+
+		output = new AsyncOutput(environment);
+		output.init();
+	}
+
+	@After
+	public void tearDown() {
+		output.stop();
+	}
+
+	@Test
+	public void shouldBeDisabledByDefault() {
+		AsyncOutput disabled = new AsyncOutput(environment);
+		when(environment.supports(AsyncOutput.ENABLED_KEY)).thenReturn(false);
+		disabled.init();
+
+		assertThat(disabled.isEnabled(request), is(false));
+	}
+
+	@Test
+	public void shouldOnlyAcceptLargeOrUnknownBodiesOnAsyncRequests() {
+		assertThat(output.accepts(request, 3), is(false));
+		assertThat(output.accepts(request, 4), is(true));
+		assertThat(output.accepts(request, -1), is(true));
+
+		when(request.isAsyncStarted()).thenReturn(true);
+		assertThat(output.accepts(request, 4), is(false));
+	}
+
+	@Test
+	public void shouldWriteOnlyWhileTheOutputIsReady() throws IOException {
+		ClosingStream source = new ClosingStream("0123456789".getBytes());
+		output.stream(request, source);
+
+		assertThat(stream.listener == null, is(false));
+		assertThat(stream.size(), is(0));
+
+		stream.allow(1);
+		assertThat(stream.size(), is(10));
+		verify(context, never()).complete();
+
+		stream.allow(1);
+		verify(context).complete();
+		assertThat(source.closed, is(true));
+	}
+
+	@Test
+	public void shouldAbortIdleTransfers() throws Exception {
+		when(environment.get(AsyncOutput.IDLE_TIMEOUT_KEY, "30000")).thenReturn("10");
+		output.stop();
+		output = new AsyncOutput(environment);
+		output.init();
+
+		ClosingStream source = new ClosingStream("0123456789".getBytes());
+		output.stream(request, source);
+
+		verify(context, timeout(1000)).complete();
+		assertThat(source.closed, is(true));
+	}
+
+	@Test
+	public void shouldNotAbortTransfersWhileTheSourceIsBeingRead() throws Exception {
+		when(environment.get(AsyncOutput.IDLE_TIMEOUT_KEY, "30000")).thenReturn("10");
+		output.stop();
+		output = new AsyncOutput(environment);
+		output.init();
+
+		final CountDownLatch reading = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		ClosingStream source = new ClosingStream("0123456789".getBytes()) {
+			@Override
+			public synchronized int read(byte[] b, int off, int len) {
+				reading.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return super.read(b, off, len);
+			}
+		};
+		output.stream(request, source);
+
+		Thread writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					stream.allow(1);
+				} catch (IOException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		});
+		writer.start();
+		reading.await();
+		Thread.sleep(100);
+
+		assertThat(source.closed, is(false));
+		verify(context, never()).complete();
+
+		release.countDown();
+		writer.join();
+		verify(context, timeout(1000)).complete();
+		assertThat(source.closed, is(true));
+	}
+
+	@Test
+	public void shouldSendSmallSpoolsOnTheRequestThread() throws IOException {
+		when(response.getOutputStream()).thenReturn(stream);
+		stream.ready = Integer.MAX_VALUE;
+
+		SpooledOutput spool = output.spool();
+		spool.write("abc".getBytes());
+		spool.send(request, response);
+
+		verify(response).setHeader("Content-Length", "3");
+		verify(request, never()).startAsync();
+		assertArrayEquals("abc".getBytes(), stream.toByteArray());
+	}
+
+	@Test
+	public void shouldSpillLargeSpoolsAndSendThemAsynchronously() throws IOException {
+		byte[] body = new byte[20];
+		Arrays.fill(body, (byte) 'x');
+
+		SpooledOutput spool = output.spool();
+		spool.write(body, 0, 5);
+		spool.write(body, 5, 15);
+		spool.send(request, response);
+
+		verify(response).setHeader("Content-Length", "20");
+		verify(request).startAsync();
+		stream.allow(2);
+		assertArrayEquals(body, stream.toByteArray());
+		verify(context).complete();
+	}
+
+	private static class ClosingStream extends ByteArrayInputStream {
+		volatile boolean closed;
+
+		ClosingStream(byte[] bytes) {
+			super(bytes);
+		}
+
+		@Override
+		public void close() throws IOException {
+			closed = true;
+		}
+	}
+
+	/**
+	 * Accepts as many writes as allowed, then reports it isn't ready.
+	 */
+	private static class SlowOutputStream extends ServletOutputStream {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		WriteListener listener;
+		int ready;
+
+		void allow(int writes) throws IOException {
+			ready = writes;
+			listener.onWritePossible();
+		}
+
+		int size() {
+			return bytes.size();
+		}
+
+		byte[] toByteArray() {
+			return bytes.toByteArray();
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			bytes.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			bytes.write(b, off, len);
+			ready--;
+		}
+
+		@Override
+		public boolean isReady() {
+			return ready > 0;
+		}
+
+		@Override
+		public void setWriteListener(WriteListener listener) {
+			this.listener = listener;
+		}
+	}
+}
@@ -65,6 +65,13 @@ public class DefaultAcceptHeaderToFormatTest {
 		Assert.assertEquals("json", mimeTypeToFormat.getFormat("application/json"));
 	}
 
+	@Test
+	public void testBinaryFormats() {
+		Assert.assertEquals("cbor", mimeTypeToFormat.getFormat("application/cbor"));
+		Assert.assertEquals("msgpack", mimeTypeToFormat.getFormat("application/msgpack"));
+		Assert.assertEquals("msgpack", mimeTypeToFormat.getFormat("application/x-msgpack"));
+	}
+
 
 	@Test
 	public void testJsonWithQualifier() {
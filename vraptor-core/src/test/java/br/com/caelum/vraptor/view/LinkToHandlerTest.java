@@ -41,6 +41,7 @@ import br.com.caelum.vraptor.controller.DefaultBeanClass;
 import br.com.caelum.vraptor.core.DefaultReflectionProvider;
 import br.com.caelum.vraptor.core.ReflectionProvider;
 import br.com.caelum.vraptor.http.route.Router;
+import br.com.caelum.vraptor.ioc.StartupPipeline;
 import br.com.caelum.vraptor.proxy.JavassistProxifier;
 import br.com.caelum.vraptor.proxy.Proxifier;
 
@@ -185,6 +186,23 @@ public class LinkToHandlerTest {
 		assertThat(object1.getClass().getName(), containsString("$linkTo$another_$$"));
 	}
 
+	@Test
+	public void shouldGenerateInterfacesOnStartup() throws Throwable {
+		ServletContext startupContext = Mockito.mock(ServletContext.class);
+		when(startupContext.getContextPath()).thenReturn("/startup");
+		StartupPipeline pipeline = new StartupPipeline();
+		LinkToHandler startupHandler = new LinkToHandler(startupContext, router, new JavassistProxifier(),
+				new DefaultReflectionProvider(), pipeline);
+
+		pipeline.start();
+		startupHandler.pregenerate(new DefaultBeanClass(TestController.class));
+		pipeline.finish();
+
+		Class<?> generated = Class.forName(TestController.class.getName() + "$linkTo$startup");
+		Object linkTo = startupHandler.get(new DefaultBeanClass(TestController.class));
+		assertThat(generated.isInstance(linkTo), is(true));
+	}
+
 	private String invoke(Object obj, String methodName, Object...args) throws Throwable {
 		Class<?>[] types = extractTypes(args);
 		